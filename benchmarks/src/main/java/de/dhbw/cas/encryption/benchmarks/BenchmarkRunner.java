@@ -0,0 +1,33 @@
+package de.dhbw.cas.encryption.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Arrays;
+
+/**
+ * Entry point for running the benchmarks. Accepts the usual JMH command line options. The options may also be passed
+ * as a single whitespace separated argument, which is what the exec-maven-plugin configuration does.
+ * The {@link GCProfiler} is always added so every result also reports the bytes allocated per operation
+ * ({@code gc.alloc.rate.norm}).
+ */
+public final class BenchmarkRunner {
+    private BenchmarkRunner() {
+    }
+
+    public static void main(final String[] args) throws CommandLineOptionException, RunnerException {
+        final String[] jmhArgs = Arrays.stream(args)
+                .flatMap(arg -> Arrays.stream(arg.trim().split("\\s+")))
+                .filter(arg -> !arg.isEmpty())
+                .toArray(String[]::new);
+        final ChainedOptionsBuilder options = new OptionsBuilder()
+                .parent(new CommandLineOptions(jmhArgs))
+                .addProfiler(GCProfiler.class);
+        new Runner(options.build()).run();
+    }
+}
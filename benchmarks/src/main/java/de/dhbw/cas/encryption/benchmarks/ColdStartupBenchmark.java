@@ -0,0 +1,74 @@
+package de.dhbw.cas.encryption.benchmarks;
+
+import de.dhbw.cas.encryption.processor.DecryptingPropertiesPostProcessor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.Banner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.context.event.ApplicationEnvironmentPreparedEvent;
+import org.springframework.boot.logging.DeferredLogs;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the first start of an application decrypting the properties of a fixture in a fresh JVM. Nothing in the
+ * setup touches the security providers, so every fork pays for loading them once while the processor runs. The fixture
+ * is passed as system properties like command line arguments would be. The processor is added as a listener of the
+ * prepared environment so it runs at the same point as when registered in {@code META-INF/spring.factories}. The
+ * default of ten forks with a single invocation each gives cold start numbers only.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(10)
+public class ColdStartupBenchmark {
+
+    @Param({"aes", "rsa", "wrapped", "dh-kem"})
+    public String fixture;
+
+    private ConfigurableApplicationContext context;
+
+    @Setup(Level.Trial)
+    public void setSystemProperties() {
+        Fixtures.loadProperties(fixture).forEach((name, value) -> System.setProperty((String) name, (String) value));
+    }
+
+    @TearDown(Level.Invocation)
+    public void closeContext() {
+        context.close();
+    }
+
+    @Benchmark
+    public ConfigurableApplicationContext startApplication() {
+        final SpringApplication application = new SpringApplication(EmptyApplication.class);
+        application.setWebApplicationType(WebApplicationType.NONE);
+        application.setBannerMode(Banner.Mode.OFF);
+        application.setLogStartupInfo(false);
+        application.addListeners((ApplicationListener<ApplicationEnvironmentPreparedEvent>) event ->
+                new DecryptingPropertiesPostProcessor(new DeferredLogs())
+                        .postProcessEnvironment(event.getEnvironment(), event.getSpringApplication()));
+        context = application.run();
+        return context;
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    static class EmptyApplication {
+    }
+}
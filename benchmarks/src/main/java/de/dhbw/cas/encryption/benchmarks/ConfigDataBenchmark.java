@@ -0,0 +1,99 @@
+package de.dhbw.cas.encryption.benchmarks;
+
+import de.dhbw.cas.encryption.configdata.EncryptedConfigDataLoader;
+import de.dhbw.cas.encryption.configdata.EncryptedConfigDataResource;
+import de.dhbw.cas.encryption.configuration.DecryptionConfiguration;
+import de.dhbw.cas.encryption.configuration.TransformationType;
+import de.dhbw.cas.encryption.decryptors.DecryptorFactory;
+import de.dhbw.cas.encryption.decryptors.TextDecryptor;
+import de.dhbw.cas.encryption.exception.DecryptionException;
+import de.dhbw.cas.encryption.util.HexConverter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.context.config.ConfigData;
+import org.springframework.boot.env.PropertiesPropertySourceLoader;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.io.ByteArrayResource;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares decrypting {@link #propertyCount} values one by one to importing them as a single encrypted properties file
+ * with {@link EncryptedConfigDataLoader}. {@link #decryptValues()} parses a properties file containing the values in hex
+ * format and decrypts them afterward, {@link #importFile()} decrypts the file while parsing it. Both include creating
+ * the decryptor. The files are held in memory, so reading them from disk is not part of the measurement.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class ConfigDataBenchmark {
+
+    @Param({"10", "1000", "10000"})
+    public int propertyCount;
+
+    private GeneratedFixture fixture;
+    private byte[] hexFile;
+    private DecryptionConfiguration configuration;
+    private byte[] encryptedFile;
+    private final EncryptedConfigDataLoader loader = new EncryptedConfigDataLoader();
+
+    @Setup(Level.Trial)
+    public void generateFixture() {
+        Fixtures.registerProviders();
+        fixture = GeneratedFixture.generate(TransformationType.SYMMETRIC);
+        final Properties properties = fixture.withEncryptedProperties(propertyCount);
+        configuration = DecryptionConfiguration.fromEnvironment(GeneratedFixture.createEnvironment(properties));
+        final StringBuilder file = new StringBuilder();
+        final StringBuilder hex = new StringBuilder();
+        for (int i = 0; i < propertyCount; i++) {
+            final String name = GeneratedFixture.PROPERTY_PREFIX + i;
+            file.append(name).append("=secret-").append(i).append('\n');
+            hex.append(name).append('=').append(properties.getProperty(name)).append('\n');
+        }
+        hexFile = hex.toString().getBytes(StandardCharsets.US_ASCII);
+        encryptedFile = HexConverter.loadBytesFromHexString(fixture.encrypt(file.toString()));
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteFixture() {
+        fixture.close();
+    }
+
+    @Benchmark
+    public Map<String, Object> decryptValues() throws DecryptionException, IOException {
+        final PropertySource<?> encrypted = new PropertiesPropertySourceLoader()
+                .load("hex", new ByteArrayResource(hexFile)).getFirst();
+        final TextDecryptor decryptor = DecryptorFactory.createDecryptor(configuration);
+        final Map<String, Object> decrypted = new HashMap<>();
+        for (String property : configuration.properties()) {
+            decrypted.put(property, decryptor.decrypt(String.valueOf(encrypted.getProperty(property)),
+                    configuration.iv(), configuration.charset()));
+        }
+        return decrypted;
+    }
+
+    @Benchmark
+    public ConfigData importFile() throws IOException {
+        return loader.load(() -> null, new EncryptedConfigDataResource(new ByteArrayResource(encryptedFile),
+                new PropertiesPropertySourceLoader(), configuration));
+    }
+}
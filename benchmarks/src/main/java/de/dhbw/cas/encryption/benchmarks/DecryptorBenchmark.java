@@ -0,0 +1,100 @@
+package de.dhbw.cas.encryption.benchmarks;
+
+import de.dhbw.cas.encryption.configuration.DecryptionConfiguration;
+import de.dhbw.cas.encryption.decryptors.DecryptorFactory;
+import de.dhbw.cas.encryption.decryptors.TextDecryptor;
+import de.dhbw.cas.encryption.exception.DecryptionException;
+import de.dhbw.cas.encryption.util.HexConverter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the {@link TextDecryptor} implementations over every fixture the processor is tested with. For each fixture
+ * this measures
+ * <ul>
+ *     <li>{@link #construct()}: the cost of creating the decryptor, i.e. key parsing, unwrapping, decapsulation. The
+ *     JVM-wide key cache of {@link DecryptorFactory} is off by default so every call pays for this, use
+ *     {@code -p cache=true,false} to compare it to a cache hit</li>
+ *     <li>{@link #decrypt()}: the throughput of decrypting the first configured property</li>
+ *     <li>{@link #loadBytesFromHexString()}: the cost of converting the property value into bytes</li>
+ * </ul>
+ * Run through {@link BenchmarkRunner} to also get the allocated bytes per operation. Fixtures that deliberately fail
+ * (e.g. {@code camellia-problem}) or disable the processor are left out of {@link #fixture}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DecryptorBenchmark {
+
+    @Param({"aes", "aes-128-gcm", "aes-cbc", "aria-cbc", "blowfish", "camellia", "cast5", "cast6", "chacha", "des-ede",
+            "dstu7624", "gost28147", "grainv1", "grain128", "hc128", "hc256", "idea", "noekeon", "rc2", "rc5", "rc6",
+            "rijndael", "salsa20", "seed", "serpent", "shacal2", "skipjack", "sm4", "tea", "twofish", "threefish512",
+            "vmpc", "vmpc-ksa3", "xtea", "xsalsa20", "zuc-128", "el-gamal", "rsa", "ecies", "wrapped", "dh-kem"})
+    public String fixture;
+
+    /**
+     * The value for {@code dhbw.cas.decryption.cache}
+     */
+    @Param({"false"})
+    public boolean cache;
+
+    private DecryptionConfiguration configuration;
+    private TextDecryptor decryptor;
+    private String encryptedHex;
+    private byte[] encrypted;
+
+    @Setup(Level.Trial)
+    public void setUp() throws DecryptionException {
+        Fixtures.registerProviders();
+        final StandardEnvironment environment = Fixtures.loadEnvironment(fixture);
+        environment.getPropertySources().addFirst(new MapPropertySource("benchmark",
+                Map.of(DecryptionConfiguration.PROPERTY_PREFIX + "cache", String.valueOf(cache))));
+        configuration = DecryptionConfiguration.fromEnvironment(environment);
+        decryptor = DecryptorFactory.createDecryptor(configuration);
+        encryptedHex = environment.getRequiredProperty(configuration.properties()[0]);
+        encrypted = HexConverter.loadBytesFromHexString(encryptedHex);
+    }
+
+    @Benchmark
+    public TextDecryptor construct() throws DecryptionException {
+        return DecryptorFactory.createDecryptor(configuration);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public String decrypt() throws DecryptionException {
+        return decryptor.decrypt(encrypted, configuration.iv(), configuration.charset());
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public String decryptHex() throws DecryptionException {
+        return decryptor.decrypt(encryptedHex, configuration.iv(), configuration.charset());
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public byte[] loadBytesFromHexString() {
+        return HexConverter.loadBytesFromHexString(encryptedHex);
+    }
+}
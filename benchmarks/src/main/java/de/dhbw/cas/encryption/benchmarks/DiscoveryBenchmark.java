@@ -0,0 +1,129 @@
+package de.dhbw.cas.encryption.benchmarks;
+
+import de.dhbw.cas.encryption.configuration.DecryptionConfiguration;
+import de.dhbw.cas.encryption.configuration.TransformationType;
+import de.dhbw.cas.encryption.processor.DecryptingPropertiesPostProcessor;
+import de.dhbw.cas.encryption.resource.EncryptedProtocolResolver;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.logging.DeferredLogs;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.core.env.SystemEnvironmentPropertySource;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares listing the encrypted properties in {@code dhbw.cas.decryption.properties} with discovering them by their
+ * {@code ENC(...)} marker or by a name pattern. Next to the encrypted properties the environment holds
+ * {@link #plainCount} unencrypted variables, imitating the variables a container platform like Kubernetes injects.
+ * These have to be scanned during discovery and pattern matching but are never read when the properties are listed.
+ * The difference to {@link #explicitList()} is thus the cost of the scan.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class DiscoveryBenchmark {
+
+    @Param({"1000", "10000"})
+    public int plainCount;
+
+    @Param({"10", "100"})
+    public int encryptedCount;
+
+    private GeneratedFixture fixture;
+    private Properties listedProperties;
+    private Properties markedProperties;
+    private Properties patternProperties;
+    private Map<String, Object> variables;
+    private StandardEnvironment listedEnvironment;
+    private StandardEnvironment markedEnvironment;
+    private StandardEnvironment patternEnvironment;
+
+    @Setup(Level.Trial)
+    public void generateFixture() {
+        Fixtures.registerProviders();
+        fixture = GeneratedFixture.generate(TransformationType.SYMMETRIC);
+        listedProperties = fixture.withEncryptedProperties(encryptedCount);
+        markedProperties = new Properties();
+        markedProperties.putAll(listedProperties);
+        markedProperties.remove(DecryptionConfiguration.PROPERTY_PREFIX + "properties");
+        markedProperties.setProperty(DecryptionConfiguration.PROPERTY_PREFIX + "auto-discovery", "true");
+        for (int i = 0; i < encryptedCount; i++) {
+            final String name = GeneratedFixture.PROPERTY_PREFIX + i;
+            markedProperties.setProperty(name, "ENC(" + markedProperties.getProperty(name) + ")");
+        }
+        patternProperties = new Properties();
+        patternProperties.putAll(listedProperties);
+        patternProperties.setProperty(DecryptionConfiguration.PROPERTY_PREFIX + "properties",
+                GeneratedFixture.PROPERTY_PREFIX + "*");
+        variables = new HashMap<>(plainCount);
+        for (int i = 0; i < plainCount; i++) {
+            variables.put("SERVICE_" + i + "_PORT_8080_TCP_ADDR", "10.0." + (i / 256) + "." + (i % 256));
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void createEnvironments() {
+        listedEnvironment = createEnvironment(listedProperties);
+        markedEnvironment = createEnvironment(markedProperties);
+        patternEnvironment = createEnvironment(patternProperties);
+    }
+
+    @TearDown(Level.Invocation)
+    public void releaseEnvironments() {
+        // the applications are never run, so nothing else releases the environments registered by the processor
+        EncryptedProtocolResolver.releaseApplicationEnvironment(listedEnvironment);
+        EncryptedProtocolResolver.releaseApplicationEnvironment(markedEnvironment);
+        EncryptedProtocolResolver.releaseApplicationEnvironment(patternEnvironment);
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteFixture() {
+        fixture.close();
+    }
+
+    @Benchmark
+    public StandardEnvironment explicitList() {
+        new DecryptingPropertiesPostProcessor(new DeferredLogs())
+                .postProcessEnvironment(listedEnvironment, new SpringApplication());
+        return listedEnvironment;
+    }
+
+    @Benchmark
+    public StandardEnvironment autoDiscovery() {
+        new DecryptingPropertiesPostProcessor(new DeferredLogs())
+                .postProcessEnvironment(markedEnvironment, new SpringApplication());
+        return markedEnvironment;
+    }
+
+    @Benchmark
+    public StandardEnvironment namePattern() {
+        new DecryptingPropertiesPostProcessor(new DeferredLogs())
+                .postProcessEnvironment(patternEnvironment, new SpringApplication());
+        return patternEnvironment;
+    }
+
+    private StandardEnvironment createEnvironment(final Properties properties) {
+        final StandardEnvironment environment = GeneratedFixture.createEnvironment(properties);
+        environment.getPropertySources().addLast(new SystemEnvironmentPropertySource("injected", variables));
+        return environment;
+    }
+}
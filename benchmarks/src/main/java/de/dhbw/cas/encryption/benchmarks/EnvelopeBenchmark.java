@@ -0,0 +1,87 @@
+package de.dhbw.cas.encryption.benchmarks;
+
+import de.dhbw.cas.encryption.decryptors.CiphertextEnvelope;
+import de.dhbw.cas.encryption.decryptors.CiphertextEnvelope.ParameterType;
+import de.dhbw.cas.encryption.decryptors.SymmetricDecryptor;
+import de.dhbw.cas.encryption.decryptors.TextDecryptor;
+import de.dhbw.cas.encryption.exception.DecryptionException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.crypto.Cipher;
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.IvParameterSpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.security.spec.AlgorithmParameterSpec;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares decrypting raw ciphertext with the IV passed alongside it to decrypting a {@link CiphertextEnvelope}
+ * carrying its own IV. The difference is the cost of parsing the envelope header.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EnvelopeBenchmark {
+    private static final String PLAINTEXT = "jdbc:mariadb://localhost:3306/test";
+
+    @Param({"AES/CBC/PKCS5Padding", "AES/GCM/NoPadding"})
+    public String transformation;
+
+    private TextDecryptor decryptor;
+    private byte[] iv;
+    private byte[] raw;
+    private byte[] envelope;
+
+    @Setup(Level.Trial)
+    public void generateFixture() throws GeneralSecurityException, DecryptionException {
+        Fixtures.registerProviders();
+        final KeyGenerator keyGenerator = KeyGenerator.getInstance("AES");
+        keyGenerator.init(256);
+        final SecretKey key = keyGenerator.generateKey();
+        final boolean gcm = transformation.contains("/GCM/");
+        // the raw format uses the length of the IV in bytes as tag length in bits, so GCM needs a 128 byte IV there
+        iv = new byte[gcm ? 128 : 16];
+        new SecureRandom().nextBytes(iv);
+        raw = encrypt(key, gcm ? new GCMParameterSpec(iv.length, iv) : new IvParameterSpec(iv));
+        final byte[] nonce = new byte[gcm ? 12 : 16];
+        new SecureRandom().nextBytes(nonce);
+        envelope = gcm
+                ? CiphertextEnvelope.encode(ParameterType.GCM, nonce, 16, encrypt(key, new GCMParameterSpec(128, nonce)))
+                : CiphertextEnvelope.encode(ParameterType.IV, nonce, 0, encrypt(key, new IvParameterSpec(nonce)));
+        decryptor = new SymmetricDecryptor(transformation, null, key.getEncoded());
+    }
+
+    private byte[] encrypt(final SecretKey key, final AlgorithmParameterSpec parameters) throws GeneralSecurityException {
+        final Cipher cipher = Cipher.getInstance(transformation);
+        cipher.init(Cipher.ENCRYPT_MODE, key, parameters);
+        return cipher.doFinal(PLAINTEXT.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Benchmark
+    public String decryptRaw() throws DecryptionException {
+        return decryptor.decrypt(raw, iv, StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public String decryptEnvelope() throws DecryptionException {
+        return decryptor.decrypt(envelope, null, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,60 @@
+package de.dhbw.cas.encryption.benchmarks;
+
+import de.dhbw.cas.encryption.configuration.DecryptionConfiguration;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.springframework.core.env.PropertiesPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.security.Security;
+import java.util.Properties;
+
+/**
+ * Loads the property files from {@code processor/src/test/resources/properties}. Every fixture configures the processor
+ * and contains at least one encrypted property.
+ */
+final class Fixtures {
+    private Fixtures() {
+    }
+
+    static void registerProviders() {
+        if (Security.getProvider(BouncyCastleProvider.PROVIDER_NAME) == null) {
+            Security.addProvider(new BouncyCastleProvider());
+        }
+    }
+
+    /**
+     * @param fixture The name of the property file without extension
+     * @return The properties of the fixture
+     */
+    static Properties loadProperties(final String fixture) {
+        final Properties properties = new Properties();
+        try (InputStream inputStream = new ClassPathResource("properties/" + fixture + ".properties").getInputStream()) {
+            properties.load(inputStream);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not load fixture " + fixture, e);
+        }
+        return properties;
+    }
+
+    /**
+     * @param fixture The name of the property file without extension
+     * @return An environment containing only the properties of the fixture
+     */
+    static StandardEnvironment loadEnvironment(final String fixture) {
+        final StandardEnvironment environment = new StandardEnvironment();
+        environment.getPropertySources().addFirst(new PropertiesPropertySource(fixture, loadProperties(fixture)));
+        return environment;
+    }
+
+    /**
+     * @param fixture The name of the property file without extension
+     * @return The parsed configuration of the fixture
+     */
+    static DecryptionConfiguration loadConfiguration(final String fixture) {
+        return DecryptionConfiguration.fromEnvironment(loadEnvironment(fixture));
+    }
+}
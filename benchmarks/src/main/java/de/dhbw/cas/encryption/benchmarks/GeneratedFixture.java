@@ -0,0 +1,249 @@
+package de.dhbw.cas.encryption.benchmarks;
+
+import de.dhbw.cas.encryption.configuration.DecryptionConfiguration;
+import de.dhbw.cas.encryption.configuration.TransformationType;
+import de.dhbw.cas.encryption.decryptors.SegmentedFile;
+import de.dhbw.cas.encryption.decryptors.UnwrappingDecryptor;
+import de.dhbw.cas.encryption.util.HexConverter;
+import org.springframework.core.env.PropertiesPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+
+import javax.crypto.Cipher;
+import javax.crypto.KEM;
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.IvParameterSpec;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.SecureRandom;
+import java.util.Comparator;
+import java.util.Properties;
+import java.util.stream.Stream;
+
+/**
+ * Generates fresh key material for a {@link TransformationType} and encrypts values with it. The keys are written to a
+ * temporary directory so the processor can load them like it would in an application. Nothing has to be available
+ * beforehand, so the benchmarks using this run offline.
+ */
+final class GeneratedFixture implements AutoCloseable {
+    static final String PROPERTY_PREFIX = "benchmark.secret.";
+    private static final String ASYMMETRIC_TRANSFORMATION = "RSA/ECB/PKCS1Padding";
+    private static final String WRAPPING_TRANSFORMATION = "RSA/ECB/OAEPWithSHA-256AndMGF1Padding";
+    private static final String KEM_TRANSFORMATION = "DHKEM";
+    private static final String KEM_KEY_ALGORITHM = "X25519";
+
+    private final Path directory;
+    private final Properties configuration;
+    private final Cipher cipher;
+    private final Key dataKey;
+
+    private GeneratedFixture(final Path directory, final Properties configuration, final Cipher cipher,
+                             final Key dataKey) {
+        this.directory = directory;
+        this.configuration = configuration;
+        this.cipher = cipher;
+        this.dataKey = dataKey;
+    }
+
+    /**
+     * @param type The type of transformation to generate keys for
+     * @return A fixture whose configuration does not list any property yet
+     */
+    static GeneratedFixture generate(final TransformationType type) {
+        try {
+            final Path directory = Files.createTempDirectory("encryption-starter-benchmark");
+            final Properties configuration = new Properties();
+            configuration.setProperty(DecryptionConfiguration.PROPERTY_PREFIX + "type", type.name());
+            // the key the values are encrypted with, for ASYMMETRIC the public key
+            Key dataKey = null;
+            final Cipher cipher = switch (type) {
+                case SYMMETRIC -> {
+                    final Cipher aes = Cipher.getInstance(UnwrappingDecryptor.TRANSFORMATION_USED_WITH_UNWRAPPED_KEY);
+                    final SecretKey secretKey = generateAesKey();
+                    writeKey(directory, "key", secretKey.getEncoded(), configuration);
+                    configuration.setProperty(DecryptionConfiguration.PROPERTY_PREFIX + "transformation",
+                            UnwrappingDecryptor.TRANSFORMATION_USED_WITH_UNWRAPPED_KEY);
+                    initWithRandomIv(aes, secretKey, configuration);
+                    dataKey = secretKey;
+                    yield aes;
+                }
+                case ASYMMETRIC -> {
+                    final KeyPair keyPair = generateRsaKeyPair();
+                    writeKey(directory, "key", keyPair.getPrivate().getEncoded(), configuration);
+                    configuration.setProperty(DecryptionConfiguration.PROPERTY_PREFIX + "transformation",
+                            ASYMMETRIC_TRANSFORMATION);
+                    final Cipher rsa = Cipher.getInstance(ASYMMETRIC_TRANSFORMATION);
+                    rsa.init(Cipher.ENCRYPT_MODE, keyPair.getPublic());
+                    dataKey = keyPair.getPublic();
+                    yield rsa;
+                }
+                case WRAPPING -> {
+                    final KeyPair keyPair = generateRsaKeyPair();
+                    final SecretKey secretKey = generateAesKey();
+                    final Cipher wrappingCipher = Cipher.getInstance(WRAPPING_TRANSFORMATION);
+                    wrappingCipher.init(Cipher.WRAP_MODE, keyPair.getPublic());
+                    writeKey(directory, "key", wrappingCipher.wrap(secretKey), configuration);
+                    writeKey(directory, "wrapping-key", keyPair.getPrivate().getEncoded(), configuration);
+                    configuration.setProperty(DecryptionConfiguration.PROPERTY_PREFIX + "transformation",
+                            WRAPPING_TRANSFORMATION);
+                    final Cipher aes = Cipher.getInstance(UnwrappingDecryptor.TRANSFORMATION_USED_WITH_UNWRAPPED_KEY);
+                    initWithRandomIv(aes, secretKey, configuration);
+                    dataKey = secretKey;
+                    yield aes;
+                }
+                case KEM -> {
+                    final KeyPair keyPair = KeyPairGenerator.getInstance(KEM_KEY_ALGORITHM).generateKeyPair();
+                    final KEM.Encapsulated encapsulated = KEM.getInstance(KEM_TRANSFORMATION)
+                            .newEncapsulator(keyPair.getPublic())
+                            .encapsulate(0, 32, "AES");
+                    writeKey(directory, "key", encapsulated.encapsulation(), configuration);
+                    writeKey(directory, "wrapping-key", keyPair.getPrivate().getEncoded(), configuration);
+                    configuration.setProperty(DecryptionConfiguration.PROPERTY_PREFIX + "transformation",
+                            KEM_TRANSFORMATION);
+                    configuration.setProperty(DecryptionConfiguration.PROPERTY_PREFIX + "key-algorithm",
+                            KEM_KEY_ALGORITHM);
+                    final Cipher aes = Cipher.getInstance(UnwrappingDecryptor.TRANSFORMATION_USED_WITH_UNWRAPPED_KEY);
+                    initWithRandomIv(aes, encapsulated.key(), configuration);
+                    dataKey = encapsulated.key();
+                    yield aes;
+                }
+            };
+            return new GeneratedFixture(directory, configuration, cipher, dataKey);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Could not generate key material for " + type, e);
+        }
+    }
+
+    private static SecretKey generateAesKey() throws GeneralSecurityException {
+        final KeyGenerator keyGenerator = KeyGenerator.getInstance("AES");
+        keyGenerator.init(256);
+        return keyGenerator.generateKey();
+    }
+
+    private static KeyPair generateRsaKeyPair() throws GeneralSecurityException {
+        final KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance("RSA");
+        keyPairGenerator.initialize(2048);
+        return keyPairGenerator.generateKeyPair();
+    }
+
+    private static void initWithRandomIv(final Cipher cipher, final Key key, final Properties configuration)
+            throws GeneralSecurityException {
+        final byte[] iv = new byte[cipher.getBlockSize()];
+        new SecureRandom().nextBytes(iv);
+        cipher.init(Cipher.ENCRYPT_MODE, key, new IvParameterSpec(iv));
+        configuration.setProperty(DecryptionConfiguration.PROPERTY_PREFIX + "iv", HexConverter.convertToHexString(iv));
+    }
+
+    private static void writeKey(final Path directory, final String property, final byte[] key,
+                                 final Properties configuration) throws IOException {
+        final Path file = Files.writeString(directory.resolve(property + ".txt"), HexConverter.convertToHexString(key));
+        configuration.setProperty(DecryptionConfiguration.PROPERTY_PREFIX + property, file.toAbsolutePath().toString());
+    }
+
+    /**
+     * @param plaintext The value to encrypt
+     * @return The encrypted value as hex string, i.e. the way it would be written into a property file
+     */
+    String encrypt(final String plaintext) {
+        try {
+            return HexConverter.convertToHexString(cipher.doFinal(plaintext.getBytes(StandardCharsets.US_ASCII)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Could not encrypt " + plaintext, e);
+        }
+    }
+
+    /**
+     * @param plaintext The content to encrypt
+     * @return The encrypted content, i.e. the way an encrypted file would be written
+     */
+    byte[] encrypt(final byte[] plaintext) {
+        try {
+            return cipher.doFinal(plaintext);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Could not encrypt " + plaintext.length + " bytes", e);
+        }
+    }
+
+    /**
+     * @param plaintext The content to encrypt
+     * @return The content as {@link SegmentedFile} encrypted in
+     * {@link SegmentedFile#TRANSFORMATION_USED_WITH_UNWRAPPED_KEY}, so only fixtures of WRAPPING and KEM can open it
+     */
+    byte[] encryptSegmented(final byte[] plaintext) {
+        try {
+            final ByteArrayOutputStream encrypted = new ByteArrayOutputStream(plaintext.length + plaintext.length / 64);
+            SegmentedFile.encrypt(dataKey, SegmentedFile.TRANSFORMATION_USED_WITH_UNWRAPPED_KEY,
+                    SegmentedFile.DEFAULT_SEGMENT_SIZE, new ByteArrayInputStream(plaintext), encrypted);
+            return encrypted.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Could not encrypt " + plaintext.length + " bytes", e);
+        }
+    }
+
+    /**
+     * @param name    The name of the file
+     * @param content The content of the file
+     * @return The file written into the directory of the fixture, which is deleted with the fixture
+     */
+    Path writeFile(final String name, final byte[] content) {
+        try {
+            return Files.write(directory.resolve(name), content);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Generates {@code count} encrypted properties named {@link #PROPERTY_PREFIX} followed by their index and lists
+     * them in {@code dhbw.cas.decryption.properties}
+     *
+     * @param count The number of properties to generate
+     * @return The configuration and the encrypted properties
+     */
+    Properties withEncryptedProperties(final int count) {
+        final Properties properties = new Properties();
+        properties.putAll(configuration);
+        final StringBuilder propertyNames = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            properties.setProperty(PROPERTY_PREFIX + i, encrypt("secret-" + i));
+            if (i > 0) {
+                propertyNames.append(',');
+            }
+            propertyNames.append(PROPERTY_PREFIX).append(i);
+        }
+        properties.setProperty(DecryptionConfiguration.PROPERTY_PREFIX + "properties", propertyNames.toString());
+        return properties;
+    }
+
+    /**
+     * @param properties The properties to put into the environment
+     * @return A new environment where the given properties take precedence over system properties and variables
+     */
+    static StandardEnvironment createEnvironment(final Properties properties) {
+        final StandardEnvironment environment = new StandardEnvironment();
+        environment.getPropertySources().addFirst(new PropertiesPropertySource("generated", properties));
+        return environment;
+    }
+
+    @Override
+    public void close() {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package de.dhbw.cas.encryption.benchmarks;
+
+import de.dhbw.cas.encryption.decryptors.AsymmetricDecryptor;
+import de.dhbw.cas.encryption.decryptors.CiphertextEnvelope;
+import de.dhbw.cas.encryption.decryptors.CiphertextEnvelope.ParameterType;
+import de.dhbw.cas.encryption.decryptors.HybridEnvelope;
+import de.dhbw.cas.encryption.decryptors.TextDecryptor;
+import de.dhbw.cas.encryption.exception.DecryptionException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import javax.crypto.Cipher;
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.SecureRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decrypts {@link #propertyCount} values with a new RSA decryptor, once encrypted with the public key directly and once
+ * as {@link HybridEnvelope hybrid envelopes} sharing a single data key. The difference is the cost of the private key
+ * operations saved by caching the data key.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HybridBenchmark {
+    private static final String TRANSFORMATION = "RSA/ECB/OAEPWithSHA-256AndMGF1Padding";
+
+    @Param({"1", "100"})
+    public int propertyCount;
+
+    private byte[] privateKey;
+    private byte[][] asymmetric;
+    private byte[][] hybrid;
+
+    @Setup(Level.Trial)
+    public void generateFixture() throws GeneralSecurityException {
+        Fixtures.registerProviders();
+        final KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance("RSA");
+        keyPairGenerator.initialize(3072);
+        final KeyPair keyPair = keyPairGenerator.generateKeyPair();
+        privateKey = keyPair.getPrivate().getEncoded();
+        final KeyGenerator keyGenerator = KeyGenerator.getInstance("AES");
+        keyGenerator.init(256);
+        final SecretKey dataKey = keyGenerator.generateKey();
+
+        final Cipher rsa = Cipher.getInstance(TRANSFORMATION);
+        rsa.init(Cipher.ENCRYPT_MODE, keyPair.getPublic());
+        final byte[] wrappedKey = rsa.doFinal(dataKey.getEncoded());
+        final Cipher aes = Cipher.getInstance(HybridEnvelope.GCM_TRANSFORMATION);
+        asymmetric = new byte[propertyCount][];
+        hybrid = new byte[propertyCount][];
+        for (int i = 0; i < propertyCount; i++) {
+            final byte[] plaintext = ("secret-" + i).getBytes(StandardCharsets.UTF_8);
+            rsa.init(Cipher.ENCRYPT_MODE, keyPair.getPublic());
+            asymmetric[i] = rsa.doFinal(plaintext);
+            final byte[] nonce = new byte[12];
+            new SecureRandom().nextBytes(nonce);
+            aes.init(Cipher.ENCRYPT_MODE, dataKey, new GCMParameterSpec(128, nonce));
+            hybrid[i] = HybridEnvelope.encode(wrappedKey,
+                    CiphertextEnvelope.encode(ParameterType.GCM, nonce, 16, aes.doFinal(plaintext)));
+        }
+    }
+
+    @Benchmark
+    public void decryptAsymmetric(final Blackhole blackhole) throws DecryptionException {
+        decryptAll(asymmetric, blackhole);
+    }
+
+    @Benchmark
+    public void decryptHybrid(final Blackhole blackhole) throws DecryptionException {
+        decryptAll(hybrid, blackhole);
+    }
+
+    private void decryptAll(final byte[][] values, final Blackhole blackhole) throws DecryptionException {
+        final TextDecryptor decryptor = new AsymmetricDecryptor(TRANSFORMATION, null, privateKey);
+        for (byte[] value : values) {
+            blackhole.consume(decryptor.decrypt(value, null, StandardCharsets.UTF_8));
+        }
+    }
+}
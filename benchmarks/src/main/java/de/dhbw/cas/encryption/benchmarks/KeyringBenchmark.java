@@ -0,0 +1,89 @@
+package de.dhbw.cas.encryption.benchmarks;
+
+import de.dhbw.cas.encryption.configuration.DecryptionConfiguration;
+import de.dhbw.cas.encryption.configuration.TransformationType;
+import de.dhbw.cas.encryption.decryptors.DecryptorFactory;
+import de.dhbw.cas.encryption.decryptors.TextDecryptor;
+import de.dhbw.cas.encryption.exception.DecryptionException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shows that retaining old keys in the keyring does not make startup or decryption more expensive. Every key id of the
+ * keyring refers to the same generated key, as only the number of ids matters here. {@link #decryptWithKeyId()}
+ * decrypts a value tagged with the newest key id, {@link #decryptWithoutKeyId()} serves as baseline.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KeyringBenchmark {
+
+    @Param({"0", "10", "1000"})
+    public int keyringSize;
+
+    private GeneratedFixture fixture;
+    private StandardEnvironment environment;
+    private DecryptionConfiguration configuration;
+    private TextDecryptor decryptor;
+    private String encrypted;
+    private String encryptedWithKeyId;
+
+    @Setup(Level.Trial)
+    public void generateFixture() throws DecryptionException {
+        Fixtures.registerProviders();
+        fixture = GeneratedFixture.generate(TransformationType.SYMMETRIC);
+        final Properties properties = fixture.withEncryptedProperties(1);
+        final String keyPath = properties.getProperty(DecryptionConfiguration.PROPERTY_PREFIX + "key");
+        for (int i = 0; i < keyringSize; i++) {
+            properties.setProperty(DecryptionConfiguration.PROPERTY_PREFIX + "keyring.k" + i, keyPath);
+        }
+        environment = GeneratedFixture.createEnvironment(properties);
+        configuration = DecryptionConfiguration.fromEnvironment(environment);
+        decryptor = DecryptorFactory.createDecryptor(configuration);
+        encrypted = properties.getProperty(GeneratedFixture.PROPERTY_PREFIX + 0);
+        encryptedWithKeyId = keyringSize == 0 ? encrypted : "k" + (keyringSize - 1) + ":" + encrypted;
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteFixture() {
+        fixture.close();
+    }
+
+    @Benchmark
+    public DecryptionConfiguration parseConfiguration() {
+        return DecryptionConfiguration.fromEnvironment(environment);
+    }
+
+    @Benchmark
+    public TextDecryptor createDecryptor() throws DecryptionException {
+        return DecryptorFactory.createDecryptor(configuration);
+    }
+
+    @Benchmark
+    public String decryptWithoutKeyId() throws DecryptionException {
+        return decryptor.decrypt(encrypted, configuration.iv(), configuration.charset());
+    }
+
+    @Benchmark
+    public String decryptWithKeyId() throws DecryptionException {
+        return decryptor.decrypt(encryptedWithKeyId, configuration.iv(), configuration.charset());
+    }
+}
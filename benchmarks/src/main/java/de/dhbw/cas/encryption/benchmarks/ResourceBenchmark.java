@@ -0,0 +1,82 @@
+package de.dhbw.cas.encryption.benchmarks;
+
+import de.dhbw.cas.encryption.configuration.TransformationType;
+import de.dhbw.cas.encryption.resource.EncryptedProtocolResolver;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads an encrypted file of {@link #sizeInMegabytes} megabytes through {@code encrypted:file:...}, once as a stream
+ * and once as a whole. The allocations of {@link #stream()} should not grow with the size of the file, whereas
+ * {@link #readAllBytes()} allocates at least the decrypted content. The file is written once per trial, so it is
+ * likely served from the page cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ResourceBenchmark {
+    private static final int MEGABYTE = 1024 * 1024;
+
+    @Param({"1", "16"})
+    public int sizeInMegabytes;
+
+    private GeneratedFixture fixture;
+    private GenericApplicationContext context;
+    private Resource resource;
+
+    @Setup(Level.Trial)
+    public void generateFixture() {
+        Fixtures.registerProviders();
+        fixture = GeneratedFixture.generate(TransformationType.SYMMETRIC);
+        final byte[] content = new byte[sizeInMegabytes * MEGABYTE];
+        new Random(42).nextBytes(content);
+        final Path file = fixture.writeFile("content.bin.enc", fixture.encrypt(content));
+        context = new GenericApplicationContext();
+        context.setEnvironment(GeneratedFixture.createEnvironment(fixture.withEncryptedProperties(0)));
+        context.addProtocolResolver(new EncryptedProtocolResolver());
+        resource = context.getResource(EncryptedProtocolResolver.PREFIX + file.toUri());
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteFixture() {
+        context.close();
+        fixture.close();
+    }
+
+    @Benchmark
+    public long stream() throws IOException {
+        try (InputStream stream = resource.getInputStream()) {
+            return stream.transferTo(OutputStream.nullOutputStream());
+        }
+    }
+
+    @Benchmark
+    public byte[] readAllBytes() throws IOException {
+        try (InputStream stream = resource.getInputStream()) {
+            return stream.readAllBytes();
+        }
+    }
+}
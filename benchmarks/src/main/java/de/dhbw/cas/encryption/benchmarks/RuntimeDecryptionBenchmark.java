@@ -0,0 +1,98 @@
+package de.dhbw.cas.encryption.benchmarks;
+
+import de.dhbw.cas.encryption.configuration.DecryptionConfiguration;
+import de.dhbw.cas.encryption.decryptors.DecryptorFactory;
+import de.dhbw.cas.encryption.decryptors.TextDecryptor;
+import de.dhbw.cas.encryption.exception.DecryptionException;
+import de.dhbw.cas.encryption.runtime.DecryptionService;
+import de.dhbw.cas.encryption.util.HexConverter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shows how the throughput of {@link DecryptionService} scales with the number of threads. As a baseline the same
+ * work is done with a single decryptor that is shared by synchronizing on it, which is what sharing a
+ * {@link TextDecryptor} would require. Compare the {@code pooled} and {@code synchronizedDecryptor} results for the
+ * same number of threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RuntimeDecryptionBenchmark {
+
+    @Param({"aes", "aes-cbc", "chacha", "rsa", "wrapped", "dh-kem"})
+    public String fixture;
+
+    private DecryptionConfiguration configuration;
+    private DecryptionService service;
+    private TextDecryptor sharedDecryptor;
+    private byte[] encrypted;
+
+    @Setup(Level.Trial)
+    public void setUp() throws DecryptionException {
+        Fixtures.registerProviders();
+        configuration = Fixtures.loadConfiguration(fixture);
+        service = new DecryptionService(configuration);
+        sharedDecryptor = DecryptorFactory.createDecryptor(configuration);
+        encrypted = HexConverter.loadBytesFromHexString(
+                Fixtures.loadEnvironment(fixture).getRequiredProperty(configuration.properties()[0]));
+    }
+
+    @Benchmark
+    @Threads(1)
+    public String pooledOneThread() throws DecryptionException {
+        return service.decrypt(encrypted);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String pooledFourThreads() throws DecryptionException {
+        return service.decrypt(encrypted);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public String pooledMaxThreads() throws DecryptionException {
+        return service.decrypt(encrypted);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public String synchronizedDecryptorOneThread() throws DecryptionException {
+        return decryptWithSharedDecryptor();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String synchronizedDecryptorFourThreads() throws DecryptionException {
+        return decryptWithSharedDecryptor();
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public String synchronizedDecryptorMaxThreads() throws DecryptionException {
+        return decryptWithSharedDecryptor();
+    }
+
+    private String decryptWithSharedDecryptor() throws DecryptionException {
+        synchronized (sharedDecryptor) {
+            return sharedDecryptor.decrypt(encrypted, configuration.iv(), configuration.charset());
+        }
+    }
+}
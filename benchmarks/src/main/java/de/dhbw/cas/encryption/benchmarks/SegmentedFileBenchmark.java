@@ -0,0 +1,96 @@
+package de.dhbw.cas.encryption.benchmarks;
+
+import de.dhbw.cas.encryption.configuration.DecryptionConfiguration;
+import de.dhbw.cas.encryption.configuration.TransformationType;
+import de.dhbw.cas.encryption.decryptors.SegmentedFile;
+import de.dhbw.cas.encryption.decryptors.StreamDecryptor;
+import de.dhbw.cas.encryption.exception.DecryptionException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads from a random position of a 64 MB file. {@link #readPage()} and {@link #readRange()} read 4 KB and 8 MB from a
+ * {@link SegmentedFile} with {@link #parallelism} threads, {@link #streamToPage()} decrypts the same file encrypted as
+ * a whole with {@link StreamDecryptor} up to the position and reads 4 KB there. The key is decapsulated with
+ * {@code KEM}, which is done once when the segmented file is opened and once per stream.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SegmentedFileBenchmark {
+    private static final int FILE_SIZE = 64 * 1024 * 1024;
+    private static final int PAGE_SIZE = 4 * 1024;
+    private static final int RANGE_SIZE = 8 * 1024 * 1024;
+
+    @Param({"1", "4"})
+    public int parallelism;
+
+    private GeneratedFixture fixture;
+    private DecryptionConfiguration configuration;
+    private Path streamed;
+    private SegmentedFile segmented;
+    private final Random random = new Random(42);
+    private final ByteBuffer page = ByteBuffer.allocate(PAGE_SIZE);
+    private final ByteBuffer range = ByteBuffer.allocate(RANGE_SIZE);
+
+    @Setup(Level.Trial)
+    public void generateFixture() throws DecryptionException, IOException {
+        Fixtures.registerProviders();
+        fixture = GeneratedFixture.generate(TransformationType.KEM);
+        final byte[] content = new byte[FILE_SIZE];
+        new Random(42).nextBytes(content);
+        streamed = fixture.writeFile("streamed.bin.enc", fixture.encrypt(content));
+        final Path file = fixture.writeFile("segmented.bin.enc", fixture.encryptSegmented(content));
+        final Properties properties = fixture.withEncryptedProperties(0);
+        properties.setProperty(DecryptionConfiguration.PROPERTY_PREFIX + "parallelism", String.valueOf(parallelism));
+        configuration = DecryptionConfiguration.fromEnvironment(GeneratedFixture.createEnvironment(properties));
+        segmented = SegmentedFile.open(configuration, file);
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteFixture() throws IOException {
+        segmented.close();
+        fixture.close();
+    }
+
+    @Benchmark
+    public int readPage() throws DecryptionException {
+        return segmented.read(random.nextInt(FILE_SIZE - PAGE_SIZE), page.clear());
+    }
+
+    @Benchmark
+    public int readRange() throws DecryptionException {
+        return segmented.read(random.nextInt(FILE_SIZE - RANGE_SIZE), range.clear());
+    }
+
+    @Benchmark
+    public byte[] streamToPage() throws DecryptionException, IOException {
+        try (InputStream stream = StreamDecryptor.decrypt(configuration, Files.newInputStream(streamed))) {
+            stream.skipNBytes(random.nextInt(FILE_SIZE - PAGE_SIZE));
+            return stream.readNBytes(PAGE_SIZE);
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package de.dhbw.cas.encryption.benchmarks;
+
+import de.dhbw.cas.encryption.configuration.DecryptionConfiguration;
+import de.dhbw.cas.encryption.configuration.TransformationType;
+import de.dhbw.cas.encryption.decryptors.DecryptorFactory;
+import de.dhbw.cas.encryption.decryptors.TextDecryptor;
+import de.dhbw.cas.encryption.exception.DecryptionException;
+import de.dhbw.cas.encryption.processor.DecryptingPropertiesPostProcessor;
+import de.dhbw.cas.encryption.resource.EncryptedProtocolResolver;
+import de.dhbw.cas.encryption.util.HexConverter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.logging.DeferredLogs;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how {@link DecryptingPropertiesPostProcessor#postProcessEnvironment} scales with the number of encrypted
+ * properties. Keys and properties are generated per {@link TransformationType}, so no database or other external
+ * service is needed.
+ * <p>
+ * {@link #postProcessEnvironment()} measures the whole processor including its construction. The remaining benchmarks
+ * break this down into the phases the processor goes through: parsing the configuration (which includes reading the
+ * key files), creating the decryptor and decrypting the properties. Every invocation works on a fresh environment.
+ * Run through {@link BenchmarkRunner} to also get the allocated bytes per invocation. For cold start numbers use
+ * {@code -wi 0 -i 1 -f 10}. To compare sequential and parallel decryption use e.g. {@code -p parallelism=1,4}, to
+ * compare eager and lazy decryption use {@code -p mode=eager,lazy}. As every invocation after the first one runs in the
+ * same JVM, it reuses the keys cached by {@link DecryptorFactory} like a restarted application context would. Use
+ * {@code -p cache=true,false} to compare this to resolving the keys every time. The setup already loads the security
+ * providers, so their cost is measured by {@link ColdStartupBenchmark} instead.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class StartupBenchmark {
+
+    @Param({"SYMMETRIC", "ASYMMETRIC", "WRAPPING", "KEM"})
+    public TransformationType type;
+
+    @Param({"10", "1000", "10000"})
+    public int propertyCount;
+
+    /**
+     * The value for {@code dhbw.cas.decryption.parallelism}
+     */
+    @Param({"1"})
+    public int parallelism;
+
+    /**
+     * The value for {@code dhbw.cas.decryption.mode}
+     */
+    @Param({"eager"})
+    public String mode;
+
+    /**
+     * The value for {@code dhbw.cas.decryption.cache}
+     */
+    @Param({"true"})
+    public boolean cache;
+
+    private GeneratedFixture fixture;
+    private Properties properties;
+    private DecryptionConfiguration configuration;
+    private TextDecryptor decryptor;
+    private StandardEnvironment environment;
+
+    @Setup(Level.Trial)
+    public void generateFixture() throws DecryptionException {
+        Fixtures.registerProviders();
+        fixture = GeneratedFixture.generate(type);
+        properties = fixture.withEncryptedProperties(propertyCount);
+        properties.setProperty(DecryptionConfiguration.PROPERTY_PREFIX + "parallelism", String.valueOf(parallelism));
+        properties.setProperty(DecryptionConfiguration.PROPERTY_PREFIX + "mode", mode);
+        properties.setProperty(DecryptionConfiguration.PROPERTY_PREFIX + "cache", String.valueOf(cache));
+        configuration = DecryptionConfiguration.fromEnvironment(GeneratedFixture.createEnvironment(properties));
+        decryptor = DecryptorFactory.createDecryptor(configuration);
+    }
+
+    @Setup(Level.Invocation)
+    public void createEnvironment() {
+        environment = GeneratedFixture.createEnvironment(properties);
+    }
+
+    @TearDown(Level.Invocation)
+    public void releaseEnvironment() {
+        // the application is never run, so nothing else releases the environment registered by the processor
+        EncryptedProtocolResolver.releaseApplicationEnvironment(environment);
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteFixture() {
+        fixture.close();
+    }
+
+    @Benchmark
+    public StandardEnvironment postProcessEnvironment() {
+        new DecryptingPropertiesPostProcessor(new DeferredLogs())
+                .postProcessEnvironment(environment, new SpringApplication());
+        return environment;
+    }
+
+    @Benchmark
+    public DecryptionConfiguration parseConfiguration() {
+        return DecryptionConfiguration.fromEnvironment(environment);
+    }
+
+    @Benchmark
+    public TextDecryptor createDecryptor() throws DecryptionException {
+        return DecryptorFactory.createDecryptor(configuration);
+    }
+
+    @Benchmark
+    public Map<String, Object> decryptProperties() throws DecryptionException {
+        final Map<String, Object> decrypted = new HashMap<>();
+        for (String property : configuration.properties()) {
+            final byte[] encrypted = HexConverter.loadBytesFromHexString(environment.getRequiredProperty(property));
+            decrypted.put(property, decryptor.decrypt(encrypted, configuration.iv(), configuration.charset()));
+        }
+        return decrypted;
+    }
+}
@@ -0,0 +1,74 @@
+package de.dhbw.cas.encryption.autoconfigure;
+
+import de.dhbw.cas.encryption.configuration.DecryptionConfiguration;
+import de.dhbw.cas.encryption.metrics.DecryptionMetrics;
+import de.dhbw.cas.encryption.processor.DecryptedPropertiesReloader;
+import de.dhbw.cas.encryption.runtime.DecryptionObserver;
+import de.dhbw.cas.encryption.runtime.DecryptionService;
+import de.dhbw.cas.encryption.secret.SecretConverter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.jspecify.annotations.NullMarked;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationPropertiesBinding;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.Environment;
+
+
+/**
+ * Registers a {@link DecryptionService} for decrypting values at runtime. The service uses the same
+ * {@link DecryptionConfiguration} as {@link de.dhbw.cas.encryption.processor.DecryptingPropertiesPostProcessor}, so it
+ * is only created if a key is configured and the decryption is not disabled. With {@code dhbw.cas.decryption.reload}
+ * enabled a {@link DecryptedPropertiesReloader} reloads the decrypted properties when their files change. If Micrometer
+ * is on the classpath, the decryptions of the service are recorded by {@link DecryptionMetrics}, which Actuator binds to
+ * its meter registries. With {@code dhbw.cas.decryption.off-heap} enabled a {@link SecretConverter} binds the decrypted
+ * values to {@code char[]}, {@code byte[]}, {@link javax.crypto.SecretKey} and {@link String} properties.
+ */
+@NullMarked
+@AutoConfiguration
+@ConditionalOnProperty(prefix = DecryptionConfiguration.PROPERTY_PREFIX, name = "enabled", havingValue = "true",
+        matchIfMissing = true)
+public class DecryptionAutoConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = DecryptionConfiguration.PROPERTY_PREFIX, name = "key")
+    public DecryptionService decryptionService(final Environment environment,
+                                               final ObjectProvider<DecryptionObserver> observer) {
+        return new DecryptionService(DecryptionConfiguration.fromEnvironment(environment),
+                observer.getIfUnique(() -> DecryptionObserver.NONE));
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = DecryptionConfiguration.PROPERTY_PREFIX, name = "reload", havingValue = "true")
+    public DecryptedPropertiesReloader decryptedPropertiesReloader(final ConfigurableEnvironment environment,
+                                                                   final ApplicationEventPublisher publisher) {
+        return new DecryptedPropertiesReloader(environment, publisher);
+    }
+
+    @Bean
+    @ConfigurationPropertiesBinding
+    @ConditionalOnProperty(prefix = DecryptionConfiguration.PROPERTY_PREFIX, name = "off-heap", havingValue = "true")
+    public static SecretConverter secretConverter() {
+        return new SecretConverter();
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(MeterRegistry.class)
+    static class MetricsConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean
+        @ConditionalOnProperty(prefix = DecryptionConfiguration.PROPERTY_PREFIX, name = "key")
+        public DecryptionMetrics decryptionMetrics() {
+            return new DecryptionMetrics();
+        }
+    }
+}
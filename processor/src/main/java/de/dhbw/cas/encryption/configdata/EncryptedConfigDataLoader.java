@@ -0,0 +1,42 @@
+package de.dhbw.cas.encryption.configdata;
+
+import de.dhbw.cas.encryption.decryptors.StreamDecryptor;
+import de.dhbw.cas.encryption.exception.DecryptionException;
+import org.jspecify.annotations.NullMarked;
+import org.springframework.boot.context.config.ConfigData;
+import org.springframework.boot.context.config.ConfigDataLoader;
+import org.springframework.boot.context.config.ConfigDataLoaderContext;
+import org.springframework.boot.context.config.ConfigDataResourceNotFoundException;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+/**
+ * Loads the files resolved by {@link EncryptedConfigDataLocationResolver}. The file is decrypted while it is parsed,
+ * see {@link StreamDecryptor}, so its plaintext never exists as a whole apart from the parsed properties.
+ */
+@NullMarked
+public class EncryptedConfigDataLoader implements ConfigDataLoader<EncryptedConfigDataResource> {
+
+    @Override
+    public ConfigData load(final ConfigDataLoaderContext context, final EncryptedConfigDataResource resource)
+            throws IOException, ConfigDataResourceNotFoundException {
+        final Resource encrypted = resource.getResource();
+        if (!encrypted.exists()) {
+            throw new ConfigDataResourceNotFoundException(resource);
+        }
+        final String name = "Config resource '" + resource + "'";
+        try (InputStream encryptedStream = encrypted.getInputStream();
+             InputStream decryptedStream = StreamDecryptor.decrypt(resource.getConfiguration(), encryptedStream)) {
+            final List<PropertySource<?>> propertySources = resource.getPropertySourceLoader()
+                    .load(name, new InputStreamResource(decryptedStream, encrypted.getDescription()));
+            return new ConfigData(propertySources);
+        } catch (DecryptionException e) {
+            throw new IllegalStateException("Could not decrypt " + resource, e);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package de.dhbw.cas.encryption.configdata;
+
+import de.dhbw.cas.encryption.configuration.DecryptionConfiguration;
+import org.jspecify.annotations.NullMarked;
+import org.springframework.boot.context.config.ConfigDataLocation;
+import org.springframework.boot.context.config.ConfigDataLocationResolver;
+import org.springframework.boot.context.config.ConfigDataLocationResolverContext;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.env.PropertySourceLoader;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.core.io.support.SpringFactoriesLoader;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Resolves locations like {@code spring.config.import=encrypted:classpath:secrets.properties.enc} to encrypted
+ * configuration files. The file is decrypted with the configuration from the properties starting with
+ * {@link DecryptionConfiguration#PROPERTY_PREFIX} that are known when the import is resolved, e.g. from the
+ * {@code application.properties} containing the import. Its format is determined by the file extension after removing
+ * {@link #ENCRYPTED_EXTENSION}, so every format Spring Boot supports, e.g. properties and YAML, can be imported.
+ * Register this and {@link EncryptedConfigDataLoader} in {@code META-INF/spring.factories} to use it.
+ */
+@NullMarked
+public class EncryptedConfigDataLocationResolver implements ConfigDataLocationResolver<EncryptedConfigDataResource> {
+    public static final String PREFIX = "encrypted:";
+    public static final String ENCRYPTED_EXTENSION = ".enc";
+    private static final String CONFIGURATION_PROPERTY = DecryptionConfiguration.PROPERTY_PREFIX
+            .substring(0, DecryptionConfiguration.PROPERTY_PREFIX.length() - 1);
+    private final ResourceLoader resourceLoader;
+    private final List<PropertySourceLoader> propertySourceLoaders;
+
+    public EncryptedConfigDataLocationResolver(final ResourceLoader resourceLoader) {
+        this.resourceLoader = resourceLoader;
+        this.propertySourceLoaders = SpringFactoriesLoader.loadFactories(PropertySourceLoader.class,
+                resourceLoader.getClassLoader());
+    }
+
+    @Override
+    public boolean isResolvable(final ConfigDataLocationResolverContext context, final ConfigDataLocation location) {
+        return location.hasPrefix(PREFIX);
+    }
+
+    @Override
+    public List<EncryptedConfigDataResource> resolve(final ConfigDataLocationResolverContext context,
+                                                     final ConfigDataLocation location) throws IllegalStateException {
+        final String path = location.getNonPrefixedValue(PREFIX);
+        return List.of(new EncryptedConfigDataResource(resourceLoader.getResource(path), findPropertySourceLoader(path),
+                loadConfiguration(context.getBinder())));
+    }
+
+    private PropertySourceLoader findPropertySourceLoader(final String path) {
+        final String decryptedPath = path.endsWith(ENCRYPTED_EXTENSION)
+                ? path.substring(0, path.length() - ENCRYPTED_EXTENSION.length())
+                : path;
+        for (PropertySourceLoader loader : propertySourceLoaders) {
+            for (String extension : loader.getFileExtensions()) {
+                if (decryptedPath.endsWith("." + extension)) {
+                    return loader;
+                }
+            }
+        }
+        throw new IllegalStateException("No loader supports the format of " + path);
+    }
+
+    private static DecryptionConfiguration loadConfiguration(final Binder binder) {
+        final Map<String, Object> properties = new HashMap<>();
+        binder.bind(CONFIGURATION_PROPERTY, Bindable.mapOf(String.class, String.class))
+                .ifBound(bound -> bound.forEach((name, value) ->
+                        properties.put(DecryptionConfiguration.PROPERTY_PREFIX + name, value)));
+        final StandardEnvironment environment = new StandardEnvironment();
+        environment.getPropertySources().addFirst(new MapPropertySource(CONFIGURATION_PROPERTY, properties));
+        final DecryptionConfiguration configuration = DecryptionConfiguration.fromEnvironment(environment);
+        if (!configuration.enabled()) {
+            throw new IllegalStateException("Encrypted files cannot be imported while decryption is disabled");
+        }
+        return configuration;
+    }
+}
@@ -0,0 +1,57 @@
+package de.dhbw.cas.encryption.configdata;
+
+import de.dhbw.cas.encryption.configuration.DecryptionConfiguration;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+import org.springframework.boot.context.config.ConfigDataResource;
+import org.springframework.boot.env.PropertySourceLoader;
+import org.springframework.core.io.Resource;
+
+/**
+ * An encrypted configuration file imported with {@link EncryptedConfigDataLocationResolver#PREFIX}
+ */
+@NullMarked
+public class EncryptedConfigDataResource extends ConfigDataResource {
+    private final Resource resource;
+    private final PropertySourceLoader propertySourceLoader;
+    private final DecryptionConfiguration configuration;
+
+    /**
+     * @param resource             The encrypted file
+     * @param propertySourceLoader The loader parsing the decrypted file
+     * @param configuration        The configuration providing the key
+     */
+    public EncryptedConfigDataResource(final Resource resource, final PropertySourceLoader propertySourceLoader,
+                                       final DecryptionConfiguration configuration) {
+        this.resource = resource;
+        this.propertySourceLoader = propertySourceLoader;
+        this.configuration = configuration;
+    }
+
+    public Resource getResource() {
+        return resource;
+    }
+
+    public PropertySourceLoader getPropertySourceLoader() {
+        return propertySourceLoader;
+    }
+
+    public DecryptionConfiguration getConfiguration() {
+        return configuration;
+    }
+
+    @Override
+    public boolean equals(@Nullable final Object o) {
+        return o instanceof EncryptedConfigDataResource other && resource.equals(other.resource);
+    }
+
+    @Override
+    public int hashCode() {
+        return resource.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return EncryptedConfigDataLocationResolver.PREFIX + resource;
+    }
+}
@@ -1,19 +1,30 @@
 package de.dhbw.cas.encryption.configuration;
 
 
+import de.dhbw.cas.encryption.jfr.KeyFileLoadEvent;
 import de.dhbw.cas.encryption.util.HexConverter;
+import de.dhbw.cas.encryption.util.KeyLoader;
 import org.jspecify.annotations.NullMarked;
 import org.jspecify.annotations.Nullable;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.convert.DurationStyle;
 import org.springframework.core.env.Environment;
-import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
 
-import java.io.File;
 import java.io.IOException;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
 
 /**
  * This record encapsulates the configuration for {@link de.dhbw.cas.encryption.processor.DecryptingPropertiesPostProcessor}.
@@ -21,24 +32,137 @@ import java.util.Optional;
  * normal naming convention and are derived from the field name in this record. I.e. key, transformation, etc.
  * Multiple properties for {@link #properties} can be separated by a comma ({@code ','}).
  * {@link #key}, {@link #transformation} and {@link #type} are required properties.
+ * Several configurations can be used at once by grouping them into named profiles, see
+ * {@link #profilesFromEnvironment(Environment)}.
  *
  * @param key            The bytes of the key. Required. The value of the property is interpreted as a path to the file
  *                       containing the key. This should usually be an absolute path to search the file system. If no file
- *                       with the given name exists there the classpath is searched instead
+ *                       with the given name exists there the classpath is searched instead, including the application
+ *                       jar. Other resource locations like {@code classpath:} or URLs work as well. The file may be PEM,
+ *                       hex or DER, see {@link KeyLoader}
  * @param transformation The transformation to use to decrypt the properties. Required
  * @param keyAlgorithm   The algorithm for key generation. This is optional. If not present the algorithm is derived from the transformation
  * @param iv             The initialization vector to use. Optional, defaults to an empty array
  * @param type           The type of algorithm the transformation is based on. Required
- * @param properties     A list of property names to decode. Optional, defaults to an empty array
+ * @param properties     A list of property names to decode. Names containing a wildcard are patterns, see
+ *                       {@link de.dhbw.cas.encryption.util.PropertyNamePatterns}. Optional, defaults to an empty array
  * @param charset        The charset to use for the decrypted strings. Optional, defaults to US_ASCII
  * @param enabled        A flag to determine if decryption should be enabled. Optional, defaults to true
  * @param wrappingKey    The key used when wrapping or key encapsulation is used
+ * @param parallelism    The number of threads used to decrypt {@link #properties}. Every thread uses its own decryptor.
+ *                       Optional, defaults to 1, i.e. the properties are decrypted one after another. Only used
+ *                       by {@link DecryptionMode#EAGER}
+ * @param mode           When the properties are decrypted. Optional, defaults to {@link DecryptionMode#EAGER}
+ * @param asyncTimeout   How long reading a property waits for the decryption to finish. Only used by
+ *                       {@link DecryptionMode#ASYNC}. Optional, defaults to 30 seconds
+ * @param autoDiscovery  If every enumerable property source should be searched for values wrapped in
+ *                       {@link #markerPrefix} and {@link #markerSuffix}. These are decrypted in addition to
+ *                       {@link #properties}. Optional, defaults to false
+ * @param markerPrefix   The prefix marking an encrypted value. Optional, defaults to {@code ENC(}
+ * @param markerSuffix   The suffix marking an encrypted value. Optional, defaults to {@code )}
+ * @param keyring        Paths to additional keys by their key id, configured as {@code keyring.<id>=<path>}. A value
+ *                       prefixed with a key id and a colon, e.g. {@code 2024:0A1B}, is decrypted with that key instead
+ *                       of {@link #key}. The keys are loaded on first use, see {@link #loadKey(String)}. Optional,
+ *                       defaults to an empty map
+ * @param cache          If the keys resolved for this configuration may be kept in the JVM-wide cache, so
+ *                       application contexts started with an equal configuration skip loading them again, see
+ *                       {@link de.dhbw.cas.encryption.decryptors.DecryptorFactory}. Optional, defaults to true
+ * @param provider       The name of the security provider the cipher for {@link #transformation} is created with, e.g.
+ *                       {@code SunJCE} or {@code BC}. {@link #AUTO_PROVIDER} selects the fastest installed provider
+ *                       for symmetric transformations once. Optional, by default the first provider supporting the
+ *                       transformation is used
+ * @param providerFile   A path to a properties file the provider selected by {@link #AUTO_PROVIDER} is persisted in, so
+ *                       later starts skip the selection. Optional, by default the selection is only kept in memory
+ * @param offHeap        If the decrypted values are kept outside the Java heap as
+ *                       {@link de.dhbw.cas.encryption.secret.Secret} instead of strings. Only applies to
+ *                       {@link DecryptionMode#EAGER}. Optional, defaults to false
  */
 @NullMarked
 public record DecryptionConfiguration(byte[] key, String transformation, @Nullable String keyAlgorithm, byte[] iv,
                                       TransformationType type, String[] properties, Charset charset, boolean enabled,
-                                      byte[] wrappingKey) {
+                                      byte[] wrappingKey, int parallelism, DecryptionMode mode,
+                                      Duration asyncTimeout, boolean autoDiscovery, String markerPrefix,
+                                      String markerSuffix, Map<String, String> keyring, boolean cache,
+                                      @Nullable String provider, @Nullable String providerFile, boolean offHeap) {
     public static final String PROPERTY_PREFIX = "dhbw.cas.decryption.";
+    public static final String PROFILES_PREFIX = PROPERTY_PREFIX + "profiles.";
+    private static final String PROFILES_PROPERTY = PROPERTY_PREFIX + "profiles";
+    public static final String DEFAULT_PROFILE = "default";
+    public static final char KEY_ID_SEPARATOR = ':';
+    public static final String AUTO_PROVIDER = "auto";
+    private static final Duration DEFAULT_ASYNC_TIMEOUT = Duration.ofSeconds(30);
+    private static final String DEFAULT_MARKER_PREFIX = "ENC(";
+    private static final String DEFAULT_MARKER_SUFFIX = ")";
+    private static final String CONFIGURATION_STEP = "dhbw.cas.decryption.configuration";
+    private static final String KEY_FILE_STEP = "dhbw.cas.decryption.key-file";
+
+    /**
+     * Creates a configuration that eagerly decrypts the properties one after another
+     */
+    public DecryptionConfiguration(byte[] key, String transformation, @Nullable String keyAlgorithm, byte[] iv,
+                                   TransformationType type, String[] properties, Charset charset, boolean enabled,
+                                   byte[] wrappingKey) {
+        this(key, transformation, keyAlgorithm, iv, type, properties, charset, enabled, wrappingKey, 1,
+                DecryptionMode.EAGER, DEFAULT_ASYNC_TIMEOUT, false, DEFAULT_MARKER_PREFIX, DEFAULT_MARKER_SUFFIX,
+                Map.of(), true, null, null, false);
+    }
+
+    /**
+     * Creates the configurations of all enabled profiles.
+     * A profile is configured like the processor itself, but its properties start with {@link #PROFILES_PREFIX}
+     * followed by the name of the profile, e.g. {@code dhbw.cas.decryption.profiles.db.key}. The configuration without
+     * a profile name is included as {@link #DEFAULT_PROFILE} if there are no profiles or if its key is set. Disabling
+     * it via {@code dhbw.cas.decryption.enabled} disables all profiles.
+     *
+     * @param environment The environment to load the properties from
+     * @return The configurations by profile name. {@link #DEFAULT_PROFILE} comes first, the others follow in
+     * alphabetical order. Empty if the processor is disabled
+     * @throws IllegalStateException When a profile is named {@link #DEFAULT_PROFILE} or any of the configurations is
+     *                               invalid, see {@link #fromEnvironment(Environment)}
+     */
+    public static Map<String, DecryptionConfiguration> profilesFromEnvironment(final Environment environment)
+            throws IllegalStateException {
+        return profilesFromEnvironment(environment, ApplicationStartup.DEFAULT);
+    }
+
+    /**
+     * Creates the configurations of all enabled profiles and records a {@link StartupStep} for each of them
+     *
+     * @param environment        The environment to load the properties from
+     * @param applicationStartup The startup to record the steps of parsing the configurations and loading the keys in
+     * @return The configurations by profile name, see {@link #profilesFromEnvironment(Environment)}
+     * @throws IllegalStateException When a profile is named {@link #DEFAULT_PROFILE} or any of the configurations is
+     *                               invalid, see {@link #fromEnvironment(Environment)}
+     */
+    public static Map<String, DecryptionConfiguration> profilesFromEnvironment(final Environment environment,
+                                                                               final ApplicationStartup applicationStartup)
+            throws IllegalStateException {
+        final Set<String> profileNames = new TreeSet<>(Binder.get(environment)
+                .bind(PROFILES_PROPERTY, Bindable.mapOf(String.class, Object.class))
+                .map(Map::keySet)
+                .orElse(Set.of()));
+        if (profileNames.contains(DEFAULT_PROFILE)) {
+            throw new IllegalStateException("The profile name " + DEFAULT_PROFILE + " is reserved");
+        }
+        final Map<String, DecryptionConfiguration> configurations = new LinkedHashMap<>();
+        if (profileNames.isEmpty() || environment.containsProperty(PROPERTY_PREFIX + "key")
+                || !Boolean.parseBoolean(environment.getProperty(PROPERTY_PREFIX + "enabled", Boolean.TRUE.toString()))) {
+            final DecryptionConfiguration defaultConfiguration = fromEnvironment(environment, PROPERTY_PREFIX,
+                    applicationStartup);
+            if (!defaultConfiguration.enabled()) {
+                return Map.of();
+            }
+            configurations.put(DEFAULT_PROFILE, defaultConfiguration);
+        }
+        for (String profileName : profileNames) {
+            final DecryptionConfiguration configuration = fromEnvironment(environment,
+                    PROFILES_PREFIX + profileName + ".", applicationStartup);
+            if (configuration.enabled()) {
+                configurations.put(profileName, configuration);
+            }
+        }
+        return configurations;
+    }
 
     /**
      * Creates a configuration instance from the given environment
@@ -47,28 +171,108 @@ public record DecryptionConfiguration(byte[] key, String transformation, @Nullab
      *
      * @param environment The environment to load the properties from
      * @return The loaded configuration
-     * @throws IllegalStateException When a required property is missing or the key could not be loaded from the provided file
+     * @throws IllegalStateException When a required property is missing, the parallelism is not positive, the marker
+     *                               prefix is empty, a key id contains a colon or the key could not be loaded from the
+     *                               provided file
      */
     public static DecryptionConfiguration fromEnvironment(final Environment environment) throws IllegalStateException {
-        final boolean enabled = Boolean.parseBoolean(environment.getProperty(PROPERTY_PREFIX + "enabled", Boolean.TRUE.toString()));
+        return fromEnvironment(environment, PROPERTY_PREFIX);
+    }
+
+    /**
+     * Creates a configuration instance from the properties with the given prefix, e.g. the prefix of a profile
+     *
+     * @param environment The environment to load the properties from
+     * @param prefix      The prefix of the properties including the trailing dot
+     * @return The loaded configuration
+     * @throws IllegalStateException When a required property is missing, the parallelism is not positive, the marker
+     *                               prefix is empty, a key id contains a colon or the key could not be loaded from the
+     *                               provided file
+     * @see #fromEnvironment(Environment)
+     */
+    public static DecryptionConfiguration fromEnvironment(final Environment environment, final String prefix)
+            throws IllegalStateException {
+        return fromEnvironment(environment, prefix, ApplicationStartup.DEFAULT);
+    }
+
+    /**
+     * Creates a configuration instance from the properties with the given prefix. Parsing is recorded as the
+     * {@link StartupStep} {@code dhbw.cas.decryption.configuration}, loading each key file as
+     * {@code dhbw.cas.decryption.key-file}. The steps are tagged with the prefix, transformation, type, number of
+     * configured properties and paths of the key files, never with the keys themselves
+     *
+     * @param environment        The environment to load the properties from
+     * @param prefix             The prefix of the properties including the trailing dot
+     * @param applicationStartup The startup to record the steps in
+     * @return The loaded configuration
+     * @throws IllegalStateException When the configuration is invalid, see {@link #fromEnvironment(Environment, String)}
+     */
+    public static DecryptionConfiguration fromEnvironment(final Environment environment, final String prefix,
+                                                          final ApplicationStartup applicationStartup)
+            throws IllegalStateException {
+        final StartupStep step = applicationStartup.start(CONFIGURATION_STEP).tag("prefix", prefix);
+        try {
+            final DecryptionConfiguration configuration = parse(environment, prefix, applicationStartup);
+            if (configuration.enabled()) {
+                step.tag("transformation", configuration.transformation())
+                        .tag("type", configuration.type().name())
+                        .tag("properties", String.valueOf(configuration.properties().length));
+            }
+            return configuration;
+        } finally {
+            step.end();
+        }
+    }
+
+    private static DecryptionConfiguration parse(final Environment environment, final String prefix,
+                                                 final ApplicationStartup applicationStartup)
+            throws IllegalStateException {
+        final boolean enabled = Boolean.parseBoolean(environment.getProperty(prefix + "enabled", Boolean.TRUE.toString()));
         if (!enabled) {
             return new DecryptionConfiguration(new byte[0], "", "", new byte[0], TransformationType.SYMMETRIC, new String[0],
                     StandardCharsets.US_ASCII, false, new byte[0]);
         }
-        final String keyFilePath = environment.getRequiredProperty(PROPERTY_PREFIX + "key");
-        final String transformation = environment.getRequiredProperty(PROPERTY_PREFIX + "transformation");
-        final String keyAlgorithm = environment.getProperty(PROPERTY_PREFIX + "key-algorithm");
-        final String ivHex = environment.getProperty(PROPERTY_PREFIX + "iv", "");
+        final String keyFilePath = environment.getRequiredProperty(prefix + "key");
+        final String transformation = environment.getRequiredProperty(prefix + "transformation");
+        final String keyAlgorithm = environment.getProperty(prefix + "key-algorithm");
+        final String ivHex = environment.getProperty(prefix + "iv", "");
         byte[] iv;
         if (ivHex.isEmpty()) {
             iv = new byte[0];
         } else {
             iv = HexConverter.loadBytesFromHexString(ivHex);
         }
-        final String type = environment.getRequiredProperty(PROPERTY_PREFIX + "type");
-        final String properties = environment.getProperty(PROPERTY_PREFIX + "properties", "");
-        final String charsetName = environment.getProperty(PROPERTY_PREFIX + "charset", StandardCharsets.US_ASCII.name());
-        final String wrappingKeyFilePath = environment.getProperty(PROPERTY_PREFIX + "wrapping-key", "");
+        final String type = environment.getRequiredProperty(prefix + "type");
+        final String properties = environment.getProperty(prefix + "properties", "");
+        final String charsetName = environment.getProperty(prefix + "charset", StandardCharsets.US_ASCII.name());
+        final String wrappingKeyFilePath = environment.getProperty(prefix + "wrapping-key", "");
+        final int parallelism = environment.getProperty(prefix + "parallelism", Integer.class, 1);
+        if (parallelism < 1) {
+            throw new IllegalStateException("Parallelism has to be positive but was " + parallelism);
+        }
+        final String mode = environment.getProperty(prefix + "mode", DecryptionMode.EAGER.name());
+        final String asyncTimeout = environment.getProperty(prefix + "async-timeout", "");
+        final boolean autoDiscovery = Boolean.parseBoolean(environment.getProperty(prefix + "auto-discovery",
+                Boolean.FALSE.toString()));
+        final String markerPrefix = environment.getProperty(prefix + "marker-prefix", DEFAULT_MARKER_PREFIX);
+        final String markerSuffix = environment.getProperty(prefix + "marker-suffix", DEFAULT_MARKER_SUFFIX);
+        if (markerPrefix.isEmpty()) {
+            throw new IllegalStateException("Marker prefix must not be empty");
+        }
+        final Map<String, String> keyring = Binder.get(environment)
+                .bind(prefix + "keyring", Bindable.mapOf(String.class, String.class))
+                .map(Map::copyOf)
+                .orElse(Map.of());
+        for (String keyId : keyring.keySet()) {
+            if (keyId.indexOf(KEY_ID_SEPARATOR) >= 0) {
+                throw new IllegalStateException("Key id [" + keyId + "] must not contain " + KEY_ID_SEPARATOR);
+            }
+        }
+        final boolean cache = Boolean.parseBoolean(environment.getProperty(prefix + "cache", Boolean.TRUE.toString()));
+        final String provider = environment.getProperty(prefix + "provider", "");
+        final String providerFile = environment.getProperty(prefix + "provider-file", "");
+        final boolean offHeap = Boolean.parseBoolean(environment.getProperty(prefix + "off-heap",
+                Boolean.FALSE.toString()));
         Charset charset = StandardCharsets.US_ASCII;
         if (!charsetName.isEmpty()) {
             try {
@@ -78,25 +282,61 @@ public record DecryptionConfiguration(byte[] key, String transformation, @Nullab
             }
         }
         try {
-            final var key = findFile(keyFilePath);
-            return new DecryptionConfiguration(key.orElseThrow(() -> new IllegalStateException("Key was not found")),
+            return new DecryptionConfiguration(loadKey(keyFilePath, applicationStartup),
                     transformation, keyAlgorithm, iv, TransformationType.getTransformationType(type),
                     properties.isEmpty() ? new String[0] : properties.split(","), charset, true,
-                    findFile(wrappingKeyFilePath).orElse(new byte[0]));
+                    findFile(wrappingKeyFilePath, applicationStartup).orElse(new byte[0]), parallelism,
+                    DecryptionMode.getDecryptionMode(mode),
+                    asyncTimeout.isEmpty() ? DEFAULT_ASYNC_TIMEOUT : DurationStyle.detectAndParse(asyncTimeout),
+                    autoDiscovery, markerPrefix, markerSuffix, keyring, cache, provider.isEmpty() ? null : provider,
+                    providerFile.isEmpty() ? null : providerFile, offHeap);
         } catch (IOException e) {
-            throw new IllegalStateException("Could not load key data from file " + keyFilePath, e);
+            throw new IllegalStateException("Could not load key data from file " + wrappingKeyFilePath, e);
         }
     }
 
-    private static Optional<byte[]> findFile(final String path) throws IOException {
-        File file = new File(path);
-        if (!file.exists()) {
-            file = new ClassPathResource(path).getFile();
+    /**
+     * Loads a key the same way {@link #key} is loaded
+     *
+     * @param path The path to the file containing the key
+     * @return The bytes of the key
+     * @throws IllegalStateException If the key was not found or could not be loaded
+     */
+    public static byte[] loadKey(final String path) throws IllegalStateException {
+        return loadKey(path, ApplicationStartup.DEFAULT);
+    }
+
+    private static byte[] loadKey(final String path, final ApplicationStartup applicationStartup)
+            throws IllegalStateException {
+        try {
+            return findFile(path, applicationStartup).orElseThrow(() -> new IllegalStateException("Key was not found"));
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not load key data from file " + path, e);
+        }
+    }
+
+    private static Optional<byte[]> findFile(final String path, final ApplicationStartup applicationStartup)
+            throws IOException {
+        if (path.isEmpty()) {
+            return Optional.empty();
         }
-        if (file.exists() && file.isFile()) {
-            return Optional.of(HexConverter.loadBytesFromFile(file));
+        final StartupStep step = applicationStartup.start(KEY_FILE_STEP).tag("path", path);
+        final KeyFileLoadEvent event = new KeyFileLoadEvent();
+        event.begin();
+        boolean found = false;
+        byte[] key = null;
+        try {
+            final Resource resource = KeyLoader.resolve(path);
+            found = resource.isReadable();
+            step.tag("found", String.valueOf(found));
+            if (found) {
+                key = KeyLoader.load(resource);
+            }
+            return Optional.ofNullable(key);
+        } finally {
+            event.finish(path, found, key);
+            step.end();
         }
-        return Optional.empty();
     }
 
 
@@ -112,6 +352,17 @@ public record DecryptionConfiguration(byte[] key, String transformation, @Nullab
                 ", charset=" + charset +
                 ", enabled=" + enabled +
                 ", wrappingKey=" + Arrays.toString(wrappingKey) +
+                ", parallelism=" + parallelism +
+                ", mode=" + mode +
+                ", asyncTimeout=" + asyncTimeout +
+                ", autoDiscovery=" + autoDiscovery +
+                ", markerPrefix='" + markerPrefix + '\'' +
+                ", markerSuffix='" + markerSuffix + '\'' +
+                ", keyring=" + keyring +
+                ", cache=" + cache +
+                ", provider='" + provider + '\'' +
+                ", providerFile='" + providerFile + '\'' +
+                ", offHeap=" + offHeap +
                 '}';
     }
 
@@ -120,17 +371,28 @@ public record DecryptionConfiguration(byte[] key, String transformation, @Nullab
         if (!(o instanceof DecryptionConfiguration(
                 byte[] otherKey, String otherTransformation, String otherKeyAlgorithm, byte[] otherIv,
                 TransformationType otherType,
-                String[] otherProperties, Charset otherCharset, boolean otherEnabled, byte[] otherWrappingKey
+                String[] otherProperties, Charset otherCharset, boolean otherEnabled, byte[] otherWrappingKey,
+                int otherParallelism, DecryptionMode otherMode, Duration otherAsyncTimeout, boolean otherAutoDiscovery,
+                String otherMarkerPrefix, String otherMarkerSuffix, Map<String, String> otherKeyring,
+                boolean otherCache, String otherProvider, String otherProviderFile, boolean otherOffHeap
         ))) return false;
         return Objects.equals(type, otherType) && Objects.deepEquals(iv, otherIv) && Objects.deepEquals(key, otherKey)
                 && Objects.equals(charset, otherCharset) && Objects.equals(transformation, otherTransformation)
                 && Objects.deepEquals(properties, otherProperties) && Objects.equals(enabled, otherEnabled)
-                && Objects.deepEquals(wrappingKey, otherWrappingKey) && Objects.equals(keyAlgorithm, otherKeyAlgorithm);
+                && Objects.deepEquals(wrappingKey, otherWrappingKey) && Objects.equals(keyAlgorithm, otherKeyAlgorithm)
+                && parallelism == otherParallelism && Objects.equals(mode, otherMode)
+                && Objects.equals(asyncTimeout, otherAsyncTimeout) && autoDiscovery == otherAutoDiscovery
+                && Objects.equals(markerPrefix, otherMarkerPrefix) && Objects.equals(markerSuffix, otherMarkerSuffix)
+                && Objects.equals(keyring, otherKeyring) && cache == otherCache
+                && Objects.equals(provider, otherProvider) && Objects.equals(providerFile, otherProviderFile)
+                && offHeap == otherOffHeap;
     }
 
     @Override
     public int hashCode() {
         return Objects.hash(Arrays.hashCode(key), transformation, keyAlgorithm, Arrays.hashCode(iv), type,
-                Arrays.hashCode(properties), charset, enabled, Arrays.hashCode(wrappingKey));
+                Arrays.hashCode(properties), charset, enabled, Arrays.hashCode(wrappingKey), parallelism, mode,
+                asyncTimeout, autoDiscovery, markerPrefix, markerSuffix, keyring, cache, provider, providerFile,
+                offHeap);
     }
 }
@@ -0,0 +1,28 @@
+package de.dhbw.cas.encryption.configuration;
+
+import org.jspecify.annotations.NonNull;
+
+public enum DecryptionMode {
+    /**
+     * All properties are decrypted while the environment is post processed
+     */
+    EAGER,
+    /**
+     * A property is decrypted the first time it is read. The decrypted value is kept for subsequent reads
+     */
+    LAZY,
+    /**
+     * All properties are decrypted on a background thread. Reading a property waits until the decryption has finished
+     */
+    ASYNC;
+
+    /**
+     * @param mode The mode to convert to an enum instance. The mode is converted to upper case
+     * @return The enum constant matching the provided string
+     * @throws IllegalArgumentException If the mode cannot be matched
+     */
+    public static DecryptionMode getDecryptionMode(@NonNull final String mode) {
+        final var upperMode = mode.toUpperCase();
+        return DecryptionMode.valueOf(upperMode);
+    }
+}
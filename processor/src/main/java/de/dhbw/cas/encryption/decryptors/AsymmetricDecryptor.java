@@ -1,7 +1,12 @@
 package de.dhbw.cas.encryption.decryptors;
 
 import de.dhbw.cas.encryption.exception.DecryptionException;
+import de.dhbw.cas.encryption.jfr.DecryptEvent;
+import de.dhbw.cas.encryption.jfr.DecryptorCreationEvent;
+import de.dhbw.cas.encryption.jfr.KeyParseEvent;
+import de.dhbw.cas.encryption.jfr.KeyUnwrapEvent;
 import de.dhbw.cas.encryption.util.AlgorithmUtil;
+import de.dhbw.cas.encryption.util.HexConverter;
 import org.jspecify.annotations.NullMarked;
 import org.jspecify.annotations.Nullable;
 
@@ -9,27 +14,91 @@ import javax.crypto.BadPaddingException;
 import javax.crypto.Cipher;
 import javax.crypto.IllegalBlockSizeException;
 import javax.crypto.NoSuchPaddingException;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 import java.security.InvalidKeyException;
 import java.security.KeyFactory;
+import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.security.NoSuchProviderException;
 import java.security.PrivateKey;
 import java.security.spec.InvalidKeySpecException;
 import java.security.spec.PKCS8EncodedKeySpec;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
+/**
+ * Decrypts values with a private key. Besides values encrypted with the public key directly, this decrypts
+ * {@link HybridEnvelope hybrid envelopes}, whose payload is encrypted with a data key. A value directly encrypted with
+ * the public key may start with the magic of a hybrid envelope by chance, so a value that cannot be decrypted as hybrid
+ * envelope is decrypted directly instead. Decrypted data keys are cached by
+ * the SHA-256 fingerprint of the wrapped key, so values sharing a data key cost a single private key operation. The
+ * cache holds at most {@link #MAXIMUM_DATA_KEYS} keys and drops the least recently used one when full.
+ */
 @NullMarked
 public class AsymmetricDecryptor implements TextDecryptor {
+    static final int MAXIMUM_DATA_KEYS = 64;
     private final Cipher cipher;
     private final PrivateKey privateKey;
+    private final Map<ByteBuffer, SymmetricDecryptor> dataKeys = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<ByteBuffer, SymmetricDecryptor> eldest) {
+            return size() > MAXIMUM_DATA_KEYS;
+        }
+    };
+    private @Nullable MessageDigest digest;
 
     public AsymmetricDecryptor(final String transformation, @Nullable final String keyAlgorithm, final byte[] key)
             throws DecryptionException {
+        this(transformation, generatePrivateKey(transformation, keyAlgorithm, key));
+    }
+
+    AsymmetricDecryptor(final String transformation, final PrivateKey privateKey) throws DecryptionException {
+        this(transformation, privateKey, null);
+    }
+
+    /**
+     * @param transformation The transformation of the cipher
+     * @param privateKey     The private key
+     * @param provider       The name of the provider to create the cipher with or {@code null} to let the private key
+     *                       choose the provider on initialization
+     * @throws DecryptionException If the transformation or provider is not available
+     */
+    AsymmetricDecryptor(final String transformation, final PrivateKey privateKey, @Nullable final String provider)
+            throws DecryptionException {
+        this.privateKey = privateKey;
+        final DecryptorCreationEvent event = new DecryptorCreationEvent();
+        event.begin();
+        Cipher created = null;
+        try {
+            created = SecurityProviders.cipher(transformation, provider);
+            cipher = created;
+        } catch (NoSuchAlgorithmException | NoSuchPaddingException | NoSuchProviderException e) {
+            throw new DecryptionException(e);
+        } finally {
+            // unless pinned, the provider is chosen by the private key on initialization, asking for it now would fix
+            // it too early
+            event.finish(AsymmetricDecryptor.class, transformation, provider, created != null);
+        }
+    }
+
+    static PrivateKey generatePrivateKey(final String transformation, @Nullable final String keyAlgorithm,
+                                         final byte[] key) throws DecryptionException {
+        final String algorithm = AlgorithmUtil.determineKeyAlgorithm(transformation, keyAlgorithm);
+        final KeyParseEvent event = new KeyParseEvent();
+        event.begin();
+        KeyFactory keyFactory = null;
+        PrivateKey privateKey = null;
         try {
-            final KeyFactory keyFactory = KeyFactory.getInstance(AlgorithmUtil.determineKeyAlgorithm(transformation, keyAlgorithm));
+            keyFactory = KeyFactory.getInstance(algorithm);
             privateKey = keyFactory.generatePrivate(new PKCS8EncodedKeySpec(key));
-            cipher = Cipher.getInstance(transformation);
-        } catch (InvalidKeySpecException | NoSuchAlgorithmException | NoSuchPaddingException e) {
+            return privateKey;
+        } catch (InvalidKeySpecException | NoSuchAlgorithmException e) {
             throw new DecryptionException(e);
+        } finally {
+            event.finish(algorithm, keyFactory, privateKey != null);
         }
     }
 
@@ -41,12 +110,126 @@ public class AsymmetricDecryptor implements TextDecryptor {
     @Override
     public String decrypt(final byte[] encrypted, final byte @Nullable [] iv, final Charset charset)
             throws DecryptionException {
+        final HybridEnvelope hybrid = HybridEnvelope.parse(encrypted);
+        final byte[] bytes;
+        if (hybrid != null) {
+            try {
+                return dataKeyDecryptor(hybrid).decrypt(hybrid.envelope(), charset);
+            } catch (DecryptionException e) {
+                bytes = doFinalAfterHybridFailure(encrypted, e);
+            }
+        } else {
+            bytes = doFinal(encrypted);
+        }
         try {
-            cipher.init(Cipher.DECRYPT_MODE, privateKey);
-            final byte[] bytes = cipher.doFinal(encrypted);
             return new String(bytes, charset);
+        } finally {
+            Arrays.fill(bytes, (byte) 0);
+        }
+    }
+
+    /**
+     * Decrypts into the target without creating a string, the decrypted bytes are wiped after copying them
+     */
+    @Override
+    public int decrypt(final String encryptedValue, final byte @Nullable [] iv, final Charset charset,
+                       final ByteBuffer target) throws DecryptionException {
+        final byte[] encrypted = HexConverter.loadBytesFromHexString(encryptedValue);
+        final HybridEnvelope hybrid = HybridEnvelope.parse(encrypted);
+        final byte[] bytes;
+        if (hybrid != null) {
+            try {
+                return dataKeyDecryptor(hybrid).decrypt(hybrid.envelope(), target);
+            } catch (DecryptionException e) {
+                bytes = doFinalAfterHybridFailure(encrypted, e);
+            }
+        } else {
+            bytes = doFinal(encrypted);
+        }
+        try {
+            target.put(bytes);
+            return bytes.length;
+        } finally {
+            Arrays.fill(bytes, (byte) 0);
+        }
+    }
+
+    private byte[] doFinalAfterHybridFailure(final byte[] encrypted, final DecryptionException hybridFailure)
+            throws DecryptionException {
+        // a value encrypted with the public key directly may start with the magic by chance
+        try {
+            return doFinal(encrypted);
+        } catch (DecryptionException raw) {
+            hybridFailure.addSuppressed(raw);
+            throw hybridFailure;
+        }
+    }
+
+    private byte[] doFinal(final byte[] encrypted) throws DecryptionException {
+        final DecryptEvent event = new DecryptEvent();
+        event.begin();
+        byte[] bytes = null;
+        try {
+            cipher.init(Cipher.DECRYPT_MODE, privateKey);
+            bytes = cipher.doFinal(encrypted);
+            return bytes;
         } catch (IllegalBlockSizeException | BadPaddingException | InvalidKeyException e) {
             throw new DecryptionException(e);
+        } finally {
+            event.finish(cipher, encrypted.length, bytes);
+        }
+    }
+
+    private SymmetricDecryptor dataKeyDecryptor(final HybridEnvelope hybrid) throws DecryptionException {
+        final CiphertextEnvelope.ParameterType type = hybrid.envelope().type();
+        final String transformation = switch (type) {
+            case GCM -> HybridEnvelope.GCM_TRANSFORMATION;
+            case IV -> HybridEnvelope.CBC_TRANSFORMATION;
+            case NONE -> throw new DecryptionException("Hybrid envelope requires parameters of type [GCM] or [IV]");
+        };
+        final ByteBuffer fingerprint = fingerprint(hybrid, type);
+        final SymmetricDecryptor cached = dataKeys.get(fingerprint);
+        if (cached != null) {
+            return cached;
         }
+        final KeyUnwrapEvent event = new KeyUnwrapEvent();
+        event.begin();
+        byte[] dataKey = null;
+        try {
+            cipher.init(Cipher.DECRYPT_MODE, privateKey);
+            dataKey = cipher.doFinal(hybrid.bytes(), hybrid.wrappedKeyOffset(), hybrid.wrappedKeyLength());
+            event.finish(KeyUnwrapEvent.HYBRID, cipher.getAlgorithm(), cipher.getProvider().getName(),
+                    hybrid.wrappedKeyLength(), dataKey);
+            final SymmetricDecryptor decryptor = new SymmetricDecryptor(transformation,
+                    new SecretKeySpec(dataKey, "AES"));
+            dataKeys.put(fingerprint, decryptor);
+            return decryptor;
+        } catch (IllegalBlockSizeException | BadPaddingException | InvalidKeyException | IllegalArgumentException e) {
+            throw new DecryptionException(e);
+        } finally {
+            if (dataKey != null) {
+                Arrays.fill(dataKey, (byte) 0);
+            } else {
+                event.finish(KeyUnwrapEvent.HYBRID, cipher.getAlgorithm(), null, hybrid.wrappedKeyLength(), null);
+            }
+        }
+    }
+
+    private ByteBuffer fingerprint(final HybridEnvelope hybrid, final CiphertextEnvelope.ParameterType type)
+            throws DecryptionException {
+        if (digest == null) {
+            try {
+                digest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new DecryptionException(e);
+            }
+        }
+        digest.update(hybrid.bytes(), hybrid.wrappedKeyOffset(), hybrid.wrappedKeyLength());
+        digest.update(type.code);
+        return ByteBuffer.wrap(digest.digest());
+    }
+
+    int dataKeyCount() {
+        return dataKeys.size();
     }
 }
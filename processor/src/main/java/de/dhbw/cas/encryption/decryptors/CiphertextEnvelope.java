@@ -0,0 +1,146 @@
+package de.dhbw.cas.encryption.decryptors;
+
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A compact binary format carrying the parameters needed to decrypt a value next to its ciphertext, so every value can
+ * have its own IV or nonce instead of sharing {@link de.dhbw.cas.encryption.configuration.DecryptionConfiguration#iv()}.
+ * The layout is
+ * <pre>
+ * 'D' 'C' 'E' | version | parameter type | IV length | IV | tag length | ciphertext
+ * </pre>
+ * The version, parameter type and all lengths take a single unsigned byte. The tag length is given in bytes and only
+ * used for {@link ParameterType#GCM}. Bytes not starting with the magic and a known version, or whose header does not
+ * fit into them, are no envelope and are decrypted as raw ciphertext. Raw ciphertext may look like an envelope by
+ * chance, so {@link SymmetricDecryptor} decrypts the bytes as raw ciphertext if decrypting them as envelope fails. An
+ * envelope is a view on the bytes it was parsed from, nothing is copied.
+ *
+ * @param bytes         The bytes containing the envelope
+ * @param type          The kind of parameters the cipher is initialized with
+ * @param ivOffset      The index of the first byte of the IV
+ * @param ivLength      The length of the IV in bytes
+ * @param tagLength     The length of the authentication tag in bytes
+ * @param payloadOffset The index of the first byte of the ciphertext
+ * @param payloadEnd    The index after the last byte of the ciphertext
+ */
+@NullMarked
+public record CiphertextEnvelope(byte[] bytes, ParameterType type, int ivOffset, int ivLength, int tagLength,
+                                 int payloadOffset, int payloadEnd) {
+    public static final byte VERSION = 1;
+    static final byte[] MAGIC = {'D', 'C', 'E'};
+    static final int IV_OFFSET = MAGIC.length + 3;
+
+    /**
+     * @param bytes The bytes to parse
+     * @return The envelope contained in the bytes or {@code null} if they are raw ciphertext
+     */
+    public static @Nullable CiphertextEnvelope parse(final byte[] bytes) {
+        return parse(bytes, 0);
+    }
+
+    /**
+     * @param bytes  The bytes to parse
+     * @param offset The index the envelope starts at, e.g. after the wrapped key of a {@link HybridEnvelope}
+     * @return The envelope contained in the bytes or {@code null} if they are raw ciphertext
+     */
+    static @Nullable CiphertextEnvelope parse(final byte[] bytes, final int offset) {
+        return parse(bytes, offset, bytes.length);
+    }
+
+    /**
+     * @param buffer The buffer to parse the remaining bytes of. Only buffers backed by an accessible array are parsed
+     * @return The envelope contained in the remaining bytes or {@code null} if they are raw ciphertext. Its indices
+     * refer to the array of the buffer
+     */
+    static @Nullable CiphertextEnvelope parse(final ByteBuffer buffer) {
+        if (!buffer.hasArray()) {
+            return null;
+        }
+        return parse(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.arrayOffset() + buffer.limit());
+    }
+
+    private static @Nullable CiphertextEnvelope parse(final byte[] bytes, final int offset, final int end) {
+        if (end - offset <= IV_OFFSET || !startsWithMagic(bytes, offset, VERSION)) {
+            return null;
+        }
+        final ParameterType type = ParameterType.fromCode(bytes[offset + 4]);
+        final int ivLength = Byte.toUnsignedInt(bytes[offset + 5]);
+        final int tagIndex = offset + IV_OFFSET + ivLength;
+        if (type == null || tagIndex >= end) {
+            return null;
+        }
+        return new CiphertextEnvelope(bytes, type, offset + IV_OFFSET, ivLength, Byte.toUnsignedInt(bytes[tagIndex]),
+                tagIndex + 1, end);
+    }
+
+    static boolean startsWithMagic(final byte[] bytes, final int offset, final byte version) {
+        return bytes[offset] == MAGIC[0] && bytes[offset + 1] == MAGIC[1] && bytes[offset + 2] == MAGIC[2]
+                && bytes[offset + 3] == version;
+    }
+
+    /**
+     * @param type       The kind of parameters the cipher has to be initialized with
+     * @param iv         The IV or nonce the value was encrypted with, empty for {@link ParameterType#NONE}
+     * @param tagLength  The length of the authentication tag in bytes, 0 unless the type is {@link ParameterType#GCM}
+     * @param ciphertext The encrypted value
+     * @return The envelope containing the parameters and the ciphertext
+     * @throws IllegalArgumentException If the IV or tag length does not fit into a single byte
+     */
+    public static byte[] encode(final ParameterType type, final byte[] iv, final int tagLength, final byte[] ciphertext) {
+        if (iv.length > 0xFF || tagLength < 0 || tagLength > 0xFF) {
+            throw new IllegalArgumentException("IV and tag length must not exceed 255 bytes");
+        }
+        final byte[] envelope = new byte[IV_OFFSET + iv.length + 1 + ciphertext.length];
+        System.arraycopy(MAGIC, 0, envelope, 0, MAGIC.length);
+        envelope[3] = VERSION;
+        envelope[4] = type.code;
+        envelope[5] = (byte) iv.length;
+        System.arraycopy(iv, 0, envelope, IV_OFFSET, iv.length);
+        envelope[IV_OFFSET + iv.length] = (byte) tagLength;
+        System.arraycopy(ciphertext, 0, envelope, IV_OFFSET + iv.length + 1, ciphertext.length);
+        return envelope;
+    }
+
+    /**
+     * @return The length of the ciphertext in bytes
+     */
+    public int payloadLength() {
+        return payloadEnd - payloadOffset;
+    }
+
+    /**
+     * The kind of {@link java.security.spec.AlgorithmParameterSpec} a cipher is initialized with
+     */
+    public enum ParameterType {
+        /**
+         * The cipher takes no parameters, e.g. in ECB mode
+         */
+        NONE((byte) 0),
+        /**
+         * The cipher takes an {@link javax.crypto.spec.IvParameterSpec}
+         */
+        IV((byte) 1),
+        /**
+         * The cipher takes a {@link javax.crypto.spec.GCMParameterSpec}
+         */
+        GCM((byte) 2);
+
+        final byte code;
+
+        ParameterType(final byte code) {
+            this.code = code;
+        }
+
+        private static @Nullable ParameterType fromCode(final byte code) {
+            return switch (code) {
+                case 0 -> NONE;
+                case 1 -> IV;
+                case 2 -> GCM;
+                default -> null;
+            };
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package de.dhbw.cas.encryption.decryptors;
+
+import de.dhbw.cas.encryption.configuration.DecryptionConfiguration;
+import de.dhbw.cas.encryption.configuration.TransformationType;
+import de.dhbw.cas.encryption.exception.DecryptionException;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Creates the {@link TextDecryptor} matching the {@link de.dhbw.cas.encryption.configuration.TransformationType} of a
+ * {@link DecryptionConfiguration}.
+ * Generating private keys, unwrapping and decapsulating are the expensive parts of creating a decryptor. Their result
+ * is kept in a cache shared by the whole JVM, so application contexts started with an equal configuration, e.g. in a
+ * test suite or after a devtools restart, skip them. The cache is keyed by what the resolved key depends on, i.e. the
+ * type, transformation, key algorithm, provider and provider file, and a SHA-256 digest of the key and the wrapping key.
+ * Changing unrelated properties thus hits the cache, changing a key file never hits a stale entry and the cache does
+ * not keep the raw key bytes. It holds at most {@link #MAXIMUM_CACHE_SIZE} entries and drops the least recently used
+ * one when full. An evicted key is destroyed, see {@link ResolvedKey#destroy()}, which zeroes the bytes owned by the
+ * cache while decryptors created from it keep working.
+ * Configurations with {@link DecryptionConfiguration#cache()} disabled bypass the cache.
+ */
+@NullMarked
+public final class DecryptorFactory {
+    static final int MAXIMUM_CACHE_SIZE = 32;
+    private static final String DECRYPTOR_STEP = "dhbw.cas.decryption.decryptor";
+    private static final String KEY_RESOLUTION_STEP = "dhbw.cas.decryption.key-resolution";
+    private static final Map<CacheKey, ResolvedKey> CACHE = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<CacheKey, ResolvedKey> eldest) {
+            if (size() <= MAXIMUM_CACHE_SIZE) {
+                return false;
+            }
+            eldest.getValue().destroy();
+            return true;
+        }
+    };
+
+    private DecryptorFactory() {
+    }
+
+    /**
+     * @param configuration The configuration to create the decryptor for
+     * @return A new decryptor. Every call returns a separate instance so decryptors can be used by different threads.
+     * If the configuration has a keyring, this is a {@link KeyringDecryptor}
+     * @throws DecryptionException If the decryptor cannot be created, e.g. because the key is invalid
+     */
+    public static TextDecryptor createDecryptor(final DecryptionConfiguration configuration) throws DecryptionException {
+        return createDecryptor(configuration, ApplicationStartup.DEFAULT);
+    }
+
+    /**
+     * Creates a decryptor and records it as the {@link StartupStep} {@code dhbw.cas.decryption.decryptor}, tagged with
+     * the transformation and type. Generating the private key, unwrapping or decapsulating is recorded as the nested
+     * step {@code dhbw.cas.decryption.key-resolution}, unless the key was cached
+     *
+     * @param configuration      The configuration to create the decryptor for
+     * @param applicationStartup The startup to record the steps in
+     * @return A new decryptor, see {@link #createDecryptor(DecryptionConfiguration)}
+     * @throws DecryptionException If the decryptor cannot be created, e.g. because the key is invalid
+     */
+    public static TextDecryptor createDecryptor(final DecryptionConfiguration configuration,
+                                                final ApplicationStartup applicationStartup)
+            throws DecryptionException {
+        final StartupStep step = applicationStartup.start(DECRYPTOR_STEP)
+                .tag("transformation", configuration.transformation())
+                .tag("type", configuration.type().name());
+        try {
+            final TextDecryptor decryptor = fromResolvedKey(configuration, configuration.key(),
+                    ResolvedKey::newDecryptor, applicationStartup);
+            if (configuration.keyring().isEmpty()) {
+                return decryptor;
+            }
+            step.tag("keyring", String.valueOf(configuration.keyring().size()));
+            return new KeyringDecryptor(decryptor, configuration);
+        } finally {
+            step.end();
+        }
+    }
+
+    /**
+     * Destroys all cached keys like an eviction does, see {@link ResolvedKey#destroy()}. Decryptors created before keep
+     * working
+     */
+    public static void clearCache() {
+        synchronized (CACHE) {
+            CACHE.values().forEach(ResolvedKey::destroy);
+            CACHE.clear();
+        }
+    }
+
+    /**
+     * @return The number of cached keys
+     */
+    public static int cacheSize() {
+        synchronized (CACHE) {
+            return CACHE.size();
+        }
+    }
+
+    /**
+     * @param configuration The configuration to create the decryptor for
+     * @param key           The key to use instead of {@link DecryptionConfiguration#key()}
+     * @return A new decryptor ignoring the keyring of the configuration
+     * @throws DecryptionException If the decryptor cannot be created, e.g. because the key is invalid
+     */
+    static TextDecryptor createDecryptorForKey(final DecryptionConfiguration configuration, final byte[] key)
+            throws DecryptionException {
+        return fromResolvedKey(configuration, key, ResolvedKey::newDecryptor, ApplicationStartup.DEFAULT);
+    }
+
+    /**
+     * @param configuration The configuration to create the decryptor for
+     * @return A new decryptor for the symmetric key, i.e. the key itself or the unwrapped or decapsulated one
+     * @throws DecryptionException If the configuration is {@link de.dhbw.cas.encryption.configuration.TransformationType#ASYMMETRIC}
+     *                             or the decryptor cannot be created
+     */
+    static SymmetricDecryptor createSymmetricDecryptor(final DecryptionConfiguration configuration)
+            throws DecryptionException {
+        return fromResolvedKey(configuration, configuration.key(), ResolvedKey::newSymmetricDecryptor,
+                ApplicationStartup.DEFAULT);
+    }
+
+    private static <T> T fromResolvedKey(final DecryptionConfiguration configuration, final byte[] key,
+                                         final DecryptorCreation<T> creation,
+                                         final ApplicationStartup applicationStartup) throws DecryptionException {
+        SecurityProviders.ensureAvailable(configuration);
+        if (!configuration.cache()) {
+            return creation.create(resolve(configuration, key, applicationStartup));
+        }
+        final CacheKey cacheKey = CacheKey.of(configuration, key);
+        synchronized (CACHE) {
+            final ResolvedKey cached = CACHE.get(cacheKey);
+            if (cached != null) {
+                return creation.create(cached);
+            }
+        }
+        // resolved outside the lock as this is the expensive part, a concurrent call for the same key wins or loses
+        final ResolvedKey resolved = resolve(configuration, key, applicationStartup);
+        synchronized (CACHE) {
+            final ResolvedKey cached = CACHE.putIfAbsent(cacheKey, resolved);
+            if (cached != null) {
+                resolved.destroy();
+                return creation.create(cached);
+            }
+            return creation.create(resolved);
+        }
+    }
+
+    private static ResolvedKey resolve(final DecryptionConfiguration configuration, final byte[] key,
+                                       final ApplicationStartup applicationStartup) throws DecryptionException {
+        final StartupStep step = applicationStartup.start(KEY_RESOLUTION_STEP)
+                .tag("type", configuration.type().name());
+        try {
+            return ResolvedKey.resolve(configuration, key);
+        } finally {
+            step.end();
+        }
+    }
+
+    @FunctionalInterface
+    private interface DecryptorCreation<T> {
+        T create(ResolvedKey key) throws DecryptionException;
+    }
+
+    private record CacheKey(TransformationType type, String transformation, @Nullable String keyAlgorithm,
+                            @Nullable String provider, @Nullable String providerFile, byte[] keyDigest) {
+
+        static CacheKey of(final DecryptionConfiguration configuration, final byte[] key) throws DecryptionException {
+            final MessageDigest digest;
+            try {
+                digest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new DecryptionException(e);
+            }
+            // the length separates the key from the wrapping key, so their concatenation is unambiguous
+            digest.update(ByteBuffer.allocate(Integer.BYTES).putInt(key.length).array());
+            digest.update(key);
+            digest.update(configuration.wrappingKey());
+            return new CacheKey(configuration.type(), configuration.transformation(), configuration.keyAlgorithm(),
+                    configuration.provider(), configuration.providerFile(), digest.digest());
+        }
+
+        @Override
+        public boolean equals(@Nullable final Object o) {
+            return o instanceof CacheKey(TransformationType otherType, String otherTransformation,
+                                         String otherKeyAlgorithm, String otherProvider, String otherProviderFile,
+                                         byte[] otherKeyDigest)
+                    && type == otherType && transformation.equals(otherTransformation)
+                    && Objects.equals(keyAlgorithm, otherKeyAlgorithm) && Objects.equals(provider, otherProvider)
+                    && Objects.equals(providerFile, otherProviderFile) && Arrays.equals(keyDigest, otherKeyDigest);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Objects.hash(type, transformation, keyAlgorithm, provider, providerFile)
+                    + Arrays.hashCode(keyDigest);
+        }
+
+        @Override
+        public String toString() {
+            return "CacheKey{type=" + type + ", transformation='" + transformation + "', keyAlgorithm='" + keyAlgorithm
+                    + "', provider='" + provider + "'}";
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package de.dhbw.cas.encryption.decryptors;
+
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * A value encrypted with a symmetric data key, which is itself encrypted with the public key of an
+ * {@link de.dhbw.cas.encryption.configuration.TransformationType#ASYMMETRIC} configuration. Many values can share the
+ * same data key, so decrypting them costs a single private key operation. The layout is
+ * <pre>
+ * 'D' 'C' 'E' | version | wrapped key length | wrapped key | envelope
+ * </pre>
+ * The version is {@link #VERSION}, the wrapped key length takes two bytes in big-endian order. The wrapped key is the
+ * AES data key encrypted with the configured transformation. The remaining bytes are a {@link CiphertextEnvelope}
+ * holding the value encrypted with the data key in {@link #GCM_TRANSFORMATION} or {@link #CBC_TRANSFORMATION}, depending
+ * on its parameter type. Like the envelope, this is a view on the bytes it was parsed from.
+ *
+ * @param bytes             The bytes containing the hybrid envelope
+ * @param wrappedKeyOffset  The index of the first byte of the wrapped key
+ * @param wrappedKeyLength  The length of the wrapped key in bytes
+ * @param envelope          The envelope holding the value encrypted with the data key
+ */
+@NullMarked
+public record HybridEnvelope(byte[] bytes, int wrappedKeyOffset, int wrappedKeyLength, CiphertextEnvelope envelope) {
+    public static final byte VERSION = 2;
+    public static final String GCM_TRANSFORMATION = "AES/GCM/NoPadding";
+    public static final String CBC_TRANSFORMATION = "AES/CBC/PKCS5Padding";
+    private static final int WRAPPED_KEY_OFFSET = CiphertextEnvelope.MAGIC.length + 3;
+
+    /**
+     * @param bytes The bytes to parse
+     * @return The hybrid envelope contained in the bytes or {@code null} if they are no hybrid envelope
+     */
+    public static @Nullable HybridEnvelope parse(final byte[] bytes) {
+        if (bytes.length <= WRAPPED_KEY_OFFSET || !CiphertextEnvelope.startsWithMagic(bytes, 0, VERSION)) {
+            return null;
+        }
+        final int wrappedKeyLength = (Byte.toUnsignedInt(bytes[4]) << Byte.SIZE) | Byte.toUnsignedInt(bytes[5]);
+        final int envelopeOffset = WRAPPED_KEY_OFFSET + wrappedKeyLength;
+        if (wrappedKeyLength == 0 || envelopeOffset >= bytes.length) {
+            return null;
+        }
+        final CiphertextEnvelope envelope = CiphertextEnvelope.parse(bytes, envelopeOffset);
+        return envelope == null ? null : new HybridEnvelope(bytes, WRAPPED_KEY_OFFSET, wrappedKeyLength, envelope);
+    }
+
+    /**
+     * @param wrappedKey The data key encrypted with the public key
+     * @param envelope   The envelope created by {@link CiphertextEnvelope#encode} holding the value encrypted with the
+     *                   data key
+     * @return The hybrid envelope
+     * @throws IllegalArgumentException If the wrapped key is empty or longer than 65535 bytes
+     */
+    public static byte[] encode(final byte[] wrappedKey, final byte[] envelope) {
+        if (wrappedKey.length == 0 || wrappedKey.length > 0xFFFF) {
+            throw new IllegalArgumentException("Wrapped key must have between 1 and 65535 bytes");
+        }
+        final byte[] hybrid = new byte[WRAPPED_KEY_OFFSET + wrappedKey.length + envelope.length];
+        System.arraycopy(CiphertextEnvelope.MAGIC, 0, hybrid, 0, CiphertextEnvelope.MAGIC.length);
+        hybrid[3] = VERSION;
+        hybrid[4] = (byte) (wrappedKey.length >>> Byte.SIZE);
+        hybrid[5] = (byte) wrappedKey.length;
+        System.arraycopy(wrappedKey, 0, hybrid, WRAPPED_KEY_OFFSET, wrappedKey.length);
+        System.arraycopy(envelope, 0, hybrid, WRAPPED_KEY_OFFSET + wrappedKey.length, envelope.length);
+        return hybrid;
+    }
+}
@@ -1,20 +1,19 @@
 package de.dhbw.cas.encryption.decryptors;
 
 import de.dhbw.cas.encryption.exception.DecryptionException;
-import de.dhbw.cas.encryption.util.AlgorithmUtil;
+import de.dhbw.cas.encryption.jfr.KeyUnwrapEvent;
 import org.jspecify.annotations.NullMarked;
 import org.jspecify.annotations.Nullable;
 
 import javax.crypto.DecapsulateException;
 import javax.crypto.KEM;
 import javax.crypto.SecretKey;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 import java.security.InvalidKeyException;
-import java.security.KeyFactory;
 import java.security.NoSuchAlgorithmException;
+import java.security.NoSuchProviderException;
 import java.security.PrivateKey;
-import java.security.spec.InvalidKeySpecException;
-import java.security.spec.PKCS8EncodedKeySpec;
 
 @NullMarked
 public class KemDecryptor implements TextDecryptor {
@@ -23,15 +22,34 @@ public class KemDecryptor implements TextDecryptor {
 
     public KemDecryptor(final String kemTransformation, @Nullable final String keyAlgorithm,
                         final byte[] encapsulatedKey, final byte[] kemKey) throws DecryptionException {
+        this(new SymmetricDecryptor(UnwrappingDecryptor.TRANSFORMATION_USED_WITH_UNWRAPPED_KEY, null,
+                decapsulate(kemTransformation, null, keyAlgorithm, encapsulatedKey, kemKey)));
+    }
+
+    KemDecryptor(final TextDecryptor delegate) {
+        this.delegate = delegate;
+    }
+
+    static byte[] decapsulate(final String kemTransformation, @Nullable final String provider,
+                              @Nullable final String keyAlgorithm, final byte[] encapsulatedKey, final byte[] kemKey)
+            throws DecryptionException {
+        final PrivateKey privateKey = AsymmetricDecryptor.generatePrivateKey(kemTransformation, keyAlgorithm, kemKey);
+        final KeyUnwrapEvent event = new KeyUnwrapEvent();
+        event.begin();
+        KEM.Decapsulator decapsulator = null;
+        byte[] decapsulated = null;
         try {
-            final KeyFactory keyFactory = KeyFactory.getInstance(AlgorithmUtil.determineKeyAlgorithm(kemTransformation, keyAlgorithm));
-            final PrivateKey privateKey = keyFactory.generatePrivate(new PKCS8EncodedKeySpec(kemKey));
-            final KEM kem = KEM.getInstance(kemTransformation);
-            final KEM.Decapsulator decapsulator = kem.newDecapsulator(privateKey);
+            final KEM kem = provider == null ? KEM.getInstance(kemTransformation)
+                    : KEM.getInstance(kemTransformation, provider);
+            decapsulator = kem.newDecapsulator(privateKey);
             final SecretKey decapsulate = decapsulator.decapsulate(encapsulatedKey);
-            delegate = new SymmetricDecryptor(UnwrappingDecryptor.TRANSFORMATION_USED_WITH_UNWRAPPED_KEY, null, decapsulate.getEncoded());
-        } catch (DecapsulateException | NoSuchAlgorithmException | InvalidKeySpecException | InvalidKeyException e) {
+            decapsulated = decapsulate.getEncoded();
+            return decapsulated;
+        } catch (DecapsulateException | NoSuchAlgorithmException | NoSuchProviderException | InvalidKeyException e) {
             throw new DecryptionException(e);
+        } finally {
+            event.finish(KeyUnwrapEvent.DECAPSULATE, kemTransformation,
+                    decapsulator == null ? null : decapsulator.providerName(), encapsulatedKey.length, decapsulated);
         }
     }
 
@@ -39,4 +57,20 @@ public class KemDecryptor implements TextDecryptor {
     public String decrypt(byte[] encrypted, byte @Nullable [] iv, Charset charset) throws DecryptionException {
         return delegate.decrypt(encrypted, iv, charset);
     }
+
+    @Override
+    public String decrypt(ByteBuffer encrypted, byte @Nullable [] iv, Charset charset) throws DecryptionException {
+        return delegate.decrypt(encrypted, iv, charset);
+    }
+
+    @Override
+    public String decrypt(String encryptedValue, byte @Nullable [] iv, Charset charset) throws DecryptionException {
+        return delegate.decrypt(encryptedValue, iv, charset);
+    }
+
+    @Override
+    public int decrypt(String encryptedValue, byte @Nullable [] iv, Charset charset, ByteBuffer target)
+            throws DecryptionException {
+        return delegate.decrypt(encryptedValue, iv, charset, target);
+    }
 }
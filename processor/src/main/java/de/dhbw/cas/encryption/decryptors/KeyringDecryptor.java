@@ -0,0 +1,95 @@
+package de.dhbw.cas.encryption.decryptors;
+
+import de.dhbw.cas.encryption.configuration.DecryptionConfiguration;
+import de.dhbw.cas.encryption.exception.DecryptionException;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.HashMap;
+import java.util.Map;
+
+import static de.dhbw.cas.encryption.configuration.DecryptionConfiguration.KEY_ID_SEPARATOR;
+
+/**
+ * Decrypts values with the key from the {@link DecryptionConfiguration#keyring()} their key id refers to.
+ * A value carrying a key id starts with the id followed by {@link DecryptionConfiguration#KEY_ID_SEPARATOR}, e.g.
+ * {@code 2024:0A1B}. As the separator is no hex digit, values without a key id are unambiguous and are decrypted with
+ * {@link DecryptionConfiguration#key()}. The decryptor for a key id is created when the id is first seen and reused
+ * afterward, so retaining old keys in the keyring costs nothing until a value actually refers to them. Like every other
+ * decryptor this is not thread safe.
+ */
+@NullMarked
+public class KeyringDecryptor implements TextDecryptor {
+    private final TextDecryptor defaultDecryptor;
+    private final DecryptionConfiguration configuration;
+    private final Map<String, TextDecryptor> decryptors = new HashMap<>();
+
+    /**
+     * @param defaultDecryptor The decryptor for values without a key id
+     * @param configuration    The configuration containing the keyring
+     */
+    public KeyringDecryptor(final TextDecryptor defaultDecryptor, final DecryptionConfiguration configuration) {
+        this.defaultDecryptor = defaultDecryptor;
+        this.configuration = configuration;
+    }
+
+    @Override
+    public String toString() {
+        return "KeyringDecryptor for key ids " + configuration.keyring().keySet() + " with default " + defaultDecryptor;
+    }
+
+    @Override
+    public String decrypt(final byte[] encrypted, final byte @Nullable [] iv, final Charset charset)
+            throws DecryptionException {
+        return defaultDecryptor.decrypt(encrypted, iv, charset);
+    }
+
+    @Override
+    public String decrypt(final ByteBuffer encrypted, final byte @Nullable [] iv, final Charset charset)
+            throws DecryptionException {
+        return defaultDecryptor.decrypt(encrypted, iv, charset);
+    }
+
+    @Override
+    public String decrypt(final String encryptedValue, final byte @Nullable [] iv, final Charset charset)
+            throws DecryptionException {
+        final int separator = encryptedValue.indexOf(KEY_ID_SEPARATOR);
+        if (separator < 0) {
+            return defaultDecryptor.decrypt(encryptedValue, iv, charset);
+        }
+        final TextDecryptor decryptor = getDecryptor(encryptedValue.substring(0, separator));
+        return decryptor.decrypt(encryptedValue.substring(separator + 1), iv, charset);
+    }
+
+    @Override
+    public int decrypt(final String encryptedValue, final byte @Nullable [] iv, final Charset charset,
+                       final ByteBuffer target) throws DecryptionException {
+        final int separator = encryptedValue.indexOf(KEY_ID_SEPARATOR);
+        if (separator < 0) {
+            return defaultDecryptor.decrypt(encryptedValue, iv, charset, target);
+        }
+        final TextDecryptor decryptor = getDecryptor(encryptedValue.substring(0, separator));
+        return decryptor.decrypt(encryptedValue.substring(separator + 1), iv, charset, target);
+    }
+
+    private TextDecryptor getDecryptor(final String keyId) throws DecryptionException {
+        final TextDecryptor decryptor = decryptors.get(keyId);
+        if (decryptor != null) {
+            return decryptor;
+        }
+        final String keyPath = configuration.keyring().get(keyId);
+        if (keyPath == null) {
+            throw new DecryptionException("Unknown key id [" + keyId + "]");
+        }
+        try {
+            final TextDecryptor created = DecryptorFactory.createDecryptorForKey(configuration,
+                    DecryptionConfiguration.loadKey(keyPath));
+            decryptors.put(keyId, created);
+            return created;
+        } catch (IllegalStateException e) {
+            throw new DecryptionException(e);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package de.dhbw.cas.encryption.decryptors;
+
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+import javax.crypto.Cipher;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.AlgorithmParameters;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.Provider;
+import java.security.Security;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Selects the fastest installed provider for a symmetric transformation, see
+ * {@link de.dhbw.cas.encryption.configuration.DecryptionConfiguration#AUTO_PROVIDER}. Every provider supporting the
+ * transformation encrypts {@link #SAMPLE_SIZE} bytes once and decrypts them {@link #WARMUP_ROUNDS} times to warm up
+ * and {@link #MEASURED_ROUNDS} times to measure. The provider taking the least time wins. The choice is kept per
+ * transformation and key length for the lifetime of the JVM and, if a file is given, persisted there together with the
+ * Java version, so later starts with the same JDK skip the measurement. A persisted provider that is no longer
+ * registered is measured again.
+ */
+@NullMarked
+final class ProviderSelection {
+    static final int SAMPLE_SIZE = 4096;
+    static final int WARMUP_ROUNDS = 200;
+    static final int MEASURED_ROUNDS = 500;
+    private static final Map<String, String> SELECTED = new HashMap<>();
+
+    private ProviderSelection() {
+    }
+
+    /**
+     * @param transformation The symmetric transformation to select the provider for
+     * @param key            The key the transformation is used with
+     * @param file           The properties file to persist the choice in or {@code null} to only keep it in memory
+     * @return The name of the fastest provider or {@code null} if no provider could be measured
+     */
+    static synchronized @Nullable String select(final String transformation, final Key key,
+                                                @Nullable final String file) {
+        final byte[] encoded = key.getEncoded();
+        final String selectionKey = transformation + '@' + encoded.length + "@java" + Runtime.version().feature();
+        Arrays.fill(encoded, (byte) 0);
+        final String selected = SELECTED.get(selectionKey);
+        if (selected != null) {
+            return selected;
+        }
+        final Properties persisted = file == null ? new Properties() : load(Path.of(file));
+        String provider = persisted.getProperty(selectionKey);
+        if (provider == null || Security.getProvider(provider) == null) {
+            provider = measure(transformation, key);
+            if (provider == null) {
+                return null;
+            }
+            if (file != null) {
+                persisted.setProperty(selectionKey, provider);
+                store(Path.of(file), persisted);
+            }
+        }
+        SELECTED.put(selectionKey, provider);
+        return provider;
+    }
+
+    private static @Nullable String measure(final String transformation, final Key key) {
+        final byte[] sample = new byte[SAMPLE_SIZE];
+        String fastest = null;
+        long fastestNanos = Long.MAX_VALUE;
+        for (Provider provider : Security.getProviders()) {
+            final long nanos = measure(transformation, key, provider, sample);
+            if (nanos < fastestNanos) {
+                fastest = provider.getName();
+                fastestNanos = nanos;
+            }
+        }
+        return fastest;
+    }
+
+    /**
+     * @return The time the measured rounds took in nanoseconds or {@link Long#MAX_VALUE} if the provider does not
+     * support the transformation
+     */
+    static long measure(final String transformation, final Key key, final Provider provider, final byte[] sample) {
+        try {
+            final Cipher encrypting = Cipher.getInstance(transformation, provider);
+            encrypting.init(Cipher.ENCRYPT_MODE, key);
+            final byte[] encrypted = encrypting.doFinal(sample);
+            final AlgorithmParameters parameters = encrypting.getParameters();
+            final Cipher decrypting = Cipher.getInstance(transformation, provider);
+            for (int i = 0; i < WARMUP_ROUNDS; i++) {
+                decrypting.init(Cipher.DECRYPT_MODE, key, parameters);
+                decrypting.doFinal(encrypted);
+            }
+            final long start = System.nanoTime();
+            for (int i = 0; i < MEASURED_ROUNDS; i++) {
+                decrypting.init(Cipher.DECRYPT_MODE, key, parameters);
+                decrypting.doFinal(encrypted);
+            }
+            return System.nanoTime() - start;
+        } catch (GeneralSecurityException | RuntimeException e) {
+            return Long.MAX_VALUE;
+        }
+    }
+
+    private static Properties load(final Path file) {
+        final Properties properties = new Properties();
+        if (Files.isRegularFile(file)) {
+            try (InputStream stream = Files.newInputStream(file)) {
+                properties.load(stream);
+            } catch (IOException e) {
+                // an unreadable file only costs measuring again
+            }
+        }
+        return properties;
+    }
+
+    private static void store(final Path file, final Properties properties) {
+        try {
+            final Path parent = file.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            try (OutputStream stream = Files.newOutputStream(file)) {
+                properties.store(stream, "Security providers selected by dhbw.cas.decryption.provider=auto");
+            }
+        } catch (IOException e) {
+            // the selection is still kept in memory
+        }
+    }
+
+    static synchronized void clear() {
+        SELECTED.clear();
+    }
+}
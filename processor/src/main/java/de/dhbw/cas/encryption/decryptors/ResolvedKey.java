@@ -0,0 +1,130 @@
+package de.dhbw.cas.encryption.decryptors;
+
+import de.dhbw.cas.encryption.configuration.DecryptionConfiguration;
+import de.dhbw.cas.encryption.configuration.TransformationType;
+import de.dhbw.cas.encryption.exception.DecryptionException;
+import de.dhbw.cas.encryption.util.AlgorithmUtil;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.security.PrivateKey;
+import java.util.Arrays;
+
+/**
+ * The key of a {@link DecryptionConfiguration} after the expensive steps of creating a decryptor, i.e. generating the
+ * private key, unwrapping or decapsulating. Creating a decryptor from this only requires a new
+ * {@link javax.crypto.Cipher}. Symmetric keys are held as bytes owned by this instance so {@link #destroy()} can zero
+ * them, decryptors created before keep their own copy in their {@link SecretKeySpec}. Private keys are shared with the
+ * decryptors created from them and thus are never destroyed here. This is not thread safe, {@link DecryptorFactory}
+ * only uses it while holding the lock of its cache.
+ */
+@NullMarked
+final class ResolvedKey {
+    private final TransformationType type;
+    private final String transformation;
+    private final String secretKeyAlgorithm;
+    private final byte @Nullable [] secretKey;
+    private final @Nullable PrivateKey privateKey;
+    private final @Nullable String provider;
+    private boolean destroyed;
+
+    private ResolvedKey(final TransformationType type, final String transformation, final String secretKeyAlgorithm,
+                        final byte @Nullable [] secretKey, final @Nullable PrivateKey privateKey,
+                        final @Nullable String provider) {
+        this.type = type;
+        this.transformation = transformation;
+        this.secretKeyAlgorithm = secretKeyAlgorithm;
+        this.secretKey = secretKey;
+        this.privateKey = privateKey;
+        this.provider = provider;
+    }
+
+    /**
+     * Resolves the key and the provider of its cipher. A provider pinned by {@link DecryptionConfiguration#provider()}
+     * is used for the configured transformation, i.e. the decrypting cipher of symmetric and asymmetric keys and the
+     * unwrapping or decapsulating one otherwise. {@link DecryptionConfiguration#AUTO_PROVIDER} selects the provider of
+     * symmetric keys with {@link ProviderSelection} and keeps the default selection for the other types
+     *
+     * @param configuration The configuration to resolve the key for
+     * @param key           The key to use instead of {@link DecryptionConfiguration#key()}
+     * @return The resolved key
+     * @throws DecryptionException If the key is invalid
+     */
+    static ResolvedKey resolve(final DecryptionConfiguration configuration, final byte[] key)
+            throws DecryptionException {
+        final String transformation = configuration.transformation();
+        final String keyAlgorithm = AlgorithmUtil.determineKeyAlgorithm(transformation, configuration.keyAlgorithm());
+        final String pinned = SecurityProviders.pinnedProvider(configuration);
+        return switch (configuration.type()) {
+            case SYMMETRIC -> new ResolvedKey(TransformationType.SYMMETRIC, transformation, keyAlgorithm, key.clone(),
+                    null, DecryptionConfiguration.AUTO_PROVIDER.equals(configuration.provider())
+                    ? ProviderSelection.select(transformation, new SecretKeySpec(key, keyAlgorithm),
+                    configuration.providerFile())
+                    : pinned);
+            case ASYMMETRIC -> new ResolvedKey(TransformationType.ASYMMETRIC, transformation, keyAlgorithm, null,
+                    AsymmetricDecryptor.generatePrivateKey(transformation, configuration.keyAlgorithm(), key), pinned);
+            case WRAPPING -> new ResolvedKey(TransformationType.WRAPPING,
+                    UnwrappingDecryptor.TRANSFORMATION_USED_WITH_UNWRAPPED_KEY, "AES",
+                    UnwrappingDecryptor.unwrap(transformation, pinned, configuration.keyAlgorithm(), key,
+                            configuration.wrappingKey()), null, null);
+            case KEM -> new ResolvedKey(TransformationType.KEM,
+                    UnwrappingDecryptor.TRANSFORMATION_USED_WITH_UNWRAPPED_KEY, "AES",
+                    KemDecryptor.decapsulate(transformation, pinned, configuration.keyAlgorithm(), key,
+                            configuration.wrappingKey()), null, null);
+        };
+    }
+
+    /**
+     * @return A new decryptor using this key
+     * @throws DecryptionException If the decryptor cannot be created
+     * @throws IllegalStateException If the key was destroyed
+     */
+    TextDecryptor newDecryptor() throws DecryptionException {
+        return switch (type) {
+            case SYMMETRIC -> newSymmetricDecryptor();
+            case ASYMMETRIC -> {
+                if (privateKey == null || destroyed) {
+                    throw new IllegalStateException("Key was destroyed");
+                }
+                yield new AsymmetricDecryptor(transformation, privateKey, provider);
+            }
+            case WRAPPING -> new UnwrappingDecryptor(newSymmetricDecryptor());
+            case KEM -> new KemDecryptor(newSymmetricDecryptor());
+        };
+    }
+
+    /**
+     * @return A new decryptor using the symmetric key, i.e. the key itself or the unwrapped or decapsulated one
+     * @throws DecryptionException If the key is asymmetric or the decryptor cannot be created
+     * @throws IllegalStateException If the key was destroyed
+     */
+    SymmetricDecryptor newSymmetricDecryptor() throws DecryptionException {
+        if (type == TransformationType.ASYMMETRIC) {
+            throw new DecryptionException("Transformation " + transformation + " does not use a symmetric key");
+        }
+        return new SymmetricDecryptor(transformation, secretKeySpec(), provider);
+    }
+
+    private SecretKeySpec secretKeySpec() {
+        if (secretKey == null || destroyed) {
+            throw new IllegalStateException("Key was destroyed");
+        }
+        return new SecretKeySpec(secretKey, secretKeyAlgorithm);
+    }
+
+    /**
+     * Zeroes the bytes of a symmetric key and prevents creating new decryptors. Decryptors created before keep working,
+     * as they hold their own copy of a symmetric key and share a private key, which is therefore left intact.
+     */
+    void destroy() {
+        destroyed = true;
+        if (secretKey != null) {
+            Arrays.fill(secretKey, (byte) 0);
+        }
+    }
+
+    boolean isDestroyed() {
+        return destroyed;
+    }
+}
@@ -0,0 +1,114 @@
+package de.dhbw.cas.encryption.decryptors;
+
+import de.dhbw.cas.encryption.configuration.DecryptionConfiguration;
+import de.dhbw.cas.encryption.configuration.TransformationType;
+import de.dhbw.cas.encryption.util.AlgorithmUtil;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+import javax.crypto.Cipher;
+import javax.crypto.KEM;
+import javax.crypto.NoSuchPaddingException;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.NoSuchAlgorithmException;
+import java.security.NoSuchProviderException;
+import java.security.Security;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Decides which security provider the ciphers of a {@link DecryptionConfiguration} are created with.
+ * BouncyCastle is only registered if the configuration needs it, i.e. if it is pinned with
+ * {@link DecryptionConfiguration#provider()}, if the selection by {@link DecryptionConfiguration#AUTO_PROVIDER} should
+ * consider it or if the installed providers lack the transformation or key algorithm. Loading BouncyCastle registers
+ * all of its algorithms, which takes a noticeable part of the startup and is wasted for transformations like AES that
+ * the JDK supports with intrinsics. Whether the installed providers support a transformation is checked once per JVM.
+ */
+@NullMarked
+final class SecurityProviders {
+    static final String BOUNCY_CASTLE = "BC";
+    private static final Map<String, Boolean> SUPPORTED = new ConcurrentHashMap<>();
+
+    private SecurityProviders() {
+    }
+
+    /**
+     * Registers BouncyCastle if the configuration needs it
+     *
+     * @param configuration The configuration to create decryptors for
+     */
+    static void ensureAvailable(final DecryptionConfiguration configuration) {
+        final String provider = configuration.provider();
+        if (BOUNCY_CASTLE.equals(provider)
+                || (DecryptionConfiguration.AUTO_PROVIDER.equals(provider)
+                && configuration.type() == TransformationType.SYMMETRIC)) {
+            BouncyCastle.register();
+            return;
+        }
+        if (provider != null && !DecryptionConfiguration.AUTO_PROVIDER.equals(provider)) {
+            // a pinned provider has to be registered by the application
+            return;
+        }
+        final String transformation = configuration.transformation();
+        final String keyAlgorithm = configuration.keyAlgorithm();
+        final String supportKey = configuration.type() + ":" + transformation + ":" + keyAlgorithm;
+        final boolean supported = SUPPORTED.computeIfAbsent(supportKey,
+                ignored -> isSupported(configuration.type(), transformation, keyAlgorithm));
+        if (!supported) {
+            BouncyCastle.register();
+        }
+    }
+
+    private static boolean isSupported(final TransformationType type, final String transformation,
+                                       @Nullable final String keyAlgorithm) {
+        try {
+            if (type == TransformationType.KEM) {
+                KEM.getInstance(transformation);
+            } else {
+                Cipher.getInstance(transformation);
+            }
+            if (type != TransformationType.SYMMETRIC) {
+                KeyFactory.getInstance(AlgorithmUtil.determineKeyAlgorithm(transformation, keyAlgorithm));
+            }
+            return true;
+        } catch (GeneralSecurityException e) {
+            return false;
+        }
+    }
+
+    /**
+     * @param configuration The configuration to create decryptors for
+     * @return The provider pinned for the transformation of the configuration or {@code null} if there is none or it is
+     * selected automatically
+     */
+    static @Nullable String pinnedProvider(final DecryptionConfiguration configuration) {
+        final String provider = configuration.provider();
+        return DecryptionConfiguration.AUTO_PROVIDER.equals(provider) ? null : provider;
+    }
+
+    /**
+     * @param transformation The transformation of the cipher
+     * @param provider       The name of the provider or {@code null} to use the first one supporting the transformation
+     * @return A new cipher
+     * @throws NoSuchProviderException If the provider is not registered
+     */
+    static Cipher cipher(final String transformation, @Nullable final String provider)
+            throws NoSuchAlgorithmException, NoSuchPaddingException, NoSuchProviderException {
+        return provider == null ? Cipher.getInstance(transformation) : Cipher.getInstance(transformation, provider);
+    }
+
+    /**
+     * Holds the only reference to {@link BouncyCastleProvider}, so its classes are only loaded if BouncyCastle is
+     * actually registered
+     */
+    private static final class BouncyCastle {
+        private static synchronized void register() {
+            // creating the provider registers all of its algorithms, which is wasted when it was added before
+            if (Security.getProvider(BouncyCastleProvider.PROVIDER_NAME) == null) {
+                Security.addProvider(new BouncyCastleProvider());
+            }
+        }
+    }
+}
@@ -0,0 +1,426 @@
+package de.dhbw.cas.encryption.decryptors;
+
+import de.dhbw.cas.encryption.configuration.DecryptionConfiguration;
+import de.dhbw.cas.encryption.configuration.TransformationType;
+import de.dhbw.cas.encryption.exception.DecryptionException;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+import javax.crypto.BadPaddingException;
+import javax.crypto.Cipher;
+import javax.crypto.IllegalBlockSizeException;
+import javax.crypto.Mac;
+import javax.crypto.ShortBufferException;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.GeneralSecurityException;
+import java.security.InvalidKeyException;
+import java.security.Key;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * A large encrypted file that can be read at any position without decrypting what comes before. The plaintext is split
+ * into segments of a fixed size, which are encrypted and authenticated independently. The layout is
+ * <pre>
+ * 'D' 'C' 'E' | 3 | salt length | salt | nonce prefix length | nonce prefix | tag length | segment size | segments
+ * </pre>
+ * The lengths take a single unsigned byte, the segment size is the number of plaintext bytes per segment as four
+ * byte big-endian integer. Every segment but the last holds that many bytes followed by the tag, the last one may be
+ * shorter. The nonce of a segment is the nonce prefix followed by the index of the segment as four byte big-endian
+ * integer and a byte that is {@code 1} for the last segment and {@code 0} otherwise, so segments cannot be reordered
+ * and the file cannot be truncated unnoticed. The header is the additional authenticated data of every segment.
+ * <p>
+ * The segments are not encrypted with the configured key itself but with a key derived from it and the random salt of
+ * the file by HKDF with HMAC-SHA256, like standard streaming AEAD formats do. Nonces thus only have to be unique
+ * within a file, so the short nonce prefix does not limit how many files can be encrypted with the same key.
+ * <p>
+ * The file is memory mapped and a read only decrypts the segments it touches. A read spanning multiple segments
+ * decrypts them with up to {@link DecryptionConfiguration#parallelism()} threads, each with its own cipher. Reads are
+ * serialized, so a file can be shared between threads. The key is resolved like for {@link StreamDecryptor}, i.e. for
+ * the types {@code SYMMETRIC}, {@code WRAPPING} and {@code KEM}. With {@code SYMMETRIC} the transformation has to
+ * authenticate, e.g. {@code AES/GCM/NoPadding} or {@code ChaCha20-Poly1305}. The unwrapped or decapsulated key of the
+ * other types is used with {@link #TRANSFORMATION_USED_WITH_UNWRAPPED_KEY}.
+ */
+@NullMarked
+public final class SegmentedFile implements Closeable {
+    public static final byte VERSION = 3;
+    public static final int DEFAULT_SEGMENT_SIZE = 64 * 1024;
+    public static final String TRANSFORMATION_USED_WITH_UNWRAPPED_KEY = "AES/GCM/NoPadding";
+    private static final int SALT_LENGTH = 32;
+    private static final int NONCE_PREFIX_LENGTH = 7;
+    private static final int TAG_LENGTH = 16;
+    private static final int SALT_OFFSET = CiphertextEnvelope.MAGIC.length + 2;
+    private static final int MAXIMUM_HEADER_LENGTH = SALT_OFFSET + 0xFF + 1 + 0xFF + 1 + Integer.BYTES;
+    private static final String KEY_DERIVATION_MAC = "HmacSHA256";
+    private static final byte[] KEY_DERIVATION_INFO = "dhbw.cas.decryption.segmented-file"
+            .getBytes(StandardCharsets.US_ASCII);
+    private static final int LAST_SEGMENT = 1;
+
+    private final FileChannel channel;
+    private final String transformation;
+    private final byte[] header;
+    private final byte[] noncePrefix;
+    private final int tagLength;
+    private final int segmentSize;
+    private final int encryptedSegmentSize;
+    private final int segmentCount;
+    private final long size;
+    private final int segmentsPerWindow;
+    private final MappedByteBuffer[] windows;
+    private final Worker worker;
+    private final @Nullable Worker[] helpers;
+    private final @Nullable ExecutorService executor;
+
+    private SegmentedFile(final FileChannel channel, final byte[] header, final byte[] noncePrefix, final int tagLength,
+                          final int segmentSize, final String transformation, final SymmetricDecryptor decryptor,
+                          final int parallelism) throws IOException, DecryptionException {
+        this.channel = channel;
+        this.transformation = transformation;
+        this.header = header;
+        this.noncePrefix = noncePrefix;
+        this.tagLength = tagLength;
+        this.segmentSize = segmentSize;
+        this.encryptedSegmentSize = segmentSize + tagLength;
+        final long encryptedSize = channel.size() - header.length;
+        final long lastSegmentSize = encryptedSize % encryptedSegmentSize;
+        if ((lastSegmentSize > 0 && lastSegmentSize < tagLength) || encryptedSize < tagLength) {
+            throw new DecryptionException("Segmented file is truncated");
+        }
+        final long count = Math.max(1, (encryptedSize + encryptedSegmentSize - 1) / encryptedSegmentSize);
+        if (count > Integer.MAX_VALUE) {
+            throw new DecryptionException("Segmented file has too many segments");
+        }
+        this.segmentCount = (int) count;
+        this.size = encryptedSize - count * tagLength;
+        this.segmentsPerWindow = Math.max(1, Integer.MAX_VALUE / encryptedSegmentSize);
+        this.windows = new MappedByteBuffer[(segmentCount + segmentsPerWindow - 1) / segmentsPerWindow];
+        for (int i = 0; i < windows.length; i++) {
+            final long start = header.length + (long) i * segmentsPerWindow * encryptedSegmentSize;
+            windows[i] = channel.map(FileChannel.MapMode.READ_ONLY, start,
+                    Math.min((long) segmentsPerWindow * encryptedSegmentSize, channel.size() - start));
+        }
+        this.worker = new Worker(decryptor);
+        this.helpers = new Worker[Math.max(0, Math.min(parallelism, segmentCount) - 1)];
+        this.executor = helpers.length > 0
+                ? Executors.newFixedThreadPool(helpers.length,
+                Thread.ofPlatform().name("segmented-file-decryption-", 0).daemon().factory())
+                : null;
+    }
+
+    /**
+     * @param configuration The configuration providing the key
+     * @param file          The encrypted file
+     * @return The opened file, which has to be closed
+     * @throws DecryptionException If the file is not in the segmented format, the configuration has no symmetric key
+     *                             or its transformation does not authenticate
+     * @throws IOException         If the file cannot be read
+     */
+    public static SegmentedFile open(final DecryptionConfiguration configuration, final Path file)
+            throws DecryptionException, IOException {
+        SymmetricDecryptor decryptor = DecryptorFactory.createSymmetricDecryptor(configuration);
+        final String transformation = configuration.type() == TransformationType.SYMMETRIC
+                ? configuration.transformation()
+                : TRANSFORMATION_USED_WITH_UNWRAPPED_KEY;
+        if (configuration.type() != TransformationType.SYMMETRIC) {
+            decryptor = decryptor.withTransformation(transformation);
+        }
+        if (!decryptor.isAuthenticated()) {
+            throw new DecryptionException("Segmented files require an authenticating transformation, not "
+                    + transformation);
+        }
+        final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            final ByteBuffer start = ByteBuffer.allocate((int) Math.min(MAXIMUM_HEADER_LENGTH, channel.size()));
+            while (start.hasRemaining() && channel.read(start, start.position()) >= 0) {
+                // read until the buffer is full or the file ends
+            }
+            final byte[] bytes = start.array();
+            if (bytes.length <= SALT_OFFSET || !CiphertextEnvelope.startsWithMagic(bytes, 0, VERSION)) {
+                throw new DecryptionException(file + " is no segmented file");
+            }
+            final int saltLength = Byte.toUnsignedInt(bytes[SALT_OFFSET - 1]);
+            final int noncePrefixOffset = SALT_OFFSET + saltLength + 1;
+            if (bytes.length <= noncePrefixOffset) {
+                throw new DecryptionException(file + " is no segmented file");
+            }
+            final int nonceLength = Byte.toUnsignedInt(bytes[noncePrefixOffset - 1]);
+            final int headerLength = noncePrefixOffset + nonceLength + 1 + Integer.BYTES;
+            if (bytes.length < headerLength) {
+                throw new DecryptionException(file + " is no segmented file");
+            }
+            final int tagLength = Byte.toUnsignedInt(bytes[noncePrefixOffset + nonceLength]);
+            final int segmentSize = ByteBuffer.wrap(bytes, headerLength - Integer.BYTES, Integer.BYTES).getInt();
+            if (segmentSize <= 0 || segmentSize > Integer.MAX_VALUE - tagLength) {
+                throw new DecryptionException("Invalid segment size " + segmentSize + " in " + file);
+            }
+            final Key fileKey;
+            try {
+                fileKey = deriveKey(decryptor.key(), Arrays.copyOfRange(bytes, SALT_OFFSET, SALT_OFFSET + saltLength));
+            } catch (NoSuchAlgorithmException | InvalidKeyException e) {
+                throw new DecryptionException(e);
+            }
+            return new SegmentedFile(channel, Arrays.copyOf(bytes, headerLength),
+                    Arrays.copyOfRange(bytes, noncePrefixOffset, noncePrefixOffset + nonceLength), tagLength,
+                    segmentSize, transformation, decryptor.withKey(fileKey), configuration.parallelism());
+        } catch (DecryptionException | IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return The number of decrypted bytes
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Decrypts the bytes starting at the position into the remaining space of the target. Only the segments
+     * containing these bytes are decrypted
+     *
+     * @param position The index of the first decrypted byte to read
+     * @param target   The buffer to write to, starting at its position
+     * @return The number of bytes read, which is less than the remaining space if the file ends before, or {@code -1}
+     * if the position is at or after the end of the file
+     * @throws DecryptionException If a segment cannot be decrypted, e.g. because it was modified
+     */
+    public synchronized int read(final long position, final ByteBuffer target) throws DecryptionException {
+        if (position < 0) {
+            throw new IllegalArgumentException("Position must not be negative");
+        }
+        if (position >= size) {
+            return -1;
+        }
+        final int length = (int) Math.min(target.remaining(), size - position);
+        if (length == 0) {
+            return 0;
+        }
+        final int first = (int) (position / segmentSize);
+        final int last = (int) ((position + length - 1) / segmentSize);
+        final int workerCount = Math.min(helpers.length + 1, last - first + 1);
+        final int segmentsPerWorker = (last - first + workerCount) / workerCount;
+        final List<Future<Void>> decrypting = new ArrayList<>(workerCount - 1);
+        for (int helper = 1; helper < workerCount && first + helper * segmentsPerWorker <= last; helper++) {
+            final int from = first + helper * segmentsPerWorker;
+            final int to = Math.min(last, from + segmentsPerWorker - 1);
+            final Worker assigned = helper(helper - 1);
+            decrypting.add(Objects.requireNonNull(executor).submit(() -> {
+                assigned.decrypt(from, to, position, length, target);
+                return null;
+            }));
+        }
+        DecryptionException failure = null;
+        try {
+            worker.decrypt(first, Math.min(last, first + segmentsPerWorker - 1), position, length, target);
+        } catch (DecryptionException e) {
+            failure = e;
+        }
+        // every worker has to finish before the next read may use it again, even if one of them failed
+        for (Future<Void> segments : decrypting) {
+            try {
+                segments.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failure = failure == null ? new DecryptionException(e) : failure;
+            } catch (ExecutionException e) {
+                if (failure == null) {
+                    failure = e.getCause() instanceof DecryptionException decryptionException
+                            ? decryptionException
+                            : new DecryptionException(e.getCause());
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        target.position(target.position() + length);
+        return length;
+    }
+
+    private Worker helper(final int index) throws DecryptionException {
+        Worker helper = helpers[index];
+        if (helper == null) {
+            helper = new Worker(worker.decryptor.withTransformation(transformation));
+            helpers[index] = helper;
+        }
+        return helper;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (executor != null) {
+            executor.close();
+        }
+        channel.close();
+    }
+
+    /**
+     * Encrypts a stream into the segmented format
+     *
+     * @param key            The symmetric key
+     * @param transformation An authenticating transformation taking a nonce of twelve bytes, e.g.
+     *                       {@code AES/GCM/NoPadding}
+     * @param segmentSize    The number of plaintext bytes per segment, e.g. {@link #DEFAULT_SEGMENT_SIZE}
+     * @param plaintext      The stream to encrypt
+     * @param encrypted      The stream to write the segmented file to
+     */
+    public static void encrypt(final Key key, final String transformation, final int segmentSize,
+                               final InputStream plaintext, final OutputStream encrypted)
+            throws GeneralSecurityException, IOException {
+        final Cipher cipher = Cipher.getInstance(transformation);
+        final SecureRandom random = new SecureRandom();
+        final byte[] salt = new byte[SALT_LENGTH];
+        random.nextBytes(salt);
+        final byte[] noncePrefix = new byte[NONCE_PREFIX_LENGTH];
+        random.nextBytes(noncePrefix);
+        final Key fileKey = deriveKey(key, salt);
+        final int headerLength = SALT_OFFSET + SALT_LENGTH + 1 + NONCE_PREFIX_LENGTH + 1 + Integer.BYTES;
+        final byte[] header = ByteBuffer.allocate(headerLength)
+                .put(CiphertextEnvelope.MAGIC)
+                .put(VERSION)
+                .put((byte) SALT_LENGTH)
+                .put(salt)
+                .put((byte) NONCE_PREFIX_LENGTH)
+                .put(noncePrefix)
+                .put((byte) TAG_LENGTH)
+                .putInt(segmentSize)
+                .array();
+        final boolean isGcm = transformation.toUpperCase(Locale.ROOT).contains("/GCM/");
+        encrypted.write(header);
+        byte[] segment = plaintext.readNBytes(segmentSize);
+        for (int index = 0; ; index++) {
+            final byte[] next = segment.length < segmentSize ? new byte[0] : plaintext.readNBytes(segmentSize);
+            final boolean isLast = next.length == 0;
+            final byte[] nonce = nonce(noncePrefix, index, isLast);
+            cipher.init(Cipher.ENCRYPT_MODE, fileKey, isGcm
+                    ? new GCMParameterSpec(TAG_LENGTH * Byte.SIZE, nonce)
+                    : new IvParameterSpec(nonce));
+            cipher.updateAAD(header);
+            encrypted.write(cipher.doFinal(segment));
+            if (isLast) {
+                return;
+            }
+            segment = next;
+        }
+    }
+
+    /**
+     * Derives the key of a file with HKDF (RFC 5869) using HMAC-SHA256. The derived key has the length and algorithm
+     * of the configured one
+     *
+     * @param key  The configured key
+     * @param salt The salt of the file
+     * @return The key the segments of the file are encrypted with
+     * @throws InvalidKeyException If the key does not expose its bytes, e.g. because it is kept in a hardware module
+     */
+    static Key deriveKey(final Key key, final byte[] salt) throws NoSuchAlgorithmException, InvalidKeyException {
+        final byte[] keyBytes = key.getEncoded();
+        if (keyBytes == null) {
+            throw new InvalidKeyException("Segmented files require a key exposing its bytes, not "
+                    + key.getAlgorithm());
+        }
+        byte[] pseudoRandomKey = null;
+        final byte[] derived = new byte[keyBytes.length];
+        try {
+            final Mac mac = Mac.getInstance(KEY_DERIVATION_MAC);
+            mac.init(new SecretKeySpec(salt.length == 0 ? new byte[mac.getMacLength()] : salt, KEY_DERIVATION_MAC));
+            pseudoRandomKey = mac.doFinal(keyBytes);
+            mac.init(new SecretKeySpec(pseudoRandomKey, KEY_DERIVATION_MAC));
+            byte[] block = new byte[0];
+            for (int offset = 0, counter = 1; offset < derived.length; offset += block.length, counter++) {
+                mac.update(block);
+                mac.update(KEY_DERIVATION_INFO);
+                mac.update((byte) counter);
+                block = mac.doFinal();
+                System.arraycopy(block, 0, derived, offset, Math.min(block.length, derived.length - offset));
+            }
+            return new SecretKeySpec(derived, key.getAlgorithm());
+        } finally {
+            Arrays.fill(keyBytes, (byte) 0);
+            Arrays.fill(derived, (byte) 0);
+            if (pseudoRandomKey != null) {
+                Arrays.fill(pseudoRandomKey, (byte) 0);
+            }
+        }
+    }
+
+    private static byte[] nonce(final byte[] noncePrefix, final int index, final boolean isLast) {
+        return ByteBuffer.allocate(noncePrefix.length + Integer.BYTES + 1)
+                .put(noncePrefix)
+                .putInt(index)
+                .put((byte) (isLast ? LAST_SEGMENT : 0))
+                .array();
+    }
+
+    /**
+     * Decrypts segments with its own cipher and scratch buffer
+     */
+    private final class Worker {
+        private final SymmetricDecryptor decryptor;
+        private final ByteBuffer scratch = ByteBuffer.allocate(segmentSize);
+
+        private Worker(final SymmetricDecryptor decryptor) {
+            this.decryptor = decryptor;
+        }
+
+        /**
+         * Decrypts the segments from {@code from} to {@code to}, both inclusive, and copies the part of the requested
+         * range they hold into the target. The position of the target is not changed
+         */
+        private void decrypt(final int from, final int to, final long position, final int length,
+                             final ByteBuffer target) throws DecryptionException {
+            for (int index = from; index <= to; index++) {
+                final long segmentStart = (long) index * segmentSize;
+                final int offsetInSegment = (int) Math.max(0, position - segmentStart);
+                final int targetOffset = (int) Math.max(0, segmentStart - position);
+                final int segmentLength = (int) Math.min(segmentSize, size - segmentStart);
+                final int copied = Math.min(segmentLength - offsetInSegment, length - targetOffset);
+                final ByteBuffer destination = target.slice(target.position() + targetOffset, copied);
+                if (offsetInSegment == 0 && copied == segmentLength) {
+                    decryptSegment(index, segmentLength, destination);
+                } else {
+                    scratch.clear();
+                    decryptSegment(index, segmentLength, scratch);
+                    destination.put(scratch.flip().position(offsetInSegment).limit(offsetInSegment + copied));
+                    Arrays.fill(scratch.array(), (byte) 0);
+                }
+            }
+        }
+
+        private void decryptSegment(final int index, final int segmentLength, final ByteBuffer output)
+                throws DecryptionException {
+            final MappedByteBuffer window = windows[index / segmentsPerWindow];
+            final ByteBuffer encrypted = window.slice((index % segmentsPerWindow) * encryptedSegmentSize,
+                    segmentLength + tagLength);
+            final Cipher cipher = decryptor.init(nonce(noncePrefix, index, index == segmentCount - 1), tagLength);
+            try {
+                cipher.updateAAD(header);
+                cipher.doFinal(encrypted, output);
+            } catch (IllegalBlockSizeException | BadPaddingException | ShortBufferException e) {
+                throw new DecryptionException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package de.dhbw.cas.encryption.decryptors;
+
+import de.dhbw.cas.encryption.configuration.DecryptionConfiguration;
+import de.dhbw.cas.encryption.exception.DecryptionException;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+import javax.crypto.CipherInputStream;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Decrypts whole streams instead of single values, e.g. entire configuration files. The stream is decrypted while it
+ * is read, so neither the ciphertext nor the plaintext is held in memory as a whole. Like a single value the stream may
+ * start with the header of a {@link CiphertextEnvelope} carrying its own IV, otherwise
+ * {@link DecryptionConfiguration#iv()} is used. Only configurations with a symmetric key can decrypt streams, i.e.
+ * {@link de.dhbw.cas.encryption.configuration.TransformationType#SYMMETRIC},
+ * {@link de.dhbw.cas.encryption.configuration.TransformationType#WRAPPING} and
+ * {@link de.dhbw.cas.encryption.configuration.TransformationType#KEM}. Note that ciphers in GCM mode may buffer the
+ * whole stream to verify the authentication tag before returning anything.
+ */
+@NullMarked
+public final class StreamDecryptor {
+    private static final int FIXED_HEADER_LENGTH = CiphertextEnvelope.IV_OFFSET;
+    private static final int MAXIMUM_HEADER_LENGTH = FIXED_HEADER_LENGTH + 0xFF + 1;
+
+    private StreamDecryptor() {
+    }
+
+    /**
+     * @param configuration The configuration providing the key
+     * @param encrypted     The stream to decrypt. It is closed when the returned stream is closed
+     * @return A stream of the decrypted bytes
+     * @throws DecryptionException If the configuration has no symmetric key or the cipher cannot be initialized
+     * @throws IOException         If reading the header fails
+     */
+    public static InputStream decrypt(final DecryptionConfiguration configuration, final InputStream encrypted)
+            throws DecryptionException, IOException {
+        final SymmetricDecryptor decryptor = DecryptorFactory.createSymmetricDecryptor(configuration);
+        final InputStream stream = encrypted.markSupported() ? encrypted : new BufferedInputStream(encrypted);
+        stream.mark(MAXIMUM_HEADER_LENGTH);
+        final CiphertextEnvelope header = readHeader(stream);
+        if (header == null) {
+            stream.reset();
+        }
+        return new CipherInputStream(stream, decryptor.init(header, configuration.iv()));
+    }
+
+    private static @Nullable CiphertextEnvelope readHeader(final InputStream stream) throws IOException {
+        final byte[] fixed = stream.readNBytes(FIXED_HEADER_LENGTH);
+        if (fixed.length < FIXED_HEADER_LENGTH) {
+            return null;
+        }
+        final byte[] header = new byte[FIXED_HEADER_LENGTH + Byte.toUnsignedInt(fixed[FIXED_HEADER_LENGTH - 1]) + 1];
+        System.arraycopy(fixed, 0, header, 0, FIXED_HEADER_LENGTH);
+        final int read = stream.readNBytes(header, FIXED_HEADER_LENGTH, header.length - FIXED_HEADER_LENGTH);
+        if (read < header.length - FIXED_HEADER_LENGTH) {
+            return null;
+        }
+        return CiphertextEnvelope.parse(header);
+    }
+}
@@ -1,7 +1,11 @@
 package de.dhbw.cas.encryption.decryptors;
 
+import de.dhbw.cas.encryption.decryptors.CiphertextEnvelope.ParameterType;
 import de.dhbw.cas.encryption.exception.DecryptionException;
+import de.dhbw.cas.encryption.jfr.DecryptEvent;
+import de.dhbw.cas.encryption.jfr.DecryptorCreationEvent;
 import de.dhbw.cas.encryption.util.AlgorithmUtil;
+import de.dhbw.cas.encryption.util.HexConverter;
 import org.jspecify.annotations.NullMarked;
 import org.jspecify.annotations.Nullable;
 
@@ -9,31 +13,79 @@ import javax.crypto.BadPaddingException;
 import javax.crypto.Cipher;
 import javax.crypto.IllegalBlockSizeException;
 import javax.crypto.NoSuchPaddingException;
+import javax.crypto.ShortBufferException;
 import javax.crypto.spec.GCMParameterSpec;
 import javax.crypto.spec.IvParameterSpec;
 import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
 import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
 import java.security.InvalidAlgorithmParameterException;
 import java.security.InvalidKeyException;
 import java.security.Key;
 import java.security.NoSuchAlgorithmException;
+import java.security.NoSuchProviderException;
 import java.security.spec.AlgorithmParameterSpec;
 import java.security.spec.InvalidParameterSpecException;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.function.Function;
 import java.util.regex.Pattern;
 
+/**
+ * Decrypts values with a secret key. Values may be raw ciphertext decrypted with the IV passed alongside them or a
+ * {@link CiphertextEnvelope} carrying its own IV. Whether the cipher takes a {@link GCMParameterSpec} or an
+ * {@link IvParameterSpec} is determined once when the decryptor is created.
+ * <p>
+ * A hex value is converted into an input buffer, decrypted into an output buffer and decoded into a char buffer. The
+ * buffers are kept for the next value and only grow if a value does not fit, so decrypting allocates little more than
+ * the resulting string. They are wiped after every value. Like every other decryptor this is not thread safe.
+ */
 @NullMarked
 public class SymmetricDecryptor implements TextDecryptor {
     private static final Pattern GCM_PATTERN = Pattern.compile("/GCM/");
     private final Key key;
     private final Cipher cipher;
+    private final ParameterType parameterType;
+    private ByteBuffer input = ByteBuffer.allocate(0);
+    private ByteBuffer output = ByteBuffer.allocate(0);
+    private CharBuffer chars = CharBuffer.allocate(0);
+    private @Nullable CharsetDecoder decoder;
 
     public SymmetricDecryptor(final String transformation, @Nullable final String keyAlgorithm, final byte[] keyBytes)
             throws DecryptionException {
+        this(transformation, new SecretKeySpec(keyBytes, AlgorithmUtil.determineKeyAlgorithm(transformation, keyAlgorithm)));
+    }
+
+    SymmetricDecryptor(final String transformation, final Key key) throws DecryptionException {
+        this(transformation, key, null);
+    }
+
+    /**
+     * @param transformation The transformation of the cipher
+     * @param key            The secret key
+     * @param provider       The name of the provider to create the cipher with or {@code null} to use the first one
+     *                       supporting the transformation
+     * @throws DecryptionException If the transformation or provider is not available
+     */
+    SymmetricDecryptor(final String transformation, final Key key, @Nullable final String provider)
+            throws DecryptionException {
+        this.key = key;
+        final DecryptorCreationEvent event = new DecryptorCreationEvent();
+        event.begin();
+        String chosenProvider = null;
         try {
-            key = new SecretKeySpec(keyBytes, AlgorithmUtil.determineKeyAlgorithm(transformation, keyAlgorithm));
-            cipher = Cipher.getInstance(transformation);
-        } catch (NoSuchAlgorithmException | NoSuchPaddingException e) {
+            cipher = SecurityProviders.cipher(transformation, provider);
+            parameterType = determineParameterType(cipher);
+            // determining the parameter type already made the cipher choose its provider
+            chosenProvider = cipher.getProvider().getName();
+        } catch (NoSuchAlgorithmException | NoSuchPaddingException | NoSuchProviderException
+                 | InvalidParameterSpecException e) {
             throw new DecryptionException(e);
+        } finally {
+            event.finish(SymmetricDecryptor.class, transformation, chosenProvider, chosenProvider != null);
         }
     }
 
@@ -45,32 +97,266 @@ public class SymmetricDecryptor implements TextDecryptor {
     @Override
     public String decrypt(final byte[] encrypted, final byte @Nullable [] iv, final Charset charset)
             throws DecryptionException {
+        return decrypt(ByteBuffer.wrap(encrypted), iv, charset);
+    }
+
+    /**
+     * Converts the hex string into the reused input buffer instead of a new array
+     */
+    @Override
+    public String decrypt(final String encryptedValue, final byte @Nullable [] iv, final Charset charset)
+            throws DecryptionException {
+        input = reuse(input, encryptedValue.length() / 2);
+        try {
+            HexConverter.loadBytesFromHexString(encryptedValue, input);
+            input.flip();
+            return decrypt(input, iv, charset);
+        } finally {
+            wipe(input);
+        }
+    }
+
+    /**
+     * Copies the decrypted bytes from the reused output buffer into the target, no string is created
+     */
+    @Override
+    public int decrypt(final String encryptedValue, final byte @Nullable [] iv, final Charset charset,
+                       final ByteBuffer target) throws DecryptionException {
+        input = reuse(input, encryptedValue.length() / 2);
+        try {
+            HexConverter.loadBytesFromHexString(encryptedValue, input);
+            input.flip();
+            return decrypt(input, iv, plaintext -> {
+                final int length = plaintext.remaining();
+                target.put(plaintext);
+                return length;
+            });
+        } finally {
+            wipe(input);
+        }
+    }
+
+    @Override
+    public String decrypt(final ByteBuffer encrypted, final byte @Nullable [] iv, final Charset charset)
+            throws DecryptionException {
+        return decrypt(encrypted, iv, plaintext -> decode(plaintext, charset));
+    }
+
+    /**
+     * @param envelope The envelope to decrypt
+     * @param charset  The charset to use for the generated string
+     * @return A string generated from the decrypted payload of the envelope
+     * @throws DecryptionException If the envelope does not match the transformation or cannot be decrypted
+     */
+    String decrypt(final CiphertextEnvelope envelope, final Charset charset) throws DecryptionException {
+        return doFinal(envelope, null, ByteBuffer.wrap(envelope.bytes(), envelope.payloadOffset(),
+                envelope.payloadLength()), plaintext -> decode(plaintext, charset));
+    }
+
+    /**
+     * @param envelope The envelope to decrypt
+     * @param target   The buffer to write the decrypted payload to, starting at its position
+     * @return The number of bytes written to the target
+     * @throws DecryptionException If the envelope does not match the transformation or cannot be decrypted
+     */
+    int decrypt(final CiphertextEnvelope envelope, final ByteBuffer target) throws DecryptionException {
+        return doFinal(envelope, null, ByteBuffer.wrap(envelope.bytes(), envelope.payloadOffset(),
+                envelope.payloadLength()), plaintext -> {
+            final int length = plaintext.remaining();
+            target.put(plaintext);
+            return length;
+        });
+    }
+
+    private <T> T decrypt(final ByteBuffer encrypted, final byte @Nullable [] iv,
+                          final Function<ByteBuffer, T> consumer) throws DecryptionException {
+        if (!encrypted.hasArray()) {
+            // envelopes are parsed from an array, direct and read-only buffers are copied into the input buffer once
+            input = reuse(input, encrypted.remaining());
+            try {
+                input.put(encrypted).flip();
+                return decrypt(input, iv, consumer);
+            } finally {
+                wipe(input);
+            }
+        }
+        final CiphertextEnvelope envelope = CiphertextEnvelope.parse(encrypted);
+        if (envelope != null) {
+            final int start = encrypted.position();
+            encrypted.position(encrypted.limit());
+            try {
+                return doFinal(envelope, null, ByteBuffer.wrap(envelope.bytes(), envelope.payloadOffset(),
+                        envelope.payloadLength()), consumer);
+            } catch (DecryptionException e) {
+                // raw ciphertext may start with the magic by chance, it is decrypted with the configured IV then
+                try {
+                    return doFinal(null, iv, encrypted.position(start), consumer);
+                } catch (DecryptionException raw) {
+                    e.addSuppressed(raw);
+                    throw e;
+                }
+            }
+        }
+        return doFinal(null, iv, encrypted, consumer);
+    }
+
+    /**
+     * Decrypts into the reused output buffer and passes it to the consumer. The buffer is wiped before this returns,
+     * so the consumer has to copy or decode what it needs
+     */
+    private <T> T doFinal(final @Nullable CiphertextEnvelope envelope, final byte @Nullable [] iv,
+                          final ByteBuffer encrypted, final Function<ByteBuffer, T> consumer)
+            throws DecryptionException {
+        final DecryptEvent event = new DecryptEvent();
+        event.begin();
+        final int inputSize = encrypted.remaining();
+        int outputSize = -1;
         try {
-            if (iv == null || iv.length == 0) {
+            init(envelope, iv);
+            output = reuse(output, cipher.getOutputSize(inputSize));
+            outputSize = cipher.doFinal(encrypted, output);
+            output.flip();
+            return consumer.apply(output);
+        } catch (IllegalBlockSizeException | BadPaddingException | ShortBufferException e) {
+            throw new DecryptionException(e);
+        } finally {
+            wipe(output);
+            event.finish(cipher, inputSize, outputSize);
+        }
+    }
+
+    private String decode(final ByteBuffer decrypted, final Charset charset) {
+        if (decoder == null || !decoder.charset().equals(charset)) {
+            // replacing malformed input matches new String(byte[], Charset)
+            decoder = charset.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        }
+        chars = reuse(chars, (int) Math.ceil(decrypted.remaining() * (double) decoder.maxCharsPerByte()));
+        try {
+            decoder.reset();
+            decoder.decode(decrypted, chars, true);
+            decoder.flush(chars);
+            chars.flip();
+            return chars.toString();
+        } finally {
+            Arrays.fill(chars.array(), 0, chars.limit(), '\0');
+            chars.clear();
+        }
+    }
+
+    private static ByteBuffer reuse(final ByteBuffer buffer, final int size) {
+        return buffer.capacity() < size ? ByteBuffer.allocate(size) : buffer.clear();
+    }
+
+    private static CharBuffer reuse(final CharBuffer buffer, final int size) {
+        return buffer.capacity() < size ? CharBuffer.allocate(size) : buffer.clear();
+    }
+
+    /**
+     * Overwrites everything written to the buffer since it was last cleared
+     */
+    private static void wipe(final ByteBuffer buffer) {
+        Arrays.fill(buffer.array(), 0, Math.max(buffer.position(), buffer.limit()), (byte) 0);
+        buffer.clear();
+    }
+
+    /**
+     * Initializes the cipher for decrypting a value, e.g. to decrypt a stream instead of a byte array
+     *
+     * @param envelope The envelope of the value. Its IV takes precedence over the given one
+     * @param iv       The IV to use for raw ciphertext
+     * @return The initialized cipher. This is the same instance on every call
+     * @throws DecryptionException If the envelope does not match the transformation or the cipher cannot be initialized
+     */
+    Cipher init(final @Nullable CiphertextEnvelope envelope, final byte @Nullable [] iv) throws DecryptionException {
+        if (envelope != null && envelope.type() != ParameterType.NONE && envelope.type() != parameterType) {
+            throw new DecryptionException("Envelope requires parameters of type [" + envelope.type()
+                    + "] but transformation " + cipher.getAlgorithm() + " takes [" + parameterType + "]");
+        }
+        try {
+            if (envelope != null) {
+                if (envelope.type() == ParameterType.NONE) {
+                    cipher.init(Cipher.DECRYPT_MODE, key);
+                } else {
+                    cipher.init(Cipher.DECRYPT_MODE, key, createParameterSpec(envelope.bytes(), envelope.ivOffset(),
+                            envelope.ivLength(), envelope.tagLength() * Byte.SIZE));
+                }
+            } else if (iv == null || iv.length == 0) {
                 cipher.init(Cipher.DECRYPT_MODE, key);
             } else {
-                AlgorithmParameterSpec algorithmParameters = guessCorrectParameter(iv);
-                cipher.init(Cipher.DECRYPT_MODE, key, algorithmParameters);
+                cipher.init(Cipher.DECRYPT_MODE, key, createParameterSpec(iv, 0, iv.length, iv.length));
             }
-            byte[] decrypted = cipher.doFinal(encrypted);
-            return new String(decrypted, charset);
-        } catch (InvalidKeyException | IllegalBlockSizeException | BadPaddingException |
-                 InvalidAlgorithmParameterException | InvalidParameterSpecException e) {
+            return cipher;
+        } catch (InvalidKeyException | InvalidAlgorithmParameterException | IllegalArgumentException e) {
             throw new DecryptionException(e);
         }
     }
 
-    private AlgorithmParameterSpec guessCorrectParameter(byte[] iv) throws InvalidParameterSpecException {
+    /**
+     * @param nonce     The nonce, e.g. of a segment of a {@link SegmentedFile}
+     * @param tagLength The length of the authentication tag in bytes, only used in GCM mode
+     * @return The cipher of this decryptor initialized for decrypting
+     * @throws DecryptionException If the cipher rejects the nonce
+     */
+    Cipher init(final byte[] nonce, final int tagLength) throws DecryptionException {
+        try {
+            cipher.init(Cipher.DECRYPT_MODE, key, createParameterSpec(nonce, 0, nonce.length, tagLength * Byte.SIZE));
+            return cipher;
+        } catch (InvalidKeyException | InvalidAlgorithmParameterException | IllegalArgumentException e) {
+            throw new DecryptionException(e);
+        }
+    }
+
+    /**
+     * @return If the transformation authenticates the ciphertext, i.e. uses GCM mode or Poly1305
+     */
+    boolean isAuthenticated() {
+        return parameterType == ParameterType.GCM
+                || cipher.getAlgorithm().toUpperCase(Locale.ROOT).contains("POLY1305");
+    }
+
+    /**
+     * @param transformation The transformation of the new decryptor
+     * @return A new decryptor using the same key, e.g. for another thread. It keeps the provider of this decryptor if
+     * the transformation is the same
+     * @throws DecryptionException If the transformation is not available
+     */
+    SymmetricDecryptor withTransformation(final String transformation) throws DecryptionException {
+        return new SymmetricDecryptor(transformation, key,
+                transformation.equals(cipher.getAlgorithm()) ? cipher.getProvider().getName() : null);
+    }
+
+    /**
+     * @param key The key of the new decryptor
+     * @return A new decryptor with the transformation and provider of this one, e.g. for a key derived from this one
+     * @throws DecryptionException If the transformation is not available
+     */
+    SymmetricDecryptor withKey(final Key key) throws DecryptionException {
+        return new SymmetricDecryptor(cipher.getAlgorithm(), key, cipher.getProvider().getName());
+    }
+
+    /**
+     * @return The key of this decryptor, e.g. to derive another key from it
+     */
+    Key key() {
+        return key;
+    }
+
+    private AlgorithmParameterSpec createParameterSpec(final byte[] source, final int offset, final int length,
+                                                       final int tagBits) {
+        return parameterType == ParameterType.GCM
+                ? new GCMParameterSpec(tagBits, source, offset, length)
+                : new IvParameterSpec(source, offset, length);
+    }
+
+    private static ParameterType determineParameterType(final Cipher cipher) throws InvalidParameterSpecException {
         if (cipher.getParameters() != null) {
             return switch (cipher.getParameters().getParameterSpec(AlgorithmParameterSpec.class)) {
-                case final GCMParameterSpec ignored -> new GCMParameterSpec(iv.length, iv);
-                default -> new IvParameterSpec(iv);
+                case final GCMParameterSpec ignored -> ParameterType.GCM;
+                default -> ParameterType.IV;
             };
-        } else {
-            if (GCM_PATTERN.matcher(cipher.getAlgorithm()).find()) {
-                return new GCMParameterSpec(iv.length, iv);
-            }
-            return new IvParameterSpec(iv);
         }
+        return GCM_PATTERN.matcher(cipher.getAlgorithm()).find() ? ParameterType.GCM : ParameterType.IV;
     }
 }
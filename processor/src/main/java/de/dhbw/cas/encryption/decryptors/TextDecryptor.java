@@ -1,10 +1,14 @@
 package de.dhbw.cas.encryption.decryptors;
 
 import de.dhbw.cas.encryption.exception.DecryptionException;
+import de.dhbw.cas.encryption.util.HexConverter;
 import org.jspecify.annotations.NullMarked;
 import org.jspecify.annotations.Nullable;
 
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
+import java.util.Arrays;
 
 @NullMarked
 public interface TextDecryptor {
@@ -16,4 +20,57 @@ public interface TextDecryptor {
      * @return A string generated from the decrypted bytes
      */
     String decrypt(final byte[] encrypted, final byte @Nullable [] iv, final Charset charset) throws DecryptionException;
+
+    /**
+     * Decrypts the remaining bytes of a buffer, e.g. a slice of a larger file, without copying them out first. The
+     * buffer's position is advanced to its limit. Decryptors reusing their buffers override this, the default copies
+     * the bytes into an array
+     *
+     * @param encrypted The buffer holding the bytes to decrypt
+     * @param charset   The charset to use for the generated string
+     * @return A string generated from the decrypted bytes
+     */
+    default String decrypt(final ByteBuffer encrypted, final byte @Nullable [] iv, final Charset charset)
+            throws DecryptionException {
+        final byte[] bytes = new byte[encrypted.remaining()];
+        encrypted.get(bytes);
+        return decrypt(bytes, iv, charset);
+    }
+
+    /**
+     * Decrypts the value of a property, i.e. the encrypted bytes in hex format
+     *
+     * @param encryptedValue The value to decrypt
+     * @param charset        The charset to use for the generated string
+     * @return A string generated from the decrypted bytes
+     * @throws IllegalArgumentException If the value is not in hex format
+     */
+    default String decrypt(final String encryptedValue, final byte @Nullable [] iv, final Charset charset)
+            throws DecryptionException {
+        return decrypt(HexConverter.loadBytesFromHexString(encryptedValue), iv, charset);
+    }
+
+    /**
+     * Decrypts the value of a property into a buffer, e.g. to keep the decrypted value outside the Java heap. The
+     * decrypted value is never longer than the encrypted one, i.e. half the length of the hex string. Decryptors
+     * reusing their buffers override this to not create a string at all, the default encodes the decrypted string
+     * with the charset and wipes the encoded bytes afterward
+     *
+     * @param encryptedValue The value to decrypt
+     * @param charset        The charset of the decrypted value
+     * @param target         The buffer to write the decrypted bytes to, starting at its position
+     * @return The number of bytes written to the target
+     * @throws IllegalArgumentException If the value is not in hex format
+     * @throws BufferOverflowException  If the decrypted bytes do not fit into the target
+     */
+    default int decrypt(final String encryptedValue, final byte @Nullable [] iv, final Charset charset,
+                        final ByteBuffer target) throws DecryptionException {
+        final byte[] decrypted = decrypt(encryptedValue, iv, charset).getBytes(charset);
+        try {
+            target.put(decrypted);
+            return decrypted.length;
+        } finally {
+            Arrays.fill(decrypted, (byte) 0);
+        }
+    }
 }
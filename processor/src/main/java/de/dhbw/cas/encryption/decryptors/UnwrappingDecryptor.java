@@ -1,19 +1,18 @@
 package de.dhbw.cas.encryption.decryptors;
 
 import de.dhbw.cas.encryption.exception.DecryptionException;
-import de.dhbw.cas.encryption.util.AlgorithmUtil;
+import de.dhbw.cas.encryption.jfr.KeyUnwrapEvent;
 import org.jspecify.annotations.NullMarked;
 import org.jspecify.annotations.Nullable;
 
 import javax.crypto.Cipher;
 import javax.crypto.NoSuchPaddingException;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 import java.security.InvalidKeyException;
 import java.security.Key;
-import java.security.KeyFactory;
 import java.security.NoSuchAlgorithmException;
-import java.security.spec.InvalidKeySpecException;
-import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.NoSuchProviderException;
 
 @NullMarked
 public class UnwrappingDecryptor implements TextDecryptor {
@@ -23,15 +22,34 @@ public class UnwrappingDecryptor implements TextDecryptor {
 
     public UnwrappingDecryptor(final String transformation, @Nullable final String keyAlgorithm,
                                final byte[] wrappedKeyBytes, final byte[] unwrapKeyBytes) throws DecryptionException {
+        this(new SymmetricDecryptor(TRANSFORMATION_USED_WITH_UNWRAPPED_KEY, null,
+                unwrap(transformation, null, keyAlgorithm, wrappedKeyBytes, unwrapKeyBytes)));
+    }
+
+    UnwrappingDecryptor(final TextDecryptor textDecryptor) {
+        this.textDecryptor = textDecryptor;
+    }
+
+    static byte[] unwrap(final String transformation, @Nullable final String provider,
+                         @Nullable final String keyAlgorithm, final byte[] wrappedKeyBytes,
+                         final byte[] unwrapKeyBytes) throws DecryptionException {
+        final Key unwrapKey = AsymmetricDecryptor.generatePrivateKey(transformation, keyAlgorithm, unwrapKeyBytes);
+        final KeyUnwrapEvent event = new KeyUnwrapEvent();
+        event.begin();
+        Cipher unwrapCipher = null;
+        byte[] unwrapped = null;
         try {
-            final KeyFactory keyFactory = KeyFactory.getInstance(AlgorithmUtil.determineKeyAlgorithm(transformation, keyAlgorithm));
-            final Key unwrapKey = keyFactory.generatePrivate(new PKCS8EncodedKeySpec(unwrapKeyBytes));
-            final Cipher unwrapCipher = Cipher.getInstance(transformation);
+            unwrapCipher = SecurityProviders.cipher(transformation, provider);
             unwrapCipher.init(Cipher.UNWRAP_MODE, unwrapKey);
-            textDecryptor = new SymmetricDecryptor(TRANSFORMATION_USED_WITH_UNWRAPPED_KEY, null,
-                    unwrapCipher.unwrap(wrappedKeyBytes, TRANSFORMATION_USED_WITH_UNWRAPPED_KEY, Cipher.SECRET_KEY).getEncoded());
-        } catch (NoSuchAlgorithmException | NoSuchPaddingException | InvalidKeySpecException | InvalidKeyException e) {
+            unwrapped = unwrapCipher.unwrap(wrappedKeyBytes, TRANSFORMATION_USED_WITH_UNWRAPPED_KEY, Cipher.SECRET_KEY)
+                    .getEncoded();
+            return unwrapped;
+        } catch (NoSuchAlgorithmException | NoSuchPaddingException | NoSuchProviderException
+                 | InvalidKeyException e) {
             throw new DecryptionException(e);
+        } finally {
+            event.finish(KeyUnwrapEvent.UNWRAP, transformation,
+                    unwrapped == null ? null : unwrapCipher.getProvider().getName(), wrappedKeyBytes.length, unwrapped);
         }
     }
 
@@ -39,4 +57,20 @@ public class UnwrappingDecryptor implements TextDecryptor {
     public String decrypt(byte[] encrypted, byte @Nullable [] iv, Charset charset) throws DecryptionException {
         return textDecryptor.decrypt(encrypted, iv, charset);
     }
+
+    @Override
+    public String decrypt(ByteBuffer encrypted, byte @Nullable [] iv, Charset charset) throws DecryptionException {
+        return textDecryptor.decrypt(encrypted, iv, charset);
+    }
+
+    @Override
+    public String decrypt(String encryptedValue, byte @Nullable [] iv, Charset charset) throws DecryptionException {
+        return textDecryptor.decrypt(encryptedValue, iv, charset);
+    }
+
+    @Override
+    public int decrypt(String encryptedValue, byte @Nullable [] iv, Charset charset, ByteBuffer target)
+            throws DecryptionException {
+        return textDecryptor.decrypt(encryptedValue, iv, charset, target);
+    }
 }
@@ -9,4 +9,8 @@ public class DecryptionException extends Exception {
     public DecryptionException(@NonNull Throwable cause) {
         super("Decryption exception due to " + cause.getClass().getName(), cause);
     }
+
+    public DecryptionException(@NonNull String message) {
+        super(message);
+    }
 }
@@ -0,0 +1,75 @@
+package de.dhbw.cas.encryption.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+import javax.crypto.Cipher;
+
+/**
+ * Recorded for every value decrypted by a {@link de.dhbw.cas.encryption.decryptors.TextDecryptor}. Decryptors
+ * delegating to another one, e.g. for unwrapped keys, are recorded once by the decryptor doing the work.
+ */
+@NullMarked
+@Name(DecryptEvent.NAME)
+@Label("Decrypt")
+@Category(KeyFileLoadEvent.CATEGORY)
+@Description("Decryption of a single value")
+@StackTrace(false)
+@Enabled(false)
+public final class DecryptEvent extends Event {
+    public static final String NAME = "de.dhbw.cas.encryption.Decrypt";
+
+    @Label("Transformation")
+    @Nullable String transformation;
+
+    @Label("Provider")
+    @Nullable String provider;
+
+    @Label("Input Size")
+    @DataAmount
+    int inputSize;
+
+    @Label("Output Size")
+    @DataAmount
+    int outputSize;
+
+    @Label("Outcome")
+    @Nullable String outcome;
+
+    /**
+     * Commits the event if it is recorded. Otherwise, this does nothing
+     *
+     * @param cipher    The cipher that decrypted the value. It has to be initialized
+     * @param inputSize The length of the ciphertext in bytes
+     * @param output    The decrypted bytes or {@code null} if decrypting failed
+     */
+    public void finish(final Cipher cipher, final int inputSize, final byte @Nullable [] output) {
+        finish(cipher, inputSize, output == null ? -1 : output.length);
+    }
+
+    /**
+     * Commits the event if it is recorded. Otherwise, this does nothing
+     *
+     * @param cipher     The cipher that decrypted the value. It has to be initialized
+     * @param inputSize  The length of the ciphertext in bytes
+     * @param outputSize The length of the decrypted value in bytes or a negative number if decrypting failed
+     */
+    public void finish(final Cipher cipher, final int inputSize, final int outputSize) {
+        if (shouldCommit()) {
+            this.transformation = cipher.getAlgorithm();
+            this.provider = cipher.getProvider().getName();
+            this.inputSize = inputSize;
+            this.outputSize = Math.max(outputSize, 0);
+            this.outcome = outputSize < 0 ? KeyFileLoadEvent.FAILURE : KeyFileLoadEvent.SUCCESS;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package de.dhbw.cas.encryption.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Recorded for every decryptor holding its own {@link javax.crypto.Cipher}. The provider is only known if the cipher
+ * chose it on creation. Otherwise, it is chosen when the cipher is initialized, see {@link DecryptEvent}.
+ */
+@NullMarked
+@Name(DecryptorCreationEvent.NAME)
+@Label("Decryptor Creation")
+@Category(KeyFileLoadEvent.CATEGORY)
+@Description("Creating a decryptor and its cipher")
+@StackTrace(false)
+@Enabled(false)
+public final class DecryptorCreationEvent extends Event {
+    public static final String NAME = "de.dhbw.cas.encryption.DecryptorCreation";
+
+    @Label("Decryptor")
+    @Nullable String decryptor;
+
+    @Label("Transformation")
+    @Nullable String transformation;
+
+    @Label("Provider")
+    @Nullable String provider;
+
+    @Label("Outcome")
+    @Nullable String outcome;
+
+    /**
+     * Commits the event if it is recorded. Otherwise, this does nothing
+     *
+     * @param decryptor      The class of the decryptor
+     * @param transformation The transformation of the cipher
+     * @param provider       The name of the provider of the cipher, {@code null} if it is not chosen yet
+     * @param success        If the decryptor was created
+     */
+    public void finish(final Class<?> decryptor, final String transformation, final @Nullable String provider,
+                       final boolean success) {
+        if (shouldCommit()) {
+            this.decryptor = decryptor.getSimpleName();
+            this.transformation = transformation;
+            this.provider = provider;
+            this.outcome = success ? KeyFileLoadEvent.SUCCESS : KeyFileLoadEvent.FAILURE;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package de.dhbw.cas.encryption.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Recorded for every key file read by {@link de.dhbw.cas.encryption.configuration.DecryptionConfiguration}. The events
+ * of this package are disabled by default and committed only while a recording enables them, so they can stay in
+ * production code.
+ */
+@NullMarked
+@Name(KeyFileLoadEvent.NAME)
+@Label("Key File Load")
+@Category(KeyFileLoadEvent.CATEGORY)
+@Description("Reading a key file and decoding it to bytes")
+@StackTrace(false)
+@Enabled(false)
+public final class KeyFileLoadEvent extends Event {
+    public static final String NAME = "de.dhbw.cas.encryption.KeyFileLoad";
+    public static final String CATEGORY = "Encryption Starter";
+    public static final String SUCCESS = "SUCCESS";
+    public static final String NOT_FOUND = "NOT_FOUND";
+    public static final String FAILURE = "FAILURE";
+
+    @Label("Path")
+    @Nullable String path;
+
+    @Label("Key Size")
+    @DataAmount
+    int keySize;
+
+    @Label("Outcome")
+    @Nullable String outcome;
+
+    /**
+     * Commits the event if it is recorded. Otherwise, this does nothing
+     *
+     * @param path  The configured path of the key file
+     * @param found If the file exists
+     * @param key   The bytes of the key or {@code null} if loading failed
+     */
+    public void finish(final String path, final boolean found, final byte @Nullable [] key) {
+        if (shouldCommit()) {
+            this.path = path;
+            this.keySize = key == null ? 0 : key.length;
+            this.outcome = !found ? NOT_FOUND : key == null ? FAILURE : SUCCESS;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package de.dhbw.cas.encryption.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+import java.security.KeyFactory;
+
+/**
+ * Recorded for every private key generated from its encoded bytes with a {@link KeyFactory}
+ */
+@NullMarked
+@Name(KeyParseEvent.NAME)
+@Label("Key Parse")
+@Category(KeyFileLoadEvent.CATEGORY)
+@Description("Generating a private key from its PKCS#8 encoding")
+@StackTrace(false)
+@Enabled(false)
+public final class KeyParseEvent extends Event {
+    public static final String NAME = "de.dhbw.cas.encryption.KeyParse";
+
+    @Label("Algorithm")
+    @Nullable String algorithm;
+
+    @Label("Provider")
+    @Nullable String provider;
+
+    @Label("Outcome")
+    @Nullable String outcome;
+
+    /**
+     * Commits the event if it is recorded. Otherwise, this does nothing
+     *
+     * @param algorithm  The key algorithm
+     * @param keyFactory The key factory or {@code null} if the algorithm is not supported
+     * @param success    If the key was generated
+     */
+    public void finish(final String algorithm, final @Nullable KeyFactory keyFactory, final boolean success) {
+        if (shouldCommit()) {
+            this.algorithm = algorithm;
+            this.provider = keyFactory == null ? null : keyFactory.getProvider().getName();
+            this.outcome = success ? KeyFileLoadEvent.SUCCESS : KeyFileLoadEvent.FAILURE;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package de.dhbw.cas.encryption.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Recorded for every symmetric key recovered with a private key, i.e. unwrapped, decapsulated or decrypted from a
+ * {@link de.dhbw.cas.encryption.decryptors.HybridEnvelope}
+ */
+@NullMarked
+@Name(KeyUnwrapEvent.NAME)
+@Label("Key Unwrap")
+@Category(KeyFileLoadEvent.CATEGORY)
+@Description("Recovering a symmetric key with a private key")
+@StackTrace(false)
+@Enabled(false)
+public final class KeyUnwrapEvent extends Event {
+    public static final String NAME = "de.dhbw.cas.encryption.KeyUnwrap";
+    public static final String UNWRAP = "UNWRAP";
+    public static final String DECAPSULATE = "DECAPSULATE";
+    public static final String HYBRID = "HYBRID";
+
+    @Label("Kind")
+    @Nullable String kind;
+
+    @Label("Transformation")
+    @Nullable String transformation;
+
+    @Label("Provider")
+    @Nullable String provider;
+
+    @Label("Input Size")
+    @DataAmount
+    int inputSize;
+
+    @Label("Key Size")
+    @DataAmount
+    int keySize;
+
+    @Label("Outcome")
+    @Nullable String outcome;
+
+    /**
+     * Commits the event if it is recorded. Otherwise, this does nothing
+     *
+     * @param kind           How the key was recovered, one of {@link #UNWRAP}, {@link #DECAPSULATE} and {@link #HYBRID}
+     * @param transformation The transformation used to recover the key
+     * @param provider       The name of the provider or {@code null} if the transformation is not supported
+     * @param inputSize      The length of the wrapped or encapsulated key in bytes
+     * @param key            The recovered key or {@code null} if recovering it failed
+     */
+    public void finish(final String kind, final String transformation, final @Nullable String provider,
+                       final int inputSize, final byte @Nullable [] key) {
+        if (shouldCommit()) {
+            this.kind = kind;
+            this.transformation = transformation;
+            this.provider = provider;
+            this.inputSize = inputSize;
+            this.keySize = key == null ? 0 : key.length;
+            this.outcome = key == null ? KeyFileLoadEvent.FAILURE : KeyFileLoadEvent.SUCCESS;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package de.dhbw.cas.encryption.metrics;
+
+import de.dhbw.cas.encryption.configuration.DecryptionConfiguration;
+import de.dhbw.cas.encryption.decryptors.DecryptorFactory;
+import de.dhbw.cas.encryption.decryptors.TextDecryptor;
+import de.dhbw.cas.encryption.exception.DecryptionException;
+import de.dhbw.cas.encryption.runtime.DecryptionObserver;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records the decryptions of a {@link de.dhbw.cas.encryption.runtime.DecryptionService} with Micrometer. The meters
+ * are
+ * <ul>
+ *     <li>{@value #DECRYPT_TIMER}: A timer with a percentile histogram, tagged with the transformation, the simple
+ *     name of the decryptor class and the outcome {@code success} or {@code failure}</li>
+ *     <li>{@value #FAILURE_COUNTER}: The number of {@link DecryptionException}s, additionally tagged with the simple
+ *     name of their cause, or of the exception itself if it has none</li>
+ *     <li>{@value #KEY_CACHE_GAUGE}: The number of keys cached by {@link DecryptorFactory}</li>
+ *     <li>{@value #DECRYPTORS_GAUGE}: The number of decryptors created by the observed services</li>
+ * </ul>
+ * The timers of a decryptor are registered once when it is created or, if the registry is not bound yet, when it is.
+ * Recording a decryption only uses these timers and never looks up a meter by its tags. Failure counters are created
+ * on the first failure with a new cause. Decryptions before the binder is bound to a registry are not recorded.
+ */
+@NullMarked
+public class DecryptionMetrics implements DecryptionObserver, MeterBinder {
+    public static final String DECRYPT_TIMER = "dhbw.cas.decryption.decrypt";
+    public static final String FAILURE_COUNTER = "dhbw.cas.decryption.failures";
+    public static final String KEY_CACHE_GAUGE = "dhbw.cas.decryption.key.cache.size";
+    public static final String DECRYPTORS_GAUGE = "dhbw.cas.decryption.decryptors";
+    private final List<DecryptorMeters> decryptors = new CopyOnWriteArrayList<>();
+    private volatile @Nullable MeterRegistry registry;
+
+    @Override
+    public void bindTo(final MeterRegistry registry) {
+        Gauge.builder(KEY_CACHE_GAUGE, DecryptorFactory::cacheSize)
+                .description("Number of keys cached for creating decryptors")
+                .strongReference(true)
+                .register(registry);
+        Gauge.builder(DECRYPTORS_GAUGE, decryptors, List::size)
+                .description("Number of decryptors created for decrypting values at runtime")
+                .register(registry);
+        // published before registering the known decryptors, so one created concurrently registers itself
+        this.registry = registry;
+        decryptors.forEach(meters -> meters.register(registry));
+    }
+
+    @Override
+    public Recorder decryptorCreated(final DecryptionConfiguration configuration, final TextDecryptor decryptor) {
+        final DecryptorMeters meters = new DecryptorMeters(Tags.of("transformation", configuration.transformation(),
+                "decryptor", decryptor.getClass().getSimpleName()));
+        decryptors.add(meters);
+        final MeterRegistry bound = registry;
+        if (bound != null) {
+            meters.register(bound);
+        }
+        return meters;
+    }
+
+    private static final class DecryptorMeters implements Recorder {
+        private final Tags tags;
+        private final Map<Class<?>, Counter> failures = new ConcurrentHashMap<>();
+        private volatile @Nullable MeterRegistry registry;
+        private volatile @Nullable Timer successes;
+        private volatile @Nullable Timer failureTimer;
+
+        private DecryptorMeters(final Tags tags) {
+            this.tags = tags;
+        }
+
+        private void register(final MeterRegistry registry) {
+            successes = timer(registry, "success");
+            failureTimer = timer(registry, "failure");
+            this.registry = registry;
+        }
+
+        private Timer timer(final MeterRegistry registry, final String outcome) {
+            return Timer.builder(DECRYPT_TIMER)
+                    .description("Time taken to decrypt a single value")
+                    .tags(tags)
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(registry);
+        }
+
+        @Override
+        public void decrypted(final long nanos) {
+            final Timer timer = successes;
+            if (timer != null) {
+                timer.record(nanos, TimeUnit.NANOSECONDS);
+            }
+        }
+
+        @Override
+        public void failed(final long nanos, final DecryptionException exception) {
+            final Timer timer = failureTimer;
+            final MeterRegistry bound = registry;
+            if (timer == null || bound == null) {
+                return;
+            }
+            timer.record(nanos, TimeUnit.NANOSECONDS);
+            final Throwable cause = exception.getCause() == null ? exception : exception.getCause();
+            failures.computeIfAbsent(cause.getClass(), causeClass -> Counter.builder(FAILURE_COUNTER)
+                            .description("Number of values that could not be decrypted")
+                            .tags(tags)
+                            .tag("cause", causeClass.getSimpleName())
+                            .register(bound))
+                    .increment();
+        }
+    }
+}
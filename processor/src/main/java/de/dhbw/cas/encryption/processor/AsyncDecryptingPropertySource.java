@@ -0,0 +1,78 @@
+package de.dhbw.cas.encryption.processor;
+
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+import org.springframework.core.env.EnumerablePropertySource;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * A property source whose properties are decrypted in the background.
+ * The names of the properties are known up front, so reading any other property never waits. Reading one of the
+ * decrypted properties waits until the decryption has finished, but at most for the configured timeout.
+ */
+@NullMarked
+public class AsyncDecryptingPropertySource extends EnumerablePropertySource<Future<Map<String, Object>>> {
+    private final Set<String> propertyNames;
+    private final Duration timeout;
+
+    /**
+     * @param name                The name of the property source
+     * @param propertyNames       The names of the properties that are being decrypted
+     * @param decryptedProperties The decrypted properties once the decryption has finished. Properties that failed to
+     *                            decrypt are not contained
+     * @param timeout             How long reading a property waits for the decryption to finish
+     */
+    public AsyncDecryptingPropertySource(final String name, final Set<String> propertyNames,
+                                         final Future<Map<String, Object>> decryptedProperties,
+                                         final Duration timeout) {
+        super(name, decryptedProperties);
+        this.propertyNames = Set.copyOf(propertyNames);
+        this.timeout = timeout;
+    }
+
+    @Override
+    public String[] getPropertyNames() {
+        return propertyNames.toArray(String[]::new);
+    }
+
+    @Override
+    public boolean containsProperty(final String name) {
+        return propertyNames.contains(name);
+    }
+
+    /**
+     * @param name The name of the property
+     * @return The decrypted value or {@code null} if the property is not decrypted by this source or failed to decrypt
+     * @throws IllegalStateException If the decryption did not finish within the timeout or failed unexpectedly
+     */
+    @Override
+    public @Nullable Object getProperty(final String name) {
+        if (!propertyNames.contains(name)) {
+            return null;
+        }
+        try {
+            return source.get(timeout.toNanos(), TimeUnit.NANOSECONDS).get(name);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for property [" + name + "] to be decrypted", e);
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("Decryption of property [" + name + "] did not finish within " + timeout, e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Decryption of property [" + name + "] failed", e.getCause());
+        }
+    }
+
+    /**
+     * @return If the decryption has finished
+     */
+    public boolean isDone() {
+        return source.isDone();
+    }
+}
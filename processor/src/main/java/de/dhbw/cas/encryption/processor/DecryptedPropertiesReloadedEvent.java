@@ -0,0 +1,41 @@
+package de.dhbw.cas.encryption.processor;
+
+import org.jspecify.annotations.NullMarked;
+import org.springframework.context.ApplicationEvent;
+
+import java.io.Serial;
+import java.util.Set;
+
+/**
+ * Published by {@link DecryptedPropertiesReloader} after it replaced the property source named
+ * {@link DecryptingPropertiesPostProcessor#DECRYPTED_PROPERTY_SOURCE_NAME}. Listeners can use this to refresh beans
+ * depending on the changed properties, e.g. to reconnect a data source.
+ */
+@NullMarked
+public class DecryptedPropertiesReloadedEvent extends ApplicationEvent {
+    @Serial
+    private static final long serialVersionUID = 1L;
+    // like the source of the event, the properties are not meant to be serialized
+    private final transient Set<String> changedProperties;
+
+    /**
+     * @param source            The reloader publishing the event
+     * @param changedProperties The names of the properties whose decrypted value changed, was added or was removed
+     */
+    public DecryptedPropertiesReloadedEvent(final Object source, final Set<String> changedProperties) {
+        super(source);
+        this.changedProperties = Set.copyOf(changedProperties);
+    }
+
+    /**
+     * @return The names of the properties whose decrypted value changed, was added or was removed
+     */
+    public Set<String> getChangedProperties() {
+        return changedProperties;
+    }
+
+    @Override
+    public String toString() {
+        return "DecryptedPropertiesReloadedEvent{changedProperties=" + changedProperties + '}';
+    }
+}
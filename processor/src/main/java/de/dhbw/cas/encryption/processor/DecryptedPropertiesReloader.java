@@ -0,0 +1,414 @@
+package de.dhbw.cas.encryption.processor;
+
+import de.dhbw.cas.encryption.configuration.DecryptionConfiguration;
+import de.dhbw.cas.encryption.configuration.DecryptionMode;
+import de.dhbw.cas.encryption.decryptors.DecryptorFactory;
+import de.dhbw.cas.encryption.decryptors.TextDecryptor;
+import de.dhbw.cas.encryption.exception.DecryptionException;
+import de.dhbw.cas.encryption.util.KeyLoader;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySources;
+import org.springframework.boot.env.PropertySourceLoader;
+import org.springframework.boot.origin.Origin;
+import org.springframework.boot.origin.OriginLookup;
+import org.springframework.boot.origin.TextResourceOrigin;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.SpringFactoriesLoader;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Reloads the decrypted properties when the files they depend on change, e.g. when keys are rotated. The files are the
+ * {@code key} and {@code wrapping-key} files, the files of the {@code keyring} and the configuration files the encrypted
+ * properties were loaded from.
+ * They are watched with a {@link WatchService} on a daemon thread. A change of a configuration file reloads that file,
+ * a change of a key rebuilds the decryptor. Afterward only the properties whose encrypted value changed are decrypted
+ * again, unless the decryptor was rebuilt. The property source named
+ * {@link DecryptingPropertiesPostProcessor#DECRYPTED_PROPERTY_SOURCE_NAME} is never modified. It is replaced by a new
+ * source instead, so readers see either the old or the new properties without taking a lock. Finally a
+ * {@link DecryptedPropertiesReloadedEvent} lists the properties whose decrypted value changed.
+ * Starting the reloader again after it was stopped takes the current state afresh.
+ * Only a single configuration in {@link DecryptionMode#EAGER} can be reloaded, profiles and the other modes are not
+ * supported. Keys and configuration files have to be on the file system, files inside a jar cannot be watched.
+ */
+@NullMarked
+public class DecryptedPropertiesReloader implements SmartLifecycle {
+    /**
+     * How long to wait for further events after a change, as writing a file often causes several of them
+     */
+    private static final Duration SETTLE_TIME = Duration.ofMillis(100);
+    private final Log log = LogFactory.getLog(getClass());
+    private final ConfigurableEnvironment environment;
+    private final ApplicationEventPublisher publisher;
+    private final List<PropertySourceLoader> propertySourceLoaders;
+    private final Map<Path, byte[]> fingerprints = new HashMap<>();
+    private final Map<Path, String> sourceFiles = new HashMap<>();
+    private final Set<Path> keyringFiles = new HashSet<>();
+    private final Set<Path> watchedDirectories = new HashSet<>();
+    private @Nullable DecryptionConfiguration configuration;
+    private @Nullable TextDecryptor decryptor;
+    private Map<String, String> encryptedProperties = Map.of();
+    private Map<String, Object> decryptedProperties = Map.of();
+    private @Nullable WatchService watchService;
+
+    public DecryptedPropertiesReloader(final ConfigurableEnvironment environment,
+                                       final ApplicationEventPublisher publisher) {
+        this.environment = environment;
+        this.publisher = publisher;
+        this.propertySourceLoaders = SpringFactoriesLoader.loadFactories(PropertySourceLoader.class,
+                getClass().getClassLoader());
+    }
+
+    @Override
+    public synchronized void start() {
+        if (watchService != null || !initialize()) {
+            return;
+        }
+        WatchService service = null;
+        try {
+            service = FileSystems.getDefault().newWatchService();
+            watchService = service;
+            watchDirectories(fingerprints.keySet());
+            final WatchService started = service;
+            Thread.ofPlatform().name("decrypted-properties-reloader").daemon().start(() -> watch(started));
+            log.debug("Watching " + fingerprints.keySet() + " for changes");
+        } catch (IOException e) {
+            log.warn("Failed to watch files for changes, decrypted properties will not be reloaded", e);
+            if (service != null) {
+                stop();
+            }
+        }
+    }
+
+    private void watchDirectories(final Set<Path> files) throws IOException {
+        final WatchService service = watchService;
+        if (service == null) {
+            return;
+        }
+        for (Path file : files) {
+            if (watchedDirectories.add(file.getParent())) {
+                file.getParent().register(service, StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_MODIFY);
+            }
+        }
+    }
+
+    /**
+     * Takes the current state of the decrypted properties and the files they depend on
+     *
+     * @return If the properties can be reloaded
+     */
+    synchronized boolean initialize() {
+        fingerprints.clear();
+        sourceFiles.clear();
+        keyringFiles.clear();
+        watchedDirectories.clear();
+        final Map<String, DecryptionConfiguration> configurations;
+        try {
+            configurations = DecryptionConfiguration.profilesFromEnvironment(environment);
+        } catch (IllegalStateException e) {
+            log.warn("Failed to parse configuration, decrypted properties will not be reloaded", e);
+            return false;
+        }
+        final DecryptionConfiguration defaultConfiguration = configurations.get(DecryptionConfiguration.DEFAULT_PROFILE);
+        if (configurations.size() != 1 || defaultConfiguration == null
+                || defaultConfiguration.mode() != DecryptionMode.EAGER || defaultConfiguration.offHeap()
+                || !(environment.getPropertySources().get(DecryptingPropertiesPostProcessor.DECRYPTED_PROPERTY_SOURCE_NAME)
+                instanceof MapPropertySource decrypted)) {
+            log.warn("Reloading requires a single configuration in mode " + DecryptionMode.EAGER
+                    + " that keeps the values on the heap, decrypted properties will not be reloaded");
+            return false;
+        }
+        try {
+            decryptor = DecryptorFactory.createDecryptor(defaultConfiguration);
+        } catch (DecryptionException e) {
+            log.warn("Failed to create decryptor, decrypted properties will not be reloaded", e);
+            return false;
+        }
+        configuration = defaultConfiguration;
+        encryptedProperties = DecryptingPropertiesPostProcessor.getEncryptedProperties(environment,
+                defaultConfiguration, log);
+        decryptedProperties = Collections.unmodifiableMap(new LinkedHashMap<>(decrypted.getSource()));
+        for (String keyProperty : List.of("key", "wrapping-key")) {
+            final Path keyFile = findFile(environment.getProperty(DecryptionConfiguration.PROPERTY_PREFIX + keyProperty,
+                    ""));
+            if (keyFile != null) {
+                fingerprints.put(keyFile, fingerprint(keyFile));
+            }
+        }
+        findKeyringFiles(defaultConfiguration);
+        findSourceFiles();
+        sourceFiles.keySet().forEach(file -> fingerprints.put(file, fingerprint(file)));
+        return true;
+    }
+
+    /**
+     * Adds the files of the keyring that are not watched yet, e.g. after a key id was added
+     *
+     * @param keyringConfiguration The configuration containing the keyring
+     * @return The added files
+     */
+    private Set<Path> findKeyringFiles(final DecryptionConfiguration keyringConfiguration) {
+        final Set<Path> added = new HashSet<>();
+        for (String keyPath : keyringConfiguration.keyring().values()) {
+            final Path keyFile = findFile(keyPath);
+            if (keyFile != null && keyringFiles.add(keyFile) && !fingerprints.containsKey(keyFile)) {
+                fingerprints.put(keyFile, fingerprint(keyFile));
+                added.add(keyFile);
+            }
+        }
+        return added;
+    }
+
+    private void findSourceFiles() {
+        final Set<String> found = new HashSet<>();
+        for (PropertySource<?> source : environment.getPropertySources()) {
+            // the attached source resolves every property through all other sources and is backed by no file itself
+            if (DecryptingPropertiesPostProcessor.DECRYPTED_PROPERTY_SOURCE_NAME.equals(source.getName())
+                    || ConfigurationPropertySources.isAttachedConfigurationPropertySource(source)) {
+                continue;
+            }
+            for (String property : encryptedProperties.keySet()) {
+                if (!found.contains(property) && source.containsProperty(property)) {
+                    found.add(property);
+                    final Path file = findOriginFile(OriginLookup.getOrigin(source, property));
+                    if (file != null) {
+                        sourceFiles.put(file, source.getName());
+                    }
+                }
+            }
+        }
+    }
+
+    private static @Nullable Path findOriginFile(final @Nullable Origin origin) {
+        for (Origin current = origin; current != null; current = current.getParent()) {
+            if (current instanceof TextResourceOrigin textResourceOrigin) {
+                final Resource resource = textResourceOrigin.getResource();
+                if (resource != null && resource.isFile()) {
+                    try {
+                        return resource.getFile().toPath().toAbsolutePath();
+                    } catch (IOException e) {
+                        return null;
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    private static @Nullable Path findFile(final String path) {
+        if (path.isEmpty()) {
+            return null;
+        }
+        // keys inside a jar cannot change, so only keys resolved to a file are watched
+        final Resource resource = KeyLoader.resolve(path);
+        try {
+            final Path file = resource.isFile() ? resource.getFile().toPath() : null;
+            return file != null && Files.isRegularFile(file) ? file.toAbsolutePath() : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private void watch(final WatchService service) {
+        try {
+            while (true) {
+                final WatchKey key = service.take();
+                Thread.sleep(SETTLE_TIME);
+                key.pollEvents();
+                key.reset();
+                for (WatchKey pending = service.poll(); pending != null; pending = service.poll()) {
+                    pending.pollEvents();
+                    pending.reset();
+                }
+                reloadChangedFiles();
+            }
+        } catch (ClosedWatchServiceException e) {
+            log.debug("Stopped watching files for changes");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Reloads the properties if any of the watched files changed its content. Called by the watching thread, or
+     * directly in tests
+     */
+    synchronized void reloadChangedFiles() {
+        final Set<Path> changedFiles = new HashSet<>();
+        for (Map.Entry<Path, byte[]> file : fingerprints.entrySet()) {
+            final byte[] fingerprint = fingerprint(file.getKey());
+            if (!Arrays.equals(fingerprint, file.getValue())) {
+                file.setValue(fingerprint);
+                changedFiles.add(file.getKey());
+            }
+        }
+        if (changedFiles.isEmpty() || configuration == null) {
+            return;
+        }
+        log.debug("Files " + changedFiles + " changed, reloading decrypted properties");
+        for (Path file : changedFiles) {
+            final String sourceName = sourceFiles.get(file);
+            if (sourceName != null) {
+                reloadSource(file, sourceName);
+            }
+        }
+        final DecryptionConfiguration reloadedConfiguration;
+        try {
+            reloadedConfiguration = DecryptionConfiguration.fromEnvironment(environment);
+        } catch (IllegalStateException e) {
+            log.warn("Failed to parse configuration, keeping the current decrypted properties", e);
+            return;
+        }
+        // the configuration holds the bytes of key and wrapping key but only the paths of the keyring
+        final boolean rebuild = !reloadedConfiguration.equals(configuration)
+                || changedFiles.stream().anyMatch(keyringFiles::contains);
+        if (rebuild) {
+            try {
+                decryptor = DecryptorFactory.createDecryptor(reloadedConfiguration);
+            } catch (DecryptionException e) {
+                log.warn("Failed to create decryptor, keeping the current decrypted properties", e);
+                return;
+            }
+            configuration = reloadedConfiguration;
+            log.debug("Rebuilt decryptor [" + decryptor + "]");
+            try {
+                watchDirectories(findKeyringFiles(reloadedConfiguration));
+            } catch (IOException e) {
+                log.warn("Failed to watch the files of the keyring for changes", e);
+            }
+        }
+        decryptChangedProperties(rebuild);
+    }
+
+    private void reloadSource(final Path file, final String sourceName) {
+        final String fileName = file.getFileName().toString();
+        for (PropertySourceLoader loader : propertySourceLoaders) {
+            for (String extension : loader.getFileExtensions()) {
+                if (fileName.endsWith("." + extension)) {
+                    try {
+                        final List<PropertySource<?>> loaded = loader.load(sourceName, new FileSystemResource(file));
+                        if (loaded.size() == 1) {
+                            environment.getPropertySources().replace(sourceName, loaded.getFirst());
+                        } else {
+                            log.warn("Cannot reload " + file + " as it does not contain exactly one document");
+                        }
+                    } catch (IOException e) {
+                        log.warn("Failed to reload " + file, e);
+                    }
+                    return;
+                }
+            }
+        }
+        log.warn("No loader supports the format of " + file);
+    }
+
+    private void decryptChangedProperties(final boolean decryptAll) {
+        final DecryptionConfiguration currentConfiguration = Objects.requireNonNull(configuration);
+        final TextDecryptor currentDecryptor = Objects.requireNonNull(decryptor);
+        final Map<String, String> reloadedProperties = DecryptingPropertiesPostProcessor.getEncryptedProperties(
+                environment, currentConfiguration, log);
+        final Map<String, Object> reloadedDecryptedProperties = new LinkedHashMap<>();
+        final Set<String> changedProperties = new LinkedHashSet<>();
+        for (Map.Entry<String, String> property : reloadedProperties.entrySet()) {
+            final String name = property.getKey();
+            final Object previous = decryptedProperties.get(name);
+            if (!decryptAll && previous != null && property.getValue().equals(encryptedProperties.get(name))) {
+                reloadedDecryptedProperties.put(name, previous);
+                continue;
+            }
+            try {
+                final String decrypted = currentDecryptor.decrypt(property.getValue(), currentConfiguration.iv(),
+                        currentConfiguration.charset());
+                reloadedDecryptedProperties.put(name, decrypted);
+                if (!decrypted.equals(previous)) {
+                    changedProperties.add(name);
+                }
+            } catch (DecryptionException | IllegalArgumentException e) {
+                log.warn("Failed to decrypt property [" + name + "]", e);
+                if (previous != null) {
+                    changedProperties.add(name);
+                }
+            }
+        }
+        for (String name : decryptedProperties.keySet()) {
+            if (!reloadedDecryptedProperties.containsKey(name)) {
+                changedProperties.add(name);
+            }
+        }
+        encryptedProperties = reloadedProperties;
+        if (changedProperties.isEmpty()) {
+            log.debug("No decrypted property changed");
+            return;
+        }
+        decryptedProperties = Collections.unmodifiableMap(reloadedDecryptedProperties);
+        environment.getPropertySources().replace(DecryptingPropertiesPostProcessor.DECRYPTED_PROPERTY_SOURCE_NAME,
+                new MapPropertySource(DecryptingPropertiesPostProcessor.DECRYPTED_PROPERTY_SOURCE_NAME,
+                        decryptedProperties));
+        log.debug("Reloaded decrypted properties " + changedProperties);
+        publisher.publishEvent(new DecryptedPropertiesReloadedEvent(this, changedProperties));
+    }
+
+    private static byte[] fingerprint(final Path file) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(Files.readAllBytes(file));
+        } catch (IOException | NoSuchAlgorithmException e) {
+            // a file that is being replaced may be missing for a moment, its next event is picked up again
+            return new byte[0];
+        }
+    }
+
+    /**
+     * @return The files that are watched for changes
+     */
+    Set<Path> watchedFiles() {
+        return Collections.unmodifiableSet(fingerprints.keySet());
+    }
+
+    @Override
+    public synchronized void stop() {
+        final WatchService service = watchService;
+        watchService = null;
+        if (service != null) {
+            try {
+                service.close();
+            } catch (IOException e) {
+                log.debug("Failed to close watch service", e);
+            }
+        }
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return watchService != null;
+    }
+}
@@ -3,22 +3,46 @@ package de.dhbw.cas.encryption.processor;
 import de.dhbw.cas.encryption.configuration.DecryptionConfiguration;
 import de.dhbw.cas.encryption.decryptors.*;
 import de.dhbw.cas.encryption.exception.DecryptionException;
-import de.dhbw.cas.encryption.util.HexConverter;
+import de.dhbw.cas.encryption.resource.EncryptedProtocolResolver;
+import de.dhbw.cas.encryption.runtime.DecryptionService;
+import de.dhbw.cas.encryption.secret.Secret;
+import de.dhbw.cas.encryption.secret.SecretConverter;
+import de.dhbw.cas.encryption.secret.SecretStore;
+import de.dhbw.cas.encryption.util.PropertyNamePatterns;
 import org.apache.commons.logging.Log;
-import org.bouncycastle.jce.provider.BouncyCastleProvider;
 import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
 import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySources;
 import org.springframework.boot.env.EnvironmentPostProcessor;
 import org.springframework.boot.logging.DeferredLogFactory;
 import org.springframework.core.annotation.Order;
+import org.springframework.core.env.CompositePropertySource;
 import org.springframework.core.env.ConfigurableEnvironment;
-import org.springframework.core.env.Environment;
 import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.MutablePropertySources;
+import org.springframework.core.env.PropertyResolver;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.env.PropertySourcesPropertyResolver;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
 
-import java.security.Security;
-import java.util.Arrays;
-import java.util.HashMap;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
 
 /**
  * This class decrypts marked properties.
@@ -28,72 +52,335 @@ import java.util.Map;
  * Spring consults it first for properties. Thus, the decrypted properties are properly passed on to dependant
  * frameworks like e.g. Hibernate.
  * The processor can be configured via properties. See {@link de.dhbw.cas.encryption.configuration.DecryptionConfiguration}
+ * If {@link DecryptionConfiguration#parallelism()} is greater than one, the properties are split into consecutive
+ * chunks that are decrypted concurrently, each with its own decryptor. The decrypted properties keep the configured
+ * order regardless.
+ * With {@link de.dhbw.cas.encryption.configuration.DecryptionMode#LAZY} nothing is decrypted up front. Instead the
+ * source is a {@link LazyDecryptingPropertySource} that decrypts a property on first access. With
+ * {@link de.dhbw.cas.encryption.configuration.DecryptionMode#ASYNC} the properties are decrypted on a virtual thread
+ * while Spring continues to start up. The source is an {@link AsyncDecryptingPropertySource}, so only reading a
+ * decrypted property waits for the decryption to finish.
+ * With {@link DecryptionConfiguration#autoDiscovery()} every value wrapped in the configured marker is decrypted as
+ * well. Configured properties containing a wildcard are patterns that are matched against the names of all enumerable
+ * properties, see {@link PropertyNamePatterns}. Both are found in a single scan by {@link EncryptedPropertyScanner}.
+ * Values of the configured properties may also be wrapped in the marker.
+ * If profiles are configured, see {@link DecryptionConfiguration#profilesFromEnvironment}, every profile is processed
+ * with its own decryptor and mode. The profiles are processed concurrently. Their property sources are combined into a
+ * single {@link CompositePropertySource} in the order of the profiles. A property claimed by several profiles is only
+ * decrypted by the first one. A profile that cannot be processed is logged and skipped.
+ * The phases are recorded as {@link StartupStep}s of the {@link SpringApplication#getApplicationStartup()}, e.g. to be
+ * inspected with {@link org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup}. Besides the
+ * steps of {@link DecryptionConfiguration} and {@link DecryptorFactory} these are {@code dhbw.cas.decryption.post-process}
+ * for the whole processor and {@code dhbw.cas.decryption.decrypt} for decrypting the properties in
+ * {@link de.dhbw.cas.encryption.configuration.DecryptionMode#EAGER}, tagged with the time each property took. Steps are
+ * tagged with names only, never with values. The profiles are not recorded individually as they run concurrently.
  */
 @NullMarked
 @Order
 public class DecryptingPropertiesPostProcessor implements EnvironmentPostProcessor {
     public static final String DECRYPTED_PROPERTY_SOURCE_NAME = "decrypted_properties";
+    private static final String POST_PROCESS_STEP = "dhbw.cas.decryption.post-process";
+    private static final String DECRYPT_STEP = "dhbw.cas.decryption.decrypt";
+    private static final ThreadFactory DECRYPTION_THREAD_FACTORY = Thread.ofPlatform()
+            .name("decrypting-properties-", 0)
+            .daemon()
+            .factory();
     private final Log log;
 
     public DecryptingPropertiesPostProcessor(final DeferredLogFactory deferredLogFactory) {
         log = deferredLogFactory.getLog(this.getClass());
-        Security.addProvider(new BouncyCastleProvider());
     }
 
     @Override
     public void postProcessEnvironment(final ConfigurableEnvironment environment,
                                        final SpringApplication application) {
+        final ApplicationStartup applicationStartup = application.getApplicationStartup();
+        final StartupStep step = applicationStartup.start(POST_PROCESS_STEP);
         try {
 
             log.debug("Trying to parse configuration");
-            DecryptionConfiguration configuration = DecryptionConfiguration.fromEnvironment(environment);
-            if (!configuration.enabled()) {
+            final Map<String, DecryptionConfiguration> configurations =
+                    DecryptionConfiguration.profilesFromEnvironment(environment, applicationStartup);
+            if (configurations.isEmpty()) {
                 log.debug("Configuration disables this processor");
+                step.tag("enabled", Boolean.FALSE.toString());
                 return;
             }
-            log.debug("Successfully parsed configuration [" + configuration + "]. Creating decryptor");
-            final TextDecryptor decryptor = switch (configuration.type()) {
-                case SYMMETRIC -> new SymmetricDecryptor(configuration.transformation(), configuration.keyAlgorithm(),
-                        configuration.key());
-                case ASYMMETRIC -> new AsymmetricDecryptor(configuration.transformation(), configuration.keyAlgorithm(),
-                        configuration.key());
-                case WRAPPING -> new UnwrappingDecryptor(configuration.transformation(), configuration.keyAlgorithm(),
-                        configuration.key(), configuration.wrappingKey());
-                case KEM -> new KemDecryptor(configuration.transformation(), configuration.keyAlgorithm(),
-                        configuration.key(), configuration.wrappingKey());
-            };
-            log.debug("Successfully created Decryptor [" + decryptor + "]. Starting to decrypt properties: " +
-                    Arrays.toString(configuration.properties()));
-
-            Map<String, Object> decryptedProperties = getDecryptedProperties(environment, configuration, decryptor);
-            environment.getPropertySources().addFirst(new MapPropertySource(DECRYPTED_PROPERTY_SOURCE_NAME, decryptedProperties));
+            step.tag("profiles", String.join(",", configurations.keySet()));
+            // resource loaders without an environment, e.g. of SSL bundles, decrypt resources with this one
+            EncryptedProtocolResolver.useApplicationEnvironment(application, environment);
+            if (configurations.values().stream().anyMatch(DecryptionConfiguration::offHeap)) {
+                // the environment cannot convert a secret to a string on its own
+                environment.getConversionService().addConverter(new SecretConverter());
+            }
+            final DecryptionConfiguration configuration = configurations.get(DecryptionConfiguration.DEFAULT_PROFILE);
+            final PropertySource<?> decryptedPropertySource;
+            if (configurations.size() == 1 && configuration != null) {
+                log.debug("Successfully parsed configuration [" + configuration + "]");
+                decryptedPropertySource = createPropertySource(DECRYPTED_PROPERTY_SOURCE_NAME, configuration,
+                        getEncryptedProperties(environment, configuration), applicationStartup);
+            } else {
+                log.debug("Successfully parsed profiles " + configurations.keySet());
+                decryptedPropertySource = createProfilesPropertySource(environment, configurations);
+            }
+            environment.getPropertySources().addFirst(decryptedPropertySource);
             log.debug("Successfully added new property source to environment");
         } catch (DecryptionException e) {
             log.warn("Failed to decrypt properties", e);
+        } finally {
+            step.end();
         }
     }
 
-    private Map<String, Object> getDecryptedProperties(final Environment environment,
-                                                       final DecryptionConfiguration configuration,
-                                                       final TextDecryptor decryptor) {
-        Map<String, Object> propertiesToDecrypt = new HashMap<>();
-        for (String property : configuration.properties()) {
-            String value = environment.getProperty(property);
-            if (value != null) {
+    private PropertySource<?> createPropertySource(final String name, final DecryptionConfiguration configuration,
+                                                   final Map<String, String> encryptedProperties,
+                                                   final ApplicationStartup applicationStartup)
+            throws DecryptionException {
+        return switch (configuration.mode()) {
+            case EAGER -> {
+                log.debug("Creating decryptor");
+                final TextDecryptor decryptor = DecryptorFactory.createDecryptor(configuration, applicationStartup);
+                log.debug("Successfully created Decryptor [" + decryptor + "]. Starting to decrypt properties: " +
+                        encryptedProperties.keySet());
+                final StartupStep step = applicationStartup.start(DECRYPT_STEP)
+                        .tag("transformation", configuration.transformation())
+                        .tag("type", configuration.type().name())
+                        .tag("properties", String.valueOf(encryptedProperties.size()));
                 try {
-                    String decryptedProperty = decryptor.decrypt(HexConverter.loadBytesFromHexString(value),
-                            configuration.iv(), configuration.charset());
-                    log.debug("Decrypted value [" + value + "] of property " + property + " to string of length " +
-                            decryptedProperty.length());
-                    propertiesToDecrypt.put(property, decryptedProperty);
-                } catch (DecryptionException e) {
-                    log.warn("Failed to decrypt property [" + property + "]", e);
+                    // measuring every property is only worth it if the steps are recorded at all
+                    final @Nullable Map<String, Duration> durations = applicationStartup == ApplicationStartup.DEFAULT
+                            ? null
+                            : new ConcurrentHashMap<>();
+                    final Map<String, Object> decryptedProperties = getDecryptedProperties(encryptedProperties,
+                            configuration, decryptor, durations);
+                    step.tag("decrypted", String.valueOf(decryptedProperties.size()));
+                    if (durations != null) {
+                        for (String property : encryptedProperties.keySet()) {
+                            final Duration duration = durations.get(property);
+                            if (duration != null) {
+                                step.tag("duration." + property, duration.toString());
+                            }
+                        }
+                    }
+                    yield new MapPropertySource(name, decryptedProperties);
+                } finally {
+                    step.end();
                 }
+            }
+            case LAZY -> {
+                log.debug("Deferring decryption of properties to first access: " + encryptedProperties.keySet());
+                yield new LazyDecryptingPropertySource(name, encryptedProperties, new DecryptionService(configuration),
+                        log);
+            }
+            case ASYNC -> {
+                log.debug("Starting to decrypt properties in the background: " + encryptedProperties.keySet());
+                final FutureTask<Map<String, Object>> decryption = new FutureTask<>(
+                        () -> decryptInBackground(encryptedProperties, configuration));
+                Thread.ofVirtual().name("decrypting-properties-async").start(decryption);
+                yield new AsyncDecryptingPropertySource(name, encryptedProperties.keySet(), decryption,
+                        configuration.asyncTimeout());
+            }
+        };
+    }
+
+    private PropertySource<?> createProfilesPropertySource(final ConfigurableEnvironment environment,
+                                                           final Map<String, DecryptionConfiguration> configurations)
+            throws DecryptionException {
+        final Set<String> claimedProperties = new HashSet<>();
+        final List<Callable<Optional<PropertySource<?>>>> profiles = new ArrayList<>(configurations.size());
+        for (Map.Entry<String, DecryptionConfiguration> profile : configurations.entrySet()) {
+            final Map<String, String> encryptedProperties = getEncryptedProperties(environment, profile.getValue());
+            // a property is only decrypted by the first profile claiming it, the others would shadow it anyway
+            encryptedProperties.keySet().removeAll(claimedProperties);
+            claimedProperties.addAll(encryptedProperties.keySet());
+            profiles.add(() -> createProfilePropertySource(profile.getKey(), profile.getValue(), encryptedProperties));
+        }
+        final CompositePropertySource decryptedPropertySource = new CompositePropertySource(
+                DECRYPTED_PROPERTY_SOURCE_NAME);
+        try (ExecutorService executor = Executors.newFixedThreadPool(profiles.size(), DECRYPTION_THREAD_FACTORY)) {
+            for (Future<Optional<PropertySource<?>>> profile : executor.invokeAll(profiles)) {
+                profile.get().ifPresent(decryptedPropertySource::addPropertySource);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DecryptionException(e);
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        }
+        return decryptedPropertySource;
+    }
+
+    private Optional<PropertySource<?>> createProfilePropertySource(final String profile,
+                                                                    final DecryptionConfiguration configuration,
+                                                                    final Map<String, String> encryptedProperties) {
+        log.debug("Processing profile [" + profile + "] with configuration [" + configuration + "]");
+        try {
+            // profiles are processed concurrently, which the steps of an ApplicationStartup cannot represent
+            return Optional.of(createPropertySource(DECRYPTED_PROPERTY_SOURCE_NAME + "-" + profile, configuration,
+                    encryptedProperties, ApplicationStartup.DEFAULT));
+        } catch (DecryptionException e) {
+            log.warn("Failed to decrypt properties of profile [" + profile + "]", e);
+            return Optional.empty();
+        }
+    }
+
+    private Map<String, Object> decryptInBackground(final Map<String, String> encryptedProperties,
+                                                    final DecryptionConfiguration configuration) {
+        try {
+            final TextDecryptor decryptor = DecryptorFactory.createDecryptor(configuration);
+            log.debug("Successfully created Decryptor [" + decryptor + "] in the background");
+            final Map<String, Object> decryptedProperties = getDecryptedProperties(encryptedProperties, configuration,
+                    decryptor, null);
+            log.debug("Finished decrypting properties in the background");
+            return decryptedProperties;
+        } catch (DecryptionException e) {
+            log.warn("Failed to decrypt properties", e);
+            return Map.of();
+        }
+    }
+
+    private Map<String, String> getEncryptedProperties(final ConfigurableEnvironment environment,
+                                                       final DecryptionConfiguration configuration) {
+        return getEncryptedProperties(environment, configuration, log);
+    }
 
+    /**
+     * @param environment   The environment to search. A source named {@link #DECRYPTED_PROPERTY_SOURCE_NAME} is ignored
+     * @param configuration The configuration naming the properties or enabling their discovery
+     * @param log           The log to report skipped and discovered properties to
+     * @return The encrypted values of the properties to decrypt with their marker removed, in the configured order
+     */
+    static Map<String, String> getEncryptedProperties(final ConfigurableEnvironment environment,
+                                                      final DecryptionConfiguration configuration, final Log log) {
+        final List<String> names = new ArrayList<>();
+        final List<String> patterns = new ArrayList<>();
+        for (String property : configuration.properties()) {
+            (PropertyNamePatterns.isPattern(property) ? patterns : names).add(property);
+        }
+        final EncryptedPropertyScanner scanner = new EncryptedPropertyScanner(configuration.markerPrefix(),
+                configuration.markerSuffix(), configuration.autoDiscovery(), PropertyNamePatterns.compile(patterns),
+                DECRYPTED_PROPERTY_SOURCE_NAME);
+        final PropertyResolver resolver = withoutDecryptedProperties(environment);
+        final Map<String, String> encryptedProperties = new LinkedHashMap<>();
+        for (String property : names) {
+            String value = resolver.getProperty(property);
+            if (value != null) {
+                encryptedProperties.put(property, scanner.isMarked(value) ? scanner.unwrap(value) : value);
             } else {
                 log.debug("Skipping property [" + property + "] as its value is null");
             }
         }
+        if (scanner.isScanning()) {
+            final Map<String, String> foundProperties = scanner.scan(environment.getPropertySources());
+            log.debug("Found properties matching " + patterns + " or marked as encrypted: " + foundProperties.keySet());
+            foundProperties.forEach(encryptedProperties::putIfAbsent);
+        }
+        return encryptedProperties;
+    }
+
+    private static PropertyResolver withoutDecryptedProperties(final ConfigurableEnvironment environment) {
+        if (!environment.getPropertySources().contains(DECRYPTED_PROPERTY_SOURCE_NAME)) {
+            return environment;
+        }
+        final MutablePropertySources propertySources = new MutablePropertySources();
+        for (PropertySource<?> propertySource : environment.getPropertySources()) {
+            // the attached source adapts all sources of the environment, i.e. the decrypted ones as well
+            if (!DECRYPTED_PROPERTY_SOURCE_NAME.equals(propertySource.getName())
+                    && !ConfigurationPropertySources.isAttachedConfigurationPropertySource(propertySource)) {
+                propertySources.addLast(propertySource);
+            }
+        }
+        final PropertySourcesPropertyResolver resolver = new PropertySourcesPropertyResolver(propertySources);
+        resolver.setConversionService(environment.getConversionService());
+        return resolver;
+    }
+
+    private Map<String, Object> getDecryptedProperties(final Map<String, String> encryptedProperties,
+                                                       final DecryptionConfiguration configuration,
+                                                       final TextDecryptor decryptor,
+                                                       final @Nullable Map<String, Duration> durations)
+            throws DecryptionException {
+        final List<Map.Entry<String, String>> properties = List.copyOf(encryptedProperties.entrySet());
+        final int workers = Math.min(configuration.parallelism(), properties.size());
+        if (workers <= 1) {
+            return decryptProperties(properties, configuration, decryptor, durations);
+        }
+        log.debug("Decrypting " + properties.size() + " properties with " + workers + " threads");
+        final int chunkSize = (properties.size() + workers - 1) / workers;
+        final List<Callable<Map<String, Object>>> chunks = new ArrayList<>(workers);
+        for (int start = 0; start < properties.size(); start += chunkSize) {
+            final List<Map.Entry<String, String>> chunk = properties.subList(start,
+                    Math.min(start + chunkSize, properties.size()));
+            // the first chunk reuses the decryptor that was already created, the others need their own as a Cipher
+            // must not be shared between threads
+            final boolean isFirstChunk = start == 0;
+            chunks.add(() -> decryptProperties(chunk, configuration,
+                    isFirstChunk ? decryptor : DecryptorFactory.createDecryptor(configuration), durations));
+        }
+        final Map<String, Object> decryptedProperties = new LinkedHashMap<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(chunks.size(), DECRYPTION_THREAD_FACTORY)) {
+            for (Future<Map<String, Object>> decryptedChunk : executor.invokeAll(chunks)) {
+                decryptedProperties.putAll(decryptedChunk.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DecryptionException(e);
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        }
+        return decryptedProperties;
+    }
+
+    private static DecryptionException unwrap(final ExecutionException e) {
+        return switch (e.getCause()) {
+            case DecryptionException decryptionException -> decryptionException;
+            case RuntimeException runtimeException -> throw runtimeException;
+            default -> new DecryptionException(e.getCause());
+        };
+    }
+
+    private Map<String, Object> decryptProperties(final List<Map.Entry<String, String>> properties,
+                                                  final DecryptionConfiguration configuration,
+                                                  final TextDecryptor decryptor,
+                                                  final @Nullable Map<String, Duration> durations) {
+        final @Nullable SecretStore store = configuration.offHeap()
+                ? new SecretStore(properties.stream().mapToInt(property -> maximumLength(property.getValue())).sum(),
+                configuration.charset())
+                : null;
+        Map<String, Object> propertiesToDecrypt = new LinkedHashMap<>();
+        for (Map.Entry<String, String> property : properties) {
+            final String value = property.getValue();
+            final long start = durations == null ? 0 : System.nanoTime();
+            try {
+                final Object decryptedProperty;
+                final int length;
+                if (store == null) {
+                    final String decrypted = decryptor.decrypt(value, configuration.iv(), configuration.charset());
+                    decryptedProperty = decrypted;
+                    length = decrypted.length();
+                } else {
+                    final Secret secret = store.store(maximumLength(value),
+                            slot -> decryptor.decrypt(value, configuration.iv(), configuration.charset(), slot));
+                    decryptedProperty = secret;
+                    length = secret.length();
+                }
+                if (durations != null) {
+                    durations.put(property.getKey(), Duration.ofNanos(System.nanoTime() - start));
+                }
+                log.debug("Decrypted value [" + value + "] of property " + property.getKey() + " to " +
+                        (store == null ? "string" : "secret") + " of length " + length);
+                propertiesToDecrypt.put(property.getKey(), decryptedProperty);
+            } catch (DecryptionException e) {
+                log.warn("Failed to decrypt property [" + property.getKey() + "]", e);
+            }
+        }
         return propertiesToDecrypt;
     }
+
+    /**
+     * The decrypted value is never longer than the encrypted one, which takes two hex digits per byte
+     */
+    private static int maximumLength(final String encryptedValue) {
+        return encryptedValue.length() / 2;
+    }
 }
@@ -0,0 +1,133 @@
+package de.dhbw.cas.encryption.processor;
+
+import de.dhbw.cas.encryption.util.PropertyNamePatterns;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySources;
+import org.springframework.core.env.EnumerablePropertySource;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.env.PropertySources;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Finds encrypted properties by their name or their value.
+ * A property is found if its name matches one of the {@link PropertyNamePatterns} or, if enabled, its value is wrapped
+ * in a marker, e.g. {@code ENC(...)}. The sources are scanned once in order of precedence. Every value is only compared
+ * against the marker character by character, so values that are not marked cause no allocation. Only the payload of a
+ * found value is copied. Sources that are not enumerable cannot be scanned and are skipped. A value that is shadowed
+ * by a source with higher precedence is ignored, as Spring would never resolve it. The source attached by
+ * {@link ConfigurationPropertySources#attach} is skipped as well, as it resolves every name through all other sources
+ * and would shadow all of their values.
+ */
+@NullMarked
+final class EncryptedPropertyScanner {
+    private final String prefix;
+    private final String suffix;
+    private final boolean discoverMarked;
+    private final PropertyNamePatterns patterns;
+    private final String ignoredSource;
+
+    /**
+     * @param prefix         The prefix marking an encrypted value
+     * @param suffix         The suffix marking an encrypted value
+     * @param discoverMarked If every value wrapped in the marker is encrypted
+     * @param patterns       The patterns matching the names of encrypted properties
+     * @param ignoredSource  The name of a source that is never scanned, e.g. the one holding the decrypted values
+     */
+    EncryptedPropertyScanner(final String prefix, final String suffix, final boolean discoverMarked,
+                             final PropertyNamePatterns patterns, final String ignoredSource) {
+        this.prefix = prefix;
+        this.suffix = suffix;
+        this.discoverMarked = discoverMarked;
+        this.patterns = patterns;
+        this.ignoredSource = ignoredSource;
+    }
+
+    /**
+     * @return If {@link #scan(PropertySources)} could find anything
+     */
+    boolean isScanning() {
+        return discoverMarked || !patterns.isEmpty();
+    }
+
+    /**
+     * @param propertySources The sources to scan
+     * @return The payload of every found value by property name, in order of precedence. Markers are removed
+     */
+    Map<String, String> scan(final PropertySources propertySources) {
+        final Map<String, String> found = new LinkedHashMap<>();
+        if (!isScanning()) {
+            return found;
+        }
+        final List<PropertySource<?>> scanned = new ArrayList<>();
+        for (PropertySource<?> source : propertySources) {
+            if (source.getName().equals(ignoredSource)
+                    || ConfigurationPropertySources.isAttachedConfigurationPropertySource(source)) {
+                continue;
+            }
+            if (source instanceof MapPropertySource mapSource) {
+                // iterating the backing map avoids resolving every name through the property source again
+                mapSource.getSource().forEach((name, value) -> collect(name, value, scanned, found));
+            } else if (source instanceof EnumerablePropertySource<?> enumerable) {
+                for (String name : enumerable.getPropertyNames()) {
+                    collect(name, enumerable.getProperty(name), scanned, found);
+                }
+            }
+            scanned.add(source);
+        }
+        return found;
+    }
+
+    /**
+     * @param value The value to check
+     * @return If the value starts with the prefix and ends with the suffix without the two overlapping
+     */
+    boolean isMarked(final CharSequence value) {
+        final int length = value.length();
+        if (length < prefix.length() + suffix.length()) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length(); i++) {
+            if (value.charAt(i) != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        final int suffixStart = length - suffix.length();
+        for (int i = 0; i < suffix.length(); i++) {
+            if (value.charAt(suffixStart + i) != suffix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param value A value for which {@link #isMarked(CharSequence)} is true
+     * @return The value without the marker
+     */
+    String unwrap(final CharSequence value) {
+        return value.subSequence(prefix.length(), value.length() - suffix.length()).toString();
+    }
+
+    private void collect(final String name, final @Nullable Object value, final List<PropertySource<?>> scanned,
+                         final Map<String, String> found) {
+        if (!(value instanceof CharSequence text) || found.containsKey(name)) {
+            return;
+        }
+        final boolean marked = isMarked(text);
+        if (!(discoverMarked && marked) && !patterns.matches(name)) {
+            return;
+        }
+        for (PropertySource<?> higherPrecedence : scanned) {
+            if (higherPrecedence.containsProperty(name)) {
+                return;
+            }
+        }
+        found.put(name, marked ? unwrap(text) : text.toString());
+    }
+}
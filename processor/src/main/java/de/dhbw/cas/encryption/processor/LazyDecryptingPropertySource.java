@@ -0,0 +1,112 @@
+package de.dhbw.cas.encryption.processor;
+
+import de.dhbw.cas.encryption.exception.DecryptionException;
+import de.dhbw.cas.encryption.runtime.DecryptionService;
+import org.apache.commons.logging.Log;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+import org.springframework.core.env.EnumerablePropertySource;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A property source that decrypts a property the first time it is read.
+ * The source holds the encrypted values. On the first read of a property its value is decrypted and kept, so every
+ * property is decrypted at most once, even if it is read by multiple threads at the same time. If a property cannot be
+ * decrypted this is logged once and the source returns {@code null} for it. Spring then falls back to the encrypted
+ * value, which is the same behaviour as for properties that fail to decrypt eagerly.
+ * Every property has its own lock, so decrypting one property neither blocks reading others nor prevents the
+ * decryption from reading other properties of this source.
+ */
+@NullMarked
+public class LazyDecryptingPropertySource extends EnumerablePropertySource<Map<String, String>> {
+    private static final Object FAILED = new Object();
+    private final DecryptionService decryptionService;
+    private final Log log;
+    private final String[] propertyNames;
+    private final Map<String, LazyProperty> decryptedProperties;
+
+    /**
+     * @param name                The name of the property source
+     * @param encryptedProperties The encrypted values by property name
+     * @param decryptionService   The service used to decrypt the values
+     * @param log                 The log to report failures to
+     */
+    public LazyDecryptingPropertySource(final String name, final Map<String, String> encryptedProperties,
+                                        final DecryptionService decryptionService, final Log log) {
+        super(name, encryptedProperties);
+        this.decryptionService = decryptionService;
+        this.log = log;
+        this.propertyNames = encryptedProperties.keySet().toArray(String[]::new);
+        this.decryptedProperties = new ConcurrentHashMap<>(encryptedProperties.size());
+    }
+
+    @Override
+    public String[] getPropertyNames() {
+        return propertyNames.clone();
+    }
+
+    @Override
+    public boolean containsProperty(final String name) {
+        return source.containsKey(name);
+    }
+
+    @Override
+    public @Nullable Object getProperty(final String name) {
+        final String encrypted = source.get(name);
+        if (encrypted == null) {
+            return null;
+        }
+        // only the cheap holder is created under the lock of the map, decrypting happens under the lock of the holder
+        final Object decrypted = decryptedProperties.computeIfAbsent(name, property -> new LazyProperty(property,
+                encrypted)).get();
+        return decrypted == FAILED ? null : decrypted;
+    }
+
+    /**
+     * @param name The name of the property
+     * @return If the property has already been read and thus been decrypted
+     */
+    public boolean isDecrypted(final String name) {
+        final LazyProperty property = decryptedProperties.get(name);
+        return property != null && property.isDecrypted();
+    }
+
+    private Object decrypt(final String property, final String encrypted) {
+        try {
+            final String decryptedProperty = decryptionService.decrypt(encrypted);
+            log.debug("Decrypted property " + property + " on first access to string of length " +
+                    decryptedProperty.length());
+            return decryptedProperty;
+        } catch (DecryptionException e) {
+            log.warn("Failed to decrypt property [" + property + "]", e);
+            return FAILED;
+        }
+    }
+
+    /**
+     * Decrypts a single property once
+     */
+    private final class LazyProperty {
+        private final String name;
+        private final String encrypted;
+        private @Nullable Object decrypted;
+
+        private LazyProperty(final String name, final String encrypted) {
+            this.name = name;
+            this.encrypted = encrypted;
+        }
+
+        private synchronized Object get() {
+            if (decrypted == null) {
+                decrypted = decrypt(name, encrypted);
+            }
+            return decrypted;
+        }
+
+        private synchronized boolean isDecrypted() {
+            return decrypted != null;
+        }
+    }
+}
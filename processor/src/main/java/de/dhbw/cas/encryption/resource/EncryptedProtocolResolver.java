@@ -0,0 +1,111 @@
+package de.dhbw.cas.encryption.resource;
+
+import de.dhbw.cas.encryption.configdata.EncryptedConfigDataLocationResolver;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationFailedEvent;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.EnvironmentCapable;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.core.io.ProtocolResolver;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+/**
+ * Resolves locations like {@code encrypted:classpath:keystore.p12.enc} to an {@link EncryptedResource}, so encrypted
+ * binary files like keystores, service account files or licenses can be used wherever Spring loads a resource. The
+ * location after {@link #PREFIX}, the same prefix as for importing encrypted configuration files, is resolved by the
+ * same resource loader. The key is taken from the
+ * {@link de.dhbw.cas.encryption.configuration.DecryptionConfiguration} of the environment of the resource loader, which
+ * needs a symmetric key, i.e. the types {@code SYMMETRIC}, {@code WRAPPING} or {@code KEM}.
+ * <p>
+ * Resource loaders without an environment, e.g. the one Spring Boot loads SSL bundles with, cannot tell which
+ * application they belong to. They use the environment of the running application, which
+ * {@link de.dhbw.cas.encryption.processor.DecryptingPropertiesPostProcessor} registers with
+ * {@link #useApplicationEnvironment} unless it is disabled. It is released again when its context is closed or fails
+ * to start, callers that never run the application release it with {@link #releaseApplicationEnvironment}. If no
+ * or more than one application is running in the JVM, they use the system properties and environment variables
+ * instead. Register it in {@code META-INF/spring.factories} under {@code org.springframework.core.io.ProtocolResolver}.
+ */
+@NullMarked
+public class EncryptedProtocolResolver implements ProtocolResolver {
+    public static final String PREFIX = EncryptedConfigDataLocationResolver.PREFIX;
+    private static final Set<Environment> APPLICATION_ENVIRONMENTS = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    @Override
+    public @Nullable Resource resolve(final String location, final ResourceLoader resourceLoader) {
+        if (!location.startsWith(PREFIX)) {
+            return null;
+        }
+        final Resource encrypted = resourceLoader.getResource(location.substring(PREFIX.length()));
+        return new EncryptedResource(encrypted, environmentOf(resourceLoader));
+    }
+
+    private static Environment environmentOf(final ResourceLoader resourceLoader) {
+        if (resourceLoader instanceof EnvironmentCapable environmentCapable) {
+            return environmentCapable.getEnvironment();
+        }
+        synchronized (APPLICATION_ENVIRONMENTS) {
+            if (APPLICATION_ENVIRONMENTS.size() == 1) {
+                return APPLICATION_ENVIRONMENTS.iterator().next();
+            }
+        }
+        // without an application or with several ones nothing tells which key configuration is meant
+        return new StandardEnvironment();
+    }
+
+    /**
+     * Registers the environment of an application for resource loaders without an environment until the context of
+     * the application is closed or fails to start
+     *
+     * @param application The application the environment belongs to
+     * @param environment The environment of the application to read the configuration from
+     */
+    public static void useApplicationEnvironment(final SpringApplication application, final Environment environment) {
+        synchronized (APPLICATION_ENVIRONMENTS) {
+            APPLICATION_ENVIRONMENTS.add(environment);
+        }
+        application.addListeners(new EnvironmentRelease(environment));
+    }
+
+    /**
+     * @param environment An environment registered with {@link #useApplicationEnvironment}
+     */
+    public static void releaseApplicationEnvironment(final Environment environment) {
+        synchronized (APPLICATION_ENVIRONMENTS) {
+            APPLICATION_ENVIRONMENTS.remove(environment);
+        }
+    }
+
+    /**
+     * Releases all registered environments, e.g. of applications whose context was never created
+     */
+    static void releaseApplicationEnvironments() {
+        synchronized (APPLICATION_ENVIRONMENTS) {
+            APPLICATION_ENVIRONMENTS.clear();
+        }
+    }
+
+    /**
+     * Releases the environment once its context is closed. Child contexts have an environment of their own, so closing
+     * them keeps the environment of the application.
+     */
+    private record EnvironmentRelease(Environment environment) implements ApplicationListener<ApplicationEvent> {
+        @Override
+        public void onApplicationEvent(final ApplicationEvent event) {
+            final boolean closed = event instanceof ContextClosedEvent closedEvent
+                    && closedEvent.getApplicationContext().getEnvironment() == environment;
+            if (closed || event instanceof ApplicationFailedEvent) {
+                releaseApplicationEnvironment(environment);
+            }
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package de.dhbw.cas.encryption.resource;
+
+import de.dhbw.cas.encryption.configdata.EncryptedConfigDataLocationResolver;
+import de.dhbw.cas.encryption.configuration.DecryptionConfiguration;
+import de.dhbw.cas.encryption.decryptors.StreamDecryptor;
+import de.dhbw.cas.encryption.exception.DecryptionException;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+import org.springframework.core.env.Environment;
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * A resource whose content is decrypted while it is read, see {@link StreamDecryptor}. Neither the encrypted nor the
+ * decrypted content is held in memory as a whole and nothing is written to disk, so large files like keystores stream
+ * with constant memory. The configuration providing the key is read from the environment every time the resource is
+ * opened. The resource does not expose a file or URL, as both would point to the encrypted content.
+ */
+@NullMarked
+public class EncryptedResource extends AbstractResource {
+    private static final String ENCRYPTED_EXTENSION = EncryptedConfigDataLocationResolver.ENCRYPTED_EXTENSION;
+    private final Resource encrypted;
+    private final Environment environment;
+
+    /**
+     * @param encrypted   The resource holding the encrypted content
+     * @param environment The environment to read the {@link DecryptionConfiguration} from
+     */
+    public EncryptedResource(final Resource encrypted, final Environment environment) {
+        this.encrypted = encrypted;
+        this.environment = environment;
+    }
+
+    /**
+     * @return A stream of the decrypted content
+     * @throws IOException If the encrypted resource cannot be read, decryption is disabled or the configuration is
+     *                     invalid
+     */
+    @Override
+    public InputStream getInputStream() throws IOException {
+        final DecryptionConfiguration configuration;
+        try {
+            configuration = DecryptionConfiguration.fromEnvironment(environment);
+        } catch (IllegalStateException e) {
+            throw new IOException("Could not read configuration to decrypt " + getDescription(), e);
+        }
+        if (!configuration.enabled()) {
+            throw new IOException("Cannot decrypt " + getDescription() + " while decryption is disabled");
+        }
+        final InputStream encryptedStream = encrypted.getInputStream();
+        try {
+            return StreamDecryptor.decrypt(configuration, encryptedStream);
+        } catch (DecryptionException | IOException e) {
+            encryptedStream.close();
+            throw new IOException("Could not decrypt " + getDescription(), e);
+        }
+    }
+
+    @Override
+    public boolean exists() {
+        return encrypted.exists();
+    }
+
+    @Override
+    public boolean isReadable() {
+        return encrypted.isReadable();
+    }
+
+    @Override
+    public long lastModified() throws IOException {
+        return encrypted.lastModified();
+    }
+
+    @Override
+    public Resource createRelative(final String relativePath) throws IOException {
+        return new EncryptedResource(encrypted.createRelative(relativePath), environment);
+    }
+
+    /**
+     * @return The file name of the encrypted resource without
+     * {@link EncryptedConfigDataLocationResolver#ENCRYPTED_EXTENSION}
+     */
+    @Override
+    public @Nullable String getFilename() {
+        final String filename = encrypted.getFilename();
+        return filename != null && filename.endsWith(ENCRYPTED_EXTENSION)
+                ? filename.substring(0, filename.length() - ENCRYPTED_EXTENSION.length())
+                : filename;
+    }
+
+    @Override
+    public String getDescription() {
+        return "encrypted " + encrypted.getDescription();
+    }
+
+    @Override
+    public boolean equals(@Nullable final Object o) {
+        return o instanceof EncryptedResource other && encrypted.equals(other.encrypted);
+    }
+
+    @Override
+    public int hashCode() {
+        return encrypted.hashCode();
+    }
+}
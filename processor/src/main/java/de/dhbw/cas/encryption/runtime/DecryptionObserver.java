@@ -0,0 +1,57 @@
+package de.dhbw.cas.encryption.runtime;
+
+import de.dhbw.cas.encryption.configuration.DecryptionConfiguration;
+import de.dhbw.cas.encryption.decryptors.TextDecryptor;
+import de.dhbw.cas.encryption.exception.DecryptionException;
+import org.jspecify.annotations.NullMarked;
+
+/**
+ * Observes the decryptions of a {@link DecryptionService}, e.g. to record metrics. The service asks for a
+ * {@link Recorder} once for every decryptor it creates and reports each decryption of that decryptor to it, so
+ * implementations can prepare whatever they need per decryptor instead of on every call.
+ */
+@NullMarked
+@FunctionalInterface
+public interface DecryptionObserver {
+    /**
+     * Observes nothing
+     */
+    DecryptionObserver NONE = (configuration, decryptor) -> Recorder.NONE;
+
+    /**
+     * @param configuration The configuration the decryptor was created from
+     * @param decryptor     The new decryptor
+     * @return The recorder receiving every decryption of the decryptor
+     */
+    Recorder decryptorCreated(DecryptionConfiguration configuration, TextDecryptor decryptor);
+
+    /**
+     * Receives the decryptions of a single decryptor. It is only called by the thread holding the decryptor.
+     */
+    @NullMarked
+    interface Recorder {
+        /**
+         * Records nothing
+         */
+        Recorder NONE = new Recorder() {
+            @Override
+            public void decrypted(final long nanos) {
+            }
+
+            @Override
+            public void failed(final long nanos, final DecryptionException exception) {
+            }
+        };
+
+        /**
+         * @param nanos The time the decryption took in nanoseconds
+         */
+        void decrypted(long nanos);
+
+        /**
+         * @param nanos     The time until the decryption failed in nanoseconds
+         * @param exception The reason the decryption failed
+         */
+        void failed(long nanos, DecryptionException exception);
+    }
+}
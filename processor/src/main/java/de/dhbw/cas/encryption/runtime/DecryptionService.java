@@ -0,0 +1,161 @@
+package de.dhbw.cas.encryption.runtime;
+
+import de.dhbw.cas.encryption.configuration.DecryptionConfiguration;
+import de.dhbw.cas.encryption.decryptors.DecryptorFactory;
+import de.dhbw.cas.encryption.decryptors.TextDecryptor;
+import de.dhbw.cas.encryption.exception.DecryptionException;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Decrypts values at runtime, e.g. tokens or per-request secrets.
+ * In contrast to a {@link TextDecryptor} this class can be shared between threads. It keeps a fixed number of stripes,
+ * each holding its own decryptor that is created from the {@link DecryptionConfiguration} on first use. A thread starts
+ * at the stripe derived from its id and moves on to the next stripe if that one is busy. Only if every stripe is busy
+ * it waits for its own stripe. The stripes are guarded by {@link ReentrantLock}s, so waiting virtual threads do not pin
+ * their carrier. Every decryption is reported to the {@link DecryptionObserver} of the service.
+ */
+@NullMarked
+public class DecryptionService {
+    private final DecryptionConfiguration configuration;
+    private final DecryptionObserver observer;
+    private final Stripe[] stripes;
+    private final int mask;
+
+    /**
+     * Creates a service with twice as many stripes as processors are available
+     *
+     * @param configuration The configuration to create the decryptors from
+     */
+    public DecryptionService(final DecryptionConfiguration configuration) {
+        this(configuration, DecryptionObserver.NONE);
+    }
+
+    /**
+     * Creates a service with twice as many stripes as processors are available
+     *
+     * @param configuration The configuration to create the decryptors from
+     * @param observer      The observer to report the decryptions to
+     */
+    public DecryptionService(final DecryptionConfiguration configuration, final DecryptionObserver observer) {
+        this(configuration, 2 * Runtime.getRuntime().availableProcessors(), observer);
+    }
+
+    /**
+     * @param configuration The configuration to create the decryptors from
+     * @param stripes       The minimal number of stripes. Rounded up to the next power of two
+     * @throws IllegalArgumentException If the number of stripes is not positive
+     */
+    public DecryptionService(final DecryptionConfiguration configuration, final int stripes) {
+        this(configuration, stripes, DecryptionObserver.NONE);
+    }
+
+    /**
+     * @param configuration The configuration to create the decryptors from
+     * @param stripes       The minimal number of stripes. Rounded up to the next power of two
+     * @param observer      The observer to report the decryptions to
+     * @throws IllegalArgumentException If the number of stripes is not positive
+     */
+    public DecryptionService(final DecryptionConfiguration configuration, final int stripes,
+                             final DecryptionObserver observer) {
+        if (stripes < 1) {
+            throw new IllegalArgumentException("Number of stripes has to be positive but was " + stripes);
+        }
+        this.configuration = configuration;
+        this.observer = observer;
+        final int stripeCount = Integer.highestOneBit(stripes) == stripes ? stripes : Integer.highestOneBit(stripes) << 1;
+        this.stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            this.stripes[i] = new Stripe();
+        }
+        this.mask = stripeCount - 1;
+    }
+
+    /**
+     * @param encryptedHex The encrypted value as hex string, i.e. in the same format as encrypted properties. It may
+     *                     start with a key id from the keyring
+     * @return The decrypted value
+     * @throws DecryptionException      If the value cannot be decrypted
+     * @throws IllegalArgumentException If the value is not a hex string
+     */
+    public String decrypt(final String encryptedHex) throws DecryptionException {
+        return withDecryptor(decryptor -> decryptor.decrypt(encryptedHex, configuration.iv(), configuration.charset()));
+    }
+
+    /**
+     * @param encrypted The encrypted bytes
+     * @return The decrypted value using the configured iv and charset
+     * @throws DecryptionException If the value cannot be decrypted
+     */
+    public String decrypt(final byte[] encrypted) throws DecryptionException {
+        return withDecryptor(decryptor -> decryptor.decrypt(encrypted, configuration.iv(), configuration.charset()));
+    }
+
+    private String withDecryptor(final Decryption decryption) throws DecryptionException {
+        final int home = spread(Thread.currentThread().threadId());
+        for (int i = 0; i <= mask; i++) {
+            final Stripe stripe = stripes[(home + i) & mask];
+            if (stripe.lock.tryLock()) {
+                try {
+                    return stripe.decrypt(decryption);
+                } finally {
+                    stripe.lock.unlock();
+                }
+            }
+        }
+        final Stripe stripe = stripes[home & mask];
+        stripe.lock.lock();
+        try {
+            return stripe.decrypt(decryption);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * @return The number of stripes, i.e. the maximal number of decryptors this service creates
+     */
+    public int stripes() {
+        return stripes.length;
+    }
+
+    private static int spread(final long threadId) {
+        final int hash = Long.hashCode(threadId);
+        return hash ^ (hash >>> 16);
+    }
+
+    @Override
+    public String toString() {
+        return "DecryptionService for transformation " + configuration.transformation() + " with " + stripes.length
+                + " stripes";
+    }
+
+    private final class Stripe {
+        private final ReentrantLock lock = new ReentrantLock();
+        private @Nullable TextDecryptor decryptor;
+        private DecryptionObserver.Recorder recorder = DecryptionObserver.Recorder.NONE;
+
+        private String decrypt(final Decryption decryption) throws DecryptionException {
+            if (decryptor == null) {
+                decryptor = DecryptorFactory.createDecryptor(configuration);
+                recorder = observer.decryptorCreated(configuration, decryptor);
+            }
+            final long start = System.nanoTime();
+            try {
+                final String decrypted = decryption.apply(decryptor);
+                recorder.decrypted(System.nanoTime() - start);
+                return decrypted;
+            } catch (DecryptionException e) {
+                recorder.failed(System.nanoTime() - start, e);
+                throw e;
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface Decryption {
+        String apply(TextDecryptor decryptor) throws DecryptionException;
+    }
+}
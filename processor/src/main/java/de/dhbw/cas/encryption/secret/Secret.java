@@ -0,0 +1,125 @@
+package de.dhbw.cas.encryption.secret;
+
+import org.jspecify.annotations.NullMarked;
+
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import javax.security.auth.Destroyable;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.util.Arrays;
+
+/**
+ * A decrypted value kept outside the Java heap by a {@link SecretStore}. Bind it to a {@code char[]}, {@code byte[]}
+ * or {@link SecretKey} to get a copy the application can wipe after use, see {@link SecretConverter}. Binding it to a
+ * {@link String}, e.g. with {@code Environment#getProperty} or {@code @Value}, goes through {@link #toString()}, which
+ * puts the decrypted value on the heap again.
+ */
+@NullMarked
+public final class Secret implements Destroyable {
+    private final SecretStore store;
+    private final int offset;
+    private final int length;
+    private final Charset charset;
+    private boolean destroyed;
+
+    Secret(final SecretStore store, final int offset, final int length, final Charset charset) {
+        this.store = store;
+        this.offset = offset;
+        this.length = length;
+        this.charset = charset;
+    }
+
+    /**
+     * @return The number of bytes of the decrypted value
+     */
+    public int length() {
+        return length;
+    }
+
+    /**
+     * @return A copy of the decrypted bytes, which the caller should wipe after use
+     * @throws IllegalStateException If the secret was destroyed
+     */
+    public byte[] toByteArray() {
+        final byte[] bytes = new byte[length];
+        read().get(bytes);
+        return bytes;
+    }
+
+    /**
+     * @return A copy of the decrypted value decoded with the charset of the store, which the caller should wipe after
+     * use. Malformed input is replaced like {@link String#String(byte[], Charset)} does
+     * @throws IllegalStateException If the secret was destroyed
+     */
+    public char[] toCharArray() {
+        final CharsetDecoder decoder = charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        final CharBuffer chars;
+        try {
+            chars = decoder.decode(read());
+        } catch (CharacterCodingException e) {
+            // unreachable as malformed input is replaced
+            throw new IllegalStateException(e);
+        }
+        final char[] copy = Arrays.copyOfRange(chars.array(), chars.arrayOffset(), chars.arrayOffset() + chars.limit());
+        Arrays.fill(chars.array(), '\0');
+        return copy;
+    }
+
+    /**
+     * @param algorithm The algorithm of the key
+     * @return A key made from the decrypted bytes
+     * @throws IllegalStateException If the secret was destroyed
+     */
+    public SecretKey toSecretKey(final String algorithm) {
+        final byte[] bytes = toByteArray();
+        try {
+            return new SecretKeySpec(bytes, algorithm);
+        } finally {
+            Arrays.fill(bytes, (byte) 0);
+        }
+    }
+
+    /**
+     * Wipes the decrypted value. Reading it afterward fails
+     */
+    @Override
+    public synchronized void destroy() {
+        if (!destroyed) {
+            store.wipe(offset, length);
+            destroyed = true;
+        }
+    }
+
+    @Override
+    public synchronized boolean isDestroyed() {
+        return destroyed;
+    }
+
+    /**
+     * @return The decrypted value, so binding a secret to a string keeps working
+     * @throws IllegalStateException If the secret was destroyed
+     */
+    @Override
+    public String toString() {
+        final char[] chars = toCharArray();
+        try {
+            return new String(chars);
+        } finally {
+            Arrays.fill(chars, '\0');
+        }
+    }
+
+    private synchronized ByteBuffer read() {
+        if (destroyed) {
+            throw new IllegalStateException("Secret was destroyed");
+        }
+        return store.read(offset, length);
+    }
+}
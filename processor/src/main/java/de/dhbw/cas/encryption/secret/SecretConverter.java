@@ -0,0 +1,48 @@
+package de.dhbw.cas.encryption.secret;
+
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+import org.springframework.core.convert.TypeDescriptor;
+import org.springframework.core.convert.converter.GenericConverter;
+
+import javax.crypto.SecretKey;
+import java.util.Set;
+
+/**
+ * Binds a {@link Secret} to a {@code char[]}, {@code byte[]} or {@link SecretKey} without creating a string. The
+ * algorithm of a key is taken from {@link SecretKeyAlgorithm} on the bound field or parameter. Binding to a
+ * {@link String} is supported as well, so properties that are not meant to be kept off the heap keep working.
+ */
+@NullMarked
+public class SecretConverter implements GenericConverter {
+
+    @Override
+    public Set<ConvertiblePair> getConvertibleTypes() {
+        return Set.of(new ConvertiblePair(Secret.class, char[].class),
+                new ConvertiblePair(Secret.class, byte[].class),
+                new ConvertiblePair(Secret.class, SecretKey.class),
+                new ConvertiblePair(Secret.class, String.class));
+    }
+
+    @Override
+    public @Nullable Object convert(final @Nullable Object source, final TypeDescriptor sourceType,
+                                    final TypeDescriptor targetType) {
+        if (!(source instanceof Secret secret)) {
+            return null;
+        }
+        if (targetType.getType() == char[].class) {
+            return secret.toCharArray();
+        }
+        if (targetType.getType() == byte[].class) {
+            return secret.toByteArray();
+        }
+        if (targetType.getType() == String.class) {
+            return secret.toString();
+        }
+        final SecretKeyAlgorithm algorithm = targetType.getAnnotation(SecretKeyAlgorithm.class);
+        if (algorithm == null) {
+            throw new IllegalArgumentException("Binding a secret to a SecretKey requires @SecretKeyAlgorithm");
+        }
+        return secret.toSecretKey(algorithm.value());
+    }
+}
@@ -0,0 +1,24 @@
+package de.dhbw.cas.encryption.secret;
+
+import org.jspecify.annotations.NullMarked;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Names the algorithm of a {@link javax.crypto.SecretKey} that a {@link Secret} is bound to, see
+ * {@link SecretConverter}.
+ */
+@NullMarked
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.PARAMETER, ElementType.METHOD})
+public @interface SecretKeyAlgorithm {
+    /**
+     * @return The algorithm of the key, e.g. {@code HmacSHA256}
+     */
+    String value();
+}
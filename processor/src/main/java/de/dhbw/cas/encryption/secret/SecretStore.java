@@ -0,0 +1,105 @@
+package de.dhbw.cas.encryption.secret;
+
+import de.dhbw.cas.encryption.exception.DecryptionException;
+import org.jspecify.annotations.NullMarked;
+
+import javax.security.auth.Destroyable;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+/**
+ * Keeps decrypted values in a single direct buffer, i.e. outside the Java heap. Unlike strings the values are neither
+ * copied by the garbage collector nor part of a heap dump and they can be wiped once they are no longer needed. The
+ * capacity is fixed, every value gets a slot of the maximum length it may have and only keeps the bytes actually
+ * written. Destroying the store wipes all of its values.
+ */
+@NullMarked
+public final class SecretStore implements Destroyable {
+    private final ByteBuffer buffer;
+    private final Charset charset;
+    private int used;
+    private boolean destroyed;
+
+    /**
+     * @param capacity The number of bytes the values need in total
+     * @param charset  The charset of the values
+     */
+    public SecretStore(final int capacity, final Charset charset) {
+        buffer = ByteBuffer.allocateDirect(capacity);
+        this.charset = charset;
+    }
+
+    /**
+     * @param maximumLength The maximum number of bytes the writer writes
+     * @param writer        Writes the value into its slot
+     * @return The secret holding the written bytes
+     * @throws DecryptionException   If the writer fails. Whatever was written is wiped
+     * @throws IllegalStateException If the store has no room for the slot or was destroyed
+     */
+    public synchronized Secret store(final int maximumLength, final Writer writer) throws DecryptionException {
+        checkNotDestroyed();
+        if (maximumLength > buffer.capacity() - used) {
+            throw new IllegalStateException("Secret store has no room for " + maximumLength + " more bytes");
+        }
+        final ByteBuffer slot = buffer.slice(used, maximumLength);
+        boolean written = false;
+        try {
+            writer.write(slot);
+            written = true;
+        } finally {
+            if (!written) {
+                wipe(used, maximumLength);
+            }
+        }
+        final Secret secret = new Secret(this, used, slot.position(), charset);
+        used += slot.position();
+        return secret;
+    }
+
+    /**
+     * @return A read-only view of the bytes
+     */
+    synchronized ByteBuffer read(final int offset, final int length) {
+        checkNotDestroyed();
+        return buffer.slice(offset, length).asReadOnlyBuffer();
+    }
+
+    synchronized void wipe(final int offset, final int length) {
+        for (int i = offset; i < offset + length; i++) {
+            buffer.put(i, (byte) 0);
+        }
+    }
+
+    /**
+     * Wipes all values of the store. Reading a value afterward fails
+     */
+    @Override
+    public synchronized void destroy() {
+        wipe(0, buffer.capacity());
+        destroyed = true;
+    }
+
+    @Override
+    public synchronized boolean isDestroyed() {
+        return destroyed;
+    }
+
+    private void checkNotDestroyed() {
+        if (destroyed) {
+            throw new IllegalStateException("Secret store was destroyed");
+        }
+    }
+
+    /**
+     * Writes a single value into the store
+     */
+    @NullMarked
+    @FunctionalInterface
+    public interface Writer {
+        /**
+         * @param slot The buffer to write to, starting at its position. Writing beyond its limit fails
+         * @throws DecryptionException If the value cannot be written
+         */
+        void write(ByteBuffer slot) throws DecryptionException;
+    }
+}
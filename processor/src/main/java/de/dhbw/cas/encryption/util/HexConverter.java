@@ -6,6 +6,8 @@ import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
 import java.util.HexFormat;
 
 /**
@@ -35,6 +37,43 @@ public final class HexConverter {
         return FORMAT.parseHex(hexString);
     }
 
+    /**
+     * @param hexString A string containing a hex string
+     * @param fromIndex The index of the first character of the hex string
+     * @param toIndex   The index after the last character of the hex string
+     * @return The converted bytes
+     * @throws IllegalArgumentException  If the given range is not in hex format
+     * @throws IndexOutOfBoundsException If the given range is out of bounds
+     */
+    public static byte[] loadBytesFromHexString(final CharSequence hexString, final int fromIndex, final int toIndex)
+            throws IllegalArgumentException {
+        return FORMAT.parseHex(hexString, fromIndex, toIndex);
+    }
+
+    /**
+     * Converts a hex string into an existing buffer instead of a new array, so the buffer can be reused and wiped
+     *
+     * @param hexString The string in hex format to convert into bytes
+     * @param target    The buffer to write the bytes to, starting at its position. Its position is advanced by the
+     *                  number of converted bytes
+     * @throws IllegalArgumentException If the provided string is not in hex format
+     * @throws BufferOverflowException  If the remaining space of the buffer is smaller than half the string's length
+     */
+    public static void loadBytesFromHexString(final CharSequence hexString, final ByteBuffer target)
+            throws IllegalArgumentException {
+        final int length = hexString.length();
+        if (length % 2 != 0) {
+            throw new IllegalArgumentException("Hex string must have an even number of characters");
+        }
+        if (target.remaining() < length / 2) {
+            throw new BufferOverflowException();
+        }
+        for (int i = 0; i < length; i += 2) {
+            target.put((byte) ((HexFormat.fromHexDigit(hexString.charAt(i)) << 4)
+                    | HexFormat.fromHexDigit(hexString.charAt(i + 1))));
+        }
+    }
+
     /**
      * Reads the first line from a file and interprets it as bytes
      *
@@ -0,0 +1,162 @@
+package de.dhbw.cas.encryption.util;
+
+import org.jspecify.annotations.NullMarked;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HexFormat;
+
+/**
+ * Loads keys from any {@link Resource}, e.g. a file or an entry of the application jar. A key is stored in one of three
+ * formats
+ * <ul>
+ *     <li>PEM: A base64 encoded key between a {@code -----BEGIN ...-----} and an {@code -----END ...-----} line, e.g. a
+ *     PKCS#8 private key written by {@code openssl genpkey}</li>
+ *     <li>hex: The first line of the file is a hex string, the format written by the key generators of this project</li>
+ *     <li>DER: The raw bytes of the key, e.g. written by {@code openssl pkcs8 -outform DER}</li>
+ * </ul>
+ * Files consisting of printable ASCII characters and whitespace only are PEM if they start with the PEM header and hex
+ * otherwise. Every other file is DER. The key is decoded from the bytes of the resource directly, no {@link String} of
+ * key material is created and the read bytes are overwritten once they are decoded.
+ */
+@NullMarked
+public final class KeyLoader {
+    private static final ResourceLoader RESOURCE_LOADER = new DefaultResourceLoader(KeyLoader.class.getClassLoader());
+    private static final byte[] PEM_BEGIN = {'-', '-', '-', '-', '-', 'B', 'E', 'G', 'I', 'N'};
+    private static final byte[] PEM_DASHES = {'-', '-', '-', '-', '-'};
+
+    private KeyLoader() {
+    }
+
+    /**
+     * Resolves the location of a key. A path to an existing file takes precedence, every other location is resolved
+     * like a Spring resource location, i.e. it may start with {@code classpath:} or {@code file:} or be a URL. Plain
+     * paths are looked up on the classpath, so keys can be packaged into the application jar
+     *
+     * @param location The location of the key
+     * @return The resource, which does not need to exist
+     */
+    public static Resource resolve(final String location) {
+        final File file = new File(location);
+        return file.exists() ? new FileSystemResource(file) : RESOURCE_LOADER.getResource(location);
+    }
+
+    /**
+     * @param resource The resource to read the key from
+     * @return The decoded key
+     * @throws IllegalArgumentException If the resource is empty or does not contain a valid key in any format
+     * @throws IOException              If the resource cannot be read
+     */
+    public static byte[] load(final Resource resource) throws IllegalArgumentException, IOException {
+        final byte[] content;
+        if (resource.isFile()) {
+            content = Files.readAllBytes(resource.getFile().toPath());
+        } else {
+            try (InputStream stream = resource.getInputStream()) {
+                content = stream.readAllBytes();
+            }
+        }
+        return decode(content);
+    }
+
+    /**
+     * @param content The content of a key file in any of the supported formats. It is overwritten if the key is
+     *                decoded from it, i.e. if it is not DER
+     * @return The decoded key
+     * @throws IllegalArgumentException If the content is empty or not a valid key in any format
+     */
+    static byte[] decode(final byte[] content) throws IllegalArgumentException {
+        if (content.length == 0) {
+            throw new IllegalArgumentException("File is empty");
+        }
+        if (!isText(content)) {
+            return content;
+        }
+        try {
+            return startsWith(content, 0, PEM_BEGIN) ? decodePem(content) : decodeHex(content);
+        } finally {
+            Arrays.fill(content, (byte) 0);
+        }
+    }
+
+    private static boolean isText(final byte[] content) {
+        for (byte b : content) {
+            if ((b < ' ' || b > '~') && b != '\n' && b != '\r' && b != '\t') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static byte[] decodeHex(final byte[] content) {
+        int end = 0;
+        while (end < content.length && content[end] != '\n' && content[end] != '\r') {
+            end++;
+        }
+        int start = 0;
+        while (start < end && isBlank(content[start])) {
+            start++;
+        }
+        while (end > start && isBlank(content[end - 1])) {
+            end--;
+        }
+        if ((end - start) % 2 != 0) {
+            throw new IllegalArgumentException("Hex string must have an even number of characters");
+        }
+        final byte[] key = new byte[(end - start) / 2];
+        for (int i = 0; i < key.length; i++) {
+            final int high = content[start + 2 * i];
+            final int low = content[start + 2 * i + 1];
+            if (!HexFormat.isHexDigit(high) || !HexFormat.isHexDigit(low)) {
+                Arrays.fill(key, (byte) 0);
+                throw new IllegalArgumentException("Key is not in hex format");
+            }
+            key[i] = (byte) ((HexFormat.fromHexDigit(high) << 4) | HexFormat.fromHexDigit(low));
+        }
+        return key;
+    }
+
+    private static byte[] decodePem(final byte[] content) {
+        final int bodyStart = endOfLine(content, PEM_BEGIN.length);
+        int bodyEnd = bodyStart;
+        while (bodyEnd < content.length && !startsWith(content, bodyEnd, PEM_DASHES)) {
+            bodyEnd++;
+        }
+        if (bodyStart >= content.length || bodyEnd >= content.length) {
+            throw new IllegalArgumentException("PEM key has no END line");
+        }
+        // the MIME decoder skips the line breaks between the base64 lines
+        final ByteBuffer decoded = Base64.getMimeDecoder()
+                .decode(ByteBuffer.wrap(content, bodyStart, bodyEnd - bodyStart));
+        final byte[] key = new byte[decoded.remaining()];
+        decoded.get(key);
+        Arrays.fill(decoded.array(), (byte) 0);
+        return key;
+    }
+
+    private static int endOfLine(final byte[] content, final int from) {
+        int index = from;
+        while (index < content.length && content[index] != '\n') {
+            index++;
+        }
+        return index + 1;
+    }
+
+    private static boolean startsWith(final byte[] content, final int offset, final byte[] prefix) {
+        return Arrays.equals(content, offset, Math.min(content.length, offset + prefix.length), prefix, 0,
+                prefix.length);
+    }
+
+    private static boolean isBlank(final byte b) {
+        return b == ' ' || b == '\t';
+    }
+}
@@ -0,0 +1,194 @@
+package de.dhbw.cas.encryption.util;
+
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A set of property name patterns compiled into a single automaton.
+ * The patterns support the following wildcards:
+ * <ul>
+ *     <li>{@code *} matches any characters within one segment, e.g. {@code spring.datasource.*.password} matches
+ *     {@code spring.datasource.primary.password} but not {@code spring.datasource.a.b.password}</li>
+ *     <li>{@code [*]} matches any index or map key, e.g. {@code app.clients[*].secret} matches
+ *     {@code app.clients[0].secret} and {@code app.clients[partner.a].secret}</li>
+ *     <li>{@code **} matches any characters including separators, e.g. {@code app.**.secret} matches
+ *     {@code app.a.secret} and {@code app.a[0].b.secret}</li>
+ * </ul>
+ * Every wildcard matches at least one character, so {@code a.*.b} does not match {@code a..b}. All other characters match themselves. The patterns share a trie, so matching a name only follows the patterns that
+ * still agree with the characters read so far. A name is read once regardless of how many patterns there are. Names
+ * whose first character cannot start any pattern are rejected without allocating anything.
+ */
+@NullMarked
+public final class PropertyNamePatterns {
+    private static final int WILDCARD_COUNT = Wildcard.values().length;
+    private final Node root;
+    private final int size;
+
+    private PropertyNamePatterns(final Node root, final int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    /**
+     * @param name A property name as listed in the configuration
+     * @return If the name contains a wildcard and thus is a pattern
+     */
+    public static boolean isPattern(final String name) {
+        return name.indexOf('*') >= 0;
+    }
+
+    /**
+     * @param patterns The patterns to compile
+     * @return The compiled patterns
+     */
+    public static PropertyNamePatterns compile(final Collection<String> patterns) {
+        final Node root = new Node(null);
+        for (String pattern : patterns) {
+            Node node = root;
+            boolean inBrackets = false;
+            for (int i = 0; i < pattern.length(); i++) {
+                final char c = pattern.charAt(i);
+                if (c == '*') {
+                    Wildcard wildcard = inBrackets ? Wildcard.INDEX : Wildcard.SEGMENT;
+                    while (i + 1 < pattern.length() && pattern.charAt(i + 1) == '*') {
+                        wildcard = Wildcard.ANY;
+                        i++;
+                    }
+                    node = node.wildcard(wildcard);
+                } else {
+                    if (c == '[') {
+                        inBrackets = true;
+                    } else if (c == ']') {
+                        inBrackets = false;
+                    }
+                    node = node.child(c);
+                }
+            }
+            node.terminal = true;
+        }
+        return new PropertyNamePatterns(root, patterns.size());
+    }
+
+    /**
+     * @return If no pattern was compiled
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @param name The property name to check
+     * @return If any of the patterns matches the whole name
+     */
+    public boolean matches(final CharSequence name) {
+        if (isEmpty()) {
+            return false;
+        }
+        if (name.isEmpty()) {
+            return root.terminal;
+        }
+        // the first step is done without allocating to cheaply reject names that share no prefix with any pattern
+        if (root.hasNoWildcards() && root.children.get(name.charAt(0)) == null) {
+            return false;
+        }
+        Node[] current = new Node[WILDCARD_COUNT + 2];
+        current[0] = root;
+        int currentSize = 1;
+        Node[] next = new Node[current.length];
+        for (int i = 0; i < name.length() && currentSize > 0; i++) {
+            final char c = name.charAt(i);
+            int nextSize = 0;
+            for (int j = 0; j < currentSize; j++) {
+                final Node node = current[j];
+                next = ensureCapacity(next, nextSize + WILDCARD_COUNT + 2);
+                if (node.loop != null && node.loop.accepts(c)) {
+                    nextSize = add(next, nextSize, node);
+                }
+                final Node child = node.children.get(c);
+                if (child != null) {
+                    nextSize = add(next, nextSize, child);
+                }
+                // a wildcard is only entered by consuming a character, so it never matches an empty segment
+                for (Node wildcard : node.wildcards) {
+                    if (wildcard != null && wildcard.loop != null && wildcard.loop.accepts(c)) {
+                        nextSize = add(next, nextSize, wildcard);
+                    }
+                }
+            }
+            final Node[] swap = current;
+            current = next;
+            next = swap.length >= current.length ? swap : new Node[current.length];
+            currentSize = nextSize;
+        }
+        for (int j = 0; j < currentSize; j++) {
+            if (current[j].terminal) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Node[] ensureCapacity(final Node[] states, final int capacity) {
+        return states.length >= capacity ? states : Arrays.copyOf(states, Math.max(capacity, states.length * 2));
+    }
+
+    private static int add(final Node[] states, final int size, final Node node) {
+        for (int i = 0; i < size; i++) {
+            if (states[i] == node) {
+                return size;
+            }
+        }
+        states[size] = node;
+        return size + 1;
+    }
+
+    private enum Wildcard {
+        SEGMENT, INDEX, ANY;
+
+        boolean accepts(final char c) {
+            return switch (this) {
+                case SEGMENT -> c != '.' && c != '[' && c != ']';
+                case INDEX -> c != ']';
+                case ANY -> true;
+            };
+        }
+    }
+
+    private static final class Node {
+        private final Map<Character, Node> children = new HashMap<>();
+        private final @Nullable Node[] wildcards = new Node[WILDCARD_COUNT];
+        private final @Nullable Wildcard loop;
+        private boolean terminal;
+
+        private Node(final @Nullable Wildcard loop) {
+            this.loop = loop;
+        }
+
+        private Node child(final char c) {
+            return children.computeIfAbsent(c, ignored -> new Node(null));
+        }
+
+        private Node wildcard(final Wildcard wildcard) {
+            Node node = wildcards[wildcard.ordinal()];
+            if (node == null) {
+                node = new Node(wildcard);
+                wildcards[wildcard.ordinal()] = node;
+            }
+            return node;
+        }
+
+        private boolean hasNoWildcards() {
+            for (Node wildcard : wildcards) {
+                if (wildcard != null) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -5,6 +5,8 @@ import org.junit.platform.suite.api.Suite;
 
 @Suite
 @SelectPackages({"de.dhbw.cas.encryption.configuration", "de.dhbw.cas.encryption.util",
-        "de.dhbw.cas.encryption.processor", "de.dhbw.cas.encryption.decryptors"})
+        "de.dhbw.cas.encryption.processor", "de.dhbw.cas.encryption.decryptors", "de.dhbw.cas.encryption.runtime",
+        "de.dhbw.cas.encryption.autoconfigure", "de.dhbw.cas.encryption.configdata", "de.dhbw.cas.encryption.jfr",
+        "de.dhbw.cas.encryption.metrics", "de.dhbw.cas.encryption.secret", "de.dhbw.cas.encryption.resource"})
 public class UnitTestSuite {
 }
@@ -0,0 +1,141 @@
+package de.dhbw.cas.encryption.autoconfigure;
+
+
+import de.dhbw.cas.encryption.exception.DecryptionException;
+import de.dhbw.cas.encryption.metrics.DecryptionMetrics;
+import de.dhbw.cas.encryption.processor.DecryptedPropertiesReloader;
+import de.dhbw.cas.encryption.processor.DecryptingPropertiesPostProcessor;
+import de.dhbw.cas.encryption.runtime.DecryptionService;
+import de.dhbw.cas.encryption.secret.SecretKeyAlgorithm;
+import de.dhbw.cas.encryption.secret.SecretStore;
+import org.assertj.core.api.Assertions;
+import org.jspecify.annotations.Nullable;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.context.FilteredClassLoader;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.MapPropertySource;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static de.dhbw.cas.encryption.configuration.DecryptionConfiguration.PROPERTY_PREFIX;
+
+class DecryptionAutoConfigurationTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withConfiguration(AutoConfigurations.of(DecryptionAutoConfiguration.class));
+
+    @Test
+    void test_registersDecryptionServiceWhenDecryptionIsConfigured() {
+        contextRunner.withPropertyValues(PROPERTY_PREFIX + "key=aes-key.txt",
+                        PROPERTY_PREFIX + "transformation=AES",
+                        PROPERTY_PREFIX + "type=symmetric")
+                .run(context -> Assertions.assertThat(context).hasSingleBean(DecryptionService.class));
+    }
+
+    @Test
+    void test_doesNotRegisterDecryptionServiceWithoutKey() {
+        contextRunner.run(context -> Assertions.assertThat(context).doesNotHaveBean(DecryptionService.class));
+    }
+
+    @Test
+    void test_doesNotRegisterDecryptionServiceWhenDecryptionIsDisabled() {
+        contextRunner.withPropertyValues(PROPERTY_PREFIX + "key=aes-key.txt",
+                        PROPERTY_PREFIX + "transformation=AES",
+                        PROPERTY_PREFIX + "type=symmetric",
+                        PROPERTY_PREFIX + "enabled=false")
+                .run(context -> Assertions.assertThat(context).doesNotHaveBean(DecryptionService.class));
+    }
+
+    @Test
+    void test_registersReloaderOnlyWhenReloadIsEnabled() {
+        final ApplicationContextRunner configuredRunner = contextRunner.withPropertyValues(
+                PROPERTY_PREFIX + "key=aes-key.txt",
+                PROPERTY_PREFIX + "transformation=AES",
+                PROPERTY_PREFIX + "type=symmetric");
+        configuredRunner.run(context -> Assertions.assertThat(context)
+                .doesNotHaveBean(DecryptedPropertiesReloader.class));
+        configuredRunner.withPropertyValues(PROPERTY_PREFIX + "reload=true")
+                .run(context -> Assertions.assertThat(context).hasSingleBean(DecryptedPropertiesReloader.class));
+    }
+
+    @Test
+    void test_registersMetricsOnlyWithMicrometerOnClasspath() {
+        final ApplicationContextRunner configuredRunner = contextRunner.withPropertyValues(
+                PROPERTY_PREFIX + "key=aes-key.txt",
+                PROPERTY_PREFIX + "transformation=AES",
+                PROPERTY_PREFIX + "type=symmetric");
+        configuredRunner.run(context -> Assertions.assertThat(context).hasSingleBean(DecryptionMetrics.class));
+        configuredRunner.withClassLoader(new FilteredClassLoader("io.micrometer"))
+                .run(context -> Assertions.assertThat(context)
+                        .hasSingleBean(DecryptionService.class)
+                        .doesNotHaveBean(DecryptionMetrics.class));
+    }
+
+    @Test
+    void test_bindsOffHeapSecretsToCharArraysBytesAndKeys() throws DecryptionException {
+        final SecretStore store = new SecretStore(12, StandardCharsets.UTF_8);
+        final Map<String, Object> secrets = new HashMap<>();
+        for (String property : List.of("password", "raw", "key")) {
+            secrets.put("secrets." + property, store.store(4,
+                    slot -> slot.put("root".getBytes(StandardCharsets.UTF_8))));
+        }
+        contextRunner.withPropertyValues(PROPERTY_PREFIX + "key=aes-key.txt",
+                        PROPERTY_PREFIX + "transformation=AES",
+                        PROPERTY_PREFIX + "type=symmetric",
+                        PROPERTY_PREFIX + "off-heap=true")
+                .withInitializer(context -> context.getEnvironment().getPropertySources().addFirst(
+                        new MapPropertySource(DecryptingPropertiesPostProcessor.DECRYPTED_PROPERTY_SOURCE_NAME, secrets)))
+                .withUserConfiguration(SecretsConfiguration.class)
+                .run(context -> {
+                    final SecretProperties bound = context.getBean(SecretProperties.class);
+                    Assertions.assertThat(bound.getPassword()).containsExactly('r', 'o', 'o', 't');
+                    Assertions.assertThat(bound.getRaw()).containsExactly("root".getBytes(StandardCharsets.UTF_8));
+                    Assertions.assertThat(bound.getKey().getAlgorithm()).isEqualTo("HmacSHA256");
+                });
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @EnableConfigurationProperties(SecretProperties.class)
+    static class SecretsConfiguration {
+    }
+
+    @ConfigurationProperties("secrets")
+    static class SecretProperties {
+        private char[] password = new char[0];
+        private byte[] raw = new byte[0];
+        @SecretKeyAlgorithm("HmacSHA256")
+        private @Nullable SecretKey key;
+
+        char[] getPassword() {
+            return password;
+        }
+
+        void setPassword(final char[] password) {
+            this.password = password;
+        }
+
+        byte[] getRaw() {
+            return raw;
+        }
+
+        void setRaw(final byte[] raw) {
+            this.raw = raw;
+        }
+
+        @Nullable SecretKey getKey() {
+            return key;
+        }
+
+        void setKey(final SecretKey key) {
+            this.key = key;
+        }
+    }
+}
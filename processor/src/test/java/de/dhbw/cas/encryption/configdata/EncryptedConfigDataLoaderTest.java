@@ -0,0 +1,77 @@
+package de.dhbw.cas.encryption.configdata;
+
+import de.dhbw.cas.encryption.configuration.DecryptionConfiguration;
+import org.assertj.core.api.Assertions;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.config.ConfigData;
+import org.springframework.boot.context.config.ConfigDataResourceNotFoundException;
+import org.springframework.boot.env.PropertiesPropertySourceLoader;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.PropertiesPropertySource;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.io.IOException;
+import java.security.Security;
+import java.util.Properties;
+
+class EncryptedConfigDataLoaderTest {
+    private final EncryptedConfigDataLoader loader = new EncryptedConfigDataLoader();
+
+    @BeforeAll
+    static void registerBouncyCastle() {
+        Security.addProvider(new BouncyCastleProvider());
+    }
+
+    private static DecryptionConfiguration loadConfiguration() throws IOException {
+        final Properties properties = new Properties();
+        properties.load(new ClassPathResource("properties/aes-cbc.properties").getInputStream());
+        final MockEnvironment environment = new MockEnvironment();
+        environment.getPropertySources().addFirst(new PropertiesPropertySource("mock", properties));
+        return DecryptionConfiguration.fromEnvironment(environment);
+    }
+
+    private static EncryptedConfigDataResource resource(final String path) throws IOException {
+        return new EncryptedConfigDataResource(new ClassPathResource(path), new PropertiesPropertySourceLoader(),
+                loadConfiguration());
+    }
+
+    @Test
+    void test_load_decryptsAndParsesFile() throws IOException {
+        final ConfigData configData = loader.load(() -> null, resource("configdata/secrets.properties.enc"));
+
+        Assertions.assertThat(configData.getPropertySources()).singleElement().satisfies(propertySource -> {
+            Assertions.assertThat(propertySource.getProperty("app.secret")).hasToString("root");
+            Assertions.assertThat(propertySource.getProperty("app.datasource.url"))
+                    .hasToString("jdbc:mariadb://localhost:3306/test");
+        });
+    }
+
+    @Test
+    void test_load_failsForMissingFile() {
+        Assertions.assertThatThrownBy(() -> loader.load(() -> null, resource("configdata/missing.properties.enc")))
+                .isInstanceOf(ConfigDataResourceNotFoundException.class);
+    }
+
+    @Test
+    void test_load_importsFileIntoEnvironment() {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(EmptyConfiguration.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.config.import=encrypted:classpath:configdata/secrets-raw.properties.enc",
+                        "--dhbw.cas.decryption.key=aes-cbc-key.txt",
+                        "--dhbw.cas.decryption.transformation=AES/CBC/PKCS5Padding",
+                        "--dhbw.cas.decryption.type=symmetric",
+                        "--dhbw.cas.decryption.iv=7FD7F5B627A49A25CC6F12CAECACE8BA")) {
+            Assertions.assertThat(context.getEnvironment().getProperty("app.secret")).isEqualTo("root");
+        }
+    }
+
+    @Configuration
+    static class EmptyConfiguration {
+    }
+}
@@ -0,0 +1,94 @@
+package de.dhbw.cas.encryption.configdata;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.ConfigurableBootstrapContext;
+import org.springframework.boot.context.config.ConfigDataLocation;
+import org.springframework.boot.context.config.ConfigDataLocationResolverContext;
+import org.springframework.boot.context.config.ConfigDataResource;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+import org.springframework.boot.env.PropertiesPropertySourceLoader;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static de.dhbw.cas.encryption.configuration.DecryptionConfiguration.PROPERTY_PREFIX;
+
+class EncryptedConfigDataLocationResolverTest {
+    private static final Map<String, String> CONFIGURATION = Map.of(
+            PROPERTY_PREFIX + "key", "aes-cbc-key.txt",
+            PROPERTY_PREFIX + "transformation", "AES/CBC/PKCS5Padding",
+            PROPERTY_PREFIX + "type", "symmetric",
+            PROPERTY_PREFIX + "keyring.old", "aes-key.txt");
+    private final EncryptedConfigDataLocationResolver resolver =
+            new EncryptedConfigDataLocationResolver(new DefaultResourceLoader());
+
+    private static ConfigDataLocationResolverContext contextWith(final Map<String, String> properties) {
+        final Binder binder = new Binder(new MapConfigurationPropertySource(properties));
+        return new ConfigDataLocationResolverContext() {
+            @Override
+            public Binder getBinder() {
+                return binder;
+            }
+
+            @Override
+            public ConfigDataResource getParent() {
+                return null;
+            }
+
+            @Override
+            public ConfigurableBootstrapContext getBootstrapContext() {
+                return null;
+            }
+        };
+    }
+
+    @Test
+    void test_isResolvable_acceptsOnlyEncryptedLocations() {
+        final ConfigDataLocationResolverContext context = contextWith(CONFIGURATION);
+
+        Assertions.assertThat(resolver.isResolvable(context,
+                ConfigDataLocation.of("encrypted:classpath:secrets.properties.enc"))).isTrue();
+        Assertions.assertThat(resolver.isResolvable(context,
+                ConfigDataLocation.of("classpath:secrets.properties"))).isFalse();
+    }
+
+    @Test
+    void test_resolve_usesConfigurationKnownAtResolution() {
+        final List<EncryptedConfigDataResource> resources = resolver.resolve(contextWith(CONFIGURATION),
+                ConfigDataLocation.of("encrypted:classpath:configdata/secrets.properties.enc"));
+
+        Assertions.assertThat(resources).singleElement().satisfies(resource -> {
+            Assertions.assertThat(resource.getResource().exists()).isTrue();
+            Assertions.assertThat(resource.getPropertySourceLoader()).isInstanceOf(PropertiesPropertySourceLoader.class);
+            Assertions.assertThat(resource.getConfiguration().transformation()).isEqualTo("AES/CBC/PKCS5Padding");
+            Assertions.assertThat(resource.getConfiguration().keyring()).containsEntry("old", "aes-key.txt");
+        });
+    }
+
+    @Test
+    void test_resolve_failsForUnknownFormat() {
+        Assertions.assertThatThrownBy(() -> resolver.resolve(contextWith(CONFIGURATION),
+                        ConfigDataLocation.of("encrypted:classpath:configdata/secrets.txt.enc")))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void test_resolve_failsWithoutConfiguration() {
+        Assertions.assertThatThrownBy(() -> resolver.resolve(contextWith(Map.of()),
+                        ConfigDataLocation.of("encrypted:classpath:configdata/secrets.properties.enc")))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void test_resolve_failsWhenDecryptionIsDisabled() {
+        final Map<String, String> disabled = new HashMap<>(CONFIGURATION);
+        disabled.put(PROPERTY_PREFIX + "enabled", "false");
+        Assertions.assertThatThrownBy(() -> resolver.resolve(contextWith(disabled),
+                        ConfigDataLocation.of("encrypted:classpath:configdata/secrets.properties.enc")))
+                .isInstanceOf(IllegalStateException.class);
+    }
+}
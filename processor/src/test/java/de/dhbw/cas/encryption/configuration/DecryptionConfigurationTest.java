@@ -5,12 +5,18 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
 import org.springframework.core.env.Environment;
 import org.springframework.mock.env.MockEnvironment;
 
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
 import java.util.stream.Stream;
 
+import static de.dhbw.cas.encryption.configuration.DecryptionConfiguration.DEFAULT_PROFILE;
+import static de.dhbw.cas.encryption.configuration.DecryptionConfiguration.PROFILES_PREFIX;
 import static de.dhbw.cas.encryption.configuration.DecryptionConfiguration.PROPERTY_PREFIX;
 
 class DecryptionConfigurationTest {
@@ -24,7 +30,18 @@ class DecryptionConfigurationTest {
             .withProperty(PROPERTY_PREFIX + "charset", "UTF-8")
             .withProperty(PROPERTY_PREFIX + "enabled", "true")
             .withProperty(PROPERTY_PREFIX + "key-algorithm", "AES")
-            .withProperty(PROPERTY_PREFIX + "wrapping-key", "single-hex-line.txt");
+            .withProperty(PROPERTY_PREFIX + "wrapping-key", "single-hex-line.txt")
+            .withProperty(PROPERTY_PREFIX + "parallelism", "4")
+            .withProperty(PROPERTY_PREFIX + "mode", "lazy")
+            .withProperty(PROPERTY_PREFIX + "async-timeout", "5s")
+            .withProperty(PROPERTY_PREFIX + "auto-discovery", "true")
+            .withProperty(PROPERTY_PREFIX + "marker-prefix", "{cipher}")
+            .withProperty(PROPERTY_PREFIX + "marker-suffix", "")
+            .withProperty(PROPERTY_PREFIX + "keyring.old", "single-hex-line.txt")
+            .withProperty(PROPERTY_PREFIX + "cache", "false")
+            .withProperty(PROPERTY_PREFIX + "provider", "SunJCE")
+            .withProperty(PROPERTY_PREFIX + "provider-file", "providers.properties")
+            .withProperty(PROPERTY_PREFIX + "off-heap", "true");
 
     static Stream<Arguments> incompleteConfigurations() {
         return Stream.of(
@@ -68,7 +85,9 @@ class DecryptionConfigurationTest {
                 "Never gonna let you down".getBytes(StandardCharsets.UTF_8), "AES", "AES",
                 "AF".getBytes(StandardCharsets.US_ASCII), TransformationType.SYMMETRIC,
                 new String[]{"spring.datasource.password", "spring.data.mongodb.password"}, StandardCharsets.UTF_8,
-                true, "Never gonna let you down".getBytes(StandardCharsets.UTF_8)
+                true, "Never gonna let you down".getBytes(StandardCharsets.UTF_8), 4, DecryptionMode.LAZY,
+                Duration.ofSeconds(5), true, "{cipher}", "", Map.of("old", "single-hex-line.txt"), false, "SunJCE",
+                "providers.properties", true
         );
         final DecryptionConfiguration parsed = DecryptionConfiguration.fromEnvironment(COMPLETE_ENVIRONMENT);
         Assertions.assertThat(parsed).isEqualTo(expected);
@@ -107,6 +126,46 @@ class DecryptionConfigurationTest {
                 .isInstanceOf(IllegalStateException.class);
     }
 
+    @ParameterizedTest
+    @ValueSource(strings = {"0", "-1"})
+    void test_fromEnvironment_failsWhenParallelismIsNotPositive(String parallelism) {
+        final MockEnvironment environment = new MockEnvironment()
+                .withProperty(PROPERTY_PREFIX + "key", "single-hex-line.txt")
+                .withProperty(PROPERTY_PREFIX + "transformation", "AES")
+                .withProperty(PROPERTY_PREFIX + "type", "symmetric")
+                .withProperty(PROPERTY_PREFIX + "parallelism", parallelism);
+        Assertions.assertThatThrownBy(() -> DecryptionConfiguration.fromEnvironment(environment))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void test_fromEnvironment_failsWhenMarkerPrefixIsEmpty() {
+        final MockEnvironment environment = new MockEnvironment()
+                .withProperty(PROPERTY_PREFIX + "key", "single-hex-line.txt")
+                .withProperty(PROPERTY_PREFIX + "transformation", "AES")
+                .withProperty(PROPERTY_PREFIX + "type", "symmetric")
+                .withProperty(PROPERTY_PREFIX + "marker-prefix", "");
+        Assertions.assertThatThrownBy(() -> DecryptionConfiguration.fromEnvironment(environment))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void test_fromEnvironment_failsWhenKeyIdContainsSeparator() {
+        final MockEnvironment environment = new MockEnvironment()
+                .withProperty(PROPERTY_PREFIX + "key", "single-hex-line.txt")
+                .withProperty(PROPERTY_PREFIX + "transformation", "AES")
+                .withProperty(PROPERTY_PREFIX + "type", "symmetric")
+                .withProperty(PROPERTY_PREFIX + "keyring[a:b]", "single-hex-line.txt");
+        Assertions.assertThatThrownBy(() -> DecryptionConfiguration.fromEnvironment(environment))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void test_loadKey_failsForMissingFile() {
+        Assertions.assertThatThrownBy(() -> DecryptionConfiguration.loadKey("does-not-exist.txt"))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
     @Test
     void test_equals_isFalseForDifferentObjects() {
         final DecryptionConfiguration test = DecryptionConfiguration.fromEnvironment(COMPLETE_ENVIRONMENT);
@@ -115,4 +174,88 @@ class DecryptionConfigurationTest {
         Assertions.assertThat(test).isNotEqualTo(new Object());
         Assertions.assertThat(test).isNotEqualTo(PROPERTY_PREFIX);
     }
-}
\ No newline at end of file
+
+    @Test
+    void test_fromEnvironment_readsPropertiesWithGivenPrefix() {
+        final MockEnvironment environment = new MockEnvironment()
+                .withProperty(PROFILES_PREFIX + "db.key", "single-hex-line.txt")
+                .withProperty(PROFILES_PREFIX + "db.transformation", "AES")
+                .withProperty(PROFILES_PREFIX + "db.type", "symmetric");
+
+        final DecryptionConfiguration expected = new DecryptionConfiguration(
+                "Never gonna let you down".getBytes(StandardCharsets.US_ASCII), "AES", null, new byte[0],
+                TransformationType.SYMMETRIC, new String[0], StandardCharsets.US_ASCII, true, new byte[0]);
+        Assertions.assertThat(DecryptionConfiguration.fromEnvironment(environment, PROFILES_PREFIX + "db."))
+                .isEqualTo(expected);
+    }
+
+    @Test
+    void test_profilesFromEnvironment_containsOnlyDefaultWithoutProfiles() {
+        final Map<String, DecryptionConfiguration> profiles =
+                DecryptionConfiguration.profilesFromEnvironment(COMPLETE_ENVIRONMENT);
+
+        Assertions.assertThat(profiles).containsOnlyKeys(DEFAULT_PROFILE);
+        Assertions.assertThat(profiles.get(DEFAULT_PROFILE))
+                .isEqualTo(DecryptionConfiguration.fromEnvironment(COMPLETE_ENVIRONMENT));
+    }
+
+    @Test
+    void test_profilesFromEnvironment_ordersProfilesByName() {
+        final MockEnvironment environment = new MockEnvironment();
+        for (String profile : List.of("partner", "db", "legacy")) {
+            environment.withProperty(PROFILES_PREFIX + profile + ".key", "single-hex-line.txt")
+                    .withProperty(PROFILES_PREFIX + profile + ".transformation", "AES")
+                    .withProperty(PROFILES_PREFIX + profile + ".type", "symmetric");
+        }
+
+        Assertions.assertThat(DecryptionConfiguration.profilesFromEnvironment(environment).keySet())
+                .containsExactly("db", "legacy", "partner");
+    }
+
+    @Test
+    void test_profilesFromEnvironment_includesDefaultIfItsKeyIsSet() {
+        final MockEnvironment environment = new MockEnvironment()
+                .withProperty(PROPERTY_PREFIX + "key", "single-hex-line.txt")
+                .withProperty(PROPERTY_PREFIX + "transformation", "AES")
+                .withProperty(PROPERTY_PREFIX + "type", "symmetric")
+                .withProperty(PROFILES_PREFIX + "db.key", "single-hex-line.txt")
+                .withProperty(PROFILES_PREFIX + "db.transformation", "DES")
+                .withProperty(PROFILES_PREFIX + "db.type", "symmetric");
+
+        final Map<String, DecryptionConfiguration> profiles = DecryptionConfiguration.profilesFromEnvironment(environment);
+
+        Assertions.assertThat(profiles.keySet()).containsExactly(DEFAULT_PROFILE, "db");
+        Assertions.assertThat(profiles.get("db").transformation()).isEqualTo("DES");
+    }
+
+    @Test
+    void test_profilesFromEnvironment_skipsDisabledProfiles() {
+        final MockEnvironment environment = new MockEnvironment()
+                .withProperty(PROFILES_PREFIX + "db.key", "single-hex-line.txt")
+                .withProperty(PROFILES_PREFIX + "db.transformation", "AES")
+                .withProperty(PROFILES_PREFIX + "db.type", "symmetric")
+                .withProperty(PROFILES_PREFIX + "legacy.enabled", "false");
+
+        Assertions.assertThat(DecryptionConfiguration.profilesFromEnvironment(environment)).containsOnlyKeys("db");
+    }
+
+    @Test
+    void test_profilesFromEnvironment_isEmptyIfProcessorIsDisabled() {
+        final MockEnvironment environment = new MockEnvironment()
+                .withProperty(PROPERTY_PREFIX + "enabled", "false")
+                .withProperty(PROFILES_PREFIX + "db.key", "single-hex-line.txt")
+                .withProperty(PROFILES_PREFIX + "db.transformation", "AES")
+                .withProperty(PROFILES_PREFIX + "db.type", "symmetric");
+
+        Assertions.assertThat(DecryptionConfiguration.profilesFromEnvironment(environment)).isEmpty();
+    }
+
+    @Test
+    void test_profilesFromEnvironment_failsForProfileNamedLikeDefault() {
+        final MockEnvironment environment = new MockEnvironment()
+                .withProperty(PROFILES_PREFIX + DEFAULT_PROFILE + ".key", "single-hex-line.txt");
+
+        Assertions.assertThatThrownBy(() -> DecryptionConfiguration.profilesFromEnvironment(environment))
+                .isInstanceOf(IllegalStateException.class);
+    }
+}
@@ -0,0 +1,33 @@
+package de.dhbw.cas.encryption.configuration;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.stream.Stream;
+
+class DecryptionModeTest {
+
+    static Stream<Arguments> data() {
+        return Stream.of(
+                Arguments.of("eager", DecryptionMode.EAGER),
+                Arguments.of("LAZY", DecryptionMode.LAZY),
+                Arguments.of("lAzY", DecryptionMode.LAZY),
+                Arguments.of("async", DecryptionMode.ASYNC)
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("data")
+    void test_getDecryptionMode_correctlyDeterminesModeFromString(String mode, DecryptionMode expected) {
+        Assertions.assertThat(DecryptionMode.getDecryptionMode(mode)).isEqualTo(expected);
+    }
+
+    @Test
+    void test_getDecryptionMode_throwsForUnknownMode() {
+        Assertions.assertThatThrownBy(() -> DecryptionMode.getDecryptionMode("sometimes"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
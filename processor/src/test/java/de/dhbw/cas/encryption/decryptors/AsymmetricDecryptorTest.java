@@ -3,15 +3,21 @@ package de.dhbw.cas.encryption.decryptors;
 
 import de.dhbw.cas.encryption.exception.DecryptionException;
 import org.assertj.core.api.Assertions;
+import org.jspecify.annotations.Nullable;
 import org.bouncycastle.jce.provider.BouncyCastleProvider;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
 
 import javax.crypto.*;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.IvParameterSpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.security.*;
 import java.security.spec.ECGenParameterSpec;
+import java.util.HexFormat;
 
 class AsymmetricDecryptorTest {
 
@@ -82,4 +88,145 @@ class AsymmetricDecryptorTest {
 
         Assertions.assertThatThrownBy(() -> new AsymmetricDecryptor("RSA", null, secretKey.getEncoded()));
     }
-}
\ No newline at end of file
+
+    private static byte[] wrap(final PublicKey publicKey, final SecretKey dataKey) throws GeneralSecurityException {
+        final Cipher rsa = Cipher.getInstance("RSA");
+        rsa.init(Cipher.ENCRYPT_MODE, publicKey);
+        return rsa.doFinal(dataKey.getEncoded());
+    }
+
+    private static byte[] encryptHybrid(final byte[] wrappedKey, final SecretKey dataKey, final String message,
+                                        final boolean gcm) throws GeneralSecurityException {
+        final byte[] nonce = new byte[gcm ? 12 : 16];
+        new SecureRandom().nextBytes(nonce);
+        final Cipher aes = Cipher.getInstance(gcm ? HybridEnvelope.GCM_TRANSFORMATION : HybridEnvelope.CBC_TRANSFORMATION);
+        aes.init(Cipher.ENCRYPT_MODE, dataKey, gcm ? new GCMParameterSpec(128, nonce) : new IvParameterSpec(nonce));
+        final byte[] ciphertext = aes.doFinal(message.getBytes(StandardCharsets.UTF_8));
+        return HybridEnvelope.encode(wrappedKey, gcm
+                ? CiphertextEnvelope.encode(CiphertextEnvelope.ParameterType.GCM, nonce, 16, ciphertext)
+                : CiphertextEnvelope.encode(CiphertextEnvelope.ParameterType.IV, nonce, 0, ciphertext));
+    }
+
+    private static SecretKey generateDataKey() throws NoSuchAlgorithmException {
+        final KeyGenerator keyGenerator = KeyGenerator.getInstance("AES");
+        keyGenerator.init(256);
+        return keyGenerator.generateKey();
+    }
+
+    @ParameterizedTest(name = "decrypt hybrid envelope with gcm {0}")
+    @ValueSource(booleans = {true, false})
+    void test_decrypt_worksForHybridEnvelopes(final boolean gcm) throws GeneralSecurityException, DecryptionException {
+        final KeyPair keyPair = generateRsaKeyPair();
+        final SecretKey dataKey = generateDataKey();
+        final byte[] encrypted = encryptHybrid(wrap(keyPair.getPublic(), dataKey), dataKey, "Crypto ist cool", gcm);
+
+        final TextDecryptor decryptor = new AsymmetricDecryptor("RSA", null, keyPair.getPrivate().getEncoded());
+
+        Assertions.assertThat(decryptor.decrypt(encrypted, null, StandardCharsets.UTF_8)).isEqualTo("Crypto ist cool");
+    }
+
+    private static TextDecryptor decryptorWithoutStrings(final KeyPair keyPair) throws DecryptionException {
+        return new AsymmetricDecryptor("RSA", null, keyPair.getPrivate().getEncoded()) {
+            @Override
+            public String decrypt(final byte[] encrypted, final byte @Nullable [] iv, final Charset charset) {
+                throw new AssertionError("Decrypted to a string");
+            }
+        };
+    }
+
+    @Test
+    void test_decrypt_writesToTargetWithoutString() throws GeneralSecurityException, DecryptionException {
+        final KeyPair keyPair = generateRsaKeyPair();
+        final Cipher cipher = Cipher.getInstance("RSA");
+        cipher.init(Cipher.ENCRYPT_MODE, keyPair.getPublic());
+        final String encrypted = HexFormat.of().formatHex(
+                cipher.doFinal("Crypto ist cool".getBytes(StandardCharsets.UTF_8)));
+        final ByteBuffer target = ByteBuffer.allocateDirect(encrypted.length() / 2);
+
+        final int length = decryptorWithoutStrings(keyPair).decrypt(encrypted, null, StandardCharsets.UTF_8, target);
+
+        Assertions.assertThat(length).isEqualTo(target.position());
+        Assertions.assertThat(StandardCharsets.UTF_8.decode(target.flip()).toString()).isEqualTo("Crypto ist cool");
+    }
+
+    @ParameterizedTest(name = "decrypt hybrid envelope with gcm {0} to target")
+    @ValueSource(booleans = {true, false})
+    void test_decrypt_writesHybridEnvelopeToTargetWithoutString(final boolean gcm)
+            throws GeneralSecurityException, DecryptionException {
+        final KeyPair keyPair = generateRsaKeyPair();
+        final SecretKey dataKey = generateDataKey();
+        final String encrypted = HexFormat.of().formatHex(
+                encryptHybrid(wrap(keyPair.getPublic(), dataKey), dataKey, "Crypto ist cool", gcm));
+        final ByteBuffer target = ByteBuffer.allocateDirect(encrypted.length() / 2);
+
+        final int length = decryptorWithoutStrings(keyPair).decrypt(encrypted, null, StandardCharsets.UTF_8, target);
+
+        Assertions.assertThat(length).isEqualTo(target.position());
+        Assertions.assertThat(StandardCharsets.UTF_8.decode(target.flip()).toString()).isEqualTo("Crypto ist cool");
+    }
+
+    @Test
+    void test_decrypt_decryptsSharedDataKeyOnce() throws GeneralSecurityException, DecryptionException {
+        final KeyPair keyPair = generateRsaKeyPair();
+        final SecretKey dataKey = generateDataKey();
+        final byte[] wrappedKey = wrap(keyPair.getPublic(), dataKey);
+        final AsymmetricDecryptor decryptor = new AsymmetricDecryptor("RSA", null, keyPair.getPrivate().getEncoded());
+
+        Assertions.assertThat(decryptor.decrypt(encryptHybrid(wrappedKey, dataKey, "first", true), null,
+                StandardCharsets.UTF_8)).isEqualTo("first");
+        Assertions.assertThat(decryptor.decrypt(encryptHybrid(wrappedKey, dataKey, "second", true), null,
+                StandardCharsets.UTF_8)).isEqualTo("second");
+        Assertions.assertThat(decryptor.dataKeyCount()).isEqualTo(1);
+
+        final SecretKey otherDataKey = generateDataKey();
+        Assertions.assertThat(decryptor.decrypt(encryptHybrid(wrap(keyPair.getPublic(), otherDataKey), otherDataKey,
+                "third", true), null, StandardCharsets.UTF_8)).isEqualTo("third");
+        Assertions.assertThat(decryptor.dataKeyCount()).isEqualTo(2);
+    }
+
+    @Test
+    void test_decrypt_fallsBackToRawCiphertextStartingWithMagic() throws GeneralSecurityException, DecryptionException {
+        final KeyPair keyPair = generateRsaKeyPair();
+        // without padding any number below the modulus is a ciphertext, so one shaped like a hybrid envelope is chosen
+        final byte[] wrappedKey = new byte[16];
+        new SecureRandom().nextBytes(wrappedKey);
+        final byte[] envelope = CiphertextEnvelope.encode(CiphertextEnvelope.ParameterType.GCM, new byte[12], 16,
+                new byte[256 - 6 - wrappedKey.length - 19]);
+        final byte[] encrypted = HybridEnvelope.encode(wrappedKey, envelope);
+        Assertions.assertThat(encrypted).hasSize(256);
+        Assertions.assertThat(HybridEnvelope.parse(encrypted)).isNotNull();
+        final Cipher rsa = Cipher.getInstance("RSA/ECB/NoPadding");
+        rsa.init(Cipher.DECRYPT_MODE, keyPair.getPrivate());
+        final String expected = new String(rsa.doFinal(encrypted), StandardCharsets.ISO_8859_1);
+        final AsymmetricDecryptor decryptor = new AsymmetricDecryptor("RSA/ECB/NoPadding", null,
+                keyPair.getPrivate().getEncoded());
+        final ByteBuffer target = ByteBuffer.allocateDirect(encrypted.length);
+
+        Assertions.assertThat(decryptor.decrypt(encrypted, null, StandardCharsets.ISO_8859_1)).isEqualTo(expected);
+        decryptor.decrypt(HexFormat.of().formatHex(encrypted), null, StandardCharsets.ISO_8859_1, target);
+        Assertions.assertThat(StandardCharsets.ISO_8859_1.decode(target.flip()).toString()).isEqualTo(expected);
+    }
+
+    @Test
+    void test_decrypt_failsForHybridEnvelopeWithoutParameters() throws GeneralSecurityException {
+        final KeyPair keyPair = generateRsaKeyPair();
+        final byte[] encrypted = HybridEnvelope.encode(wrap(keyPair.getPublic(), generateDataKey()),
+                CiphertextEnvelope.encode(CiphertextEnvelope.ParameterType.NONE, new byte[0], 0, new byte[16]));
+
+        Assertions.assertThatThrownBy(() -> new AsymmetricDecryptor("RSA", null, keyPair.getPrivate().getEncoded())
+                        .decrypt(encrypted, null, StandardCharsets.UTF_8))
+                .isInstanceOf(DecryptionException.class);
+    }
+
+    @Test
+    void test_decrypt_failsForTamperedHybridEnvelope() throws GeneralSecurityException {
+        final KeyPair keyPair = generateRsaKeyPair();
+        final SecretKey dataKey = generateDataKey();
+        final byte[] encrypted = encryptHybrid(wrap(keyPair.getPublic(), dataKey), dataKey, "Crypto ist cool", true);
+        encrypted[encrypted.length - 1] ^= 1;
+
+        Assertions.assertThatThrownBy(() -> new AsymmetricDecryptor("RSA", null, keyPair.getPrivate().getEncoded())
+                        .decrypt(encrypted, null, StandardCharsets.UTF_8))
+                .isInstanceOf(DecryptionException.class);
+    }
+}
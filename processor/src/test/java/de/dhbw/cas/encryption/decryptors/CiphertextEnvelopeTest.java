@@ -0,0 +1,93 @@
+package de.dhbw.cas.encryption.decryptors;
+
+import de.dhbw.cas.encryption.decryptors.CiphertextEnvelope.ParameterType;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.HexFormat;
+
+class CiphertextEnvelopeTest {
+
+    @Test
+    void test_parse_readsEncodedEnvelope() {
+        final byte[] iv = {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12};
+        final byte[] ciphertext = {42, 43, 44};
+        final byte[] encoded = CiphertextEnvelope.encode(ParameterType.GCM, iv, 16, ciphertext);
+
+        final CiphertextEnvelope envelope = CiphertextEnvelope.parse(encoded);
+
+        Assertions.assertThat(envelope).isNotNull();
+        Assertions.assertThat(envelope.bytes()).isSameAs(encoded);
+        Assertions.assertThat(envelope.type()).isEqualTo(ParameterType.GCM);
+        Assertions.assertThat(envelope.tagLength()).isEqualTo(16);
+        Assertions.assertThat(encoded).containsSequence(iv);
+        Assertions.assertThat(encoded[envelope.ivOffset()]).isEqualTo(iv[0]);
+        Assertions.assertThat(envelope.ivLength()).isEqualTo(iv.length);
+        Assertions.assertThat(encoded[envelope.payloadOffset()]).isEqualTo(ciphertext[0]);
+        Assertions.assertThat(envelope.payloadLength()).isEqualTo(ciphertext.length);
+    }
+
+    @Test
+    void test_parse_readsEnvelopeWithoutIv() {
+        final CiphertextEnvelope envelope = CiphertextEnvelope.parse(
+                CiphertextEnvelope.encode(ParameterType.NONE, new byte[0], 0, new byte[]{1}));
+
+        Assertions.assertThat(envelope).isNotNull();
+        Assertions.assertThat(envelope.type()).isEqualTo(ParameterType.NONE);
+        Assertions.assertThat(envelope.ivLength()).isZero();
+        Assertions.assertThat(envelope.payloadLength()).isEqualTo(1);
+    }
+
+    @Test
+    void test_parse_treatsRawCiphertextAsNoEnvelope() {
+        Assertions.assertThat(CiphertextEnvelope.parse(HexFormat.of().parseHex("3138C8A34FB3E6D701111CCDEB93B7DB")))
+                .isNull();
+        Assertions.assertThat(CiphertextEnvelope.parse(new byte[0])).isNull();
+    }
+
+    @Test
+    void test_parse_treatsUnknownVersionOrTypeAsNoEnvelope() {
+        final byte[] encoded = CiphertextEnvelope.encode(ParameterType.IV, new byte[16], 0, new byte[16]);
+        encoded[3] = 2;
+        Assertions.assertThat(CiphertextEnvelope.parse(encoded)).isNull();
+
+        encoded[3] = CiphertextEnvelope.VERSION;
+        encoded[4] = 7;
+        Assertions.assertThat(CiphertextEnvelope.parse(encoded)).isNull();
+    }
+
+    @Test
+    void test_parse_treatsTruncatedHeaderAsNoEnvelope() {
+        final byte[] encoded = CiphertextEnvelope.encode(ParameterType.IV, new byte[16], 0, new byte[0]);
+        final byte[] truncated = new byte[encoded.length - 1];
+        System.arraycopy(encoded, 0, truncated, 0, truncated.length);
+
+        Assertions.assertThat(CiphertextEnvelope.parse(truncated)).isNull();
+    }
+
+    @Test
+    void test_encode_rejectsOversizedLengths() {
+        Assertions.assertThatThrownBy(() -> CiphertextEnvelope.encode(ParameterType.IV, new byte[256], 0, new byte[1]))
+                .isInstanceOf(IllegalArgumentException.class);
+        Assertions.assertThatThrownBy(() -> CiphertextEnvelope.encode(ParameterType.GCM, new byte[12], 256, new byte[1]))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void test_parse_readsEnvelopeFromRemainingBytesOfBuffer() {
+        final byte[] encoded = CiphertextEnvelope.encode(ParameterType.IV, new byte[16], 0, new byte[]{42, 43});
+        final byte[] surrounded = new byte[encoded.length + 4];
+        System.arraycopy(encoded, 0, surrounded, 2, encoded.length);
+
+        final CiphertextEnvelope envelope = CiphertextEnvelope.parse(
+                ByteBuffer.wrap(surrounded, 2, encoded.length));
+
+        Assertions.assertThat(envelope).isNotNull();
+        Assertions.assertThat(envelope.bytes()).isSameAs(surrounded);
+        Assertions.assertThat(surrounded[envelope.payloadOffset()]).isEqualTo((byte) 42);
+        Assertions.assertThat(envelope.payloadLength()).isEqualTo(2);
+        Assertions.assertThat(CiphertextEnvelope.parse(ByteBuffer.allocateDirect(encoded.length).put(encoded).flip()))
+                .isNull();
+    }
+}
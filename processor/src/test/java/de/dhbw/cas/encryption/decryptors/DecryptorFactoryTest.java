@@ -0,0 +1,161 @@
+package de.dhbw.cas.encryption.decryptors;
+
+
+import de.dhbw.cas.encryption.configuration.DecryptionConfiguration;
+import de.dhbw.cas.encryption.exception.DecryptionException;
+import org.assertj.core.api.Assertions;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.PropertiesPropertySource;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.NoSuchProviderException;
+import java.security.Security;
+import java.util.Map;
+import java.util.Properties;
+import java.util.stream.Stream;
+
+class DecryptorFactoryTest {
+
+    static Stream<Arguments> configurationsAndExpectedDecryptorTypes() {
+        return Stream.of(
+                Arguments.of("aes", SymmetricDecryptor.class),
+                Arguments.of("rsa", AsymmetricDecryptor.class),
+                Arguments.of("ecies", AsymmetricDecryptor.class),
+                Arguments.of("wrapped", UnwrappingDecryptor.class),
+                Arguments.of("dh-kem", KemDecryptor.class),
+                Arguments.of("aes-keyring", KeyringDecryptor.class)
+        );
+    }
+
+    @BeforeAll
+    static void registerBouncyCastle() {
+        Security.addProvider(new BouncyCastleProvider());
+    }
+
+    @BeforeEach
+    void clearCache() {
+        DecryptorFactory.clearCache();
+    }
+
+    private DecryptionConfiguration loadConfiguration(final String propertyFileName) throws IOException {
+        return DecryptionConfiguration.fromEnvironment(loadEnvironment(propertyFileName));
+    }
+
+    private MockEnvironment loadEnvironment(final String propertyFileName) throws IOException {
+        final Properties properties = new Properties();
+        properties.load(new ClassPathResource("properties/" + propertyFileName + ".properties").getInputStream());
+        final MockEnvironment environment = new MockEnvironment();
+        environment.getPropertySources().addFirst(new PropertiesPropertySource("mock", properties));
+        return environment;
+    }
+
+    @ParameterizedTest(name = "creates {1} for {0}")
+    @MethodSource("configurationsAndExpectedDecryptorTypes")
+    void test_createDecryptor_createsDecryptorMatchingTheType(final String propertyFileName,
+                                                              final Class<? extends TextDecryptor> expectedType)
+            throws IOException, DecryptionException {
+        final DecryptionConfiguration configuration = loadConfiguration(propertyFileName);
+        Assertions.assertThat(DecryptorFactory.createDecryptor(configuration)).isInstanceOf(expectedType);
+    }
+
+    @Test
+    void test_createDecryptor_createsNewInstanceOnEveryCall() throws IOException, DecryptionException {
+        final DecryptionConfiguration configuration = loadConfiguration("aes");
+        Assertions.assertThat(DecryptorFactory.createDecryptor(configuration))
+                .isNotSameAs(DecryptorFactory.createDecryptor(configuration));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"aes", "rsa", "wrapped", "dh-kem"})
+    void test_createDecryptor_reusesKeyResolvedForEqualConfiguration(final String propertyFileName)
+            throws IOException, DecryptionException {
+        final TextDecryptor first = DecryptorFactory.createDecryptor(loadConfiguration(propertyFileName));
+        final TextDecryptor second = DecryptorFactory.createDecryptor(loadConfiguration(propertyFileName));
+
+        Assertions.assertThat(second).isNotSameAs(first).isInstanceOf(first.getClass());
+        Assertions.assertThat(DecryptorFactory.cacheSize()).isEqualTo(1);
+    }
+
+    @Test
+    void test_createDecryptor_bypassesCacheWhenDisabled() throws IOException, DecryptionException {
+        final MockEnvironment environment = loadEnvironment("wrapped");
+        environment.setProperty(DecryptionConfiguration.PROPERTY_PREFIX + "cache", "false");
+
+        DecryptorFactory.createDecryptor(DecryptionConfiguration.fromEnvironment(environment));
+        Assertions.assertThat(DecryptorFactory.cacheSize()).isZero();
+    }
+
+    @Test
+    void test_createDecryptor_reusesKeyWhenUnrelatedPropertiesChange() throws IOException, DecryptionException {
+        final MockEnvironment environment = loadEnvironment("aes");
+        for (int i = 0; i < 3; i++) {
+            environment.getPropertySources().addFirst(new MapPropertySource("override",
+                    Map.of(DecryptionConfiguration.PROPERTY_PREFIX + "properties", "property" + i,
+                            DecryptionConfiguration.PROPERTY_PREFIX + "parallelism", String.valueOf(i + 1))));
+            DecryptorFactory.createDecryptor(DecryptionConfiguration.fromEnvironment(environment));
+        }
+        Assertions.assertThat(DecryptorFactory.cacheSize()).isEqualTo(1);
+    }
+
+    @Test
+    void test_createDecryptor_evictsKeysWhenCacheIsFull() throws IOException, DecryptionException {
+        final DecryptionConfiguration configuration = loadConfiguration("aes");
+        for (int i = 0; i <= DecryptorFactory.MAXIMUM_CACHE_SIZE; i++) {
+            final byte[] key = configuration.key().clone();
+            key[0] = (byte) i;
+            DecryptorFactory.createDecryptorForKey(configuration, key);
+        }
+        Assertions.assertThat(DecryptorFactory.cacheSize()).isEqualTo(DecryptorFactory.MAXIMUM_CACHE_SIZE);
+    }
+
+    @Test
+    void test_createDecryptor_keepsEvictedKeysUsable() throws IOException, DecryptionException {
+        final DecryptionConfiguration configuration = loadConfiguration("aes");
+        final TextDecryptor decryptor = DecryptorFactory.createDecryptor(configuration);
+        for (int i = 1; i <= DecryptorFactory.MAXIMUM_CACHE_SIZE; i++) {
+            final byte[] key = configuration.key().clone();
+            key[0] ^= (byte) i;
+            DecryptorFactory.createDecryptorForKey(configuration, key);
+        }
+
+        Assertions.assertThat(decryptor.decrypt("C27165FFAC6E33CD57A8C40C84DECC8E", null, StandardCharsets.US_ASCII))
+                .isEqualTo("root");
+        Assertions.assertThat(DecryptorFactory.createDecryptor(configuration)
+                .decrypt("C27165FFAC6E33CD57A8C40C84DECC8E", null, StandardCharsets.US_ASCII)).isEqualTo("root");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"SunJCE", "BC", "auto"})
+    void test_createDecryptor_decryptsWithSelectedProvider(final String provider)
+            throws IOException, DecryptionException {
+        final MockEnvironment environment = loadEnvironment("aes");
+        environment.setProperty(DecryptionConfiguration.PROPERTY_PREFIX + "provider", provider);
+
+        final TextDecryptor decryptor = DecryptorFactory.createDecryptor(
+                DecryptionConfiguration.fromEnvironment(environment));
+        Assertions.assertThat(decryptor.decrypt("C27165FFAC6E33CD57A8C40C84DECC8E", null, StandardCharsets.US_ASCII))
+                .isEqualTo("root");
+    }
+
+    @Test
+    void test_createDecryptor_failsForUnknownProvider() throws IOException {
+        final MockEnvironment environment = loadEnvironment("aes");
+        environment.setProperty(DecryptionConfiguration.PROPERTY_PREFIX + "provider", "DoesNotExist");
+        final DecryptionConfiguration configuration = DecryptionConfiguration.fromEnvironment(environment);
+
+        Assertions.assertThatThrownBy(() -> DecryptorFactory.createDecryptor(configuration))
+                .isInstanceOf(DecryptionException.class)
+                .hasCauseInstanceOf(NoSuchProviderException.class);
+    }
+}
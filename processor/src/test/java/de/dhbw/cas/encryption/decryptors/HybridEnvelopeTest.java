@@ -0,0 +1,54 @@
+package de.dhbw.cas.encryption.decryptors;
+
+import de.dhbw.cas.encryption.decryptors.CiphertextEnvelope.ParameterType;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class HybridEnvelopeTest {
+
+    @Test
+    void test_parse_readsEncodedHybridEnvelope() {
+        final byte[] wrappedKey = new byte[300];
+        wrappedKey[0] = 7;
+        final byte[] envelope = CiphertextEnvelope.encode(ParameterType.GCM, new byte[12], 16, new byte[]{42, 43});
+
+        final byte[] encoded = HybridEnvelope.encode(wrappedKey, envelope);
+        final HybridEnvelope hybrid = HybridEnvelope.parse(encoded);
+
+        Assertions.assertThat(hybrid).isNotNull();
+        Assertions.assertThat(hybrid.bytes()).isSameAs(encoded);
+        Assertions.assertThat(hybrid.wrappedKeyLength()).isEqualTo(300);
+        Assertions.assertThat(encoded[hybrid.wrappedKeyOffset()]).isEqualTo((byte) 7);
+        Assertions.assertThat(hybrid.envelope().type()).isEqualTo(ParameterType.GCM);
+        Assertions.assertThat(hybrid.envelope().tagLength()).isEqualTo(16);
+        Assertions.assertThat(hybrid.envelope().payloadLength()).isEqualTo(2);
+        Assertions.assertThat(encoded[hybrid.envelope().payloadOffset()]).isEqualTo((byte) 42);
+    }
+
+    @Test
+    void test_parse_treatsOtherValuesAsNoHybridEnvelope() {
+        final byte[] envelope = CiphertextEnvelope.encode(ParameterType.IV, new byte[16], 0, new byte[16]);
+        Assertions.assertThat(HybridEnvelope.parse(envelope)).isNull();
+        Assertions.assertThat(HybridEnvelope.parse(new byte[]{1, 2, 3})).isNull();
+        Assertions.assertThat(CiphertextEnvelope.parse(HybridEnvelope.encode(new byte[1], envelope))).isNull();
+    }
+
+    @Test
+    void test_parse_treatsTruncatedHybridEnvelopeAsNoHybridEnvelope() {
+        final byte[] encoded = HybridEnvelope.encode(new byte[256], new byte[]{1});
+        Assertions.assertThat(HybridEnvelope.parse(encoded)).isNull();
+
+        final byte[] truncated = new byte[100];
+        System.arraycopy(HybridEnvelope.encode(new byte[256],
+                CiphertextEnvelope.encode(ParameterType.IV, new byte[16], 0, new byte[16])), 0, truncated, 0, 100);
+        Assertions.assertThat(HybridEnvelope.parse(truncated)).isNull();
+    }
+
+    @Test
+    void test_encode_rejectsInvalidWrappedKeyLengths() {
+        Assertions.assertThatThrownBy(() -> HybridEnvelope.encode(new byte[0], new byte[1]))
+                .isInstanceOf(IllegalArgumentException.class);
+        Assertions.assertThatThrownBy(() -> HybridEnvelope.encode(new byte[0x10000], new byte[1]))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
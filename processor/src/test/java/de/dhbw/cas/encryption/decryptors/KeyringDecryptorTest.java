@@ -0,0 +1,67 @@
+package de.dhbw.cas.encryption.decryptors;
+
+import de.dhbw.cas.encryption.configuration.DecryptionConfiguration;
+import de.dhbw.cas.encryption.exception.DecryptionException;
+import de.dhbw.cas.encryption.util.HexConverter;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.env.PropertiesPropertySource;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Properties;
+
+class KeyringDecryptorTest {
+    private DecryptionConfiguration configuration;
+    private TextDecryptor decryptor;
+
+    @BeforeEach
+    void createDecryptor() throws IOException, DecryptionException {
+        final Properties properties = new Properties();
+        properties.load(new ClassPathResource("properties/aes-keyring.properties").getInputStream());
+        final MockEnvironment environment = new MockEnvironment();
+        environment.getPropertySources().addFirst(new PropertiesPropertySource("mock", properties));
+        configuration = DecryptionConfiguration.fromEnvironment(environment);
+        decryptor = DecryptorFactory.createDecryptor(configuration);
+    }
+
+    @Test
+    void test_decrypt_usesDefaultKeyWithoutKeyId() throws DecryptionException {
+        Assertions.assertThat(decryptor.decrypt("CE3787B28E5837A1D3C0447B9D8555F2", null, StandardCharsets.US_ASCII))
+                .isEqualTo("root");
+    }
+
+    @Test
+    void test_decrypt_usesKeyMatchingKeyId() throws DecryptionException {
+        Assertions.assertThat(decryptor.decrypt("old:C27165FFAC6E33CD57A8C40C84DECC8E", null, StandardCharsets.US_ASCII))
+                .isEqualTo("root");
+    }
+
+    @Test
+    void test_decrypt_usesDefaultKeyForBytes() throws DecryptionException {
+        final byte[] encrypted = HexConverter.loadBytesFromHexString("CE3787B28E5837A1D3C0447B9D8555F2");
+        Assertions.assertThat(decryptor.decrypt(encrypted, null, StandardCharsets.US_ASCII)).isEqualTo("root");
+    }
+
+    @Test
+    void test_decrypt_failsForUnknownKeyId() {
+        Assertions.assertThatThrownBy(() -> decryptor.decrypt("new:C27165FFAC6E33CD57A8C40C84DECC8E", null,
+                StandardCharsets.US_ASCII)).isInstanceOf(DecryptionException.class);
+    }
+
+    @Test
+    void test_decrypt_loadsKeysOnlyWhenTheyAreUsed() {
+        Assertions.assertThat(configuration.keyring()).containsKey("unused");
+        Assertions.assertThatThrownBy(() -> decryptor.decrypt("unused:C27165FFAC6E33CD57A8C40C84DECC8E", null,
+                StandardCharsets.US_ASCII)).isInstanceOf(DecryptionException.class);
+    }
+
+    @Test
+    void test_decrypt_failsWithWrongKey() {
+        Assertions.assertThatThrownBy(() -> decryptor.decrypt("old:CE3787B28E5837A1D3C0447B9D8555F2", null,
+                StandardCharsets.US_ASCII)).isInstanceOf(DecryptionException.class);
+    }
+}
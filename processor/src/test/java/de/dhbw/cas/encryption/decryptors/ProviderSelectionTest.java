@@ -0,0 +1,77 @@
+package de.dhbw.cas.encryption.decryptors;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.Key;
+import java.security.Security;
+import java.util.Properties;
+
+class ProviderSelectionTest {
+    private static final String TRANSFORMATION = "AES/CBC/PKCS5Padding";
+    private static final Key KEY = new SecretKeySpec(new byte[16], "AES");
+    private static final String SELECTION_KEY = TRANSFORMATION + "@16@java" + Runtime.version().feature();
+
+    @TempDir
+    private Path directory;
+
+    @BeforeEach
+    void clearSelection() {
+        ProviderSelection.clear();
+    }
+
+    @Test
+    void test_select_persistsInstalledProvider() throws IOException {
+        final Path file = directory.resolve("providers.properties");
+
+        final String selected = ProviderSelection.select(TRANSFORMATION, KEY, file.toString());
+
+        Assertions.assertThat(selected).isNotNull();
+        Assertions.assertThat(Security.getProvider(selected)).isNotNull();
+        final Properties persisted = new Properties();
+        try (InputStream stream = Files.newInputStream(file)) {
+            persisted.load(stream);
+        }
+        Assertions.assertThat(persisted).containsEntry(SELECTION_KEY, selected);
+    }
+
+    @Test
+    void test_select_reusesPersistedProvider() throws IOException {
+        final Path file = directory.resolve("providers.properties");
+        final Properties persisted = new Properties();
+        persisted.setProperty(SELECTION_KEY, "SunJCE");
+        try (OutputStream stream = Files.newOutputStream(file)) {
+            persisted.store(stream, null);
+        }
+
+        Assertions.assertThat(ProviderSelection.select(TRANSFORMATION, KEY, file.toString())).isEqualTo("SunJCE");
+    }
+
+    @Test
+    void test_select_measuresAgainIfPersistedProviderIsMissing() throws IOException {
+        final Path file = directory.resolve("providers.properties");
+        final Properties persisted = new Properties();
+        persisted.setProperty(SELECTION_KEY, "DoesNotExist");
+        try (OutputStream stream = Files.newOutputStream(file)) {
+            persisted.store(stream, null);
+        }
+
+        Assertions.assertThat(ProviderSelection.select(TRANSFORMATION, KEY, file.toString()))
+                .isNotNull()
+                .isNotEqualTo("DoesNotExist");
+    }
+
+    @Test
+    void test_measure_skipsProviderWithoutTransformation() {
+        Assertions.assertThat(ProviderSelection.measure(TRANSFORMATION, KEY, Security.getProvider("SUN"),
+                new byte[ProviderSelection.SAMPLE_SIZE])).isEqualTo(Long.MAX_VALUE);
+    }
+}
@@ -0,0 +1,84 @@
+package de.dhbw.cas.encryption.decryptors;
+
+import de.dhbw.cas.encryption.configuration.DecryptionConfiguration;
+import de.dhbw.cas.encryption.configuration.TransformationType;
+import de.dhbw.cas.encryption.exception.DecryptionException;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.Cipher;
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+
+class ResolvedKeyTest {
+
+    @Test
+    void test_newDecryptor_createsWorkingDecryptors() throws GeneralSecurityException, DecryptionException {
+        final SecretKey key = KeyGenerator.getInstance("AES").generateKey();
+        final Cipher aes = Cipher.getInstance("AES/ECB/PKCS5Padding");
+        aes.init(Cipher.ENCRYPT_MODE, key);
+        final byte[] encrypted = aes.doFinal("root".getBytes(StandardCharsets.US_ASCII));
+        final ResolvedKey resolvedKey = ResolvedKey.resolve(configuration(key.getEncoded()), key.getEncoded());
+
+        final TextDecryptor first = resolvedKey.newDecryptor();
+        final TextDecryptor second = resolvedKey.newDecryptor();
+
+        Assertions.assertThat(first).isNotSameAs(second);
+        Assertions.assertThat(first.decrypt(encrypted, null, StandardCharsets.US_ASCII)).isEqualTo("root");
+        Assertions.assertThat(second.decrypt(encrypted, null, StandardCharsets.US_ASCII)).isEqualTo("root");
+    }
+
+    @Test
+    void test_destroy_keepsKeyOfConfigurationButPreventsNewDecryptors() throws GeneralSecurityException, DecryptionException {
+        final byte[] key = KeyGenerator.getInstance("AES").generateKey().getEncoded();
+        final ResolvedKey resolvedKey = ResolvedKey.resolve(configuration(key), key);
+
+        resolvedKey.destroy();
+
+        Assertions.assertThat(resolvedKey.isDestroyed()).isTrue();
+        Assertions.assertThat(key).isNotEqualTo(new byte[key.length]);
+        Assertions.assertThatThrownBy(resolvedKey::newDecryptor).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void test_destroy_keepsDecryptorsCreatedBeforeWorking() throws GeneralSecurityException, DecryptionException {
+        final SecretKey key = KeyGenerator.getInstance("AES").generateKey();
+        final Cipher aes = Cipher.getInstance("AES/ECB/PKCS5Padding");
+        aes.init(Cipher.ENCRYPT_MODE, key);
+        final byte[] encrypted = aes.doFinal("root".getBytes(StandardCharsets.US_ASCII));
+        final ResolvedKey resolvedKey = ResolvedKey.resolve(configuration(key.getEncoded()), key.getEncoded());
+        final TextDecryptor decryptor = resolvedKey.newDecryptor();
+
+        resolvedKey.destroy();
+
+        Assertions.assertThat(decryptor.decrypt(encrypted, null, StandardCharsets.US_ASCII)).isEqualTo("root");
+    }
+
+    @Test
+    void test_destroy_keepsSharedPrivateKeyIntact() throws GeneralSecurityException, DecryptionException {
+        final KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        final KeyPair keyPair = generator.generateKeyPair();
+        final Cipher rsa = Cipher.getInstance("RSA/ECB/PKCS1Padding");
+        rsa.init(Cipher.ENCRYPT_MODE, keyPair.getPublic());
+        final byte[] encrypted = rsa.doFinal("root".getBytes(StandardCharsets.US_ASCII));
+        final byte[] key = keyPair.getPrivate().getEncoded();
+        final ResolvedKey resolvedKey = ResolvedKey.resolve(new DecryptionConfiguration(key, "RSA/ECB/PKCS1Padding",
+                null, new byte[0], TransformationType.ASYMMETRIC, new String[0], StandardCharsets.US_ASCII, true,
+                new byte[0]), key);
+        final TextDecryptor decryptor = resolvedKey.newDecryptor();
+
+        resolvedKey.destroy();
+
+        Assertions.assertThat(decryptor.decrypt(encrypted, null, StandardCharsets.US_ASCII)).isEqualTo("root");
+    }
+
+    private static DecryptionConfiguration configuration(final byte[] key) {
+        return new DecryptionConfiguration(key, "AES/ECB/PKCS5Padding", null, new byte[0],
+                TransformationType.SYMMETRIC, new String[0], StandardCharsets.US_ASCII, true, new byte[0]);
+    }
+}
@@ -0,0 +1,47 @@
+package de.dhbw.cas.encryption.decryptors;
+
+import de.dhbw.cas.encryption.configuration.DecryptionConfiguration;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.security.NoSuchProviderException;
+import java.security.Security;
+
+class SecurityProvidersTest {
+
+    private static DecryptionConfiguration configuration(final String provider) {
+        final MockEnvironment environment = new MockEnvironment()
+                .withProperty(DecryptionConfiguration.PROPERTY_PREFIX + "key", "aes-key.txt")
+                .withProperty(DecryptionConfiguration.PROPERTY_PREFIX + "transformation", "AES")
+                .withProperty(DecryptionConfiguration.PROPERTY_PREFIX + "type", "symmetric")
+                .withProperty(DecryptionConfiguration.PROPERTY_PREFIX + "provider", provider);
+        return DecryptionConfiguration.fromEnvironment(environment);
+    }
+
+    @Test
+    void test_cipher_usesPinnedProvider() throws Exception {
+        Assertions.assertThat(SecurityProviders.cipher("AES/CBC/PKCS5Padding", "SunJCE").getProvider().getName())
+                .isEqualTo("SunJCE");
+    }
+
+    @Test
+    void test_cipher_failsForUnknownProvider() {
+        Assertions.assertThatThrownBy(() -> SecurityProviders.cipher("AES", "DoesNotExist"))
+                .isInstanceOf(NoSuchProviderException.class);
+    }
+
+    @Test
+    void test_ensureAvailable_registersBouncyCastleWhenPinned() {
+        SecurityProviders.ensureAvailable(configuration(SecurityProviders.BOUNCY_CASTLE));
+
+        Assertions.assertThat(Security.getProvider(SecurityProviders.BOUNCY_CASTLE)).isNotNull();
+    }
+
+    @Test
+    void test_pinnedProvider_ignoresAutomaticSelection() {
+        Assertions.assertThat(SecurityProviders.pinnedProvider(configuration("SunJCE"))).isEqualTo("SunJCE");
+        Assertions.assertThat(SecurityProviders.pinnedProvider(configuration(DecryptionConfiguration.AUTO_PROVIDER)))
+                .isNull();
+    }
+}
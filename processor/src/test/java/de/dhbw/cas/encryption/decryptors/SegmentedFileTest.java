@@ -0,0 +1,213 @@
+package de.dhbw.cas.encryption.decryptors;
+
+import de.dhbw.cas.encryption.configuration.DecryptionConfiguration;
+import de.dhbw.cas.encryption.exception.DecryptionException;
+import de.dhbw.cas.encryption.util.HexConverter;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.mock.env.MockEnvironment;
+
+import javax.crypto.Cipher;
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyFactory;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.util.Arrays;
+import java.util.Random;
+
+import static de.dhbw.cas.encryption.configuration.DecryptionConfiguration.PROPERTY_PREFIX;
+
+class SegmentedFileTest {
+    private static final int SEGMENT_SIZE = 1024;
+
+    @TempDir
+    Path directory;
+
+    private static byte[] content(final int length) {
+        final byte[] content = new byte[length];
+        new Random(length).nextBytes(content);
+        return content;
+    }
+
+    private static byte[] encrypt(final Key key, final String transformation, final byte[] content)
+            throws GeneralSecurityException, IOException {
+        final ByteArrayOutputStream encrypted = new ByteArrayOutputStream();
+        SegmentedFile.encrypt(key, transformation, SEGMENT_SIZE, new ByteArrayInputStream(content), encrypted);
+        return encrypted.toByteArray();
+    }
+
+    private DecryptionConfiguration symmetricConfiguration(final SecretKey key, final String transformation,
+                                                           final int parallelism) throws IOException {
+        final Path keyFile = Files.writeString(directory.resolve("key.txt"),
+                HexConverter.convertToHexString(key.getEncoded()));
+        return DecryptionConfiguration.fromEnvironment(new MockEnvironment()
+                .withProperty(PROPERTY_PREFIX + "key", keyFile.toString())
+                .withProperty(PROPERTY_PREFIX + "transformation", transformation)
+                .withProperty(PROPERTY_PREFIX + "type", "symmetric")
+                .withProperty(PROPERTY_PREFIX + "parallelism", String.valueOf(parallelism)));
+    }
+
+    private Path write(final byte[] encrypted) throws IOException {
+        return Files.write(directory.resolve("file.bin.enc"), encrypted);
+    }
+
+    private static byte[] read(final SegmentedFile file, final long position, final int length)
+            throws DecryptionException {
+        final ByteBuffer target = ByteBuffer.allocate(length);
+        file.read(position, target);
+        return Arrays.copyOf(target.array(), target.position());
+    }
+
+    @ParameterizedTest(name = "reads {0} bytes")
+    @ValueSource(ints = {0, 1, SEGMENT_SIZE - 1, SEGMENT_SIZE, SEGMENT_SIZE + 1, 10 * SEGMENT_SIZE + 17})
+    void test_read_decryptsWholeFile(final int length) throws GeneralSecurityException, IOException, DecryptionException {
+        final SecretKey key = KeyGenerator.getInstance("AES").generateKey();
+        final byte[] content = content(length);
+        final Path file = write(encrypt(key, "AES/GCM/NoPadding", content));
+
+        try (SegmentedFile segmented = SegmentedFile.open(symmetricConfiguration(key, "AES/GCM/NoPadding", 1), file)) {
+            Assertions.assertThat(segmented.size()).isEqualTo(length);
+            Assertions.assertThat(read(segmented, 0, length + 10)).isEqualTo(content);
+            Assertions.assertThat(segmented.read(length, ByteBuffer.allocate(1))).isEqualTo(-1);
+        }
+    }
+
+    @ParameterizedTest(name = "reads ranges with {0} threads")
+    @ValueSource(ints = {1, 4})
+    void test_read_decryptsArbitraryRanges(final int parallelism) throws GeneralSecurityException, IOException, DecryptionException {
+        final SecretKey key = KeyGenerator.getInstance("AES").generateKey();
+        final byte[] content = content(20 * SEGMENT_SIZE + 100);
+        final Path file = write(encrypt(key, "AES/GCM/NoPadding", content));
+
+        try (SegmentedFile segmented = SegmentedFile.open(
+                symmetricConfiguration(key, "AES/GCM/NoPadding", parallelism), file)) {
+            final Random random = new Random(42);
+            for (int i = 0; i < 50; i++) {
+                final int position = random.nextInt(content.length);
+                final int length = random.nextInt(8 * SEGMENT_SIZE);
+                Assertions.assertThat(read(segmented, position, length)).isEqualTo(
+                        Arrays.copyOfRange(content, position, Math.min(content.length, position + length)));
+            }
+        }
+    }
+
+    @Test
+    void test_read_supportsChaCha20Poly1305() throws GeneralSecurityException, IOException, DecryptionException {
+        final SecretKey key = KeyGenerator.getInstance("ChaCha20").generateKey();
+        final byte[] content = content(3 * SEGMENT_SIZE + 5);
+        final Path file = write(encrypt(key, "ChaCha20-Poly1305", content));
+
+        try (SegmentedFile segmented = SegmentedFile.open(symmetricConfiguration(key, "ChaCha20-Poly1305", 2), file)) {
+            Assertions.assertThat(read(segmented, SEGMENT_SIZE - 2, SEGMENT_SIZE + 4))
+                    .isEqualTo(Arrays.copyOfRange(content, SEGMENT_SIZE - 2, 2 * SEGMENT_SIZE + 2));
+        }
+    }
+
+    @Test
+    void test_read_usesUnwrappedKey() throws GeneralSecurityException, IOException, DecryptionException {
+        final Cipher rsa = Cipher.getInstance("RSA/ECB/OAEPWithSHA-256AndMGF1Padding");
+        rsa.init(Cipher.UNWRAP_MODE, KeyFactory.getInstance("RSA").generatePrivate(new PKCS8EncodedKeySpec(
+                HexConverter.loadBytesFromHexString(new ClassPathResource("wrapping-key.txt")
+                        .getContentAsString(StandardCharsets.US_ASCII).trim()))));
+        final Key key = rsa.unwrap(HexConverter.loadBytesFromHexString(
+                new ClassPathResource("aes-key-wrapped-with-rsa.txt").getContentAsString(StandardCharsets.US_ASCII)
+                        .trim()), "AES", Cipher.SECRET_KEY);
+        final byte[] content = content(5 * SEGMENT_SIZE);
+        final Path file = write(encrypt(key, SegmentedFile.TRANSFORMATION_USED_WITH_UNWRAPPED_KEY, content));
+        final DecryptionConfiguration configuration = DecryptionConfiguration.fromEnvironment(new MockEnvironment()
+                .withProperty(PROPERTY_PREFIX + "key", "aes-key-wrapped-with-rsa.txt")
+                .withProperty(PROPERTY_PREFIX + "wrapping-key", "wrapping-key.txt")
+                .withProperty(PROPERTY_PREFIX + "transformation", "RSA/ECB/OAEPWithSHA-256AndMGF1Padding")
+                .withProperty(PROPERTY_PREFIX + "type", "wrapping"));
+
+        try (SegmentedFile segmented = SegmentedFile.open(configuration, file)) {
+            Assertions.assertThat(read(segmented, 0, content.length)).isEqualTo(content);
+        }
+    }
+
+    @Test
+    void test_read_failsForModifiedSegment() throws GeneralSecurityException, IOException, DecryptionException {
+        final SecretKey key = KeyGenerator.getInstance("AES").generateKey();
+        final byte[] encrypted = encrypt(key, "AES/GCM/NoPadding", content(3 * SEGMENT_SIZE));
+        encrypted[encrypted.length - SEGMENT_SIZE] ^= 1;
+        final Path file = write(encrypted);
+
+        try (SegmentedFile segmented = SegmentedFile.open(symmetricConfiguration(key, "AES/GCM/NoPadding", 1), file)) {
+            Assertions.assertThat(read(segmented, 0, SEGMENT_SIZE)).hasSize(SEGMENT_SIZE);
+            Assertions.assertThatThrownBy(() -> read(segmented, 2L * SEGMENT_SIZE, SEGMENT_SIZE))
+                    .isInstanceOf(DecryptionException.class);
+        }
+    }
+
+    @Test
+    void test_read_failsForModifiedSalt() throws GeneralSecurityException, IOException, DecryptionException {
+        final SecretKey key = KeyGenerator.getInstance("AES").generateKey();
+        final byte[] encrypted = encrypt(key, "AES/GCM/NoPadding", content(SEGMENT_SIZE));
+        // the salt follows the magic, the version and its length
+        encrypted[CiphertextEnvelope.MAGIC.length + 2] ^= 1;
+        final Path file = write(encrypted);
+
+        try (SegmentedFile segmented = SegmentedFile.open(symmetricConfiguration(key, "AES/GCM/NoPadding", 1), file)) {
+            Assertions.assertThatThrownBy(() -> read(segmented, 0, SEGMENT_SIZE))
+                    .isInstanceOf(DecryptionException.class);
+        }
+    }
+
+    @Test
+    void test_encrypt_derivesKeyPerFile() throws GeneralSecurityException, IOException, DecryptionException {
+        final SecretKey key = KeyGenerator.getInstance("AES").generateKey();
+        final byte[] content = content(SEGMENT_SIZE);
+
+        Assertions.assertThat(encrypt(key, "AES/GCM/NoPadding", content))
+                .isNotEqualTo(encrypt(key, "AES/GCM/NoPadding", content));
+        Assertions.assertThat(SegmentedFile.deriveKey(key, new byte[32]).getEncoded())
+                .hasSize(key.getEncoded().length)
+                .isNotEqualTo(key.getEncoded())
+                .isNotEqualTo(SegmentedFile.deriveKey(key, new byte[]{1}).getEncoded());
+    }
+
+    @Test
+    void test_read_failsForFileTruncatedAtSegmentBoundary() throws GeneralSecurityException, IOException, DecryptionException {
+        final SecretKey key = KeyGenerator.getInstance("AES").generateKey();
+        final byte[] encrypted = encrypt(key, "AES/GCM/NoPadding", content(3 * SEGMENT_SIZE));
+        final Path file = write(Arrays.copyOf(encrypted, encrypted.length - SEGMENT_SIZE - 16));
+
+        try (SegmentedFile segmented = SegmentedFile.open(symmetricConfiguration(key, "AES/GCM/NoPadding", 1), file)) {
+            Assertions.assertThatThrownBy(() -> read(segmented, SEGMENT_SIZE, SEGMENT_SIZE))
+                    .isInstanceOf(DecryptionException.class);
+        }
+    }
+
+    @Test
+    void test_open_failsForTransformationWithoutAuthentication() throws GeneralSecurityException, IOException, DecryptionException {
+        final SecretKey key = KeyGenerator.getInstance("AES").generateKey();
+        final Path file = write(encrypt(key, "AES/GCM/NoPadding", content(10)));
+
+        Assertions.assertThatThrownBy(() -> SegmentedFile.open(
+                        symmetricConfiguration(key, "AES/CBC/PKCS5Padding", 1), file))
+                .isInstanceOf(DecryptionException.class);
+    }
+
+    @Test
+    void test_open_failsForOtherFormat() throws GeneralSecurityException, IOException, DecryptionException {
+        final SecretKey key = KeyGenerator.getInstance("AES").generateKey();
+        final Path file = write("no segmented file".getBytes(StandardCharsets.US_ASCII));
+
+        Assertions.assertThatThrownBy(() -> SegmentedFile.open(
+                        symmetricConfiguration(key, "AES/GCM/NoPadding", 1), file))
+                .isInstanceOf(DecryptionException.class);
+    }
+}
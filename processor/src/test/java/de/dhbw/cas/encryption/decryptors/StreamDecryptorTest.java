@@ -0,0 +1,65 @@
+package de.dhbw.cas.encryption.decryptors;
+
+import de.dhbw.cas.encryption.configuration.DecryptionConfiguration;
+import de.dhbw.cas.encryption.exception.DecryptionException;
+import org.assertj.core.api.Assertions;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.env.PropertiesPropertySource;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.Security;
+import java.util.Properties;
+
+class StreamDecryptorTest {
+    private static final String DECRYPTED_FILE = """
+            # decrypted while it is parsed
+            app.secret=root
+            app.datasource.url=jdbc:mariadb://localhost:3306/test
+            """;
+
+    @BeforeAll
+    static void registerBouncyCastle() {
+        Security.addProvider(new BouncyCastleProvider());
+    }
+
+    private DecryptionConfiguration loadConfiguration(final String propertyFileName) throws IOException {
+        final Properties properties = new Properties();
+        properties.load(new ClassPathResource("properties/" + propertyFileName + ".properties").getInputStream());
+        final MockEnvironment environment = new MockEnvironment();
+        environment.getPropertySources().addFirst(new PropertiesPropertySource("mock", properties));
+        return DecryptionConfiguration.fromEnvironment(environment);
+    }
+
+    private String decrypt(final DecryptionConfiguration configuration, final String file)
+            throws IOException, DecryptionException {
+        try (InputStream decrypted = StreamDecryptor.decrypt(configuration,
+                new ClassPathResource("configdata/" + file).getInputStream())) {
+            return new String(decrypted.readAllBytes(), StandardCharsets.US_ASCII);
+        }
+    }
+
+    @Test
+    void test_decrypt_usesIvOfEnvelopeHeader() throws IOException, DecryptionException {
+        Assertions.assertThat(decrypt(loadConfiguration("aes-cbc"), "secrets.properties.enc"))
+                .isEqualTo(DECRYPTED_FILE);
+    }
+
+    @Test
+    void test_decrypt_usesConfiguredIvWithoutEnvelopeHeader() throws IOException, DecryptionException {
+        Assertions.assertThat(decrypt(loadConfiguration("aes-cbc"), "secrets-raw.properties.enc"))
+                .isEqualTo(DECRYPTED_FILE);
+    }
+
+    @Test
+    void test_decrypt_failsForAsymmetricConfiguration() throws IOException {
+        final DecryptionConfiguration configuration = loadConfiguration("rsa");
+        Assertions.assertThatThrownBy(() -> decrypt(configuration, "secrets.properties.enc"))
+                .isInstanceOf(DecryptionException.class);
+    }
+}
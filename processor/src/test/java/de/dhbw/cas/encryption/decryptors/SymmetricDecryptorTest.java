@@ -1,16 +1,23 @@
 package de.dhbw.cas.encryption.decryptors;
 
 
+import de.dhbw.cas.encryption.decryptors.CiphertextEnvelope.ParameterType;
 import de.dhbw.cas.encryption.exception.DecryptionException;
+import de.dhbw.cas.encryption.util.HexConverter;
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.Test;
 
 import javax.crypto.*;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.IvParameterSpec;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
 import java.security.InvalidKeyException;
 import java.security.KeyPair;
 import java.security.KeyPairGenerator;
 import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
 
 class SymmetricDecryptorTest {
 
@@ -36,6 +43,120 @@ class SymmetricDecryptorTest {
         Assertions.assertThat(decrypted).isEqualTo(message);
     }
 
+    @Test
+    void test_decrypt_usesNonceOfEnvelopeInsteadOfPassedIv() throws GeneralSecurityException, DecryptionException {
+        final SecretKey key = generateAesKey();
+        final TextDecryptor decryptor = new SymmetricDecryptor("AES/GCM/NoPadding", null, key.getEncoded());
+
+        for (String message : new String[]{"erste Nachricht", "zweite Nachricht"}) {
+            final byte[] nonce = new byte[12];
+            new SecureRandom().nextBytes(nonce);
+            final Cipher aes = Cipher.getInstance("AES/GCM/NoPadding");
+            aes.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(96, nonce));
+            final byte[] envelope = CiphertextEnvelope.encode(ParameterType.GCM, nonce, 12,
+                    aes.doFinal(message.getBytes(StandardCharsets.UTF_8)));
+
+            Assertions.assertThat(decryptor.decrypt(envelope, new byte[12], StandardCharsets.UTF_8)).isEqualTo(message);
+        }
+    }
+
+    @Test
+    void test_decrypt_decryptsEnvelopeWithIv() throws GeneralSecurityException, DecryptionException {
+        final SecretKey key = generateAesKey();
+        final byte[] iv = new byte[16];
+        new SecureRandom().nextBytes(iv);
+        final Cipher aes = Cipher.getInstance("AES/CBC/PKCS5Padding");
+        aes.init(Cipher.ENCRYPT_MODE, key, new IvParameterSpec(iv));
+        final String message = "Symmetrische Kryptographie funktioniert";
+        final byte[] envelope = CiphertextEnvelope.encode(ParameterType.IV, iv, 0,
+                aes.doFinal(message.getBytes(StandardCharsets.UTF_8)));
+
+        final TextDecryptor decryptor = new SymmetricDecryptor("AES/CBC/PKCS5Padding", null, key.getEncoded());
+        Assertions.assertThat(decryptor.decrypt(HexConverter.convertToHexString(envelope), null, StandardCharsets.UTF_8))
+                .isEqualTo(message);
+    }
+
+    @Test
+    void test_decrypt_reusesBuffersForValuesOfDifferentLength() throws GeneralSecurityException, DecryptionException {
+        final SecretKey key = generateAesKey();
+        final Cipher aes = Cipher.getInstance("AES/ECB/PKCS5Padding");
+        aes.init(Cipher.ENCRYPT_MODE, key);
+        final TextDecryptor decryptor = new SymmetricDecryptor("AES/ECB/PKCS5Padding", null, key.getEncoded());
+
+        for (String message : new String[]{"ä".repeat(1000), "kurz", "", "mittellange Nachricht mit ß"}) {
+            final String encrypted = HexConverter.convertToHexString(
+                    aes.doFinal(message.getBytes(StandardCharsets.UTF_8)));
+
+            Assertions.assertThat(decryptor.decrypt(encrypted, null, StandardCharsets.UTF_8)).isEqualTo(message);
+        }
+    }
+
+    @Test
+    void test_decrypt_decryptsRemainingBytesOfBuffer() throws GeneralSecurityException, DecryptionException {
+        final SecretKey key = generateAesKey();
+        final byte[] iv = new byte[16];
+        new SecureRandom().nextBytes(iv);
+        final Cipher aes = Cipher.getInstance("AES/CBC/PKCS5Padding");
+        aes.init(Cipher.ENCRYPT_MODE, key, new IvParameterSpec(iv));
+        final String message = "Symmetrische Kryptographie funktioniert";
+        final byte[] envelope = CiphertextEnvelope.encode(ParameterType.IV, iv, 0,
+                aes.doFinal(message.getBytes(StandardCharsets.UTF_8)));
+        final TextDecryptor decryptor = new SymmetricDecryptor("AES/CBC/PKCS5Padding", null, key.getEncoded());
+
+        final ByteBuffer heap = ByteBuffer.allocate(envelope.length + 8).position(4).put(envelope).flip().position(4);
+        Assertions.assertThat(decryptor.decrypt(heap, null, StandardCharsets.UTF_8)).isEqualTo(message);
+        Assertions.assertThat(heap.hasRemaining()).isFalse();
+        final ByteBuffer direct = ByteBuffer.allocateDirect(envelope.length).put(envelope).flip();
+        Assertions.assertThat(decryptor.decrypt(direct, null, StandardCharsets.UTF_8)).isEqualTo(message);
+        Assertions.assertThat(direct.hasRemaining()).isFalse();
+    }
+
+    @Test
+    void test_decrypt_writesDecryptedBytesIntoTarget() throws GeneralSecurityException, DecryptionException {
+        final SecretKey key = generateAesKey();
+        final Cipher aes = Cipher.getInstance("AES/ECB/PKCS5Padding");
+        aes.init(Cipher.ENCRYPT_MODE, key);
+        final String message = "Schlüssel außerhalb des Heaps";
+        final String encrypted = HexConverter.convertToHexString(aes.doFinal(message.getBytes(StandardCharsets.UTF_8)));
+        final TextDecryptor decryptor = new SymmetricDecryptor("AES/ECB/PKCS5Padding", null, key.getEncoded());
+
+        final ByteBuffer target = ByteBuffer.allocateDirect(encrypted.length() / 2);
+        final int length = decryptor.decrypt(encrypted, null, StandardCharsets.UTF_8, target);
+
+        Assertions.assertThat(length).isEqualTo(message.getBytes(StandardCharsets.UTF_8).length)
+                .isEqualTo(target.position());
+        Assertions.assertThat(StandardCharsets.UTF_8.decode(target.flip()).toString()).isEqualTo(message);
+    }
+
+    @Test
+    void test_decrypt_failsForEnvelopeNotMatchingTransformation() throws NoSuchAlgorithmException, DecryptionException {
+        final SecretKey key = generateAesKey();
+        final TextDecryptor decryptor = new SymmetricDecryptor("AES/CBC/PKCS5Padding", null, key.getEncoded());
+        final byte[] envelope = CiphertextEnvelope.encode(ParameterType.GCM, new byte[12], 16, new byte[32]);
+
+        Assertions.assertThatThrownBy(() -> decryptor.decrypt(envelope, null, StandardCharsets.UTF_8))
+                .isInstanceOf(DecryptionException.class)
+                .hasMessageContaining("GCM");
+    }
+
+    @Test
+    void test_decrypt_fallsBackToRawCiphertextStartingWithMagic() throws GeneralSecurityException, DecryptionException {
+        final SecretKey key = generateAesKey();
+        final byte[] iv = new byte[16];
+        new SecureRandom().nextBytes(iv);
+        // raw ciphertext that parses as envelope with an IV of three bytes, which AES rejects
+        final byte[] encrypted = {'D', 'C', 'E', CiphertextEnvelope.VERSION, ParameterType.IV.code, 3, 1, 2, 3, 0,
+                10, 11, 12, 13, 14, 15, 16, 17, 18, 19};
+        Assertions.assertThat(CiphertextEnvelope.parse(encrypted)).isNotNull();
+        final Cipher cipher = Cipher.getInstance("AES/CTR/NoPadding");
+        cipher.init(Cipher.DECRYPT_MODE, key, new IvParameterSpec(iv));
+        final String expected = new String(cipher.doFinal(encrypted), StandardCharsets.ISO_8859_1);
+
+        final TextDecryptor decryptor = new SymmetricDecryptor("AES/CTR/NoPadding", null, key.getEncoded());
+
+        Assertions.assertThat(decryptor.decrypt(encrypted, iv, StandardCharsets.ISO_8859_1)).isEqualTo(expected);
+    }
+
     @Test
     void test_constructor_failsForUnknownAlgorithm() throws NoSuchAlgorithmException {
         final SecretKey secretKey = generateAesKey();
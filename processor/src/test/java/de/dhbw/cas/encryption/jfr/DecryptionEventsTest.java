@@ -0,0 +1,142 @@
+package de.dhbw.cas.encryption.jfr;
+
+import de.dhbw.cas.encryption.configuration.DecryptionConfiguration;
+import de.dhbw.cas.encryption.decryptors.DecryptorFactory;
+import de.dhbw.cas.encryption.decryptors.TextDecryptor;
+import de.dhbw.cas.encryption.exception.DecryptionException;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.env.PropertiesPropertySource;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Objects;
+import java.util.Properties;
+
+class DecryptionEventsTest {
+    private static final List<String> EVENT_NAMES = List.of(KeyFileLoadEvent.NAME, KeyParseEvent.NAME,
+            DecryptorCreationEvent.NAME, KeyUnwrapEvent.NAME, DecryptEvent.NAME);
+
+    @TempDir
+    private Path directory;
+
+    @BeforeEach
+    void clearCache() {
+        DecryptorFactory.clearCache();
+    }
+
+    private DecryptionConfiguration loadConfiguration(final String propertyFileName) throws IOException {
+        final Properties properties = new Properties();
+        properties.load(new ClassPathResource("properties/" + propertyFileName + ".properties").getInputStream());
+        final MockEnvironment environment = new MockEnvironment();
+        environment.getPropertySources().addFirst(new PropertiesPropertySource("mock", properties));
+        return DecryptionConfiguration.fromEnvironment(environment);
+    }
+
+    private String decryptFirstProperty(final String propertyFileName) throws IOException, DecryptionException {
+        final DecryptionConfiguration configuration = loadConfiguration(propertyFileName);
+        final TextDecryptor decryptor = DecryptorFactory.createDecryptor(configuration);
+        final Properties properties = new Properties();
+        properties.load(new ClassPathResource("properties/" + propertyFileName + ".properties").getInputStream());
+        return decryptor.decrypt(properties.getProperty(configuration.properties()[0]), configuration.iv(),
+                configuration.charset());
+    }
+
+    private List<RecordedEvent> record(final boolean enabled, final ThrowingRunnable action) throws Exception {
+        try (Recording recording = new Recording()) {
+            if (enabled) {
+                EVENT_NAMES.forEach(name -> recording.enable(name).withoutThreshold());
+            }
+            recording.start();
+            action.run();
+            recording.stop();
+            final Path file = directory.resolve("recording.jfr");
+            recording.dump(file);
+            return RecordingFile.readAllEvents(file).stream()
+                    .filter(event -> EVENT_NAMES.contains(event.getEventType().getName()))
+                    .toList();
+        }
+    }
+
+    private List<RecordedEvent> ofType(final List<RecordedEvent> events, final String name) {
+        return events.stream().filter(event -> event.getEventType().getName().equals(name)).toList();
+    }
+
+    @Test
+    void test_symmetricDecryptor_recordsKeyFileCreationAndDecrypt() throws Exception {
+        final String[] decrypted = new String[1];
+        final List<RecordedEvent> events = record(true, () -> decrypted[0] = decryptFirstProperty("aes"));
+
+        Assertions.assertThat(ofType(events, KeyFileLoadEvent.NAME)).singleElement().satisfies(event -> {
+            Assertions.assertThat(event.getString("path")).isEqualTo("aes-key.txt");
+            Assertions.assertThat(event.getInt("keySize")).isPositive();
+            Assertions.assertThat(event.getString("outcome")).isEqualTo(KeyFileLoadEvent.SUCCESS);
+        });
+        Assertions.assertThat(ofType(events, DecryptorCreationEvent.NAME)).singleElement().satisfies(event -> {
+            Assertions.assertThat(event.getString("decryptor")).isEqualTo("SymmetricDecryptor");
+            Assertions.assertThat(event.getString("transformation")).isEqualTo("AES");
+            Assertions.assertThat(event.getString("provider")).isNotBlank();
+            Assertions.assertThat(event.getString("outcome")).isEqualTo(KeyFileLoadEvent.SUCCESS);
+        });
+        Assertions.assertThat(ofType(events, DecryptEvent.NAME)).singleElement().satisfies(event -> {
+            Assertions.assertThat(event.getString("transformation")).isEqualTo("AES");
+            Assertions.assertThat(event.getInt("inputSize")).isEqualTo(16);
+            Assertions.assertThat(event.getInt("outputSize")).isEqualTo(decrypted[0].length());
+            Assertions.assertThat(event.getString("outcome")).isEqualTo(KeyFileLoadEvent.SUCCESS);
+        });
+        Assertions.assertThat(events).allSatisfy(event -> Assertions.assertThat(event.getFields())
+                .noneMatch(field -> decrypted[0].equals(Objects.toString(event.getValue(field.getName())))));
+    }
+
+    @Test
+    void test_unwrappingDecryptor_recordsKeyParseAndUnwrap() throws Exception {
+        final List<RecordedEvent> events = record(true, () -> decryptFirstProperty("wrapped"));
+
+        Assertions.assertThat(ofType(events, KeyFileLoadEvent.NAME)).hasSize(2);
+        Assertions.assertThat(ofType(events, KeyParseEvent.NAME)).singleElement().satisfies(event -> {
+            Assertions.assertThat(event.getString("algorithm")).isEqualTo("RSA");
+            Assertions.assertThat(event.getString("outcome")).isEqualTo(KeyFileLoadEvent.SUCCESS);
+        });
+        Assertions.assertThat(ofType(events, KeyUnwrapEvent.NAME)).singleElement().satisfies(event -> {
+            Assertions.assertThat(event.getString("kind")).isEqualTo(KeyUnwrapEvent.UNWRAP);
+            Assertions.assertThat(event.getString("transformation"))
+                    .isEqualTo("RSA/ECB/OAEPWithSHA-256AndMGF1Padding");
+            Assertions.assertThat(event.getInt("keySize")).isEqualTo(32);
+            Assertions.assertThat(event.getString("outcome")).isEqualTo(KeyFileLoadEvent.SUCCESS);
+        });
+        Assertions.assertThat(ofType(events, DecryptEvent.NAME)).singleElement();
+    }
+
+    @Test
+    void test_decrypt_recordsFailure() throws Exception {
+        final DecryptionConfiguration configuration = loadConfiguration("aes");
+        final TextDecryptor decryptor = DecryptorFactory.createDecryptor(configuration);
+
+        final List<RecordedEvent> events = record(true, () -> Assertions.assertThatThrownBy(() ->
+                        decryptor.decrypt("00112233445566778899AABBCCDDEEFF", null, configuration.charset()))
+                .isInstanceOf(DecryptionException.class));
+
+        Assertions.assertThat(ofType(events, DecryptEvent.NAME)).singleElement().satisfies(event -> {
+            Assertions.assertThat(event.getInt("outputSize")).isZero();
+            Assertions.assertThat(event.getString("outcome")).isEqualTo(KeyFileLoadEvent.FAILURE);
+        });
+    }
+
+    @Test
+    void test_events_areNotRecordedUnlessEnabled() throws Exception {
+        Assertions.assertThat(record(false, () -> decryptFirstProperty("aes"))).isEmpty();
+    }
+
+    @FunctionalInterface
+    private interface ThrowingRunnable {
+        void run() throws Exception;
+    }
+}
@@ -0,0 +1,81 @@
+package de.dhbw.cas.encryption.metrics;
+
+import de.dhbw.cas.encryption.configuration.DecryptionConfiguration;
+import de.dhbw.cas.encryption.decryptors.DecryptorFactory;
+import de.dhbw.cas.encryption.exception.DecryptionException;
+import de.dhbw.cas.encryption.runtime.DecryptionService;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.env.PropertiesPropertySource;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.io.IOException;
+import java.util.Properties;
+
+class DecryptionMetricsTest {
+    private static final String PASSWORD_PROPERTY = "spring.datasource.password";
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final DecryptionMetrics metrics = new DecryptionMetrics();
+    private MockEnvironment environment;
+    private DecryptionService service;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        DecryptorFactory.clearCache();
+        final Properties properties = new Properties();
+        properties.load(new ClassPathResource("properties/aes.properties").getInputStream());
+        environment = new MockEnvironment();
+        environment.getPropertySources().addFirst(new PropertiesPropertySource("mock", properties));
+        service = new DecryptionService(DecryptionConfiguration.fromEnvironment(environment), 1, metrics);
+    }
+
+    @Test
+    void test_decryptorCreated_registersTimersPerDecryptor() throws DecryptionException {
+        metrics.bindTo(registry);
+        service.decrypt(environment.getRequiredProperty(PASSWORD_PROPERTY));
+
+        Assertions.assertThat(registry.find(DecryptionMetrics.DECRYPT_TIMER).timers()).hasSize(2)
+                .allSatisfy(timer -> Assertions.assertThat(timer.getId().getTags())
+                        .extracting(tag -> tag.getKey() + "=" + tag.getValue())
+                        .contains("transformation=AES", "decryptor=SymmetricDecryptor"));
+        final Timer successes = registry.get(DecryptionMetrics.DECRYPT_TIMER).tag("outcome", "success").timer();
+        Assertions.assertThat(successes.count()).isOne();
+    }
+
+    @Test
+    void test_failed_countsFailuresByCause() {
+        metrics.bindTo(registry);
+
+        Assertions.assertThatThrownBy(() -> service.decrypt("ABCD")).isInstanceOf(DecryptionException.class);
+        Assertions.assertThatThrownBy(() -> service.decrypt("ABCD")).isInstanceOf(DecryptionException.class);
+
+        Assertions.assertThat(registry.get(DecryptionMetrics.FAILURE_COUNTER)
+                .tag("cause", "IllegalBlockSizeException").counter().count()).isEqualTo(2);
+        Assertions.assertThat(registry.get(DecryptionMetrics.DECRYPT_TIMER).tag("outcome", "failure").timer().count())
+                .isEqualTo(2);
+    }
+
+    @Test
+    void test_bindTo_registersDecryptorsCreatedBeforeBinding() throws DecryptionException {
+        service.decrypt(environment.getRequiredProperty(PASSWORD_PROPERTY));
+        metrics.bindTo(registry);
+        service.decrypt(environment.getRequiredProperty(PASSWORD_PROPERTY));
+
+        Assertions.assertThat(registry.get(DecryptionMetrics.DECRYPT_TIMER).tag("outcome", "success").timer().count())
+                .isOne();
+    }
+
+    @Test
+    void test_bindTo_registersCacheGauges() throws DecryptionException {
+        metrics.bindTo(registry);
+        service.decrypt(environment.getRequiredProperty(PASSWORD_PROPERTY));
+
+        Assertions.assertThat(registry.get(DecryptionMetrics.KEY_CACHE_GAUGE).gauge().value()).isOne();
+        Assertions.assertThat(registry.get(DecryptionMetrics.DECRYPTORS_GAUGE).gauge().value()).isOne();
+    }
+}
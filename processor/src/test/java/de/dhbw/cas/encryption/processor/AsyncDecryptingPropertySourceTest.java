@@ -0,0 +1,68 @@
+package de.dhbw.cas.encryption.processor;
+
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+class AsyncDecryptingPropertySourceTest {
+    private static final String PASSWORD_PROPERTY = "spring.datasource.password";
+    private static final String URL_PROPERTY = "spring.datasource.url";
+
+    @Test
+    void test_getProperty_returnsDecryptedValueOnceDecryptionFinished() {
+        final CompletableFuture<Map<String, Object>> decryption = new CompletableFuture<>();
+        final AsyncDecryptingPropertySource source = new AsyncDecryptingPropertySource("async",
+                Set.of(PASSWORD_PROPERTY), decryption, Duration.ofSeconds(5));
+        Assertions.assertThat(source.isDone()).isFalse();
+
+        decryption.complete(Map.of(PASSWORD_PROPERTY, "root"));
+
+        Assertions.assertThat(source.isDone()).isTrue();
+        Assertions.assertThat(source.getProperty(PASSWORD_PROPERTY)).isEqualTo("root");
+    }
+
+    @Test
+    void test_getProperty_doesNotWaitForUnknownProperty() {
+        final AsyncDecryptingPropertySource source = new AsyncDecryptingPropertySource("async",
+                Set.of(PASSWORD_PROPERTY), new CompletableFuture<>(), Duration.ofDays(1));
+
+        Assertions.assertThat(source.getProperty(URL_PROPERTY)).isNull();
+        Assertions.assertThat(source.containsProperty(URL_PROPERTY)).isFalse();
+        Assertions.assertThat(source.getPropertyNames()).containsExactly(PASSWORD_PROPERTY);
+    }
+
+    @Test
+    void test_getProperty_returnsNullForPropertyThatFailedToDecrypt() {
+        final AsyncDecryptingPropertySource source = new AsyncDecryptingPropertySource("async",
+                Set.of(PASSWORD_PROPERTY, URL_PROPERTY), CompletableFuture.completedFuture(Map.of(URL_PROPERTY, "url")),
+                Duration.ofSeconds(5));
+
+        Assertions.assertThat(source.getProperty(PASSWORD_PROPERTY)).isNull();
+        Assertions.assertThat(source.getProperty(URL_PROPERTY)).isEqualTo("url");
+    }
+
+    @Test
+    void test_getProperty_failsWhenDecryptionDoesNotFinishInTime() {
+        final AsyncDecryptingPropertySource source = new AsyncDecryptingPropertySource("async",
+                Set.of(PASSWORD_PROPERTY), new CompletableFuture<>(), Duration.ofMillis(10));
+
+        Assertions.assertThatThrownBy(() -> source.getProperty(PASSWORD_PROPERTY))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void test_getProperty_failsWhenDecryptionFailedUnexpectedly() {
+        final AsyncDecryptingPropertySource source = new AsyncDecryptingPropertySource("async",
+                Set.of(PASSWORD_PROPERTY), CompletableFuture.failedFuture(new IllegalArgumentException()),
+                Duration.ofSeconds(5));
+
+        Assertions.assertThatThrownBy(() -> source.getProperty(PASSWORD_PROPERTY))
+                .isInstanceOf(IllegalStateException.class)
+                .hasCauseInstanceOf(IllegalArgumentException.class);
+    }
+}
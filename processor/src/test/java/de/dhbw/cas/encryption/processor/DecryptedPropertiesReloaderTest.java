@@ -0,0 +1,245 @@
+package de.dhbw.cas.encryption.processor;
+
+import de.dhbw.cas.encryption.resource.EncryptedProtocolResolver;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySources;
+import org.springframework.boot.env.PropertiesPropertySourceLoader;
+import org.springframework.boot.logging.DeferredLogs;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.core.io.FileSystemResource;
+
+import javax.crypto.Cipher;
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.IvParameterSpec;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static de.dhbw.cas.encryption.configuration.DecryptionConfiguration.PROPERTY_PREFIX;
+
+class DecryptedPropertiesReloaderTest {
+    private static final HexFormat HEX = HexFormat.of().withUpperCase();
+    private static final byte[] IV = HEX.parseHex("7FD7F5B627A49A25CC6F12CAECACE8BA");
+
+    @TempDir
+    private Path directory;
+    private Path keyFile;
+    private Path propertiesFile;
+    private SecretKey key;
+    private StandardEnvironment environment;
+    private final List<Object> events = new CopyOnWriteArrayList<>();
+    private final List<StandardEnvironment> processedEnvironments = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws GeneralSecurityException, IOException {
+        keyFile = directory.resolve("key.txt");
+        propertiesFile = directory.resolve("application.properties");
+        key = writeNewKey();
+        writeProperties("mode=eager", "root", "admin");
+        environment = new StandardEnvironment();
+        environment.getPropertySources().addLast(new PropertiesPropertySourceLoader()
+                .load("application", new FileSystemResource(propertiesFile)).getFirst());
+        // like in an application, the attached source resolves every property through all other sources
+        ConfigurationPropertySources.attach(environment);
+        postProcess(environment);
+    }
+
+    @AfterEach
+    void releaseEnvironments() {
+        // the applications are never run, so nothing else releases their environments
+        processedEnvironments.forEach(EncryptedProtocolResolver::releaseApplicationEnvironment);
+    }
+
+    private void postProcess(final StandardEnvironment processed) {
+        new DecryptingPropertiesPostProcessor(new DeferredLogs()).postProcessEnvironment(processed,
+                new SpringApplication());
+        processedEnvironments.add(processed);
+    }
+
+    private SecretKey writeNewKey() throws GeneralSecurityException, IOException {
+        return writeNewKey(keyFile);
+    }
+
+    private static SecretKey writeNewKey(final Path file) throws GeneralSecurityException, IOException {
+        final KeyGenerator keyGenerator = KeyGenerator.getInstance("AES");
+        keyGenerator.init(256);
+        final SecretKey secretKey = keyGenerator.generateKey();
+        Files.writeString(file, HEX.formatHex(secretKey.getEncoded()));
+        return secretKey;
+    }
+
+    private void writeProperties(final String mode, final String password, final String username)
+            throws GeneralSecurityException, IOException {
+        Files.writeString(propertiesFile, String.join("\n",
+                PROPERTY_PREFIX + "key=" + keyFile,
+                PROPERTY_PREFIX + "transformation=AES/CBC/PKCS5Padding",
+                PROPERTY_PREFIX + "type=symmetric",
+                PROPERTY_PREFIX + "iv=" + HEX.formatHex(IV),
+                PROPERTY_PREFIX + mode,
+                PROPERTY_PREFIX + "properties=app.password,app.username",
+                "app.password=" + encrypt(password),
+                "app.username=" + encrypt(username)));
+    }
+
+    private String encrypt(final String value) throws GeneralSecurityException {
+        return encrypt(key, value);
+    }
+
+    private static String encrypt(final SecretKey secretKey, final String value) throws GeneralSecurityException {
+        final Cipher cipher = Cipher.getInstance("AES/CBC/PKCS5Padding");
+        cipher.init(Cipher.ENCRYPT_MODE, secretKey, new IvParameterSpec(IV));
+        return HEX.formatHex(cipher.doFinal(value.getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    @Test
+    void test_initialize_watchesKeyAndPropertiesFile() {
+        final DecryptedPropertiesReloader reloader = new DecryptedPropertiesReloader(environment, events::add);
+
+        Assertions.assertThat(reloader.initialize()).isTrue();
+        Assertions.assertThat(reloader.watchedFiles())
+                .containsExactlyInAnyOrder(keyFile.toAbsolutePath(), propertiesFile.toAbsolutePath());
+    }
+
+    @Test
+    void test_initialize_rejectsLazyMode() throws GeneralSecurityException, IOException {
+        writeProperties("mode=lazy", "root", "admin");
+        final StandardEnvironment lazyEnvironment = new StandardEnvironment();
+        lazyEnvironment.getPropertySources().addLast(new PropertiesPropertySourceLoader()
+                .load("application", new FileSystemResource(propertiesFile)).getFirst());
+        postProcess(lazyEnvironment);
+
+        Assertions.assertThat(new DecryptedPropertiesReloader(lazyEnvironment, events::add).initialize()).isFalse();
+    }
+
+    @Test
+    void test_reloadChangedFiles_decryptsOnlyChangedProperty() throws GeneralSecurityException, IOException {
+        final DecryptedPropertiesReloader reloader = new DecryptedPropertiesReloader(environment, events::add);
+        reloader.initialize();
+        final PropertySource<?> previous = environment.getPropertySources()
+                .get(DecryptingPropertiesPostProcessor.DECRYPTED_PROPERTY_SOURCE_NAME);
+
+        writeProperties("mode=eager", "changed", "admin");
+        reloader.reloadChangedFiles();
+
+        Assertions.assertThat(environment.getProperty("app.password")).isEqualTo("changed");
+        Assertions.assertThat(environment.getProperty("app.username")).isEqualTo("admin");
+        Assertions.assertThat(previous.getProperty("app.password")).isEqualTo("root");
+        Assertions.assertThat(events).singleElement()
+                .isInstanceOfSatisfying(DecryptedPropertiesReloadedEvent.class, event ->
+                        Assertions.assertThat(event.getChangedProperties()).containsExactly("app.password"));
+    }
+
+    @Test
+    void test_reloadChangedFiles_rebuildsDecryptorForRotatedKey() throws GeneralSecurityException, IOException {
+        final DecryptedPropertiesReloader reloader = new DecryptedPropertiesReloader(environment, events::add);
+        reloader.initialize();
+
+        key = writeNewKey();
+        writeProperties("mode=eager", "root", "rotated");
+        reloader.reloadChangedFiles();
+
+        Assertions.assertThat(environment.getProperty("app.password")).isEqualTo("root");
+        Assertions.assertThat(environment.getProperty("app.username")).isEqualTo("rotated");
+        Assertions.assertThat(events).singleElement()
+                .isInstanceOfSatisfying(DecryptedPropertiesReloadedEvent.class, event ->
+                        Assertions.assertThat(event.getChangedProperties()).containsExactly("app.username"));
+    }
+
+    private StandardEnvironment keyringEnvironment(final Path keyringFile, final SecretKey keyringKey)
+            throws GeneralSecurityException, IOException {
+        Files.writeString(propertiesFile, String.join("\n",
+                PROPERTY_PREFIX + "key=" + keyFile,
+                PROPERTY_PREFIX + "transformation=AES/CBC/PKCS5Padding",
+                PROPERTY_PREFIX + "type=symmetric",
+                PROPERTY_PREFIX + "iv=" + HEX.formatHex(IV),
+                PROPERTY_PREFIX + "keyring.rotated=" + keyringFile,
+                PROPERTY_PREFIX + "properties=app.password",
+                "app.password=rotated:" + encrypt(keyringKey, "root")));
+        final StandardEnvironment keyringEnvironment = new StandardEnvironment();
+        keyringEnvironment.getPropertySources().addLast(new PropertiesPropertySourceLoader()
+                .load("application", new FileSystemResource(propertiesFile)).getFirst());
+        postProcess(keyringEnvironment);
+        return keyringEnvironment;
+    }
+
+    @Test
+    void test_reloadChangedFiles_rebuildsDecryptorForRotatedKeyringFile() throws GeneralSecurityException, IOException {
+        final Path keyringFile = directory.resolve("keyring-key.txt");
+        final StandardEnvironment keyringEnvironment = keyringEnvironment(keyringFile, writeNewKey(keyringFile));
+        final DecryptedPropertiesReloader reloader = new DecryptedPropertiesReloader(keyringEnvironment, events::add);
+        reloader.initialize();
+        Assertions.assertThat(reloader.watchedFiles()).contains(keyringFile.toAbsolutePath());
+
+        final SecretKey rotatedKey = writeNewKey(keyringFile);
+        Files.writeString(propertiesFile, Files.readString(propertiesFile)
+                .replaceFirst("app.password=.*", "app.password=rotated:" + encrypt(rotatedKey, "changed")));
+        reloader.reloadChangedFiles();
+
+        Assertions.assertThat(keyringEnvironment.getProperty("app.password")).isEqualTo("changed");
+    }
+
+    @Test
+    void test_start_isIdempotentAndRestartsWithCurrentState() {
+        final DecryptedPropertiesReloader reloader = new DecryptedPropertiesReloader(environment, events::add);
+        reloader.start();
+        reloader.start();
+        reloader.stop();
+        reloader.stop();
+        Assertions.assertThat(reloader.isRunning()).isFalse();
+
+        reloader.start();
+        try {
+            Assertions.assertThat(reloader.isRunning()).isTrue();
+            Assertions.assertThat(reloader.watchedFiles())
+                    .containsExactlyInAnyOrder(keyFile.toAbsolutePath(), propertiesFile.toAbsolutePath());
+        } finally {
+            reloader.stop();
+        }
+    }
+
+    @Test
+    void test_reloadChangedFiles_ignoresUnchangedContent() throws IOException {
+        final DecryptedPropertiesReloader reloader = new DecryptedPropertiesReloader(environment, events::add);
+        reloader.initialize();
+        final PropertySource<?> previous = environment.getPropertySources()
+                .get(DecryptingPropertiesPostProcessor.DECRYPTED_PROPERTY_SOURCE_NAME);
+
+        Files.writeString(keyFile, Files.readString(keyFile));
+        reloader.reloadChangedFiles();
+
+        Assertions.assertThat(events).isEmpty();
+        Assertions.assertThat(environment.getPropertySources()
+                .get(DecryptingPropertiesPostProcessor.DECRYPTED_PROPERTY_SOURCE_NAME)).isSameAs(previous);
+    }
+
+    @Test
+    void test_start_reloadsWhenWatchedFileChanges() throws GeneralSecurityException, IOException,
+            InterruptedException {
+        final DecryptedPropertiesReloader reloader = new DecryptedPropertiesReloader(environment, events::add);
+        reloader.start();
+        try {
+            Assertions.assertThat(reloader.isRunning()).isTrue();
+            writeProperties("mode=eager", "watched", "admin");
+            for (int i = 0; i < 100 && events.isEmpty(); i++) {
+                Thread.sleep(100);
+            }
+            Assertions.assertThat(environment.getProperty("app.password")).isEqualTo("watched");
+        } finally {
+            reloader.stop();
+        }
+        Assertions.assertThat(reloader.isRunning()).isFalse();
+    }
+}
@@ -1,19 +1,36 @@
 package de.dhbw.cas.encryption.processor;
 
 
+import de.dhbw.cas.encryption.resource.EncryptedProtocolResolver;
+import de.dhbw.cas.encryption.secret.Secret;
 import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
 import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySources;
 import org.springframework.boot.logging.DeferredLogs;
+import org.springframework.core.env.CompositePropertySource;
+import org.springframework.core.env.EnumerablePropertySource;
+import org.springframework.core.env.MapPropertySource;
 import org.springframework.core.env.PropertiesPropertySource;
+import org.springframework.core.env.PropertySource;
 import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.metrics.StartupStep;
 import org.springframework.mock.env.MockEnvironment;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 
+import static de.dhbw.cas.encryption.configuration.DecryptionConfiguration.PROPERTY_PREFIX;
+
 class DecryptingPropertiesPostProcessorTest {
 
     private static final String PASSWORD_PROPERTY = "spring.datasource.password";
@@ -30,6 +47,13 @@ class DecryptingPropertiesPostProcessorTest {
 
     private static final String UMLAUT_SENTENCE = "Die süße Hündin läuft in die Höhle des Bären, der sie zum Teekränzchen eingeladen hat, da sie seine drei schönen Krönchen gerettet hat";
     private final DecryptingPropertiesPostProcessor processor = new DecryptingPropertiesPostProcessor(new DeferredLogs());
+    private final List<MockEnvironment> environments = new ArrayList<>();
+
+    @AfterEach
+    void releaseEnvironments() {
+        // the applications are never run, so nothing else releases their environments
+        environments.forEach(EncryptedProtocolResolver::releaseApplicationEnvironment);
+    }
 
 
     private MockEnvironment setupMockEnv(String propertyFileName) throws IOException {
@@ -38,6 +62,7 @@ class DecryptingPropertiesPostProcessorTest {
         properties.load(propertyFile.getInputStream());
         final MockEnvironment env = new MockEnvironment();
         env.getPropertySources().addFirst(new PropertiesPropertySource("mock", properties));
+        environments.add(env);
         return env;
     }
 
@@ -149,6 +174,15 @@ class DecryptingPropertiesPostProcessorTest {
         Assertions.assertThat(environment.getProperty(PASSWORD_PROPERTY)).isEqualTo(UMLAUT_SENTENCE);
     }
 
+    @Test
+    void test_postProcessEnvironment_decryptsEnvelopesWithTheirOwnNonce() throws IOException {
+        final MockEnvironment environment = setupMockEnv("properties/aes-gcm-envelope.properties");
+        processor.postProcessEnvironment(environment, new SpringApplication());
+
+        Assertions.assertThat(environment.getProperty(PASSWORD_PROPERTY)).isEqualTo(DECRYPTED_PASSWORD_PROPERTY_VALUE);
+        Assertions.assertThat(environment.getProperty(URL_PROPERTY)).isEqualTo(DECRYPTED_URL_PROPERTY_VALUE);
+    }
+
     /**
      * Configured IV was used as an {@link javax.crypto.spec.IvParameterSpec} so the {@link javax.crypto.Cipher} requires
      * it to be set as such.
@@ -168,4 +202,370 @@ class DecryptingPropertiesPostProcessorTest {
         Assertions.assertThat(propertyPostDecryption).isNotEqualTo(DECRYPTED_PASSWORD_PROPERTY_VALUE);
         Assertions.assertThat(propertyPreDecryption).isEqualTo(propertyPostDecryption);
     }
-}
\ No newline at end of file
+
+    @ParameterizedTest(name = "can decrypt using {0} in parallel")
+    @ValueSource(strings = {"aes", "rsa", "ecies", "wrapped", "dh-kem"})
+    void test_postProcessEnvironment_canDecryptInParallel(String propertyFileName) throws IOException {
+        final MockEnvironment environment = setupMockEnv("properties/" + propertyFileName + ".properties");
+        environment.setProperty(PROPERTY_PREFIX + "parallelism", "4");
+        processor.postProcessEnvironment(environment, new SpringApplication());
+
+        Assertions.assertThat(environment.getProperty(PASSWORD_PROPERTY)).isEqualTo(DECRYPTED_PASSWORD_PROPERTY_VALUE);
+    }
+
+    @Test
+    void test_postProcessEnvironment_keepsConfiguredOrderWhenDecryptingInParallel() throws IOException {
+        final MockEnvironment environment = setupMockEnv("properties/gost28147.properties");
+        environment.setProperty(PROPERTY_PREFIX + "parallelism", "3");
+        final String[] configuredProperties = environment.getRequiredProperty(PROPERTY_PREFIX + "properties").split(",");
+
+        processor.postProcessEnvironment(environment, new SpringApplication());
+
+        final EnumerablePropertySource<?> decryptedSource = (EnumerablePropertySource<?>) environment.getPropertySources()
+                .get(DecryptingPropertiesPostProcessor.DECRYPTED_PROPERTY_SOURCE_NAME);
+        Assertions.assertThat(decryptedSource).isNotNull();
+        Assertions.assertThat(decryptedSource.getPropertyNames()).containsExactly(configuredProperties);
+        Assertions.assertThat(environment.getProperty(USERNAME_PROPERTY)).isEqualTo(DECRYPTED_USERNAME_PROPERTY_VALUE);
+        Assertions.assertThat(environment.getProperty(PASSWORD_PROPERTY)).isEqualTo(DECRYPTED_PASSWORD_PROPERTY_VALUE);
+        Assertions.assertThat(environment.getProperty(URL_PROPERTY)).isEqualTo(DECRYPTED_URL_PROPERTY_VALUE);
+        Assertions.assertThat(environment.getProperty(APPLICATION_NAME_PROPERTY)).isEqualTo(DECRYPTED_APPLICATION_NAME_PROPERTY_VALUE);
+    }
+
+    @Test
+    void test_postProcessEnvironment_skipsWronglyEncryptedPropertyWhenDecryptingInParallel() throws IOException {
+        final MockEnvironment environment = setupMockEnv("properties/aes-with-invalid-second-encrypted-property.properties");
+        environment.setProperty(PROPERTY_PREFIX + "parallelism", "2");
+        final String preProcessingValue = environment.getProperty(USERNAME_PROPERTY);
+
+        processor.postProcessEnvironment(environment, new SpringApplication());
+
+        Assertions.assertThat(environment.getProperty(PASSWORD_PROPERTY)).isEqualTo(DECRYPTED_PASSWORD_PROPERTY_VALUE);
+        Assertions.assertThat(environment.getProperty(USERNAME_PROPERTY)).isEqualTo(preProcessingValue);
+    }
+
+    @ParameterizedTest(name = "can decrypt using {0} lazily")
+    @ValueSource(strings = {"aes", "rsa", "ecies", "wrapped", "dh-kem"})
+    void test_postProcessEnvironment_canDecryptLazily(String propertyFileName) throws IOException {
+        final MockEnvironment environment = setupMockEnv("properties/" + propertyFileName + ".properties");
+        environment.setProperty(PROPERTY_PREFIX + "mode", "lazy");
+        processor.postProcessEnvironment(environment, new SpringApplication());
+
+        Assertions.assertThat(environment.getPropertySources().get(DecryptingPropertiesPostProcessor.DECRYPTED_PROPERTY_SOURCE_NAME))
+                .isInstanceOf(LazyDecryptingPropertySource.class);
+        Assertions.assertThat(environment.getProperty(PASSWORD_PROPERTY)).isEqualTo(DECRYPTED_PASSWORD_PROPERTY_VALUE);
+    }
+
+    @Test
+    void test_postProcessEnvironment_decryptsOnlyReadPropertiesWhenLazy() throws IOException {
+        final MockEnvironment environment = setupMockEnv("properties/gost28147.properties");
+        environment.setProperty(PROPERTY_PREFIX + "mode", "lazy");
+        processor.postProcessEnvironment(environment, new SpringApplication());
+
+        final LazyDecryptingPropertySource decryptedSource = (LazyDecryptingPropertySource) environment.getPropertySources()
+                .get(DecryptingPropertiesPostProcessor.DECRYPTED_PROPERTY_SOURCE_NAME);
+        Assertions.assertThat(decryptedSource).isNotNull();
+        Assertions.assertThat(environment.getProperty(URL_PROPERTY)).isEqualTo(DECRYPTED_URL_PROPERTY_VALUE);
+        Assertions.assertThat(decryptedSource.isDecrypted(URL_PROPERTY)).isTrue();
+        Assertions.assertThat(decryptedSource.isDecrypted(PASSWORD_PROPERTY)).isFalse();
+    }
+
+    @Test
+    void test_postProcessEnvironment_keepsWronglyEncryptedPropertyWhenLazy() throws IOException {
+        final MockEnvironment environment = setupMockEnv("properties/aes-with-invalid-second-encrypted-property.properties");
+        environment.setProperty(PROPERTY_PREFIX + "mode", "lazy");
+        final String preProcessingValue = environment.getProperty(USERNAME_PROPERTY);
+
+        processor.postProcessEnvironment(environment, new SpringApplication());
+
+        Assertions.assertThat(environment.getProperty(PASSWORD_PROPERTY)).isEqualTo(DECRYPTED_PASSWORD_PROPERTY_VALUE);
+        Assertions.assertThat(environment.getProperty(USERNAME_PROPERTY)).isEqualTo(preProcessingValue);
+    }
+
+    @ParameterizedTest(name = "can decrypt using {0} in the background")
+    @ValueSource(strings = {"aes", "rsa", "ecies", "wrapped", "dh-kem"})
+    void test_postProcessEnvironment_canDecryptAsynchronously(String propertyFileName) throws IOException {
+        final MockEnvironment environment = setupMockEnv("properties/" + propertyFileName + ".properties");
+        environment.setProperty(PROPERTY_PREFIX + "mode", "async");
+        processor.postProcessEnvironment(environment, new SpringApplication());
+
+        Assertions.assertThat(environment.getPropertySources().get(DecryptingPropertiesPostProcessor.DECRYPTED_PROPERTY_SOURCE_NAME))
+                .isInstanceOf(AsyncDecryptingPropertySource.class);
+        Assertions.assertThat(environment.getProperty(PASSWORD_PROPERTY)).isEqualTo(DECRYPTED_PASSWORD_PROPERTY_VALUE);
+    }
+
+    @Test
+    void test_postProcessEnvironment_keepsWronglyEncryptedPropertyWhenAsync() throws IOException {
+        final MockEnvironment environment = setupMockEnv("properties/aes-with-invalid-second-encrypted-property.properties");
+        environment.setProperty(PROPERTY_PREFIX + "mode", "async");
+        final String preProcessingValue = environment.getProperty(USERNAME_PROPERTY);
+
+        processor.postProcessEnvironment(environment, new SpringApplication());
+
+        Assertions.assertThat(environment.getProperty(PASSWORD_PROPERTY)).isEqualTo(DECRYPTED_PASSWORD_PROPERTY_VALUE);
+        Assertions.assertThat(environment.getProperty(USERNAME_PROPERTY)).isEqualTo(preProcessingValue);
+    }
+
+    @Test
+    void test_postProcessEnvironment_keepsEncryptedPropertiesWhenDecryptorCannotBeCreatedAsync() throws IOException {
+        final MockEnvironment environment = setupMockEnv("properties/aes.properties");
+        environment.getPropertySources().addFirst(new MapPropertySource("override", Map.of(
+                PROPERTY_PREFIX + "mode", "async", PROPERTY_PREFIX + "transformation", "ILLEGAL")));
+        final String preProcessingValue = environment.getProperty(PASSWORD_PROPERTY);
+
+        processor.postProcessEnvironment(environment, new SpringApplication());
+
+        Assertions.assertThat(environment.getProperty(PASSWORD_PROPERTY)).isEqualTo(preProcessingValue);
+    }
+
+    @Test
+    void test_postProcessEnvironment_decryptsOnlyMarkedPropertiesWhenDiscovering() throws IOException {
+        final MockEnvironment environment = setupMockEnv("properties/gost28147-discovery.properties");
+        final String preprocessedUsername = environment.getProperty(USERNAME_PROPERTY);
+
+        processor.postProcessEnvironment(environment, new SpringApplication());
+
+        Assertions.assertThat(environment.getProperty(PASSWORD_PROPERTY)).isEqualTo(DECRYPTED_PASSWORD_PROPERTY_VALUE);
+        Assertions.assertThat(environment.getProperty(URL_PROPERTY)).isEqualTo(DECRYPTED_URL_PROPERTY_VALUE);
+        Assertions.assertThat(environment.getProperty(USERNAME_PROPERTY)).isEqualTo(preprocessedUsername);
+    }
+
+    @Test
+    void test_postProcessEnvironment_discoversMarkedPropertiesInEverySource() throws IOException {
+        final MockEnvironment environment = setupMockEnv("properties/gost28147-discovery.properties");
+        environment.getPropertySources().addLast(new MapPropertySource("other", Map.of(
+                USERNAME_PROPERTY + ".copy", "ENC(6FE8F6BB503A461B)")));
+
+        processor.postProcessEnvironment(environment, new SpringApplication());
+
+        Assertions.assertThat(environment.getProperty(USERNAME_PROPERTY + ".copy"))
+                .isEqualTo(DECRYPTED_USERNAME_PROPERTY_VALUE);
+    }
+
+    @Test
+    void test_postProcessEnvironment_discoversMarkedPropertiesWithAttachedConfigurationPropertySource()
+            throws IOException {
+        final MockEnvironment environment = setupMockEnv("properties/gost28147-discovery.properties");
+        ConfigurationPropertySources.attach(environment);
+
+        processor.postProcessEnvironment(environment, new SpringApplication());
+
+        Assertions.assertThat(environment.getProperty(PASSWORD_PROPERTY)).isEqualTo(DECRYPTED_PASSWORD_PROPERTY_VALUE);
+        Assertions.assertThat(environment.getProperty(URL_PROPERTY)).isEqualTo(DECRYPTED_URL_PROPERTY_VALUE);
+    }
+
+    @Test
+    void test_postProcessEnvironment_ignoresShadowedMarkedPropertiesWhenDiscovering() throws IOException {
+        final MockEnvironment environment = setupMockEnv("properties/gost28147-discovery.properties");
+        environment.getPropertySources().addFirst(new MapPropertySource("override", Map.of(
+                PASSWORD_PROPERTY, "plain")));
+
+        processor.postProcessEnvironment(environment, new SpringApplication());
+
+        Assertions.assertThat(environment.getProperty(PASSWORD_PROPERTY)).isEqualTo("plain");
+        Assertions.assertThat(environment.getProperty(URL_PROPERTY)).isEqualTo(DECRYPTED_URL_PROPERTY_VALUE);
+    }
+
+    @Test
+    void test_postProcessEnvironment_unwrapsMarkedValuesOfConfiguredProperties() throws IOException {
+        final MockEnvironment environment = setupMockEnv("properties/gost28147-discovery.properties");
+        environment.getPropertySources().addFirst(new MapPropertySource("override", Map.of(
+                PROPERTY_PREFIX + "auto-discovery", "false", PROPERTY_PREFIX + "properties", PASSWORD_PROPERTY)));
+
+        processor.postProcessEnvironment(environment, new SpringApplication());
+
+        Assertions.assertThat(environment.getProperty(PASSWORD_PROPERTY)).isEqualTo(DECRYPTED_PASSWORD_PROPERTY_VALUE);
+        Assertions.assertThat(environment.getProperty(URL_PROPERTY)).startsWith("ENC(");
+    }
+
+    @Test
+    void test_postProcessEnvironment_usesConfiguredMarkerWhenDiscovering() throws IOException {
+        final MockEnvironment environment = setupMockEnv("properties/gost28147-discovery.properties");
+        environment.getPropertySources().addFirst(new MapPropertySource("override", Map.of(
+                PROPERTY_PREFIX + "marker-prefix", "{cipher}", PROPERTY_PREFIX + "marker-suffix", "",
+                USERNAME_PROPERTY, "{cipher}6FE8F6BB503A461B")));
+
+        processor.postProcessEnvironment(environment, new SpringApplication());
+
+        Assertions.assertThat(environment.getProperty(USERNAME_PROPERTY)).isEqualTo(DECRYPTED_USERNAME_PROPERTY_VALUE);
+        Assertions.assertThat(environment.getProperty(PASSWORD_PROPERTY)).startsWith("ENC(");
+    }
+
+    @Test
+    void test_postProcessEnvironment_decryptsPropertiesMatchingPatterns() throws IOException {
+        final MockEnvironment environment = setupMockEnv("properties/gost28147.properties");
+        environment.getPropertySources().addFirst(new MapPropertySource("override", Map.of(
+                PROPERTY_PREFIX + "properties", "spring.datasource.*")));
+        final String preprocessedName = environment.getProperty(APPLICATION_NAME_PROPERTY);
+
+        processor.postProcessEnvironment(environment, new SpringApplication());
+
+        Assertions.assertThat(environment.getProperty(USERNAME_PROPERTY)).isEqualTo(DECRYPTED_USERNAME_PROPERTY_VALUE);
+        Assertions.assertThat(environment.getProperty(PASSWORD_PROPERTY)).isEqualTo(DECRYPTED_PASSWORD_PROPERTY_VALUE);
+        Assertions.assertThat(environment.getProperty(URL_PROPERTY)).isEqualTo(DECRYPTED_URL_PROPERTY_VALUE);
+        Assertions.assertThat(environment.getProperty(APPLICATION_NAME_PROPERTY)).isEqualTo(preprocessedName);
+    }
+
+    @Test
+    void test_postProcessEnvironment_decryptsPropertiesMatchingPatternsWithAttachedConfigurationPropertySource()
+            throws IOException {
+        final MockEnvironment environment = setupMockEnv("properties/gost28147.properties");
+        environment.getPropertySources().addFirst(new MapPropertySource("override", Map.of(
+                PROPERTY_PREFIX + "properties", "spring.datasource.*")));
+        ConfigurationPropertySources.attach(environment);
+
+        processor.postProcessEnvironment(environment, new SpringApplication());
+
+        Assertions.assertThat(environment.getProperty(USERNAME_PROPERTY)).isEqualTo(DECRYPTED_USERNAME_PROPERTY_VALUE);
+        Assertions.assertThat(environment.getProperty(PASSWORD_PROPERTY)).isEqualTo(DECRYPTED_PASSWORD_PROPERTY_VALUE);
+        Assertions.assertThat(environment.getProperty(URL_PROPERTY)).isEqualTo(DECRYPTED_URL_PROPERTY_VALUE);
+    }
+
+    @Test
+    void test_postProcessEnvironment_decryptsIndexedPropertiesMatchingPatterns() throws IOException {
+        final MockEnvironment environment = setupMockEnv("properties/gost28147.properties");
+        environment.getPropertySources().addFirst(new MapPropertySource("override", Map.of(
+                PROPERTY_PREFIX + "properties", "app.clients[*].secret," + PASSWORD_PROPERTY,
+                "app.clients[0].secret", "6FE8F6BB503A461B", "app.clients[1].secret", "6FE8F6BB503A461B")));
+
+        processor.postProcessEnvironment(environment, new SpringApplication());
+
+        Assertions.assertThat(environment.getProperty("app.clients[0].secret")).isEqualTo(DECRYPTED_USERNAME_PROPERTY_VALUE);
+        Assertions.assertThat(environment.getProperty("app.clients[1].secret")).isEqualTo(DECRYPTED_USERNAME_PROPERTY_VALUE);
+        Assertions.assertThat(environment.getProperty(PASSWORD_PROPERTY)).isEqualTo(DECRYPTED_PASSWORD_PROPERTY_VALUE);
+    }
+
+    @Test
+    void test_postProcessEnvironment_decryptsEveryProfileWithItsOwnConfiguration() throws IOException {
+        final MockEnvironment environment = setupMockEnv("properties/profiles.properties");
+
+        processor.postProcessEnvironment(environment, new SpringApplication());
+
+        Assertions.assertThat(environment.getProperty("db.password")).isEqualTo(DECRYPTED_PASSWORD_PROPERTY_VALUE);
+        Assertions.assertThat(environment.getProperty("db.url")).isEqualTo(DECRYPTED_URL_PROPERTY_VALUE);
+        Assertions.assertThat(environment.getProperty("partner.secret")).isEqualTo(DECRYPTED_PASSWORD_PROPERTY_VALUE);
+        Assertions.assertThat(environment.getProperty("legacy.password")).isEqualTo(DECRYPTED_PASSWORD_PROPERTY_VALUE);
+    }
+
+    @Test
+    void test_postProcessEnvironment_combinesProfilesIntoOnePropertySource() throws IOException {
+        final MockEnvironment environment = setupMockEnv("properties/profiles.properties");
+
+        processor.postProcessEnvironment(environment, new SpringApplication());
+
+        final PropertySource<?> decrypted = environment.getPropertySources()
+                .get(DecryptingPropertiesPostProcessor.DECRYPTED_PROPERTY_SOURCE_NAME);
+        Assertions.assertThat(decrypted).isInstanceOf(CompositePropertySource.class);
+        Assertions.assertThat(((CompositePropertySource) decrypted).getPropertySources())
+                .extracting(PropertySource::getName)
+                .containsExactly("decrypted_properties-db", "decrypted_properties-legacy",
+                        "decrypted_properties-partner");
+        Assertions.assertThat(((CompositePropertySource) decrypted).getPropertyNames())
+                .containsExactlyInAnyOrder("db.password", "db.url", "legacy.password", "partner.secret");
+    }
+
+    @Test
+    void test_postProcessEnvironment_decryptsDefaultConfigurationNextToProfiles() throws IOException {
+        final MockEnvironment environment = setupMockEnv("properties/profiles.properties");
+        final Properties gost = new Properties();
+        gost.load(new ClassPathResource("properties/gost28147.properties").getInputStream());
+        environment.getPropertySources().addLast(new PropertiesPropertySource("gost", gost));
+
+        processor.postProcessEnvironment(environment, new SpringApplication());
+
+        Assertions.assertThat(environment.getProperty(PASSWORD_PROPERTY)).isEqualTo(DECRYPTED_PASSWORD_PROPERTY_VALUE);
+        Assertions.assertThat(environment.getProperty(USERNAME_PROPERTY)).isEqualTo(DECRYPTED_USERNAME_PROPERTY_VALUE);
+        Assertions.assertThat(environment.getProperty("legacy.password")).isEqualTo(DECRYPTED_PASSWORD_PROPERTY_VALUE);
+    }
+
+    @Test
+    void test_postProcessEnvironment_skipsProfileThatCannotBeProcessed() throws IOException {
+        final MockEnvironment environment = setupMockEnv("properties/profiles.properties");
+        final String preprocessedValue = environment.getProperty("legacy.password");
+        environment.getPropertySources().addFirst(new MapPropertySource("override", Map.of(
+                PROPERTY_PREFIX + "profiles.legacy.transformation", "ILLEGAL")));
+
+        processor.postProcessEnvironment(environment, new SpringApplication());
+
+        Assertions.assertThat(environment.getProperty("legacy.password")).isEqualTo(preprocessedValue);
+        Assertions.assertThat(environment.getProperty("db.password")).isEqualTo(DECRYPTED_PASSWORD_PROPERTY_VALUE);
+    }
+
+    @Test
+    void test_postProcessEnvironment_decryptsPropertyClaimedByMultipleProfilesOnlyOnce() throws IOException {
+        final MockEnvironment environment = setupMockEnv("properties/profiles.properties");
+        environment.getPropertySources().addFirst(new MapPropertySource("override", Map.of(
+                PROPERTY_PREFIX + "profiles.legacy.properties", "legacy.password,db.password")));
+
+        processor.postProcessEnvironment(environment, new SpringApplication());
+
+        final CompositePropertySource decrypted = (CompositePropertySource) environment.getPropertySources()
+                .get(DecryptingPropertiesPostProcessor.DECRYPTED_PROPERTY_SOURCE_NAME);
+        Assertions.assertThat(environment.getProperty("db.password")).isEqualTo(DECRYPTED_PASSWORD_PROPERTY_VALUE);
+        Assertions.assertThat(decrypted.getPropertySources())
+                .filteredOn(source -> source.containsProperty("db.password"))
+                .extracting(PropertySource::getName)
+                .containsExactly("decrypted_properties-db");
+    }
+
+    @Test
+    void test_postProcessEnvironment_decryptsWithKeyMatchingKeyId() throws IOException {
+        final MockEnvironment environment = setupMockEnv("properties/aes-keyring.properties");
+
+        processor.postProcessEnvironment(environment, new SpringApplication());
+
+        Assertions.assertThat(environment.getProperty(PASSWORD_PROPERTY)).isEqualTo(DECRYPTED_PASSWORD_PROPERTY_VALUE);
+        Assertions.assertThat(environment.getProperty(USERNAME_PROPERTY)).isEqualTo(DECRYPTED_USERNAME_PROPERTY_VALUE);
+    }
+
+    @ParameterizedTest(name = "keeps values decrypted using {0} off the heap")
+    @ValueSource(strings = {"aes", "rsa", "wrapped", "dh-kem", "aes-keyring"})
+    void test_postProcessEnvironment_keepsDecryptedValuesOffHeapIfConfigured(String propertyFileName) throws IOException {
+        final MockEnvironment environment = setupMockEnv("properties/" + propertyFileName + ".properties");
+        environment.setProperty(PROPERTY_PREFIX + "off-heap", "true");
+        processor.postProcessEnvironment(environment, new SpringApplication());
+
+        final PropertySource<?> decrypted = environment.getPropertySources()
+                .get(DecryptingPropertiesPostProcessor.DECRYPTED_PROPERTY_SOURCE_NAME);
+        Assertions.assertThat(decrypted).isNotNull();
+        Assertions.assertThat(decrypted.getProperty(PASSWORD_PROPERTY)).isInstanceOf(Secret.class);
+        Assertions.assertThat(environment.getProperty(PASSWORD_PROPERTY)).isEqualTo(DECRYPTED_PASSWORD_PROPERTY_VALUE);
+    }
+
+    @Test
+    void test_postProcessEnvironment_keepsNonAsciiValuesOffHeap() throws IOException {
+        final MockEnvironment environment = setupMockEnv("properties/aes-128-gcm.properties");
+        environment.setProperty(PROPERTY_PREFIX + "off-heap", "true");
+        processor.postProcessEnvironment(environment, new SpringApplication());
+
+        Assertions.assertThat(environment.getProperty(PASSWORD_PROPERTY)).isEqualTo(UMLAUT_SENTENCE);
+    }
+
+    @Test
+    void test_postProcessEnvironment_recordsStartupStepsWithoutValues() throws IOException {
+        final MockEnvironment environment = setupMockEnv("properties/aes-cbc.properties");
+        environment.getPropertySources().addFirst(new MapPropertySource("override", Map.of(
+                PROPERTY_PREFIX + "cache", "false")));
+        final BufferingApplicationStartup applicationStartup = new BufferingApplicationStartup(100);
+        final SpringApplication application = new SpringApplication();
+        application.setApplicationStartup(applicationStartup);
+
+        processor.postProcessEnvironment(environment, application);
+
+        final List<StartupStep> steps = applicationStartup.getBufferedTimeline().getEvents().stream()
+                .map(StartupTimeline.TimelineEvent::getStartupStep)
+                .toList();
+        Assertions.assertThat(steps).extracting(StartupStep::getName).containsExactly(
+                "dhbw.cas.decryption.key-file", "dhbw.cas.decryption.configuration",
+                "dhbw.cas.decryption.key-resolution", "dhbw.cas.decryption.decryptor",
+                "dhbw.cas.decryption.decrypt", "dhbw.cas.decryption.post-process");
+        final Map<String, String> decryptTags = new HashMap<>();
+        steps.get(4).getTags().forEach(tag -> decryptTags.put(tag.getKey(), tag.getValue()));
+        Assertions.assertThat(decryptTags)
+                .containsEntry("transformation", "AES/CBC/PKCS5Padding")
+                .containsEntry("type", "SYMMETRIC")
+                .containsEntry("properties", "1")
+                .containsKey("duration." + PASSWORD_PROPERTY);
+        Assertions.assertThat(steps).allSatisfy(step -> step.getTags().forEach(tag ->
+                Assertions.assertThat(tag.getValue()).doesNotContain(DECRYPTED_PASSWORD_PROPERTY_VALUE)));
+    }
+}
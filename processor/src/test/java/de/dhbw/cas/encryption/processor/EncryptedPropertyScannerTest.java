@@ -0,0 +1,122 @@
+package de.dhbw.cas.encryption.processor;
+
+import de.dhbw.cas.encryption.util.PropertyNamePatterns;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySources;
+import org.springframework.core.env.EnumerablePropertySource;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.MutablePropertySources;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.util.List;
+import java.util.Map;
+
+class EncryptedPropertyScannerTest {
+    private final EncryptedPropertyScanner scanner = new EncryptedPropertyScanner("ENC(", ")", true,
+            PropertyNamePatterns.compile(List.of()), "ignored");
+
+    @ParameterizedTest(name = "{0} is marked")
+    @ValueSource(strings = {"ENC()", "ENC(AF)", "ENC(ENC(AF))"})
+    void test_isMarked_acceptsWrappedValues(String value) {
+        Assertions.assertThat(scanner.isMarked(value)).isTrue();
+    }
+
+    @ParameterizedTest(name = "{0} is not marked")
+    @ValueSource(strings = {"", "ENC(", "ENC)", "AF", "ENC(AF", "enc(AF)", " ENC(AF)", "ENC(AF) "})
+    void test_isMarked_rejectsOtherValues(String value) {
+        Assertions.assertThat(scanner.isMarked(value)).isFalse();
+    }
+
+    @Test
+    void test_unwrap_removesMarker() {
+        Assertions.assertThat(scanner.unwrap("ENC(AF)")).isEqualTo("AF");
+    }
+
+    @Test
+    void test_scan_collectsMarkedValuesInOrderOfPrecedence() {
+        final MutablePropertySources sources = new MutablePropertySources();
+        sources.addLast(new MapPropertySource("first", Map.of("a", "ENC(01)", "b", "02", "c", 3)));
+        sources.addLast(new MapPropertySource("second", Map.of("d", "ENC(04)")));
+
+        Assertions.assertThat(scanner.scan(sources)).containsExactly(Map.entry("a", "01"), Map.entry("d", "04"));
+    }
+
+    @Test
+    void test_scan_skipsShadowedValues() {
+        final MutablePropertySources sources = new MutablePropertySources();
+        sources.addLast(new MapPropertySource("first", Map.of("a", "plain")));
+        sources.addLast(new MapPropertySource("second", Map.of("a", "ENC(01)", "b", "ENC(02)")));
+
+        Assertions.assertThat(scanner.scan(sources)).containsExactly(Map.entry("b", "02"));
+    }
+
+    @Test
+    void test_scan_isNotShadowedByAttachedConfigurationPropertySource() {
+        final StandardEnvironment environment = new StandardEnvironment();
+        environment.getPropertySources().addLast(new MapPropertySource("first", Map.of("a", "ENC(01)")));
+        environment.getPropertySources().addLast(new MapPropertySource("second", Map.of("b", "ENC(02)")));
+        ConfigurationPropertySources.attach(environment);
+
+        Assertions.assertThat(scanner.scan(environment.getPropertySources()))
+                .containsExactly(Map.entry("a", "01"), Map.entry("b", "02"));
+    }
+
+    @Test
+    void test_scan_skipsIgnoredAndNonEnumerableSources() {
+        final MutablePropertySources sources = new MutablePropertySources();
+        sources.addLast(new MapPropertySource("ignored", Map.of("a", "ENC(01)")));
+        sources.addLast(new PropertySource<>("opaque", new Object()) {
+            @Override
+            public Object getProperty(String name) {
+                return "ENC(02)";
+            }
+        });
+
+        Assertions.assertThat(scanner.scan(sources)).isEmpty();
+    }
+
+    @Test
+    void test_scan_readsEnumerableSourcesThatAreNotMaps() {
+        final MutablePropertySources sources = new MutablePropertySources();
+        sources.addLast(new EnumerablePropertySource<>("enumerable", new Object()) {
+            @Override
+            public String[] getPropertyNames() {
+                return new String[]{"a", "b"};
+            }
+
+            @Override
+            public Object getProperty(String name) {
+                return name.equals("a") ? "ENC(01)" : "02";
+            }
+        });
+
+        Assertions.assertThat(scanner.scan(sources)).containsExactly(Map.entry("a", "01"));
+    }
+
+    @Test
+    void test_scan_collectsValuesWithMatchingNames() {
+        final EncryptedPropertyScanner patternScanner = new EncryptedPropertyScanner("ENC(", ")", false,
+                PropertyNamePatterns.compile(List.of("app.clients[*].secret")), "ignored");
+        final MutablePropertySources sources = new MutablePropertySources();
+        sources.addLast(new MapPropertySource("first", Map.of("app.clients[0].secret", "01",
+                "app.clients[1].secret", "ENC(02)", "app.clients[0].name", "03", "other", "ENC(04)")));
+
+        Assertions.assertThat(patternScanner.scan(sources)).containsOnly(Map.entry("app.clients[0].secret", "01"),
+                Map.entry("app.clients[1].secret", "02"));
+    }
+
+    @Test
+    void test_scan_findsNothingIfNotScanning() {
+        final EncryptedPropertyScanner idleScanner = new EncryptedPropertyScanner("ENC(", ")", false,
+                PropertyNamePatterns.compile(List.of()), "ignored");
+        final MutablePropertySources sources = new MutablePropertySources();
+        sources.addLast(new MapPropertySource("first", Map.of("a", "ENC(01)")));
+
+        Assertions.assertThat(idleScanner.isScanning()).isFalse();
+        Assertions.assertThat(idleScanner.scan(sources)).isEmpty();
+    }
+}
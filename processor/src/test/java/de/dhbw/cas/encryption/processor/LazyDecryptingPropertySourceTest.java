@@ -0,0 +1,145 @@
+package de.dhbw.cas.encryption.processor;
+
+
+import de.dhbw.cas.encryption.configuration.DecryptionConfiguration;
+import de.dhbw.cas.encryption.exception.DecryptionException;
+import de.dhbw.cas.encryption.runtime.DecryptionService;
+import org.apache.commons.logging.LogFactory;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.env.PropertiesPropertySource;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class LazyDecryptingPropertySourceTest {
+    private static final String PASSWORD_PROPERTY = "spring.datasource.password";
+    private static final String URL_PROPERTY = "spring.datasource.url";
+
+    private MockEnvironment environment;
+    private CountingDecryptionService decryptionService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        final Properties properties = new Properties();
+        properties.load(new ClassPathResource("properties/gost28147.properties").getInputStream());
+        environment = new MockEnvironment();
+        environment.getPropertySources().addFirst(new PropertiesPropertySource("mock", properties));
+        decryptionService = new CountingDecryptionService(DecryptionConfiguration.fromEnvironment(environment));
+    }
+
+    private LazyDecryptingPropertySource createSource(final String... properties) {
+        final Map<String, String> encryptedProperties = new LinkedHashMap<>();
+        for (String property : properties) {
+            encryptedProperties.put(property, environment.getRequiredProperty(property));
+        }
+        return new LazyDecryptingPropertySource("lazy", encryptedProperties, decryptionService,
+                LogFactory.getLog(getClass()));
+    }
+
+    @Test
+    void test_getProperty_decryptsOnlyOnFirstAccess() {
+        final LazyDecryptingPropertySource source = createSource(PASSWORD_PROPERTY, URL_PROPERTY);
+        Assertions.assertThat(source.isDecrypted(PASSWORD_PROPERTY)).isFalse();
+
+        Assertions.assertThat(source.getProperty(PASSWORD_PROPERTY)).isEqualTo("root");
+        Assertions.assertThat(source.getProperty(PASSWORD_PROPERTY)).isEqualTo("root");
+
+        Assertions.assertThat(source.isDecrypted(PASSWORD_PROPERTY)).isTrue();
+        Assertions.assertThat(source.isDecrypted(URL_PROPERTY)).isFalse();
+        Assertions.assertThat(decryptionService.decryptions.get()).isOne();
+    }
+
+    @Test
+    void test_getProperty_decryptsOnlyOnceWhenReadConcurrently() throws Exception {
+        final LazyDecryptingPropertySource source = createSource(URL_PROPERTY);
+
+        final List<Future<Object>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            for (int i = 0; i < 100; i++) {
+                results.add(executor.submit(() -> source.getProperty(URL_PROPERTY)));
+            }
+        }
+
+        for (Future<Object> result : results) {
+            Assertions.assertThat(result.get()).isEqualTo("jdbc:mariadb://localhost:3306/test");
+        }
+        Assertions.assertThat(decryptionService.decryptions.get()).isOne();
+    }
+
+    @Test
+    void test_getProperty_allowsDecryptionToReadOtherProperties() throws IOException {
+        final Map<String, String> encryptedProperties = new LinkedHashMap<>();
+        encryptedProperties.put(PASSWORD_PROPERTY, environment.getRequiredProperty(PASSWORD_PROPERTY));
+        encryptedProperties.put(URL_PROPERTY, environment.getRequiredProperty(URL_PROPERTY));
+        final LazyDecryptingPropertySource[] source = new LazyDecryptingPropertySource[1];
+        final DecryptionService readingService = new DecryptionService(
+                DecryptionConfiguration.fromEnvironment(environment)) {
+            @Override
+            public String decrypt(final String encryptedHex) throws DecryptionException {
+                if (encryptedHex.equals(encryptedProperties.get(PASSWORD_PROPERTY))) {
+                    Assertions.assertThat(source[0].getProperty(URL_PROPERTY))
+                            .isEqualTo("jdbc:mariadb://localhost:3306/test");
+                }
+                return super.decrypt(encryptedHex);
+            }
+        };
+        source[0] = new LazyDecryptingPropertySource("lazy", encryptedProperties, readingService,
+                LogFactory.getLog(getClass()));
+
+        Assertions.assertThat(source[0].getProperty(PASSWORD_PROPERTY)).isEqualTo("root");
+        Assertions.assertThat(source[0].isDecrypted(URL_PROPERTY)).isTrue();
+    }
+
+    @Test
+    void test_getProperty_returnsNullForUnknownProperty() {
+        final LazyDecryptingPropertySource source = createSource(PASSWORD_PROPERTY);
+
+        Assertions.assertThat(source.getProperty(URL_PROPERTY)).isNull();
+        Assertions.assertThat(source.containsProperty(URL_PROPERTY)).isFalse();
+        Assertions.assertThat(decryptionService.decryptions.get()).isZero();
+    }
+
+    @Test
+    void test_getProperty_returnsNullAndDoesNotRetryWhenDecryptionFails() {
+        final LazyDecryptingPropertySource source = new LazyDecryptingPropertySource("lazy",
+                Map.of(PASSWORD_PROPERTY, "ABCD"), decryptionService, LogFactory.getLog(getClass()));
+
+        Assertions.assertThat(source.getProperty(PASSWORD_PROPERTY)).isNull();
+        Assertions.assertThat(source.getProperty(PASSWORD_PROPERTY)).isNull();
+        Assertions.assertThat(decryptionService.decryptions.get()).isOne();
+    }
+
+    @Test
+    void test_getPropertyNames_returnsNamesInOrderWithoutDecrypting() {
+        final LazyDecryptingPropertySource source = createSource(URL_PROPERTY, PASSWORD_PROPERTY);
+
+        Assertions.assertThat(source.getPropertyNames()).containsExactly(URL_PROPERTY, PASSWORD_PROPERTY);
+        Assertions.assertThat(decryptionService.decryptions.get()).isZero();
+    }
+
+    private static final class CountingDecryptionService extends DecryptionService {
+        private final AtomicInteger decryptions = new AtomicInteger();
+
+        private CountingDecryptionService(final DecryptionConfiguration configuration) {
+            super(configuration);
+        }
+
+        @Override
+        public String decrypt(final String encryptedHex) throws DecryptionException {
+            decryptions.incrementAndGet();
+            return super.decrypt(encryptedHex);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package de.dhbw.cas.encryption.resource;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.event.ApplicationEnvironmentPreparedEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.io.Resource;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static de.dhbw.cas.encryption.configuration.DecryptionConfiguration.PROPERTY_PREFIX;
+
+class EncryptedProtocolResolverTest {
+    private static final String LOCATION = "encrypted:classpath:configdata/secrets-raw.properties.enc";
+
+    private final EncryptedProtocolResolver resolver = new EncryptedProtocolResolver();
+
+    @BeforeEach
+    @AfterEach
+    void releaseApplicationEnvironments() {
+        EncryptedProtocolResolver.releaseApplicationEnvironments();
+    }
+
+    private static MockEnvironment aesCbcEnvironment() {
+        return new MockEnvironment()
+                .withProperty(PROPERTY_PREFIX + "key", "aes-cbc-key.txt")
+                .withProperty(PROPERTY_PREFIX + "transformation", "AES/CBC/PKCS5Padding")
+                .withProperty(PROPERTY_PREFIX + "type", "symmetric")
+                .withProperty(PROPERTY_PREFIX + "iv", "7FD7F5B627A49A25CC6F12CAECACE8BA");
+    }
+
+    private static String read(final Resource resource) throws IOException {
+        try (InputStream stream = resource.getInputStream()) {
+            return new String(stream.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    @Test
+    void test_resolve_ignoresOtherLocations() {
+        Assertions.assertThat(resolver.resolve("classpath:configdata/secrets-raw.properties.enc",
+                new DefaultResourceLoader())).isNull();
+    }
+
+    @Test
+    void test_resolve_usesEnvironmentOfResourceLoader() throws IOException {
+        try (GenericApplicationContext context = new GenericApplicationContext()) {
+            context.setEnvironment(aesCbcEnvironment());
+
+            final Resource resource = resolver.resolve(LOCATION, context);
+
+            Assertions.assertThat(resource).isInstanceOf(EncryptedResource.class);
+            Assertions.assertThat(read(resource)).contains("app.secret=root");
+        }
+    }
+
+    @Test
+    void test_resolve_usesApplicationEnvironmentWithoutEnvironmentOfResourceLoader() throws IOException {
+        EncryptedProtocolResolver.useApplicationEnvironment(new SpringApplication(), aesCbcEnvironment());
+
+        final Resource resource = resolver.resolve(LOCATION, new DefaultResourceLoader());
+
+        Assertions.assertThat(resource).isNotNull();
+        Assertions.assertThat(read(resource)).contains("app.secret=root");
+    }
+
+    @Test
+    void test_resolve_ignoresApplicationEnvironmentsOfSeveralApplications() {
+        EncryptedProtocolResolver.useApplicationEnvironment(new SpringApplication(), aesCbcEnvironment());
+        EncryptedProtocolResolver.useApplicationEnvironment(new SpringApplication(), aesCbcEnvironment());
+
+        final Resource resource = resolver.resolve(LOCATION, new DefaultResourceLoader());
+
+        Assertions.assertThat(resource).isNotNull();
+        Assertions.assertThatThrownBy(resource::getInputStream).isInstanceOf(IOException.class);
+    }
+
+    @Test
+    void test_resolve_releasesApplicationEnvironmentWhenContextIsClosed() {
+        final SpringApplication application = new SpringApplication(EmptyConfiguration.class);
+        application.setWebApplicationType(WebApplicationType.NONE);
+        application.addListeners((ApplicationListener<ApplicationEnvironmentPreparedEvent>) event ->
+                EncryptedProtocolResolver.useApplicationEnvironment(event.getSpringApplication(),
+                        event.getEnvironment()));
+        application.run("--dhbw.cas.decryption.key=aes-cbc-key.txt",
+                "--dhbw.cas.decryption.transformation=AES/CBC/PKCS5Padding",
+                "--dhbw.cas.decryption.type=symmetric",
+                "--dhbw.cas.decryption.iv=7FD7F5B627A49A25CC6F12CAECACE8BA").close();
+
+        final Resource resource = resolver.resolve(LOCATION, new DefaultResourceLoader());
+
+        Assertions.assertThat(resource).isNotNull();
+        Assertions.assertThatThrownBy(resource::getInputStream).isInstanceOf(IOException.class);
+    }
+
+    @Test
+    void test_resolve_isRegisteredWithApplicationContext() throws IOException {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(EmptyConfiguration.class)
+                .web(WebApplicationType.NONE)
+                .run("--dhbw.cas.decryption.key=aes-cbc-key.txt",
+                        "--dhbw.cas.decryption.transformation=AES/CBC/PKCS5Padding",
+                        "--dhbw.cas.decryption.type=symmetric",
+                        "--dhbw.cas.decryption.iv=7FD7F5B627A49A25CC6F12CAECACE8BA")) {
+            Assertions.assertThat(read(context.getResource(LOCATION))).contains("app.secret=root");
+        }
+    }
+
+    @Configuration
+    static class EmptyConfiguration {
+    }
+}
@@ -0,0 +1,114 @@
+package de.dhbw.cas.encryption.resource;
+
+import de.dhbw.cas.encryption.util.HexConverter;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.mock.env.MockEnvironment;
+
+import javax.crypto.Cipher;
+import javax.crypto.CipherOutputStream;
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.IvParameterSpec;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Random;
+
+import static de.dhbw.cas.encryption.configuration.DecryptionConfiguration.PROPERTY_PREFIX;
+
+class EncryptedResourceTest {
+
+    private static MockEnvironment aesCbcEnvironment() {
+        return new MockEnvironment()
+                .withProperty(PROPERTY_PREFIX + "key", "aes-cbc-key.txt")
+                .withProperty(PROPERTY_PREFIX + "transformation", "AES/CBC/PKCS5Padding")
+                .withProperty(PROPERTY_PREFIX + "type", "symmetric")
+                .withProperty(PROPERTY_PREFIX + "iv", "7FD7F5B627A49A25CC6F12CAECACE8BA");
+    }
+
+    @Test
+    void test_getInputStream_decryptsContent() throws IOException {
+        final EncryptedResource resource = new EncryptedResource(
+                new ClassPathResource("configdata/secrets-raw.properties.enc"), aesCbcEnvironment());
+
+        try (InputStream stream = resource.getInputStream()) {
+            Assertions.assertThat(new String(stream.readAllBytes(), StandardCharsets.UTF_8))
+                    .contains("app.secret=root");
+        }
+    }
+
+    @Test
+    void test_getInputStream_streamsLargeContent(@TempDir final Path directory)
+            throws GeneralSecurityException, IOException {
+        final SecretKey key = KeyGenerator.getInstance("AES").generateKey();
+        final byte[] iv = new byte[16];
+        new SecureRandom().nextBytes(iv);
+        final Path keyFile = Files.writeString(directory.resolve("key.txt"),
+                HexConverter.convertToHexString(key.getEncoded()));
+        final Cipher aes = Cipher.getInstance("AES/CBC/PKCS5Padding");
+        aes.init(Cipher.ENCRYPT_MODE, key, new IvParameterSpec(iv));
+        final MessageDigest expected = MessageDigest.getInstance("SHA-256");
+        final Path encrypted = directory.resolve("large.bin.enc");
+        final byte[] chunk = new byte[64 * 1024];
+        final Random random = new Random(42);
+        try (OutputStream stream = new CipherOutputStream(Files.newOutputStream(encrypted), aes)) {
+            for (int i = 0; i < 128; i++) {
+                random.nextBytes(chunk);
+                expected.update(chunk);
+                stream.write(chunk);
+            }
+        }
+        final MockEnvironment environment = new MockEnvironment()
+                .withProperty(PROPERTY_PREFIX + "key", keyFile.toString())
+                .withProperty(PROPERTY_PREFIX + "transformation", "AES/CBC/PKCS5Padding")
+                .withProperty(PROPERTY_PREFIX + "type", "symmetric")
+                .withProperty(PROPERTY_PREFIX + "iv", HexConverter.convertToHexString(iv));
+        final EncryptedResource resource = new EncryptedResource(new FileSystemResource(encrypted), environment);
+
+        final MessageDigest actual = MessageDigest.getInstance("SHA-256");
+        try (InputStream stream = new DigestInputStream(resource.getInputStream(), actual)) {
+            Assertions.assertThat(stream.transferTo(OutputStream.nullOutputStream())).isEqualTo(128L * chunk.length);
+        }
+        Assertions.assertThat(actual.digest()).isEqualTo(expected.digest());
+    }
+
+    @Test
+    void test_getInputStream_failsWhenDecryptionIsDisabled() {
+        final EncryptedResource resource = new EncryptedResource(
+                new ClassPathResource("configdata/secrets-raw.properties.enc"),
+                aesCbcEnvironment().withProperty(PROPERTY_PREFIX + "enabled", "false"));
+
+        Assertions.assertThatThrownBy(resource::getInputStream).isInstanceOf(IOException.class);
+    }
+
+    @Test
+    void test_getFilename_removesEncryptedExtension() {
+        final EncryptedResource resource = new EncryptedResource(
+                new ClassPathResource("configdata/secrets-raw.properties.enc"), aesCbcEnvironment());
+
+        Assertions.assertThat(resource.getFilename()).isEqualTo("secrets-raw.properties");
+        Assertions.assertThat(resource.exists()).isTrue();
+    }
+
+    @Test
+    void test_getFile_doesNotExposeEncryptedFile(@TempDir final Path directory) throws IOException {
+        final Path encrypted = Files.write(directory.resolve("keystore.p12.enc"), new byte[16]);
+        final EncryptedResource resource = new EncryptedResource(new FileSystemResource(encrypted),
+                aesCbcEnvironment());
+
+        Assertions.assertThat(resource.isFile()).isFalse();
+        Assertions.assertThatThrownBy(resource::getFile).isInstanceOf(FileNotFoundException.class);
+    }
+}
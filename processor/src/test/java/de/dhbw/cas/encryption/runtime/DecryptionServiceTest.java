@@ -0,0 +1,125 @@
+package de.dhbw.cas.encryption.runtime;
+
+
+import de.dhbw.cas.encryption.configuration.DecryptionConfiguration;
+import de.dhbw.cas.encryption.exception.DecryptionException;
+import org.assertj.core.api.Assertions;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.core.env.PropertiesPropertySource;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.io.IOException;
+import java.security.Security;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+class DecryptionServiceTest {
+    private static final String PASSWORD_PROPERTY = "spring.datasource.password";
+    private static final String DECRYPTED_PASSWORD_PROPERTY_VALUE = "root";
+
+    @BeforeAll
+    static void registerBouncyCastle() {
+        Security.addProvider(new BouncyCastleProvider());
+    }
+
+    private MockEnvironment setupMockEnv(String propertyFileName) throws IOException {
+        final Properties properties = new Properties();
+        properties.load(new ClassPathResource("properties/" + propertyFileName + ".properties").getInputStream());
+        final MockEnvironment environment = new MockEnvironment();
+        environment.getPropertySources().addFirst(new PropertiesPropertySource("mock", properties));
+        return environment;
+    }
+
+    @ParameterizedTest(name = "can decrypt using {0}")
+    @ValueSource(strings = {"aes", "chacha", "rsa", "ecies", "wrapped", "dh-kem"})
+    void test_decrypt_decryptsLikeTheProcessor(String propertyFileName) throws IOException, DecryptionException {
+        final MockEnvironment environment = setupMockEnv(propertyFileName);
+        final DecryptionService service = new DecryptionService(DecryptionConfiguration.fromEnvironment(environment));
+
+        final String decrypted = service.decrypt(environment.getRequiredProperty(PASSWORD_PROPERTY));
+
+        Assertions.assertThat(decrypted).isEqualTo(DECRYPTED_PASSWORD_PROPERTY_VALUE);
+    }
+
+    @Test
+    void test_decrypt_canBeUsedByManyThreadsConcurrently() throws Exception {
+        final MockEnvironment environment = setupMockEnv("gost28147");
+        final DecryptionService service = new DecryptionService(DecryptionConfiguration.fromEnvironment(environment), 2);
+        final String encryptedUrl = environment.getRequiredProperty("spring.datasource.url");
+        final String encryptedPassword = environment.getRequiredProperty(PASSWORD_PROPERTY);
+
+        final List<Future<String>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 1000; i++) {
+                final String encrypted = i % 2 == 0 ? encryptedUrl : encryptedPassword;
+                results.add(executor.submit(() -> service.decrypt(encrypted)));
+            }
+        }
+
+        for (int i = 0; i < results.size(); i++) {
+            Assertions.assertThat(results.get(i).get())
+                    .isEqualTo(i % 2 == 0 ? "jdbc:mariadb://localhost:3306/test" : DECRYPTED_PASSWORD_PROPERTY_VALUE);
+        }
+    }
+
+    @Test
+    void test_decrypt_failsForWronglyEncryptedValue() throws IOException {
+        final MockEnvironment environment = setupMockEnv("aes");
+        final DecryptionService service = new DecryptionService(DecryptionConfiguration.fromEnvironment(environment));
+
+        Assertions.assertThatThrownBy(() -> service.decrypt("ABCD")).isInstanceOf(DecryptionException.class);
+    }
+
+    @Test
+    void test_decrypt_reportsDecryptionsToObserverOfDecryptor() throws IOException {
+        final MockEnvironment environment = setupMockEnv("aes");
+        final List<String> observed = new ArrayList<>();
+        final DecryptionService service = new DecryptionService(DecryptionConfiguration.fromEnvironment(environment), 1,
+                (configuration, decryptor) -> {
+                    observed.add("created");
+                    return new DecryptionObserver.Recorder() {
+                        @Override
+                        public void decrypted(final long nanos) {
+                            observed.add("decrypted");
+                        }
+
+                        @Override
+                        public void failed(final long nanos, final DecryptionException exception) {
+                            observed.add("failed");
+                        }
+                    };
+                });
+
+        Assertions.assertThatCode(() -> service.decrypt(environment.getRequiredProperty(PASSWORD_PROPERTY)))
+                .doesNotThrowAnyException();
+        Assertions.assertThatThrownBy(() -> service.decrypt("ABCD")).isInstanceOf(DecryptionException.class);
+
+        Assertions.assertThat(observed).containsExactly("created", "decrypted", "failed");
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 3, 4, 5})
+    void test_constructor_roundsStripesUpToPowerOfTwo(int stripes) throws IOException {
+        final DecryptionConfiguration configuration = DecryptionConfiguration.fromEnvironment(setupMockEnv("aes"));
+        final DecryptionService service = new DecryptionService(configuration, stripes);
+
+        Assertions.assertThat(Integer.bitCount(service.stripes())).isOne();
+        Assertions.assertThat(service.stripes()).isBetween(stripes, 2 * stripes);
+    }
+
+    @Test
+    void test_constructor_failsForNonPositiveStripes() throws IOException {
+        final DecryptionConfiguration configuration = DecryptionConfiguration.fromEnvironment(setupMockEnv("aes"));
+        Assertions.assertThatThrownBy(() -> new DecryptionService(configuration, 0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
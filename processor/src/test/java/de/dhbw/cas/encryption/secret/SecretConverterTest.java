@@ -0,0 +1,70 @@
+package de.dhbw.cas.encryption.secret;
+
+import de.dhbw.cas.encryption.exception.DecryptionException;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+import org.springframework.core.convert.support.DefaultConversionService;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+class SecretConverterTest {
+
+    private Binder binder() throws DecryptionException {
+        final SecretStore store = new SecretStore(4, StandardCharsets.UTF_8);
+        final Secret secret = store.store(4, slot -> slot.put("root".getBytes(StandardCharsets.UTF_8)));
+        final DefaultConversionService conversionService = new DefaultConversionService();
+        conversionService.addConverter(new SecretConverter());
+        return new Binder(List.of(new MapConfigurationPropertySource(Map.of("secret.password", secret))),
+                null, conversionService);
+    }
+
+    @Test
+    void test_convert_bindsToCharArray() throws DecryptionException {
+        Assertions.assertThat(binder().bind("secret.password", char[].class).get()).containsExactly('r', 'o', 'o', 't');
+    }
+
+    @Test
+    void test_convert_bindsToByteArray() throws DecryptionException {
+        Assertions.assertThat(binder().bind("secret.password", byte[].class).get())
+                .containsExactly("root".getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void test_convert_bindsToSecretKeyWithAnnotatedAlgorithm() throws DecryptionException {
+        final SecretKey key = binder().bind("secret.password", Bindable.of(SecretKey.class)
+                .withAnnotations(Holder.annotation())).get();
+
+        Assertions.assertThat(key.getAlgorithm()).isEqualTo("HmacSHA256");
+        Assertions.assertThat(key.getEncoded()).containsExactly("root".getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void test_convert_failsForSecretKeyWithoutAlgorithm() {
+        Assertions.assertThatThrownBy(() -> binder().bind("secret.password", SecretKey.class))
+                .hasRootCauseInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void test_convert_keepsBindingToString() throws DecryptionException {
+        Assertions.assertThat(binder().bind("secret.password", String.class).get()).isEqualTo("root");
+    }
+
+    private static final class Holder {
+        @SecretKeyAlgorithm("HmacSHA256")
+        private SecretKey key;
+
+        private static SecretKeyAlgorithm annotation() {
+            try {
+                return Holder.class.getDeclaredField("key").getAnnotation(SecretKeyAlgorithm.class);
+            } catch (NoSuchFieldException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package de.dhbw.cas.encryption.secret;
+
+import de.dhbw.cas.encryption.exception.DecryptionException;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+class SecretStoreTest {
+
+    @Test
+    void test_store_keepsOnlyWrittenBytes() throws DecryptionException {
+        final SecretStore store = new SecretStore(16, StandardCharsets.UTF_8);
+
+        final Secret first = store.store(8, slot -> slot.put("root".getBytes(StandardCharsets.UTF_8)));
+        final Secret second = store.store(8, slot -> slot.put("admin".getBytes(StandardCharsets.UTF_8)));
+
+        Assertions.assertThat(first.length()).isEqualTo(4);
+        Assertions.assertThat(first.toString()).isEqualTo("root");
+        Assertions.assertThat(second.toString()).isEqualTo("admin");
+    }
+
+    @Test
+    void test_store_wipesSlotWhenWriterFails() throws DecryptionException {
+        final SecretStore store = new SecretStore(8, StandardCharsets.UTF_8);
+
+        Assertions.assertThatThrownBy(() -> store.store(8, slot -> {
+            slot.put("geheim".getBytes(StandardCharsets.UTF_8));
+            throw new DecryptionException(new IllegalStateException("failed"));
+        })).isInstanceOf(DecryptionException.class);
+
+        final Secret secret = store.store(8, slot -> slot.position(6));
+        Assertions.assertThat(secret.toByteArray()).containsOnly(0);
+    }
+
+    @Test
+    void test_store_failsWithoutRoomForSlot() throws DecryptionException {
+        final SecretStore store = new SecretStore(8, StandardCharsets.UTF_8);
+        store.store(4, slot -> slot.put(new byte[4]));
+
+        Assertions.assertThatThrownBy(() -> store.store(5, ByteBuffer::clear))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void test_destroy_wipesAllSecrets() throws DecryptionException {
+        final SecretStore store = new SecretStore(8, StandardCharsets.UTF_8);
+        final Secret secret = store.store(8, slot -> slot.put("root".getBytes(StandardCharsets.UTF_8)));
+
+        store.destroy();
+
+        Assertions.assertThat(store.isDestroyed()).isTrue();
+        Assertions.assertThatThrownBy(secret::toCharArray).isInstanceOf(IllegalStateException.class);
+        Assertions.assertThatThrownBy(() -> store.store(1, ByteBuffer::clear))
+                .isInstanceOf(IllegalStateException.class);
+    }
+}
@@ -0,0 +1,56 @@
+package de.dhbw.cas.encryption.secret;
+
+import de.dhbw.cas.encryption.exception.DecryptionException;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+
+class SecretTest {
+
+    private static Secret secret(final byte[] value) throws DecryptionException {
+        return new SecretStore(value.length, StandardCharsets.UTF_8).store(value.length, slot -> slot.put(value));
+    }
+
+    @Test
+    void test_toCharArray_decodesWithCharsetOfStore() throws DecryptionException {
+        final Secret secret = secret("Bärenhöhle".getBytes(StandardCharsets.UTF_8));
+
+        Assertions.assertThat(secret.toCharArray()).containsExactly("Bärenhöhle".toCharArray());
+    }
+
+    @Test
+    void test_toByteArray_returnsCopy() throws DecryptionException {
+        final Secret secret = secret(new byte[]{1, 2, 3});
+
+        final byte[] bytes = secret.toByteArray();
+        bytes[0] = 0;
+
+        Assertions.assertThat(secret.toByteArray()).containsExactly(1, 2, 3);
+    }
+
+    @Test
+    void test_toSecretKey_usesAlgorithm() throws DecryptionException {
+        final Secret secret = secret(new byte[]{1, 2, 3, 4});
+
+        final SecretKey key = secret.toSecretKey("HmacSHA256");
+
+        Assertions.assertThat(key.getAlgorithm()).isEqualTo("HmacSHA256");
+        Assertions.assertThat(key.getEncoded()).containsExactly(1, 2, 3, 4);
+    }
+
+    @Test
+    void test_destroy_wipesOnlyThisSecret() throws DecryptionException {
+        final SecretStore store = new SecretStore(8, StandardCharsets.UTF_8);
+        final Secret first = store.store(4, slot -> slot.put(new byte[]{1, 2, 3, 4}));
+        final Secret second = store.store(4, slot -> slot.put(new byte[]{5, 6, 7, 8}));
+
+        first.destroy();
+
+        Assertions.assertThat(first.isDestroyed()).isTrue();
+        Assertions.assertThatThrownBy(first::toByteArray).isInstanceOf(IllegalStateException.class);
+        Assertions.assertThat(store.read(0, 4).get()).isZero();
+        Assertions.assertThat(second.toByteArray()).containsExactly(5, 6, 7, 8);
+    }
+}
@@ -9,7 +9,10 @@ import org.junit.jupiter.params.provider.ValueSource;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.Random;
 import java.util.stream.Stream;
 
@@ -66,6 +69,25 @@ class HexConverterTest {
     void test_loadBytesFromHexString_throwsOnInvalidCharacters(String invalidHexString) {
         Assertions.assertThatThrownBy(() -> HexConverter.loadBytesFromHexString(invalidHexString))
                 .isInstanceOf(IllegalArgumentException.class);
+        Assertions.assertThatThrownBy(() -> HexConverter.loadBytesFromHexString(invalidHexString,
+                ByteBuffer.allocate(invalidHexString.length()))).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @ParameterizedTest
+    @MethodSource("byteDataAndExpectedHexString")
+    void test_loadBytesFromHexString_writesIntoBufferAtPosition(byte[] expected, String hexString) {
+        final ByteBuffer buffer = ByteBuffer.allocate(expected.length + 2).put((byte) 1);
+
+        HexConverter.loadBytesFromHexString(hexString, buffer);
+
+        Assertions.assertThat(buffer.position()).isEqualTo(expected.length + 1);
+        Assertions.assertThat(Arrays.copyOfRange(buffer.array(), 1, expected.length + 1)).isEqualTo(expected);
+    }
+
+    @Test
+    void test_loadBytesFromHexString_throwsIfBufferIsTooSmall() {
+        Assertions.assertThatThrownBy(() -> HexConverter.loadBytesFromHexString("0A0B", ByteBuffer.allocate(1)))
+                .isInstanceOf(BufferOverflowException.class);
     }
 
     @ParameterizedTest
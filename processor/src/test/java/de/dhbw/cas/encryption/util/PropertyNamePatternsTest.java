@@ -0,0 +1,101 @@
+package de.dhbw.cas.encryption.util;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+class PropertyNamePatternsTest {
+
+    static Stream<Arguments> patternsAndMatchingNames() {
+        return Stream.of(
+                Arguments.of("spring.datasource.*.password", "spring.datasource.primary.password"),
+                Arguments.of("app.clients[*].secret", "app.clients[0].secret"),
+                Arguments.of("app.clients[*].secret", "app.clients[12].secret"),
+                Arguments.of("app.clients[*].secret", "app.clients[partner.a].secret"),
+                Arguments.of("app.**.secret", "app.a.secret"),
+                Arguments.of("app.**.secret", "app.a[0].b.secret"),
+                Arguments.of("app.*-secret", "app.client-secret"),
+                Arguments.of("*.password", "db.password"),
+                Arguments.of("**", "anything.at[all]"),
+                Arguments.of("exact.name", "exact.name")
+        );
+    }
+
+    static Stream<Arguments> patternsAndOtherNames() {
+        return Stream.of(
+                Arguments.of("spring.datasource.*.password", "spring.datasource.a.b.password"),
+                Arguments.of("spring.datasource.*.password", "spring.datasource..password"),
+                Arguments.of("app.clients[*].secret", "app.clients[].secret"),
+                Arguments.of("app.**.secret", "app..secret"),
+                Arguments.of("**", ""),
+                Arguments.of("spring.datasource.*.password", "spring.datasource.primary.username"),
+                Arguments.of("spring.datasource.*.password", "spring.datasource.primary.password.old"),
+                Arguments.of("app.clients[*].secret", "app.clients.secret"),
+                Arguments.of("app.clients[*].secret", "app.clients[0].name"),
+                Arguments.of("app.**.secret", "app.secret"),
+                Arguments.of("app.*-secret", "app.a.client-secret"),
+                Arguments.of("exact.name", "exact.names")
+        );
+    }
+
+    @ParameterizedTest(name = "{0} matches {1}")
+    @MethodSource("patternsAndMatchingNames")
+    void test_matches_acceptsMatchingNames(String pattern, String name) {
+        Assertions.assertThat(PropertyNamePatterns.compile(List.of(pattern)).matches(name)).isTrue();
+    }
+
+    @ParameterizedTest(name = "{0} does not match {1}")
+    @MethodSource("patternsAndOtherNames")
+    void test_matches_rejectsOtherNames(String pattern, String name) {
+        Assertions.assertThat(PropertyNamePatterns.compile(List.of(pattern)).matches(name)).isFalse();
+    }
+
+    @Test
+    void test_matches_acceptsNamesMatchingAnyOfMultiplePatterns() {
+        final PropertyNamePatterns patterns = PropertyNamePatterns.compile(List.of("spring.datasource.*.password",
+                "spring.datasource.*.username", "spring.data.*.password", "app.clients[*].secret"));
+
+        Assertions.assertThat(patterns.matches("spring.datasource.a.password")).isTrue();
+        Assertions.assertThat(patterns.matches("spring.datasource.a.username")).isTrue();
+        Assertions.assertThat(patterns.matches("spring.data.mongodb.password")).isTrue();
+        Assertions.assertThat(patterns.matches("app.clients[3].secret")).isTrue();
+        Assertions.assertThat(patterns.matches("spring.datasource.a.url")).isFalse();
+        Assertions.assertThat(patterns.matches("JAVA_HOME")).isFalse();
+    }
+
+    @Test
+    void test_matches_handlesManyActiveWildcards() {
+        final PropertyNamePatterns patterns = PropertyNamePatterns.compile(List.of("**a**b**c**d", "*.*.*.*.*"));
+
+        Assertions.assertThat(patterns.matches("xaxbxcxd")).isTrue();
+        Assertions.assertThat(patterns.matches("a.b.c.d.e")).isTrue();
+        Assertions.assertThat(patterns.matches("xaxbxcx")).isFalse();
+    }
+
+    @Test
+    void test_matches_rejectsEverythingWithoutPatterns() {
+        final PropertyNamePatterns patterns = PropertyNamePatterns.compile(List.of());
+
+        Assertions.assertThat(patterns.isEmpty()).isTrue();
+        Assertions.assertThat(patterns.matches("")).isFalse();
+        Assertions.assertThat(patterns.matches("a")).isFalse();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"*", "a.*", "a[*]", "a.**"})
+    void test_isPattern_detectsWildcards(String name) {
+        Assertions.assertThat(PropertyNamePatterns.isPattern(name)).isTrue();
+    }
+
+    @Test
+    void test_isPattern_rejectsPlainNames() {
+        Assertions.assertThat(PropertyNamePatterns.isPattern("spring.datasource.password")).isFalse();
+        Assertions.assertThat(PropertyNamePatterns.isPattern("app.clients[0].secret")).isFalse();
+    }
+}